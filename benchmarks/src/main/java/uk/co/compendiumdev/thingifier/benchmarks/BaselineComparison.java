@@ -0,0 +1,141 @@
+package uk.co.compendiumdev.thingifier.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.TreeMap;
+
+/*
+    Compare JMH json results against a saved baseline.
+
+        BaselineComparison results.json baseline.json [regressionPercent]
+
+    Each benchmark and parameter combination is matched by name and the change
+    in score is reported. Exits with 1 if any benchmark regressed by more
+    than the regression percentage (default 10), so a build can fail on it.
+
+    If the baseline does not exist then the results are saved as the baseline.
+ */
+public class BaselineComparison {
+
+    public static void main(String[] args) throws IOException {
+
+        if(args.length<2){
+            System.out.println("Usage: BaselineComparison results.json baseline.json [regressionPercent]");
+            System.exit(2);
+        }
+
+        final Path results = Paths.get(args[0]);
+        final Path baseline = Paths.get(args[1]);
+        final double regressionPercent = args.length>2 ? Double.parseDouble(args[2]) : 10;
+
+        if(!Files.exists(results)){
+            System.out.println("No benchmark results found at " + results);
+            System.exit(2);
+        }
+
+        if(!Files.exists(baseline)){
+            if(baseline.getParent()!=null){
+                Files.createDirectories(baseline.getParent());
+            }
+            Files.copy(results, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("No baseline found, saved results as baseline " + baseline);
+            return;
+        }
+
+        final int regressions = compare(readScores(results), readScores(baseline), regressionPercent);
+
+        if(regressions>0){
+            System.out.println(String.format("%d benchmarks regressed by more than %.1f%%", regressions, regressionPercent));
+            System.exit(1);
+        }
+    }
+
+    static int compare(final Map<String, Score> current, final Map<String, Score> baseline,
+                       final double regressionPercent){
+
+        int regressions = 0;
+
+        System.out.println(String.format("%-100s %14s %14s %9s", "benchmark", "baseline", "current", "change"));
+
+        for(Map.Entry<String, Score> entry : current.entrySet()){
+
+            final Score now = entry.getValue();
+            final Score was = baseline.get(entry.getKey());
+
+            if(was==null){
+                System.out.println(String.format("%-100s %14s %14.3f %9s", entry.getKey(), "-", now.score, "new"));
+                continue;
+            }
+
+            // a positive change is always worse, throughput is higher is better, times are lower is better
+            double change = ((now.score - was.score) / was.score) * 100;
+            if(now.higherIsBetter){
+                change = -change;
+            }
+
+            final boolean regressed = change > regressionPercent;
+            if(regressed){
+                regressions++;
+            }
+
+            System.out.println(String.format("%-100s %14.3f %14.3f %+8.1f%%%s",
+                    entry.getKey(), was.score, now.score, change, regressed ? " REGRESSED" : ""));
+        }
+
+        return regressions;
+    }
+
+    static Map<String, Score> readScores(final Path jmhJson) throws IOException {
+
+        final Map<String, Score> scores = new TreeMap<>();
+
+        try(Reader reader = Files.newBufferedReader(jmhJson, StandardCharsets.UTF_8)) {
+
+            final JsonArray runs = JsonParser.parseReader(reader).getAsJsonArray();
+
+            for (JsonElement element : runs) {
+                final JsonObject run = element.getAsJsonObject();
+
+                StringBuilder key = new StringBuilder(run.get("benchmark").getAsString());
+                if (run.has("params")) {
+                    // params are sorted so the key is the same regardless of output order
+                    final Map<String, String> params = new TreeMap<>();
+                    for (Map.Entry<String, JsonElement> param : run.getAsJsonObject("params").entrySet()) {
+                        params.put(param.getKey(), param.getValue().getAsString());
+                    }
+                    for (Map.Entry<String, String> param : params.entrySet()) {
+                        key.append(" ").append(param.getKey()).append("=").append(param.getValue());
+                    }
+                }
+
+                final String mode = run.get("mode").getAsString();
+                final double score = run.getAsJsonObject("primaryMetric").get("score").getAsDouble();
+
+                scores.put(key.toString(), new Score(score, mode.equals("thrpt")));
+            }
+        }
+
+        return scores;
+    }
+
+    static class Score {
+        final double score;
+        final boolean higherIsBetter;
+
+        Score(final double score, final boolean higherIsBetter){
+            this.score = score;
+            this.higherIsBetter = higherIsBetter;
+        }
+    }
+}
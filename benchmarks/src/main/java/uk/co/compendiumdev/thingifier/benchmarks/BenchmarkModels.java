@@ -0,0 +1,91 @@
+package uk.co.compendiumdev.thingifier.benchmarks;
+
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.application.examples.TodoManagerThingifier;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+/*
+    Models and data for the benchmarks.
+
+    The todo manager is the production model, populated with a given number of
+    todos and projects where each project has fanOut todos as tasks.
+
+    The wide entity is a synthetic model to measure the impact of the number
+    of fields on an instance.
+ */
+public final class BenchmarkModels {
+
+    // a new database, rather than the default, so ids start from 1 and only the benchmark data is present
+    public static final String DATABASE = "benchmarks";
+
+    private BenchmarkModels(){}
+
+    public static Thingifier todoManager(final int numberOfTodos, final int fanOut){
+
+        final Thingifier todoManager = new TodoManagerThingifier().get();
+
+        todoManager.getERmodel().createInstanceDatabaseIfNotExisting(DATABASE);
+
+        final EntityInstanceCollection todos = todoManager.getThingInstancesNamed("todo", DATABASE);
+        final EntityInstanceCollection projects = todoManager.getThingInstancesNamed("project", DATABASE);
+        final EntityInstanceCollection categories = todoManager.getThingInstancesNamed("category", DATABASE);
+
+        final EntityInstance office = categories.createManagedInstance().setValue("title", "Office");
+        final EntityInstance home = categories.createManagedInstance().setValue("title", "Home");
+
+        EntityInstance project = null;
+        for(int count=0; count<numberOfTodos; count++){
+
+            if(count % Math.max(1, fanOut) == 0){
+                project = projects.createManagedInstance().
+                        setValue("title", "project " + count).
+                        setValue("description", "a project with " + fanOut + " tasks");
+                project.getRelationships().connect("categories", count%2==0 ? office : home);
+            }
+
+            final EntityInstance todo = todos.createManagedInstance().
+                    setValue("title", "todo " + count).
+                    setValue("doneStatus", String.valueOf(count%3==0)).
+                    setValue("description", "description of todo number " + count);
+
+            project.getRelationships().connect("tasks", todo);
+        }
+
+        return todoManager;
+    }
+
+    public static EntityInstanceCollection wideEntity(final int numberOfInstances, final int fieldCount){
+
+        final EntityRelModel erm = new EntityRelModel();
+        final EntityDefinition wide = erm.createEntityDefinition("wide", "wides");
+        wide.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        for(int field=0; field<fieldCount; field++){
+            wide.addFields(Field.is(fieldName(field), FieldType.STRING));
+        }
+
+        final EntityInstanceCollection instances = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                                                        getInstanceCollectionForEntityNamed("wide");
+
+        for(int count=0; count<numberOfInstances; count++){
+            populateWide(instances.createManagedInstance(), count, fieldCount);
+        }
+
+        return instances;
+    }
+
+    public static EntityInstance populateWide(final EntityInstance instance, final int count, final int fieldCount){
+        for(int field=0; field<fieldCount; field++){
+            instance.setValue(fieldName(field), "value " + field + " of " + count);
+        }
+        return instance;
+    }
+
+    public static String fieldName(final int field){
+        return "field" + field;
+    }
+}
@@ -0,0 +1,60 @@
+package uk.co.compendiumdev.thingifier.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.BodyParser;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.reporting.ValidationReport;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BodyParserBenchmark {
+
+    @Param({"json", "xml"})
+    public String contentType;
+
+    // size of the description field in characters
+    @Param({"10", "1000"})
+    public int payloadSize;
+
+    private HttpApiRequest request;
+    private List<String> thingNames;
+    private EntityDefinition todoDefn;
+
+    @Setup(Level.Trial)
+    public void createRequest(){
+        final Thingifier todoManager = BenchmarkModels.todoManager(1, 1);
+        thingNames = todoManager.getThingNames();
+        todoDefn = todoManager.getDefinitionNamed("todo");
+
+        final String description = "d".repeat(payloadSize);
+
+        request = new HttpApiRequest("/todos");
+        if(contentType.equals("xml")){
+            request.setHeaders(Map.of("content-type", "application/xml"));
+            request.setBody("<todo><title>a todo</title><doneStatus>true</doneStatus><description>" +
+                                description + "</description></todo>");
+        }else{
+            request.setHeaders(Map.of("content-type", "application/json"));
+            request.setBody("{\"title\":\"a todo\",\"doneStatus\":true,\"description\":\"" + description + "\"}");
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> parseToStringMap(){
+        return new BodyParser(request, thingNames).getStringMap();
+    }
+
+    @Benchmark
+    public ValidationReport parseAndValidate(){
+        final BodyParser parser = new BodyParser(request, thingNames);
+        parser.parseMap();
+        return parser.validateAgainstType(todoDefn);
+    }
+}
@@ -0,0 +1,53 @@
+package uk.co.compendiumdev.thingifier.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class EntityInstanceCollectionBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int collectionSize;
+
+    @Param({"5", "20"})
+    public int fieldCount;
+
+    private EntityInstanceCollection instances;
+    private String middlePrimaryKey;
+    private String lastFieldName;
+    private String lastFieldValue;
+
+    @Setup(Level.Trial)
+    public void createInstances(){
+        instances = BenchmarkModels.wideEntity(collectionSize, fieldCount);
+
+        final int middle = collectionSize/2;
+        middlePrimaryKey = String.valueOf(middle + 1);
+        lastFieldName = BenchmarkModels.fieldName(fieldCount-1);
+        lastFieldValue = instances.findInstanceByPrimaryKey(middlePrimaryKey).
+                                getFieldValue(lastFieldName).asString();
+    }
+
+    @Benchmark
+    public EntityInstance findByPrimaryKey(){
+        return instances.findInstanceByPrimaryKey(middlePrimaryKey);
+    }
+
+    @Benchmark
+    public EntityInstance findByFieldValue(){
+        return instances.findInstanceByFieldNameAndValue(lastFieldName, lastFieldValue);
+    }
+
+    @Benchmark
+    public int createAndDeleteInstance(){
+        final EntityInstance created = BenchmarkModels.populateWide(
+                                            instances.createManagedInstance(), collectionSize, fieldCount);
+        instances.deleteInstance(created);
+        return instances.countInstances();
+    }
+}
@@ -0,0 +1,49 @@
+package uk.co.compendiumdev.thingifier.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.EntityListFilterParamParser;
+import uk.co.compendiumdev.thingifier.core.query.fromurl.UrlParamParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class EntityListFilterParamParserBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int collectionSize;
+
+    @Param({"doneStatus=true", "id>=5&id<100", "title=todo 5&doneStatus=false&id>2"})
+    public String filter;
+
+    private List<EntityInstance> todos;
+    private EntityListFilterParamParser parser;
+
+    @Setup(Level.Trial)
+    public void createTodos(){
+        todos = new ArrayList<>(
+                BenchmarkModels.todoManager(collectionSize, 10).
+                    getThingInstancesNamed("todo", BenchmarkModels.DATABASE).getInstances());
+        parser = new EntityListFilterParamParser(new UrlParamParser().parse(filter));
+    }
+
+    @Benchmark
+    public int matchAll(){
+        int matched = 0;
+        for(EntityInstance todo : todos){
+            if(parser.matches(todo)){
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public EntityListFilterParamParser parseFilter(){
+        return new EntityListFilterParamParser(new UrlParamParser().parse(filter));
+    }
+}
@@ -0,0 +1,62 @@
+package uk.co.compendiumdev.thingifier.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+import uk.co.compendiumdev.thingifier.core.query.SimpleQuery;
+import uk.co.compendiumdev.thingifier.core.query.fromurl.UrlParamParser;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class SimpleQueryBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int collectionSize;
+
+    @Param({"1", "10", "50"})
+    public int fanOut;
+
+    private ERSchema schema;
+    private ERInstanceData database;
+    private String todoUrl;
+    private String projectTasksUrl;
+    private QueryFilterParams filterParams;
+
+    @Setup(Level.Trial)
+    public void createTodos(){
+        final Thingifier todoManager = BenchmarkModels.todoManager(collectionSize, fanOut);
+        schema = todoManager.getERmodel().getSchema();
+        database = todoManager.getERmodel().getInstanceData(BenchmarkModels.DATABASE);
+
+        todoUrl = "todos/" + (collectionSize/2 + 1);
+        projectTasksUrl = "projects/" + (database.getInstanceCollectionForEntityNamed("project").countInstances()/2 + 1) + "/tasks";
+        filterParams = new UrlParamParser().parse("doneStatus=true&sortBy=-id");
+    }
+
+    @Benchmark
+    public List<EntityInstance> allTodos(){
+        return new SimpleQuery(schema, database, "todos").performQuery().getListEntityInstances();
+    }
+
+    @Benchmark
+    public List<EntityInstance> todoById(){
+        return new SimpleQuery(schema, database, todoUrl).performQuery().getListEntityInstances();
+    }
+
+    @Benchmark
+    public List<EntityInstance> projectTasks(){
+        return new SimpleQuery(schema, database, projectTasksUrl).performQuery().getListEntityInstances();
+    }
+
+    @Benchmark
+    public List<EntityInstance> filteredAndSortedTodos(){
+        return new SimpleQuery(schema, database, "todos").performQuery(filterParams).getListEntityInstances();
+    }
+}
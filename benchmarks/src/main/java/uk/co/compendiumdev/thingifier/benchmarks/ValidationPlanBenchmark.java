@@ -0,0 +1,85 @@
+package uk.co.compendiumdev.thingifier.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.DefinedFields;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.validation.VRule;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceFields;
+import uk.co.compendiumdev.thingifier.core.reporting.ValidationReport;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Validating fields through Field.validate for each field (interpreted),
+    against the ValidationPlan used when the fields are frozen (compiled).
+
+    Run with -prof gc to compare the allocation on the valid path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ValidationPlanBenchmark {
+
+    @Param({"interpreted", "compiled"})
+    public String validation;
+
+    private InstanceFields validFields;
+    private InstanceFields invalidFields;
+
+    @Setup(Level.Trial)
+    public void createFields(){
+        final DefinedFields definition = definition();
+        if(validation.equals("compiled")){
+            definition.freeze();
+        }
+
+        validFields = new InstanceFields(definition).
+                setValue("title", "a valid title").
+                setValue("code", "AB-1234").
+                setValue("quantity", "12").
+                setValue("price", "9.99").
+                setValue("done", "true").
+                setValue("status", "open").
+                setValue("person.name", "Bob");
+
+        invalidFields = new InstanceFields(definition).
+                setValue("title", "a valid title").
+                setValue("code", "AB-1234").
+                setValue("quantity", "12").
+                setValue("price", "9.99").
+                setValue("done", "true").
+                setValue("status", "open").
+                setValue("person.name", "Bob");
+        // ids and invalid values are added directly, bypassing the validation on set
+        validFields.addValue(definition.getField("id").valueFor("1"));
+        invalidFields.addValue(definition.getField("id").valueFor("1"));
+        invalidFields.addValue(definition.getField("quantity").valueFor("1000"));
+    }
+
+    private static DefinedFields definition(){
+        return new DefinedFields().addFields(
+                Field.is("id", FieldType.AUTO_INCREMENT),
+                Field.is("title", FieldType.STRING).makeMandatory().
+                        withValidation(VRule.notEmpty(), VRule.maximumLength(50)),
+                Field.is("code", FieldType.STRING).
+                        withValidation(VRule.matchesRegex("[A-Z]{2}-[0-9]{4}")),
+                Field.is("quantity", FieldType.INTEGER).withMinimumValue(0).withMaximumValue(100),
+                Field.is("price", FieldType.FLOAT).withMaximumValue(1000f),
+                Field.is("done", FieldType.BOOLEAN),
+                Field.is("status", FieldType.ENUM).withExample("open").withExample("closed"),
+                Field.is("person", FieldType.OBJECT).
+                        withField(Field.is("name", FieldType.STRING).withValidation(VRule.notEmpty())));
+    }
+
+    @Benchmark
+    public ValidationReport validFields(){
+        return validFields.validateFields(List.of(), true);
+    }
+
+    @Benchmark
+    public ValidationReport invalidFields(){
+        return invalidFields.validateFields(List.of(), true);
+    }
+}
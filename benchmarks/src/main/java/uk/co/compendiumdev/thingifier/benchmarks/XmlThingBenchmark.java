@@ -0,0 +1,48 @@
+package uk.co.compendiumdev.thingifier.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.XmlThing;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class XmlThingBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int collectionSize;
+
+    @Param({"1", "10", "50"})
+    public int fanOut;
+
+    private XmlThing xmlThing;
+    private List<EntityInstance> todos;
+    private EntityDefinition todoDefn;
+    private EntityInstance project;
+
+    @Setup(Level.Trial)
+    public void createTodos(){
+        final Thingifier todoManager = BenchmarkModels.todoManager(collectionSize, fanOut);
+        xmlThing = new XmlThing(new JsonThing(todoManager.apiConfig().jsonOutput()));
+        todos = new ArrayList<>(todoManager.getThingInstancesNamed("todo", BenchmarkModels.DATABASE).getInstances());
+        todoDefn = todoManager.getDefinitionNamed("todo");
+        project = todoManager.getThingInstancesNamed("project", BenchmarkModels.DATABASE).findInstanceByPrimaryKey("1");
+    }
+
+    @Benchmark
+    public String todosCollection(){
+        return xmlThing.getCollectionOfThings(todos, todoDefn);
+    }
+
+    @Benchmark
+    public String projectWithRelationships(){
+        return xmlThing.getSingleObjectXml(project);
+    }
+}
@@ -7,6 +7,7 @@ import uk.co.compendiumdev.challenge.challengers.Challengers;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.application.MainImplementation;
 import uk.co.compendiumdev.thingifier.application.httprouting.ThingifierHttpApiRoutings;
+import uk.co.compendiumdev.thingifier.application.startup.StartupTimer;
 
 public class ChallengeMain {
 
@@ -19,7 +20,9 @@ public class ChallengeMain {
         logger.info("Starting Challenger");
 
         MainImplementation app = new MainImplementation();
-        Thingifier thingifier = new ChallengeApiModel().get();
+        final StartupTimer startupTimer = app.getStartupTimer();
+        Thingifier thingifier = startupTimer.time("define challenge api model",
+                () -> new ChallengeApiModel().get());
         app.registerModel("challengeapi", thingifier);
 
         // add any additional thingifier configurations here if more needed than model has defined
@@ -43,6 +46,11 @@ public class ChallengeMain {
                 config.setToCloudPersistenceMode();
             }
 
+            if (arg.toLowerCase().startsWith("-embeddedstorage")) {
+                logger.info("Setting persistence mechanism to embedded single file store");
+                config.setToEmbeddedPersistenceMode();
+            }
+
             if(arg.toLowerCase().startsWith("-guikeepalive")){
                 logger.info("Setting GUI to keep session alive through XHR");
                 config.setGuiToKeepSessionAlive();
@@ -60,6 +68,20 @@ public class ChallengeMain {
                 config.enableAdminApi();
             }
 
+            if(arg.toLowerCase().startsWith("-spillidlefolder=")){
+                // memory map idle databases to files in the folder rather than direct memory
+                final String folder = arg.substring("-spillidlefolder=".length());
+                logger.info("Spilling idle databases to files in {}", folder);
+                config.spillIdleDatabasesToFolder(folder);
+            }
+
+            if(arg.toLowerCase().startsWith("-spillidle=")){
+                // move databases which have not been used for N minutes off the heap
+                final int minutes = Integer.parseInt(arg.substring("-spillidle=".length()));
+                logger.info("Spilling databases idle for {} minutes off heap", minutes);
+                config.spillIdleDatabasesAfterMinutes(minutes);
+            }
+
             if(arg.toLowerCase().startsWith("-unlimitedtodos")){
                 // remove the limit on number of todos
                 logger.info("Enabling Unlimited TODO Instances");
@@ -71,7 +93,14 @@ public class ChallengeMain {
         thingifier.apiConfig().setSupportsMultipleDatabases(true);
 
         // setup routes required for challenges
-        challenger = new ChallengeRouteHandler(thingifier, app.getApiDefn(), config);
+        challenger = startupTimer.time("define challenges and load challengers",
+                () -> new ChallengeRouteHandler(thingifier, app.getApiDefn(), config));
+        // the heartbeat reports not ready until the warm up is complete
+        challenger.setReadiness(app::isReady);
+        // the storage is closed for a checkpoint and reopened on restore when run with -crac
+        app.getCheckpointRestore().register("challenger storage",
+                config.persistenceLayer::closeForCheckpoint,
+                config.persistenceLayer::reopenAfterRestore);
 
 
         app.chooseThingifier();
@@ -92,12 +121,16 @@ public class ChallengeMain {
             """
         );
 
-        challenger.setupGui(app.getGuiManagement());
-        challenger.configureRoutes();
+        startupTimer.time("configure challenger gui and routes", () -> {
+            challenger.setupGui(app.getGuiManagement());
+            challenger.configureRoutes();
+        });
 
         if(challenger.isSinglePlayerMode()){
             logger.info("Running in Single User Mode");
-            challenger.getThingifier().ensureCreatedAndPopulatedInstanceDatabaseNamed(Challengers.SINGLE_PLAYER_GUID);
+            startupTimer.time("populate single player database", () -> {
+                challenger.getThingifier().ensureCreatedAndPopulatedInstanceDatabaseNamed(Challengers.SINGLE_PLAYER_GUID);
+            });
         }
 
         final ThingifierHttpApiRoutings restServer = app.startRestServer();
@@ -106,6 +139,9 @@ public class ChallengeMain {
 
         challenger.addHooks(restServer);
 
+        challenger.addWarmUpTasks(app.getStartupWarmUp());
+        app.warmUpAndReportReady();
+
     }
 
     public static ChallengeRouteHandler getChallenger(){
@@ -1,5 +1,6 @@
 package uk.co.compendiumdev.challenge;
 
+import com.google.gson.Gson;
 import uk.co.compendiumdev.challenge.challengehooks.*;
 import uk.co.compendiumdev.challenge.challengers.Challengers;
 import uk.co.compendiumdev.challenge.challenges.ChallengeDefinitions;
@@ -11,9 +12,15 @@ import uk.co.compendiumdev.challenge.practicemodes.simpleapi.SimpleApiRoutes;
 import uk.co.compendiumdev.challenge.practicemodes.simulation.SimulationRoutes;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.api.docgen.ThingifierApiDocumentationDefn;
+import uk.co.compendiumdev.thingifier.application.startup.StartupWarmUp;
+import uk.co.compendiumdev.thingifier.core.OffHeapDatabaseStore;
 import uk.co.compendiumdev.thingifier.application.httprouting.ThingifierHttpApiRoutings;
 import uk.co.compendiumdev.thingifier.htmlgui.htmlgen.DefaultGUIHTML;
 
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
 
 public class ChallengeRouteHandler {
     private final Thingifier thingifier;
@@ -28,6 +35,9 @@ public class ChallengeRouteHandler {
     PersistenceLayer persistenceLayer;
     private boolean guiStayAlive=false; // when set gui makes a call every 5 mins to keep session alive,
     private DefaultGUIHTML guiTemplates;
+    private ChallengerWebGUI webGui;
+    // the heartbeat reports ready when this is true
+    private BooleanSupplier isReady = () -> true;
     // not needed when storing data
 
     public ChallengeRouteHandler(Thingifier thingifier, ThingifierApiDocumentationDefn apiDefn, ChallengerConfig config){
@@ -55,6 +65,14 @@ public class ChallengeRouteHandler {
             challengers.setMultiPlayerMode();
         }
 
+        if(!single_player_mode && config.spillIdleDatabasesAfterMinutes>0){
+            final OffHeapDatabaseStore idleStore = config.spillIdleDatabasesFolder==null
+                    ? OffHeapDatabaseStore.direct()
+                    : OffHeapDatabaseStore.mappedFiles(Paths.get(config.spillIdleDatabasesFolder));
+            challengers.spillIdleDatabases(idleStore,
+                    TimeUnit.MINUTES.toMillis(config.spillIdleDatabasesAfterMinutes));
+        }
+
         if(single_player_mode) {
             // auto load any single player challenger details in single player mode
             persistenceLayer.tryToLoadChallenger(challengers, challengers.SINGLE_PLAYER_GUID);
@@ -79,7 +97,7 @@ public class ChallengeRouteHandler {
 
         new ChallengerTrackingRoutes().configure(challengers, single_player_mode, apiChallengesDocumentationDefn, persistenceLayer, thingifier, challengeDefinitions);
         new ChallengesRoutes().configure(challengers, single_player_mode, apiChallengesDocumentationDefn, challengeDefinitions);
-        new HeartBeatRoutes().configure(apiChallengesDocumentationDefn);
+        new HeartBeatRoutes().configure(apiChallengesDocumentationDefn, isReady);
         new AuthRoutes().configure(challengers, apiChallengesDocumentationDefn);
 
         // Mirror routes should not show up in the apichallenges apiDefn
@@ -108,10 +126,31 @@ public class ChallengeRouteHandler {
 
     public void setupGui(DefaultGUIHTML guiManagement) {
         this.guiTemplates = guiManagement;
-        new ChallengerWebGUI(guiManagement, guiStayAlive).setup(challengers, challengeDefinitions,
+        webGui = new ChallengerWebGUI(guiManagement, guiStayAlive);
+        webGui.setup(challengers, challengeDefinitions,
                                                 persistenceLayer, single_player_mode);
     }
 
+    /* set before configureRoutes */
+    public void setReadiness(final BooleanSupplier isReady){
+        this.isReady = isReady;
+    }
+
+    /* work which would otherwise happen on the first challenger requests */
+    public void addWarmUpTasks(final StartupWarmUp warmUp){
+
+        if(webGui!=null){
+            warmUp.addTask("challenger content pages", webGui::warmUp);
+        }
+
+        // the challenger status is sent and persisted as json
+        warmUp.addTask("challenger status json", () -> {
+            final Gson gson = new Gson();
+            final ChallengerAuthData status = new ChallengerAuthData(challengeDefinitions.getDefinedChallenges());
+            gson.fromJson(gson.toJson(status), ChallengerAuthData.class);
+        });
+    }
+
     public Challengers getChallengers(){
         return challengers;
     }
@@ -123,5 +162,6 @@ public class ChallengeRouteHandler {
     private void enableAdminApi() {
         thingifier.apiConfig().adminConfig().enableAdminSearch();
         thingifier.apiConfig().adminConfig().enableAdminDataClear();
+        thingifier.apiConfig().adminConfig().enableAdminDataTransfer();
     }
 }
@@ -8,6 +8,10 @@ public class ChallengerConfig {
     public boolean isAdminApiEnabled = false;
     public boolean guiStayAlive=false;
     public PersistenceLayer persistenceLayer = new PersistenceLayer(PersistenceLayer.StorageType.LOCAL);
+    // 0 keeps idle databases on the heap
+    public int spillIdleDatabasesAfterMinutes = 0;
+    // when null idle databases are held in direct memory, otherwise memory mapped files in the folder
+    public String spillIdleDatabasesFolder = null;
 
     public void setToMultiPlayerMode() {
         single_player_mode=false;
@@ -17,6 +21,10 @@ public class ChallengerConfig {
         persistenceLayer = new PersistenceLayer(PersistenceLayer.StorageType.CLOUD);
     }
 
+    public void setToEmbeddedPersistenceMode() {
+        persistenceLayer = new PersistenceLayer(PersistenceLayer.StorageType.EMBEDDED);
+    }
+
     public void setGuiToKeepSessionAlive() {
         guiStayAlive=true;
     }
@@ -28,4 +36,12 @@ public class ChallengerConfig {
     public void enableAdminApi() {
         isAdminApiEnabled=true;
     }
+
+    public void spillIdleDatabasesAfterMinutes(int minutes) {
+        spillIdleDatabasesAfterMinutes = minutes;
+    }
+
+    public void spillIdleDatabasesToFolder(String folder) {
+        spillIdleDatabasesFolder = folder;
+    }
 }
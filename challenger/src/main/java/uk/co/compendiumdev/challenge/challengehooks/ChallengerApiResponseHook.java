@@ -11,6 +11,7 @@ import uk.co.compendiumdev.thingifier.api.http.headers.headerparser.ContentTypeH
 import uk.co.compendiumdev.thingifier.api.http.headers.headerparser.AcceptHeaderParser;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
+import uk.co.compendiumdev.thingifier.api.restapihandlers.RestApiGetHandler;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
 import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiResponseHook;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
@@ -44,18 +45,20 @@ public class ChallengerApiResponseHook implements HttpApiResponseHook {
         // READ
         if(request.getVerb() == HttpApiRequest.VERB.GET &&
                 request.getPath().matches("todos/.*") &&
+                !isAggregateOfTodos(request) &&
                 response.getStatusCode()==200){
             challengers.pass(challenger, CHALLENGE.GET_TODO);
         }
 
         if(request.getVerb() == HttpApiRequest.VERB.GET &&
                 request.getPath().matches("todos/.*") &&
+                !isAggregateOfTodos(request) &&
                 response.getStatusCode()==404){
             challengers.pass(challenger,CHALLENGE.GET_TODO_404);
         }
 
-        final AcceptHeaderParser acceptParser = new AcceptHeaderParser(request.getHeader("accept"));
-        final ContentTypeHeaderParser contentTypeParser = new ContentTypeHeaderParser(request.getHeader("content-type"));
+        final AcceptHeaderParser acceptParser = request.getHeaders().acceptHeader();
+        final ContentTypeHeaderParser contentTypeParser = request.getHeaders().contentTypeHeader();
 
         if(request.getVerb() == HttpApiRequest.VERB.GET &&
                 request.getPath().contentEquals("todos") &&
@@ -294,6 +297,11 @@ public class ChallengerApiResponseHook implements HttpApiResponseHook {
         return null;
     }
 
+    /* todos/_aggregate summarises the todos, it is not a request for a todo */
+    private boolean isAggregateOfTodos(final HttpApiRequest request){
+        return request.getPath().contentEquals("todos" + RestApiGetHandler.AGGREGATE_URL_SUFFIX);
+    }
+
     String collate(Collection<String> strings){
         StringBuilder collated = new StringBuilder();
         for(String string : strings){
@@ -9,6 +9,7 @@ import uk.co.compendiumdev.challenge.persistence.PersistenceLayer;
 import uk.co.compendiumdev.challenge.persistence.PersistenceResponse;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
 import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.OffHeapDatabaseStore;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -26,6 +27,8 @@ public class Challengers {
     PersistenceLayer persistenceLayer;
     private ThingifierApiConfig apiConfig;
     private final Collection<CHALLENGE> definedChallenges;
+    // 0 keeps idle challenger databases on the heap
+    private long spillIdleDatabasesAfterMillis;
 
     public Challengers(EntityRelModel erModel, Collection<CHALLENGE> definedChallenges){
         authData = new ConcurrentHashMap<>();
@@ -53,6 +56,18 @@ public class Challengers {
         return singlePlayerMode;
     }
 
+    /*
+        databases not used for idleMillis are moved to the store when old
+        auth data is purged, and restored when the challenger is next used
+     */
+    public void spillIdleDatabases(final OffHeapDatabaseStore store, final long idleMillis){
+        if(erModel==null){
+            return;
+        }
+        erModel.setIdleDatabaseStore(store);
+        spillIdleDatabasesAfterMillis = idleMillis;
+    }
+
     public boolean inMemory(final String challengerGuid){
         if(challengerGuid == null || challengerGuid.trim().isEmpty()) {
             return false;
@@ -97,6 +112,11 @@ public class Challengers {
             }
         }
 
+        if(challenger!=null && erModel!=null){
+            // the challenger is active again, bring the database back before it is used
+            erModel.restoreIdleDatabase(challenger.getXChallenger());
+        }
+
         return challenger;
     }
 
@@ -132,7 +152,18 @@ public class Challengers {
         }
         logger.info("CURRENT Challenger count: {}",authData.values().size());
         if(erModel!=null){
+            if(spillIdleDatabasesAfterMillis>0){
+                final int spilled = erModel.spillIdleDatabases(spillIdleDatabasesAfterMillis);
+                if(spilled>0){
+                    logger.info("SPILLED {} idle databases", spilled);
+                }
+            }
             logger.info("CURRENT database count: {}",erModel.getDatabaseNames().size());
+            if(erModel.getIdleDatabaseStore()!=null){
+                logger.info("CURRENT idle database count: {} using {} bytes",
+                        erModel.getIdleDatabaseStore().countDatabases(),
+                        erModel.getIdleDatabaseStore().countBytes());
+            }
         }
     }
 
@@ -5,11 +5,17 @@ import uk.co.compendiumdev.thingifier.api.docgen.RoutingVerb;
 import uk.co.compendiumdev.thingifier.application.AdhocDocumentedSparkRouteConfigurer;
 import uk.co.compendiumdev.thingifier.spark.SimpleSparkRouteCreator;
 import java.util.List;
+import java.util.function.BooleanSupplier;
 
 
 public class HeartBeatRoutes {
 
     public void configure(final ThingifierApiDocumentationDefn apiDefn) {
+        configure(apiDefn, () -> true);
+    }
+
+    /* GET and HEAD report 503 until the server is ready e.g. has warmed up */
+    public void configure(final ThingifierApiDocumentationDefn apiDefn, final BooleanSupplier isReady) {
 
         String endpoint ="/heartbeat";
 
@@ -18,11 +24,13 @@ public class HeartBeatRoutes {
 
         sparkRouteConfig.add(endpoint,
                             RoutingVerb.GET, 204,
-                "Is the server running? YES 204");
+                "Is the server running? YES 204, 503 while starting up",
+                (request, result) -> readyStatus(result, isReady));
 
         sparkRouteConfig.add(endpoint,
                 RoutingVerb.HEAD, 204,
-                "Headers for heartbeat endpoint");
+                "Headers for heartbeat endpoint",
+                (request, result) -> readyStatus(result, isReady));
 
         sparkRouteConfig.add(endpoint,
                 RoutingVerb.OPTIONS, 204,
@@ -41,4 +49,14 @@ public class HeartBeatRoutes {
         simpleSparkRouteCreator.status(501, List.of("trace"));
 
     }
+
+    private String readyStatus(final spark.Response result, final BooleanSupplier isReady){
+        if(isReady.getAsBoolean()){
+            result.status(204);
+        }else{
+            result.status(503);
+            result.header("Retry-After", "1");
+        }
+        return "";
+    }
 }
@@ -23,6 +23,8 @@ public class ChallengerWebGUI {
     Logger logger = LoggerFactory.getLogger(ChallengerWebGUI.class);
     private final DefaultGUIHTML guiManagement;
     private final boolean guiStayAlive;
+    // created when the content routes are setup
+    private MarkdownContentManager contentManager;
 
     public ChallengerWebGUI(final DefaultGUIHTML defaultGui, final boolean guiStayAlive) {
         this.guiManagement = defaultGui;
@@ -30,6 +32,13 @@ public class ChallengerWebGUI {
         this.pageNotFoundHtmlResponse = new PageNotFoundResponse(guiManagement);
     }
 
+    /* render the content pages which would otherwise be rendered on the first visits */
+    public void warmUp(){
+        if(contentManager!=null){
+            contentManager.warmUp();
+        }
+    }
+
     String getChallengesPageHtmlHeader(){
         return guiManagement.getPageStart(
                 "API Challenges - Improve your API Skills",
@@ -179,7 +188,7 @@ public class ChallengerWebGUI {
         contentScanner.addPathsToAvailableContent(pathsToFileContent);
 
         // add an endpoint for each markdown content file
-        MarkdownContentManager contentManager = new MarkdownContentManager(pathsToFileContent, guiManagement);
+        contentManager = new MarkdownContentManager(pathsToFileContent, guiManagement);
         for(String pathToMarkdownFile : pathsToFileContent){
             String endPointForMarkdownFile = pathToMarkdownFile.replaceFirst("content/","/").replace(".md","");
             get(endPointForMarkdownFile, ((request, response) -> {
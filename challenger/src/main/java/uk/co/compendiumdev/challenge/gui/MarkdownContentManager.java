@@ -23,12 +23,25 @@ public class MarkdownContentManager {
     Logger logger = LoggerFactory.getLogger(MarkdownContentManager.class);
     private final Set<String> markdownContentPaths;
     private String sideMenuText;
+    // the parser and renderer are thread safe, built once rather than for every page
+    private final Parser parser;
+    private final HtmlRenderer renderer;
 
     public MarkdownContentManager(final List<String> pathsToFileContent, final DefaultGUIHTML defaultGui) {
         markdownContentPaths = new HashSet<>();
         markdownContentPaths.addAll(pathsToFileContent);
         this.guiManagement = defaultGui;
         sideMenuText="";
+
+        List<Extension> extensions = List.of(TablesExtension.create());
+        parser = Parser.builder().extensions(extensions).build();
+        renderer = HtmlRenderer.builder().extensions(extensions).build();
+    }
+
+    /* render the landing page, and side menu, so the first visitor does not wait for it */
+    public void warmUp(){
+        getHtmlVersionOfMarkdownContent("site", "/index", new HashMap<>());
+        dropDownMenuAsMarkdown();
     }
 
 
@@ -98,10 +111,6 @@ public class MarkdownContentManager {
         String youtubeHeaderInject = "";
 
 
-        List<Extension> extensions = List.of(TablesExtension.create());
-        // parse this html and output
-        Parser parser = Parser.builder().extensions(extensions).build();
-
         BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
         String line="";
 
@@ -174,8 +183,6 @@ public class MarkdownContentManager {
         String markdownFromResource = mdcontent.toString();
         Node document = parser.parse(markdownFromResource);
 
-        HtmlRenderer renderer = HtmlRenderer.builder().extensions(extensions).build();
-
 
         String pageTitle = "Content Page";
         String pageDescription = "";
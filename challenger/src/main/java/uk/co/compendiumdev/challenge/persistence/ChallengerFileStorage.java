@@ -5,9 +5,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import uk.co.compendiumdev.challenge.ChallengerAuthData;
 import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceDataSnapshot;
 
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 
 public class ChallengerFileStorage implements ChallengerPersistenceMechanism, DatabaseContentPersistenceMechanism {
 
@@ -76,17 +82,69 @@ public class ChallengerFileStorage implements ChallengerPersistenceMechanism, Da
         File folder = new File(System.getProperty("User.dir"), "challengersessions");
         folder.mkdirs();
 
-        File file = new File(folder , getDatabaseFileNameFor(guid));
+        if(todos==null){
+            // no database, an empty json file and no snapshot
+            new File(folder, getDatabaseSnapshotFileNameFor(guid)).delete();
+            return saveDatabaseJson(new File(folder , getDatabaseFileNameFor(guid)), "");
+        }
+
+        File file = new File(folder , getDatabaseSnapshotFileNameFor(guid));
 
         if(!file.exists()){
             logger.warn("Creating new challenger database file: {}", file.getAbsolutePath());
         }
 
-        try(FileOutputStream out = new FileOutputStream(file)) {
-            String dataString = "";
-            if(todos!=null){
-                dataString=todos.asJson();
+        // written to a temporary file then moved into place, so a failed write
+        // never leaves a partial snapshot in place of the last good one
+        Path temporary = null;
+        try {
+            temporary = Files.createTempFile(folder.toPath(), guid, ".snapshot.tmp");
+            try(FileChannel out = FileChannel.open(temporary,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ERInstanceDataSnapshot.writeTo(todos, out);
             }
+            moveIntoPlace(temporary, file.toPath());
+            deleteJsonContents(new File(folder, getDatabaseFileNameFor(guid)));
+            return new PersistenceResponse().
+                    withSuccess(true);
+        } catch (IOException e) {
+            logger.error("Error writing to file: {}", file.getAbsolutePath(), e);
+            deleteQuietly(temporary);
+            return new PersistenceResponse().
+                    withSuccess(false).
+                    withErrorMessage(e.getMessage());
+        }
+    }
+
+    private void moveIntoPlace(final Path temporary, final Path target) throws IOException {
+        try{
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }catch(AtomicMoveNotSupportedException e){
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /* json contents saved before snapshots were used are out of date once a snapshot is saved */
+    private void deleteJsonContents(final File file){
+        if(file.exists()){
+            logger.info("Replaced database contents file with snapshot: {}", file.getAbsolutePath());
+            deleteQuietly(file.toPath());
+        }
+    }
+
+    private void deleteQuietly(final Path temporary){
+        if(temporary==null){
+            return;
+        }
+        try{
+            Files.deleteIfExists(temporary);
+        }catch(IOException e){
+            logger.warn("Could not delete temporary file: {}", temporary, e);
+        }
+    }
+
+    private PersistenceResponse saveDatabaseJson(File file, String dataString) {
+        try(FileOutputStream out = new FileOutputStream(file)) {
             out.write(dataString.getBytes());
             return new PersistenceResponse().
                     withSuccess(true);
@@ -102,10 +160,22 @@ public class ChallengerFileStorage implements ChallengerPersistenceMechanism, Da
         return guid + ".content.txt";
     }
 
+    private String getDatabaseSnapshotFileNameFor(String guid) {
+        return guid + ".content.snapshot";
+    }
+
     public PersistenceResponse loadDatabaseContent(String guid) {
         File folder = new File(System.getProperty("User.dir"), "challengersessions");
+
+        // saved before snapshots were used
         File file = new File(folder , getDatabaseFileNameFor(guid));
 
+        // the json contents are only used when there is no snapshot, they are older than any snapshot
+        File snapshotFile = new File(folder , getDatabaseSnapshotFileNameFor(guid));
+        if(snapshotFile.exists()){
+            return loadDatabaseSnapshot(snapshotFile);
+        }
+
         if(!file.exists()){
             String message = "Could not find database contents file: " + file.getAbsolutePath();
             if(guid.startsWith("rest-api-challenges-single-player")){
@@ -117,6 +187,10 @@ public class ChallengerFileStorage implements ChallengerPersistenceMechanism, Da
                     withErrorMessage(message);
         }
 
+        return loadDatabaseJson(file);
+    }
+
+    private PersistenceResponse loadDatabaseJson(File file) {
         try {
             final byte[] data = Files.readAllBytes(file.toPath());
             final String dataString = new String(data);
@@ -131,4 +205,17 @@ public class ChallengerFileStorage implements ChallengerPersistenceMechanism, Da
                     withErrorMessage(e.getMessage());
         }
     }
+
+    private PersistenceResponse loadDatabaseSnapshot(File file) {
+        try(FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return new PersistenceResponse().
+                    withSuccess(true).
+                    withDatabaseSnapshot(ERInstanceDataSnapshot.readFrom(in));
+        } catch (IOException e) {
+            logger.error("Error Reading Database snapshot From file: {}", file.getAbsolutePath(), e);
+            return new PersistenceResponse().
+                    withSuccess(false).
+                    withErrorMessage(e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,145 @@
+package uk.co.compendiumdev.challenge.persistence;
+
+import com.google.gson.Gson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.co.compendiumdev.challenge.ChallengerAuthData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceDataSnapshot;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/*
+    Challenger status and database content held in a single embedded
+    LogStructuredStore file, rather than two files per challenger, so
+    that many challengers do not fill a directory and each save or load
+    is a single write or read.
+ */
+public class ChallengerLogStorage implements ChallengerPersistenceMechanism, DatabaseContentPersistenceMechanism {
+
+    Logger logger = LoggerFactory.getLogger(ChallengerLogStorage.class);
+
+    private final Path logFile;
+    // replaced when reopened after a checkpoint restore
+    private volatile LogStructuredStore store;
+
+    public ChallengerLogStorage(){
+        this(new File(new File(System.getProperty("User.dir"), "challengersessions"),
+                "challengers.log").toPath());
+    }
+
+    public ChallengerLogStorage(final Path logFile){
+        this.logFile = logFile;
+        store = open(logFile);
+        logger.info("Using challenger storage {} with {} entries", logFile, store.getKeys().size());
+    }
+
+    private LogStructuredStore open(final Path logFile){
+        try {
+            return new LogStructuredStore(logFile);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    String.format("Could not open challenger storage %s", logFile), e);
+        }
+    }
+
+    /* close the file e.g. before a checkpoint, nothing can be saved or loaded until reopened */
+    public void closeStore(){
+        try {
+            store.close();
+        } catch (IOException e) {
+            logger.error("Error closing challenger storage {}", logFile, e);
+        }
+    }
+
+    /* reading the log again picks up any changes made to the file while closed */
+    public void reopenStore(){
+        store = open(logFile);
+        logger.info("Reopened challenger storage {} with {} entries", logFile, store.getKeys().size());
+    }
+
+    private String getStatusKeyFor(final String guid) {
+        return guid + ".data";
+    }
+
+    private String getDatabaseKeyFor(final String guid) {
+        return guid + ".content";
+    }
+
+    public PersistenceResponse saveChallengerStatus(final ChallengerAuthData data) {
+        try {
+            final String dataString = new Gson().toJson(data);
+            store.put(getStatusKeyFor(data.getXChallenger()), dataString.getBytes(StandardCharsets.UTF_8));
+            return new PersistenceResponse().
+                    withSuccess(true);
+        } catch (IOException e) {
+            logger.error("Error storing challenger status for: {}", data.getXChallenger(), e);
+            return new PersistenceResponse().
+                    withSuccess(false).
+                    withErrorMessage(e.getMessage());
+        }
+    }
+
+    public PersistenceResponse loadChallengerStatus(final String guid) {
+        try {
+            final byte[] data = store.get(getStatusKeyFor(guid));
+            if(data==null){
+                return notFound("Could not find challenger status for: " + guid);
+            }
+            return new PersistenceResponse().
+                    withSuccess(true).
+                    withChallengerAuthData(
+                            new Gson().fromJson(new String(data, StandardCharsets.UTF_8), ChallengerAuthData.class));
+        } catch (IOException e) {
+            logger.error("Error Reading Challenge Status for: {}", guid, e);
+            return new PersistenceResponse().
+                    withSuccess(false).
+                    withErrorMessage(e.getMessage());
+        }
+    }
+
+    public PersistenceResponse saveDatabaseContent(final String guid, final ERInstanceData todos) {
+        try {
+            if(todos==null){
+                store.remove(getDatabaseKeyFor(guid));
+            }else{
+                store.put(getDatabaseKeyFor(guid), ERInstanceDataSnapshot.toBytes(todos));
+            }
+            return new PersistenceResponse().
+                    withSuccess(true);
+        } catch (IOException e) {
+            logger.error("Error storing database content for: {}", guid, e);
+            return new PersistenceResponse().
+                    withSuccess(false).
+                    withErrorMessage(e.getMessage());
+        }
+    }
+
+    public PersistenceResponse loadDatabaseContent(final String guid) {
+        try {
+            final byte[] snapshot = store.get(getDatabaseKeyFor(guid));
+            if(snapshot==null){
+                return notFound("Could not find database contents for: " + guid);
+            }
+            return new PersistenceResponse().
+                    withSuccess(true).
+                    withDatabaseSnapshot(ByteBuffer.wrap(snapshot));
+        } catch (IOException e) {
+            logger.error("Error Reading Database content for: {}", guid, e);
+            return new PersistenceResponse().
+                    withSuccess(false).
+                    withErrorMessage(e.getMessage());
+        }
+    }
+
+    private PersistenceResponse notFound(final String message){
+        logger.warn(message);
+        return new PersistenceResponse().
+                withSuccess(false).
+                withErrorMessage(message);
+    }
+}
@@ -0,0 +1,387 @@
+package uk.co.compendiumdev.challenge.persistence;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/*
+    A key value store held in a single append only file.
+
+    Each put appends a record and an in memory index holds the position of
+    the latest value for each key, so a save is one write at the end of the
+    file and a load is one positional read. Removing a key appends a
+    tombstone.
+
+    Replaced values are left in the file until a background compaction
+    copies the live records to a new file, which replaces the log when
+    the dead records are more than half of the file.
+
+    Record: crc32 int, key length int, value length int (-1 for a tombstone),
+    key bytes, value bytes. The crc covers everything after itself. When
+    opened, the log is read to rebuild the index, and a partly written
+    record at the end, e.g. from a crash, is truncated. A damaged record
+    before the end stops the index being rebuilt, the records after it
+    can not be trusted, so the log is copied aside before it is truncated
+    and a compaction can not lose them.
+ */
+public class LogStructuredStore implements Closeable {
+
+    private static final int HEADER_LENGTH = 12;
+    private static final int TOMBSTONE = -1;
+    // small logs are not worth compacting
+    private static final long MINIMUM_COMPACTION_BYTES = 1024 * 1024;
+
+    private final Logger logger = LoggerFactory.getLogger(LogStructuredStore.class);
+
+    private final Path logFile;
+    private final Map<String, Location> index;
+    // puts and compaction change the file, reads are positional and can run together
+    private final ReentrantReadWriteLock lock;
+    private final ExecutorService compactor;
+    private final AtomicBoolean compactionScheduled;
+    private final long minimumCompactionBytes;
+
+    private FileChannel log;
+    // changed under the write lock, read without it to decide on compaction
+    private volatile long endOfLog;
+    private volatile long deadBytes;
+    private volatile boolean syncOnWrite;
+    private volatile boolean closed;
+
+    public LogStructuredStore(final Path logFile) throws IOException {
+        this(logFile, MINIMUM_COMPACTION_BYTES);
+    }
+
+    LogStructuredStore(final Path logFile, final long minimumCompactionBytes) throws IOException {
+        this.logFile = logFile;
+        this.minimumCompactionBytes = minimumCompactionBytes;
+        this.index = new ConcurrentHashMap<>();
+        this.lock = new ReentrantReadWriteLock();
+        this.compactionScheduled = new AtomicBoolean(false);
+        this.syncOnWrite = false;
+        this.closed = false;
+        this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "log-store-compaction");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if(logFile.getParent()!=null){
+            Files.createDirectories(logFile.getParent());
+        }
+        log = openLog(logFile);
+        recover();
+    }
+
+    /* when true each put is forced to the disk before returning */
+    public LogStructuredStore setSyncOnWrite(final boolean sync){
+        this.syncOnWrite = sync;
+        return this;
+    }
+
+    private static FileChannel openLog(final Path file) throws IOException {
+        return FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /* rebuild the index from the log, truncating any incomplete record at the end */
+    private void recover() throws IOException {
+        final long size = log.size();
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        long position = 0;
+        boolean damaged = false;
+
+        while(position + HEADER_LENGTH <= size){
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            final int crc = header.getInt();
+            final int keyLength = header.getInt();
+            final int valueLength = header.getInt();
+
+            if(keyLength<0 || valueLength<TOMBSTONE){
+                damaged = true;
+                break;
+            }
+
+            final long recordLength = recordLength(keyLength, valueLength);
+            if(position + recordLength > size){
+                break;
+            }
+
+            final ByteBuffer body = ByteBuffer.allocate((int) (recordLength - HEADER_LENGTH));
+            readFully(body, position + HEADER_LENGTH);
+            if(crc != crcOf(keyLength, valueLength, body.array())){
+                damaged = true;
+                break;
+            }
+
+            final String key = new String(body.array(), 0, keyLength, StandardCharsets.UTF_8);
+            indexRecord(key, position, keyLength, valueLength);
+            position = position + recordLength;
+        }
+
+        if(position < size){
+            if(damaged){
+                final Path copy = logFile.resolveSibling(
+                                    logFile.getFileName() + ".damaged-" + System.currentTimeMillis());
+                Files.copy(logFile, copy);
+                logger.error("Damaged record at {} in {}, the {} bytes from there are not loaded, the log was copied to {}",
+                        position, logFile, size - position, copy);
+            }else{
+                logger.warn("Truncating {} bytes of incomplete records from {}", size - position, logFile);
+            }
+            log.truncate(position);
+        }
+        endOfLog = position;
+    }
+
+    private void indexRecord(final String key, final long position, final int keyLength, final int valueLength){
+        final Location replaced;
+        if(valueLength==TOMBSTONE){
+            replaced = index.remove(key);
+            deadBytes = deadBytes + recordLength(keyLength, 0);
+        }else{
+            replaced = index.put(key, new Location(position, keyLength, valueLength));
+        }
+        if(replaced!=null){
+            deadBytes = deadBytes + replaced.recordLength();
+        }
+    }
+
+    public void put(final String key, final byte[] value) throws IOException {
+        if(value==null){
+            throw new IllegalArgumentException(String.format("Can not store a null value for %s", key));
+        }
+        append(key, value);
+    }
+
+    public void remove(final String key) throws IOException {
+        if(index.containsKey(key)){
+            append(key, null);
+        }
+    }
+
+    private void append(final String key, final byte[] value) throws IOException {
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        final int valueLength = value==null ? TOMBSTONE : value.length;
+
+        final ByteBuffer record = ByteBuffer.allocate((int) recordLength(keyBytes.length, valueLength));
+        record.position(4);
+        record.putInt(keyBytes.length);
+        record.putInt(valueLength);
+        record.put(keyBytes);
+        if(value!=null){
+            record.put(value);
+        }
+        record.putInt(0, crcOf(keyBytes.length, valueLength,
+                record.array(), HEADER_LENGTH, record.capacity() - HEADER_LENGTH));
+        record.flip();
+
+        lock.writeLock().lock();
+        try{
+            final long position = endOfLog;
+            while(record.hasRemaining()){
+                log.write(record, position + record.position());
+            }
+            if(syncOnWrite){
+                log.force(false);
+            }
+            endOfLog = position + record.limit();
+            indexRecord(key, position, keyBytes.length, valueLength);
+        }finally {
+            lock.writeLock().unlock();
+        }
+
+        compactWhenWorthwhile();
+    }
+
+    /* the value for the key, or null if there is none */
+    public byte[] get(final String key) throws IOException {
+        lock.readLock().lock();
+        try{
+            final Location location = index.get(key);
+            if(location==null){
+                return null;
+            }
+            final ByteBuffer value = ByteBuffer.allocate(location.valueLength);
+            readFully(value, location.valuePosition());
+            return value.array();
+        }finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(final String key){
+        return index.containsKey(key);
+    }
+
+    public Set<String> getKeys(){
+        return Set.copyOf(index.keySet());
+    }
+
+    public long countBytes(){
+        return endOfLog;
+    }
+
+    public long countDeadBytes(){
+        return deadBytes;
+    }
+
+    private void compactWhenWorthwhile(){
+        if(endOfLog < minimumCompactionBytes || deadBytes*2 < endOfLog){
+            return;
+        }
+        if(closed || !compactionScheduled.compareAndSet(false, true)){
+            return;
+        }
+        try{
+            compactor.execute(this::compactInBackground);
+        }catch(RejectedExecutionException e){
+            // closed while scheduling
+            compactionScheduled.set(false);
+        }
+    }
+
+    private void compactInBackground(){
+        try{
+            compact();
+        }catch(IOException e){
+            logger.error("Error compacting {}", logFile, e);
+            compactionScheduled.set(false);
+            return;
+        }
+        compactionScheduled.set(false);
+        // puts made while compacting did not schedule a compaction
+        compactWhenWorthwhile();
+    }
+
+    /* copy the live records to a new log which replaces the current log */
+    public void compact() throws IOException {
+        final Path compacted = logFile.resolveSibling(logFile.getFileName() + ".compact");
+
+        lock.writeLock().lock();
+        try{
+            if(closed){
+                return;
+            }
+            final long before = endOfLog;
+            final Map<String, Location> moved = new HashMap<>();
+            long position = 0;
+
+            try(FileChannel copy = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)){
+
+                for(Map.Entry<String, Location> entry : index.entrySet()){
+                    final Location location = entry.getValue();
+                    final long length = location.recordLength();
+                    long copied = 0;
+                    while(copied < length){
+                        copied = copied + log.transferTo(location.position + copied, length - copied, copy);
+                    }
+                    moved.put(entry.getKey(), new Location(position, location.keyLength, location.valueLength));
+                    position = position + length;
+                }
+                copy.force(true);
+            }
+
+            // the log is closed to replace it, and always reopened, if the move failed it is the old log
+            log.close();
+            try{
+                replaceLogWith(compacted);
+            }catch(IOException | RuntimeException e){
+                Files.deleteIfExists(compacted);
+                throw e;
+            }finally {
+                log = openLog(logFile);
+            }
+
+            index.putAll(moved);
+            endOfLog = position;
+            deadBytes = 0;
+            logger.info("Compacted {} from {} to {} bytes", logFile, before, position);
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void replaceLogWith(final Path compacted) throws IOException {
+        Files.move(compacted, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void readFully(final ByteBuffer buffer, final long position) throws IOException {
+        while(buffer.hasRemaining()){
+            if(log.read(buffer, position + buffer.position())==-1){
+                throw new IOException(String.format("Unexpected end of %s", logFile));
+            }
+        }
+    }
+
+    private static long recordLength(final int keyLength, final int valueLength){
+        return (long) HEADER_LENGTH + keyLength + Math.max(valueLength, 0);
+    }
+
+    private static int crcOf(final int keyLength, final int valueLength, final byte[] body){
+        return crcOf(keyLength, valueLength, body, 0, body.length);
+    }
+
+    private static int crcOf(final int keyLength, final int valueLength,
+                             final byte[] body, final int offset, final int length){
+        final CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putInt(keyLength).putInt(valueLength).array());
+        crc.update(body, offset, length);
+        return (int) crc.getValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        compactor.shutdown();
+        lock.writeLock().lock();
+        try{
+            closed = true;
+            log.close();
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static final class Location {
+
+        private final long position;
+        private final int keyLength;
+        private final int valueLength;
+
+        private Location(final long position, final int keyLength, final int valueLength){
+            this.position = position;
+            this.keyLength = keyLength;
+            this.valueLength = valueLength;
+        }
+
+        private long valuePosition(){
+            return position + HEADER_LENGTH + keyLength;
+        }
+
+        private long recordLength(){
+            return LogStructuredStore.recordLength(keyLength, valueLength);
+        }
+    }
+}
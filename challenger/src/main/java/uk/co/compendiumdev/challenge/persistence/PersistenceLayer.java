@@ -1,13 +1,19 @@
 package uk.co.compendiumdev.challenge.persistence;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import uk.co.compendiumdev.challenge.ChallengerAuthData;
 import uk.co.compendiumdev.challenge.ChallengerState;
 import uk.co.compendiumdev.challenge.challengers.Challengers;
 import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonPopulator;
 import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceDataSnapshot;
+import uk.co.compendiumdev.thingifier.core.profiling.PersistenceWriteEvent;
 
 public class PersistenceLayer {
 
+    Logger logger = LoggerFactory.getLogger(PersistenceLayer.class);
+
     private StorageType storeOn;
 
     // TODO: have a database persistence layer e.g. 'save to disk' option for the todos
@@ -17,6 +23,8 @@ public class PersistenceLayer {
 
     ChallengerPersistenceMechanism file = new ChallengerFileStorage();
     DatabaseContentPersistenceMechanism dbfile = (DatabaseContentPersistenceMechanism)file;
+    // null unless using EMBEDDED storage
+    private ChallengerLogStorage embedded;
 
     static ChallengerPersistenceMechanism aws;
     boolean allowSaveToS3 = false;
@@ -37,10 +45,31 @@ public class PersistenceLayer {
             challengers.put(challenger);
 
             String databaseName = challenger.getXChallenger();
+
+            // did we also load the data? if so, restore or populate the database from it
+            boolean snapshotFailed = false;
+            if(response.getDatabaseSnapshot()!=null){
+                try{
+                    // restored without re-validating, the instances were valid when saved
+                    challengers.getErModel().restoreInstanceDatabase(databaseName,
+                            ERInstanceDataSnapshot.restore(
+                                    challengers.getErModel().getSchema(),
+                                    response.getDatabaseSnapshot()));
+                    return response;
+                }catch(RuntimeException e){
+                    // the challenger is already registered, so it must still get a database
+                    logger.error("Could not restore database snapshot for {}, using default data instead",
+                            databaseName, e);
+                    snapshotFailed = true;
+                    response.withErrorMessage(response.getErrorMessage() +
+                            "Could not restore database snapshot: " + e.getMessage());
+                }
+            }
+
             challengers.getErModel().createInstanceDatabaseIfNotExisting(databaseName);
 
-            // did we also load the data? if so, populate the database from it
-            if(!response.getDatabaseContents().isEmpty()){
+            // json contents are only used when there was no snapshot
+            if(!snapshotFailed && !response.getDatabaseContents().isEmpty()){
                 new JsonPopulator(response.getDatabaseContents()).populate(
                         challengers.getErModel().getSchema(),
                         challengers.getErModel().getInstanceData(databaseName)
@@ -54,7 +83,8 @@ public class PersistenceLayer {
         return response;
     }
 
-    public enum StorageType{LOCAL, CLOUD, NONE};
+    // EMBEDDED holds all challengers in a single log structured file
+    public enum StorageType{LOCAL, CLOUD, EMBEDDED, NONE};
 
     public PersistenceLayer(StorageType storeWhere){
         this.storeOn = storeWhere;
@@ -74,11 +104,52 @@ public class PersistenceLayer {
             String bucketName = System.getenv("AWSBUCKET");
             aws= new AwsS3Storage(allowSaveToS3, allowLoadFromS3, bucketName);
         }
+
+        if(this.storeOn==StorageType.EMBEDDED){
+            embedded = new ChallengerLogStorage();
+            file = embedded;
+            dbfile = embedded;
+        }
+    }
+
+    /* the embedded storage holds its file open, which can not be included in a checkpoint */
+    public void closeForCheckpoint(){
+        if(embedded!=null){
+            embedded.closeStore();
+        }
+    }
+
+    public void reopenAfterRestore(){
+        if(embedded!=null){
+            embedded.reopenStore();
+        }
+    }
+
+    private boolean storesOnDisk(){
+        return storeOn==StorageType.LOCAL || storeOn==StorageType.EMBEDDED;
     }
 
     public PersistenceResponse saveChallengerStatus(ChallengerAuthData data, ERInstanceData instanceData){
 
-        if(storeOn== StorageType.LOCAL){
+        final PersistenceWriteEvent event = new PersistenceWriteEvent();
+        event.begin();
+
+        final PersistenceResponse response = saveChallengerStatusTo(storeOn, data, instanceData);
+
+        event.end();
+        if(event.shouldCommit()){
+            event.storage = storeOn.name();
+            event.success = response.isSuccess();
+            event.tag(null, instanceData);
+            event.commit();
+        }
+
+        return response;
+    }
+
+    private PersistenceResponse saveChallengerStatusTo(final StorageType storeOn, ChallengerAuthData data, ERInstanceData instanceData){
+
+        if(storesOnDisk()){
             PersistenceResponse fileStoreChallenger = file.saveChallengerStatus(data);
             PersistenceResponse fileStoreDatabase = dbfile.saveDatabaseContent(data.getXChallenger(), instanceData);
             return new PersistenceResponse().
@@ -99,13 +170,14 @@ public class PersistenceLayer {
 
     public PersistenceResponse loadChallengerStatus(String guid){
 
-        if(storeOn== StorageType.LOCAL){
+        if(storesOnDisk()){
             PersistenceResponse fileStoreChallenger = file.loadChallengerStatus(guid);
             PersistenceResponse fileStoreDatabase = dbfile.loadDatabaseContent(guid);
             return new PersistenceResponse().
                     withSuccess(fileStoreChallenger.isSuccess()). // only track challenger success && fileStoreDatabase.isSuccess()).
                     withErrorMessage(fileStoreChallenger.getErrorMessage() + fileStoreDatabase.getErrorMessage()).
                     withDatabaseContents(fileStoreDatabase.getDatabaseContents()).
+                    withDatabaseSnapshot(fileStoreDatabase.getDatabaseSnapshot()).
                     withChallengerAuthData(fileStoreChallenger.getAuthData());
         }
 
@@ -120,7 +192,7 @@ public class PersistenceLayer {
 
     public boolean willAutoSaveChallengerStatusToPersistenceLayer() {
 
-        if (storeOn == StorageType.LOCAL) {
+        if (storesOnDisk()) {
             return true;
         }
 
@@ -133,7 +205,7 @@ public class PersistenceLayer {
 
     public boolean willAutoLoadChallengerStatusFromPersistenceLayer() {
 
-        if (storeOn == StorageType.LOCAL) {
+        if (storesOnDisk()) {
             return true;
         }
 
@@ -2,18 +2,23 @@ package uk.co.compendiumdev.challenge.persistence;
 
 import uk.co.compendiumdev.challenge.ChallengerAuthData;
 
+import java.nio.ByteBuffer;
+
 public class PersistenceResponse {
 
     private ChallengerAuthData authData;
     private boolean success;
     private String errorMessage;
     private String databaseContents;
+    // binary ERInstanceDataSnapshot, used in preference to the json contents
+    private ByteBuffer databaseSnapshot;
 
     public PersistenceResponse(){
         this.errorMessage="";
         this.success=true;
         this.authData=null;
         this.databaseContents="";
+        this.databaseSnapshot=null;
     }
     public PersistenceResponse withSuccess(final boolean successStatus) {
         this.success=successStatus;
@@ -50,4 +55,13 @@ public class PersistenceResponse {
     public String getDatabaseContents() {
         return this.databaseContents;
     }
+
+    public PersistenceResponse withDatabaseSnapshot(final ByteBuffer snapshot) {
+        this.databaseSnapshot = snapshot;
+        return this;
+    }
+
+    public ByteBuffer getDatabaseSnapshot() {
+        return this.databaseSnapshot;
+    }
 }
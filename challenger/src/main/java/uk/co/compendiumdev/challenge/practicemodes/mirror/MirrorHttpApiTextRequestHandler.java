@@ -6,6 +6,8 @@ import uk.co.compendiumdev.thingifier.application.internalhttpconversion.StringP
 import uk.co.compendiumdev.thingifier.application.routehandlers.HttpApiRequestHandler;
 import uk.co.compendiumdev.thingifier.core.query.FilterBy;
 
+import java.util.Map;
+
 public class MirrorHttpApiTextRequestHandler implements HttpApiRequestHandler {
 
     public ApiResponse handle(final HttpApiRequest myRequest) {
@@ -69,8 +71,8 @@ public class MirrorHttpApiTextRequestHandler implements HttpApiRequestHandler {
         output.append("\n");
         output.append("=======");
         output.append("\n");
-        for(String header : myRequest.getHeaders().asMap().keySet()){
-            output.append(String.format("%s: %s",header, myRequest.getHeader(header)));
+        for(Map.Entry<String, String> header : myRequest.getHeaders().entries()){
+            output.append(String.format("%s: %s",header.getKey(), header.getValue()));
             output.append("\n");
         }
         output.append("\n");
@@ -12,18 +12,34 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.F
 
 public class RequestMirror {
 
-    EntityDefinition entityDefn;
+    /*
+        The mirror does not store anything, so the Thingifier and handlers are
+        created once, frozen, and shared by all requests. The only per request
+        state is the mirrored messageDetails instance created by the handler.
+     */
+    private final Thingifier mirrorThingifier;
+    private final EntityDefinition entityDefn;
+    private final MirrorHttpApiRequestHandler mirrorHandler;
+    private final MirrorHttpApiTextRequestHandler mirrorTextHandler;
 
-    // new RequestMirror().mirrorRequest(request, result);
-    public String mirrorRequest(final Request request, final Response result) {
+    public RequestMirror(){
 
-        final Thingifier mirrorThingifier = new Thingifier();
+        mirrorThingifier = new Thingifier();
 
         entityDefn = mirrorThingifier.defineThing("messageDetails", "messagesDetails");
 
         entityDefn.addFields(
                 Field.is("details", FieldType.STRING));
 
+        mirrorThingifier.freeze();
+
+        mirrorHandler = new MirrorHttpApiRequestHandler(entityDefn);
+        mirrorTextHandler = new MirrorHttpApiTextRequestHandler();
+    }
+
+    // new RequestMirror().mirrorRequest(request, result);
+    public String mirrorRequest(final Request request, final Response result) {
+
         // reject large requests
         SparkMessageLengthValidator lengthValidator = new SparkMessageLengthValidator();
 
@@ -33,9 +49,7 @@ public class RequestMirror {
         }
 
         String returnValue =  new SparkApiRequestResponseHandler(request, result, mirrorThingifier).
-                usingHandler(
-                        new MirrorHttpApiRequestHandler(this.entityDefn)
-                ).validateRequestSyntax(false).handle();
+                usingHandler(mirrorHandler).validateRequestSyntax(false).handle();
 
         final AcceptHeaderParser parser = new AcceptHeaderParser(request.headers("accept"));
 
@@ -51,8 +65,6 @@ public class RequestMirror {
 
         // The raw unfiltered request as text
 
-        final Thingifier mirrorThingifier = new Thingifier();
-
         // reject large requests
         SparkMessageLengthValidator lengthValidator = new SparkMessageLengthValidator();
 
@@ -62,9 +74,7 @@ public class RequestMirror {
         }
 
         String returnValue =  new SparkApiRequestResponseHandler(request, result, mirrorThingifier).
-                usingHandler(
-                        new MirrorHttpApiTextRequestHandler()
-                ).validateRequestSyntax(false).handle();
+                usingHandler(mirrorTextHandler).validateRequestSyntax(false).handle();
 
         result.header("Content-Type", "text/plain");
 
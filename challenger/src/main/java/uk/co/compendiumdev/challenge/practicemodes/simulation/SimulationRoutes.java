@@ -11,6 +11,7 @@ import uk.co.compendiumdev.thingifier.application.httprouting.ThingifierAutoDocG
 import uk.co.compendiumdev.thingifier.application.routehandlers.HttpApiRequestHandler;
 import uk.co.compendiumdev.thingifier.application.routehandlers.SparkApiRequestResponseHandler;
 import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.ScratchInstanceDataPool;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
@@ -34,6 +35,8 @@ public class SimulationRoutes {
     public Thingifier simulation;
     public EntityDefinition entityDefn;
     private EntityInstanceCollection entityStorage;
+    private ScratchInstanceDataPool scratchData;
+    private RestApiGetHandler getHandler;
 
     private ThingifierApiDocumentationDefn apiDocDefn;
     private ThingifierAutoDocGenRouting simulatorDocsRouting;
@@ -74,6 +77,9 @@ public class SimulationRoutes {
                 //setValue("id", String.valueOf(id)).
                         setValue("name", "bob");
 
+        this.scratchData = new ScratchInstanceDataPool(this.simulation.getERmodel());
+        this.getHandler = new RestApiGetHandler(this.simulation);
+
         // this gives us access to the common http processing functions
         this.httpApi = new ThingifierHttpApi(this.simulation);
         this.jsonThing = new JsonThing(this.simulation.apiConfig().jsonOutput());
@@ -150,8 +156,9 @@ public class SimulationRoutes {
                 }
             }
 
-            Thingifier cloned = this.simulation.cloneWithDifferentData(instances);
-            return new RestApiGetHandler(cloned).handle("entities", anHttpApiRequest.getFilterableQueryParams(), anHttpApiRequest.getHeaders());
+            // query against pooled scratch data rather than cloning the simulation each request
+            return this.scratchData.withInstances(instances, (scratch) ->
+                    this.getHandler.handle("entities", anHttpApiRequest.getFilterableQueryParams(), scratch));
 
         };
 
@@ -0,0 +1,201 @@
+package uk.co.compendiumdev.challenge.persistence;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+public class LogStructuredStoreTest {
+
+    private Path logFile;
+
+    @BeforeEach
+    public void createLogFile() throws IOException {
+        final Path folder = Files.createTempDirectory("log-store");
+        folder.toFile().deleteOnExit();
+        logFile = folder.resolve("test.log");
+        logFile.toFile().deleteOnExit();
+    }
+
+    private static byte[] bytes(final String value){
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(final byte[] value){
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void canPutGetReplaceAndRemoveValues() throws IOException {
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            store.put("one", bytes("first"));
+            store.put("two", bytes("second"));
+            store.put("one", bytes("replaced"));
+            store.remove("two");
+
+            Assertions.assertEquals("replaced", string(store.get("one")));
+            Assertions.assertNull(store.get("two"));
+            Assertions.assertFalse(store.contains("two"));
+            Assertions.assertTrue(store.countDeadBytes()>0);
+        }
+    }
+
+    @Test
+    public void indexIsRebuiltWhenReopened() throws IOException {
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            store.put("one", bytes("first"));
+            store.put("one", bytes("replaced"));
+            store.put("two", bytes("second"));
+            store.remove("two");
+        }
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            Assertions.assertEquals("replaced", string(store.get("one")));
+            Assertions.assertNull(store.get("two"));
+            Assertions.assertEquals(1, store.getKeys().size());
+        }
+    }
+
+    @Test
+    public void incompleteRecordAtEndOfLogIsTruncated() throws IOException {
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            store.put("one", bytes("first"));
+            store.put("two", bytes("second"));
+        }
+
+        // lose the end of the last record, as if the write was interrupted
+        final long size = Files.size(logFile);
+        try(FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)){
+            channel.truncate(size - 3);
+        }
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            Assertions.assertEquals("first", string(store.get("one")));
+            Assertions.assertNull(store.get("two"));
+
+            store.put("two", bytes("again"));
+            Assertions.assertEquals("again", string(store.get("two")));
+        }
+    }
+
+    @Test
+    public void compactionKeepsOnlyTheLiveValues() throws IOException {
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            for(int version=0; version<100; version++){
+                store.put("one", bytes("version " + version));
+                store.put("two", bytes("other " + version));
+            }
+            store.put("three", bytes("removed"));
+            store.remove("three");
+
+            final long before = store.countBytes();
+            store.compact();
+
+            Assertions.assertTrue(store.countBytes() < before);
+            Assertions.assertEquals(0, store.countDeadBytes());
+            Assertions.assertEquals(store.countBytes(), Files.size(logFile));
+            Assertions.assertEquals("version 99", string(store.get("one")));
+            Assertions.assertEquals("other 99", string(store.get("two")));
+
+            store.put("three", bytes("after compaction"));
+        }
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            Assertions.assertEquals(3, store.getKeys().size());
+            Assertions.assertEquals("after compaction", string(store.get("three")));
+        }
+    }
+
+    @Test
+    public void compactsInTheBackgroundWhenMostOfTheLogIsDead() throws IOException, InterruptedException {
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile, 100)){
+            for(int version=0; version<50; version++){
+                store.put("one", bytes("version " + version));
+            }
+
+            // compaction runs on another thread
+            for(int wait=0; wait<50 && store.countDeadBytes()>store.countBytes()/2; wait++){
+                Thread.sleep(20);
+            }
+
+            Assertions.assertTrue(store.countDeadBytes() <= store.countBytes()/2);
+            Assertions.assertEquals("version 49", string(store.get("one")));
+        }
+    }
+
+    @Test
+    public void storeCanStillBeUsedWhenTheCompactedLogCanNotReplaceTheLog() throws IOException {
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile){
+                    @Override
+                    void replaceLogWith(final Path compacted) throws IOException {
+                        throw new IOException("e.g. disk full");
+                    }
+                }){
+            store.put("one", bytes("first"));
+            store.put("one", bytes("replaced"));
+            store.put("two", bytes("second"));
+            final long before = store.countBytes();
+
+            Assertions.assertThrows(IOException.class, store::compact);
+
+            Assertions.assertEquals(before, store.countBytes());
+            Assertions.assertEquals("replaced", string(store.get("one")));
+            Assertions.assertEquals("second", string(store.get("two")));
+            Assertions.assertFalse(Files.exists(logFile.resolveSibling(logFile.getFileName() + ".compact")));
+
+            store.put("three", bytes("after failed compaction"));
+            Assertions.assertEquals("after failed compaction", string(store.get("three")));
+        }
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            Assertions.assertEquals(3, store.getKeys().size());
+            Assertions.assertEquals("replaced", string(store.get("one")));
+        }
+    }
+
+    @Test
+    public void aDamagedRecordBeforeTheEndIsCopiedAsideBeforeTruncating() throws IOException {
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            store.put("one", bytes("first"));
+            store.put("two", bytes("second"));
+            store.put("three", bytes("third"));
+        }
+        final byte[] original = Files.readAllBytes(logFile);
+
+        // damage a byte of the value of the second record, the crc no longer matches
+        final int secondValue = 12 + "one".length() + "first".length() + 12 + "two".length();
+        try(FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)){
+            channel.write(ByteBuffer.wrap(bytes("X")), secondValue);
+        }
+
+        try(LogStructuredStore store = new LogStructuredStore(logFile)){
+            Assertions.assertEquals("first", string(store.get("one")));
+            Assertions.assertNull(store.get("two"));
+            Assertions.assertNull(store.get("three"));
+        }
+
+        try(Stream<Path> files = Files.list(logFile.getParent())){
+            final Path copy = files.filter(file -> file.getFileName().toString().startsWith("test.log.damaged-")).
+                                    findFirst().orElseThrow();
+            copy.toFile().deleteOnExit();
+            final byte[] copied = Files.readAllBytes(copy);
+            Assertions.assertEquals(original.length, copied.length);
+            Assertions.assertEquals('X', copied[secondValue]);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package uk.co.compendiumdev.challenge.persistence;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.challenge.CHALLENGE;
+import uk.co.compendiumdev.challenge.ChallengerAuthData;
+import uk.co.compendiumdev.challenge.challengers.Challengers;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+public class PersistenceLayerTest {
+
+    // saved before snapshots were used
+    private static final String STALE_JSON_CONTENTS = "{\"todos\":[{\"title\":\"stale\"}]}";
+
+    private EntityRelModel erModel;
+    private Challengers challengers;
+    private File folder;
+
+    @BeforeEach
+    void createChallengers(){
+        erModel = new EntityRelModel(new ERSchema(), new ERInstanceData());
+        EntityDefinition todo = erModel.createEntityDefinition("todo", "todos");
+        todo.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        todo.addField(Field.is("title", FieldType.STRING));
+        erModel.setDataGenerator((schema, database) ->
+                database.getInstanceCollectionForEntityNamed("todo").
+                        createManagedInstance().setValue("title", "default"));
+
+        challengers = new Challengers(erModel, Arrays.asList(CHALLENGE.values()));
+        challengers.setMultiPlayerMode();
+
+        folder = new File(System.getProperty("User.dir"), "challengersessions");
+        folder.mkdirs();
+    }
+
+    private String loadedTitle(final String guid){
+        EntityInstanceCollection todos = erModel.getInstanceData(guid).getInstanceCollectionForEntityNamed("todo");
+        Assertions.assertEquals(1, todos.countInstances());
+        return todos.getInstances().iterator().next().getFieldValue("title").asString();
+    }
+
+    private void deleteFilesFor(final String guid){
+        new File(folder, guid + ".content.snapshot").delete();
+        new File(folder, guid + ".data.txt").delete();
+        new File(folder, guid + ".content.txt").delete();
+    }
+
+    @Test
+    void savingASnapshotReplacesTheJsonContents() throws IOException {
+
+        PersistenceLayer persistence = new PersistenceLayer(PersistenceLayer.StorageType.LOCAL);
+
+        ChallengerAuthData challenger = challengers.createNewChallenger();
+        String guid = challenger.getXChallenger();
+        erModel.createInstanceDatabaseIfNotExisting(guid);
+        erModel.getInstanceData(guid).getInstanceCollectionForEntityNamed("todo").
+                createManagedInstance().setValue("title", "saved");
+
+        File json = new File(folder, guid + ".content.txt");
+        try{
+            Files.write(json.toPath(), STALE_JSON_CONTENTS.getBytes());
+
+            Assertions.assertTrue(persistence.saveChallengerStatus(challenger, erModel.getInstanceData(guid)).isSuccess());
+            Assertions.assertFalse(json.exists());
+
+            // forget about the challenger so it is loaded from the files
+            challengers.delete(guid);
+            erModel.deleteInstanceDatabase(guid);
+
+            Assertions.assertTrue(persistence.tryToLoadChallenger(challengers, guid).isSuccess());
+            Assertions.assertEquals("saved", loadedTitle(guid));
+        }finally {
+            deleteFilesFor(guid);
+        }
+    }
+
+    @Test
+    void aCorruptDatabaseSnapshotIsReportedAndFallsBackToTheDefaultData() throws IOException {
+
+        PersistenceLayer persistence = new PersistenceLayer(PersistenceLayer.StorageType.LOCAL);
+
+        ChallengerAuthData challenger = challengers.createNewChallenger();
+        String guid = challenger.getXChallenger();
+        erModel.createInstanceDatabaseIfNotExisting(guid);
+
+        File snapshot = new File(folder, guid + ".content.snapshot");
+        try{
+            Assertions.assertTrue(persistence.saveChallengerStatus(challenger, erModel.getInstanceData(guid)).isSuccess());
+            Assertions.assertTrue(snapshot.exists());
+            Files.write(snapshot.toPath(), "not a snapshot".getBytes());
+            // out of date json contents are not used in place of the snapshot
+            Files.write(new File(folder, guid + ".content.txt").toPath(), STALE_JSON_CONTENTS.getBytes());
+
+            // forget about the challenger so it is loaded from the files
+            challengers.delete(guid);
+            erModel.deleteInstanceDatabase(guid);
+
+            PersistenceResponse response = persistence.tryToLoadChallenger(challengers, guid);
+            Assertions.assertTrue(response.isSuccess());
+            Assertions.assertTrue(response.getErrorMessage().contains("snapshot"), response.getErrorMessage());
+
+            Assertions.assertNotNull(challengers.getChallenger(guid));
+            Assertions.assertEquals("default", loadedTitle(guid));
+        }finally {
+            deleteFilesFor(guid);
+        }
+    }
+}
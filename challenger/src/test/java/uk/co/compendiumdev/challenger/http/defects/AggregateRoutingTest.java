@@ -0,0 +1,59 @@
+package uk.co.compendiumdev.challenger.http.defects;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.challenge.CHALLENGE;
+import uk.co.compendiumdev.challenge.ChallengeMain;
+import uk.co.compendiumdev.challenge.ChallengerAuthData;
+import uk.co.compendiumdev.challenger.http.httpclient.HttpMessageSender;
+import uk.co.compendiumdev.challenger.http.httpclient.HttpResponseDetails;
+import uk.co.compendiumdev.sparkstart.Environment;
+
+public class AggregateRoutingTest {
+
+    private HttpMessageSender http;
+    private ChallengerAuthData challenger;
+
+    @BeforeAll
+    public static void controlEnvStart(){
+        Environment.stop();
+    }
+
+    @AfterAll
+    public static void controlEnvStop(){
+        Environment.stop();
+    }
+
+    @BeforeEach
+    public void createChallenger(){
+        http = new HttpMessageSender(Environment.getBaseUri(false));
+        challenger = ChallengeMain.getChallenger().getChallengers().createNewChallenger();
+        http.setHeader("X-CHALLENGER", challenger.getXChallenger());
+    }
+
+    @Test
+    public void aggregateIsRoutedToTheCollectionRatherThanATodo(){
+
+        final HttpResponseDetails response = http.send("/todos/_aggregate?groupBy=doneStatus", "GET");
+
+        Assertions.assertEquals(200, response.statusCode);
+        Assertions.assertTrue(response.body.contains("\"count\""), response.body);
+        Assertions.assertFalse(challenger.statusOfChallenge(CHALLENGE.GET_TODO),
+                "an aggregate of the todos is not a GET of a todo");
+        Assertions.assertFalse(challenger.statusOfChallenge(CHALLENGE.GET_TODO_404));
+    }
+
+    @Test
+    public void aggregateCanOnlyBeRead(){
+
+        http.setHeader("Content-Type", "application/json");
+
+        Assertions.assertEquals(405, http.send("/todos/_aggregate", "POST").statusCode);
+        Assertions.assertEquals(405, http.send("/todos/_aggregate", "DELETE").statusCode);
+        Assertions.assertEquals("OPTIONS, GET, HEAD",
+                http.send("/todos/_aggregate", "OPTIONS").getHeader("Allow"));
+    }
+}
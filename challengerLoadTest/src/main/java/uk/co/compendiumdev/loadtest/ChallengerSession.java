@@ -0,0 +1,47 @@
+package uk.co.compendiumdev.loadtest;
+
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+    An X-CHALLENGER session and the todo ids we believe exist in its database,
+    updated as todos are created and deleted so that GET, PUT and DELETE
+    usually address todos that exist.
+ */
+public class ChallengerSession {
+
+    private final String xChallenger;
+    private final ConcurrentLinkedDeque<String> todoIds = new ConcurrentLinkedDeque<>();
+
+    public ChallengerSession(final String xChallenger){
+        this.xChallenger = xChallenger;
+    }
+
+    public String getXChallenger(){
+        return xChallenger;
+    }
+
+    public void addTodoId(final String id){
+        if(id!=null && !id.isEmpty()){
+            todoIds.addLast(id);
+        }
+    }
+
+    /* an existing todo id, or null if we know of none */
+    public String anyTodoId(){
+        final Object[] ids = todoIds.toArray();
+        if(ids.length==0){
+            return null;
+        }
+        return (String)ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    /* remove and return a todo id to delete, or null if we know of none */
+    public String takeTodoId(){
+        return todoIds.pollFirst();
+    }
+
+    public int knownTodos(){
+        return todoIds.size();
+    }
+}
@@ -0,0 +1,75 @@
+package uk.co.compendiumdev.loadtest;
+
+import spark.Spark;
+import uk.co.compendiumdev.challenge.ChallengeMain;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    Start the challenger in this JVM on a free port so the load test goes through
+    the full Spark, routing, hooks and persistence pipeline without needing a
+    separate deploy. Multiplayer and in memory storage so that each session has
+    its own database and nothing is written to disk.
+ */
+public class InProcessChallenger {
+
+    private static final int MAX_WAIT_MILLIS = 30000;
+
+    private int port;
+
+    public String start(final List<String> additionalArgs){
+
+        port = freePort();
+
+        List<String> args = new ArrayList<>();
+        args.add("-multiplayer");
+        args.add("-memory");
+        args.add("-noshutdown");
+        args.add("-port=" + port);
+        args.addAll(additionalArgs);
+
+        ChallengeMain.main(args.toArray(new String[0]));
+        Spark.awaitInitialization();
+
+        waitForPort();
+
+        return "http://localhost:" + port;
+    }
+
+    public void stop(){
+        Spark.stop();
+        ChallengeMain.stop();
+    }
+
+    private int freePort(){
+        try(ServerSocket socket = new ServerSocket(0)){
+            socket.setReuseAddress(true);
+            return socket.getLocalPort();
+        }catch(IOException e){
+            throw new IllegalStateException("Could not find a free port for the challenger", e);
+        }
+    }
+
+    private void waitForPort(){
+        final long giveUpAt = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+        while(System.currentTimeMillis() < giveUpAt){
+            try(Socket socket = new Socket()){
+                socket.connect(new InetSocketAddress("localhost", port), 1000);
+                return;
+            }catch(IOException e){
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        throw new IllegalStateException(String.format("Challenger did not start on port %d", port));
+    }
+}
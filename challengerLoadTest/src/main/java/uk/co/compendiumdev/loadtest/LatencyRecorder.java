@@ -0,0 +1,85 @@
+package uk.co.compendiumdev.loadtest;
+
+import uk.co.compendiumdev.thingifier.application.metrics.MetricsHistogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    Latencies by request type, in microseconds.
+
+    Response time is measured from when the request should have been sent,
+    according to the arrival rate, so any time spent waiting because the
+    server, or the load generator, fell behind is included. This avoids
+    coordinated omission, where a slow response delays the following requests
+    and their wait is never measured.
+
+    Service time is measured from when the request was actually sent.
+
+    Errors are server errors (5xx) or requests which failed to get a response,
+    client errors (4xx) are counted separately since some are expected e.g.
+    creating a todo when the session already has the maximum number.
+ */
+public class LatencyRecorder {
+
+    static class TypeLatencies {
+        final MetricsHistogram responseTime = new MetricsHistogram();
+        final MetricsHistogram serviceTime = new MetricsHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+    }
+
+    private final Map<TodoRequestType, TypeLatencies> latencies = new EnumMap<>(TodoRequestType.class);
+    private final MetricsHistogram allResponseTimes = new MetricsHistogram();
+    private final LongAdder allErrors = new LongAdder();
+
+    public LatencyRecorder(){
+        for(TodoRequestType type : TodoRequestType.values()){
+            latencies.put(type, new TypeLatencies());
+        }
+    }
+
+    public void record(final TodoRequestType type, final long intendedStartNanos,
+                       final long actualStartNanos, final long completedNanos, final int statusCode){
+
+        final TypeLatencies typeLatencies = latencies.get(type);
+
+        final long responseMicros = (completedNanos - intendedStartNanos) / 1000;
+        typeLatencies.responseTime.record(responseMicros);
+        typeLatencies.serviceTime.record((completedNanos - actualStartNanos) / 1000);
+        allResponseTimes.record(responseMicros);
+
+        // status 0 means there was no response
+        if(statusCode>=500 || statusCode<100){
+            typeLatencies.errors.increment();
+            allErrors.increment();
+        }else if(statusCode>=400){
+            typeLatencies.clientErrors.increment();
+        }
+    }
+
+    public MetricsHistogram responseTimes(final TodoRequestType type){
+        return latencies.get(type).responseTime;
+    }
+
+    public MetricsHistogram serviceTimes(final TodoRequestType type){
+        return latencies.get(type).serviceTime;
+    }
+
+    public long errors(final TodoRequestType type){
+        return latencies.get(type).errors.sum();
+    }
+
+    public long clientErrors(final TodoRequestType type){
+        return latencies.get(type).clientErrors.sum();
+    }
+
+    public MetricsHistogram allResponseTimes(){
+        return allResponseTimes;
+    }
+
+    public long allErrors(){
+        return allErrors.sum();
+    }
+}
@@ -0,0 +1,151 @@
+package uk.co.compendiumdev.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    Load test configuration from command line args e.g.
+
+        -target=http://localhost:4567   use a running server, default starts one in process
+        -rate=100                       requests per second, arrival rate is fixed (open loop)
+        -duration=30                    seconds to measure for
+        -warmup=5                       seconds of requests which are sent but not measured
+        -sessions=10                    number of X-CHALLENGER sessions to spread requests across
+        -xml=25                         percentage of requests using application/xml
+        -mix=list:40,get:25,create:15,amend:10,delete:10   weighting of the request types
+        -maxinflight=1000               requests allowed in flight before the driver waits
+        -report=target/loadtest-report.json
+        -seed=1                         seed for the request mix so runs are repeatable
+
+    Any args after -- are passed to the in process challenger e.g.
+
+        -- -maxthreads=200 -maxconcurrency=100 -metrics
+ */
+public class LoadTestConfig {
+
+    String targetUrl = null;
+    int ratePerSecond = 100;
+    int durationSeconds = 30;
+    int warmupSeconds = 5;
+    int sessions = 10;
+    int xmlPercent = 25;
+    int maxInFlight = 1000;
+    String reportFile = "target/loadtest-report.json";
+    long seed = 1;
+    final List<String> serverArgs = new ArrayList<>();
+    final Map<TodoRequestType, Integer> mix = new LinkedHashMap<>();
+
+    public LoadTestConfig(){
+        mix.put(TodoRequestType.LIST, 40);
+        mix.put(TodoRequestType.GET, 25);
+        mix.put(TodoRequestType.CREATE, 15);
+        mix.put(TodoRequestType.AMEND, 10);
+        mix.put(TodoRequestType.DELETE, 10);
+    }
+
+    public static LoadTestConfig fromArgs(final String[] args){
+
+        LoadTestConfig config = new LoadTestConfig();
+
+        boolean isServerArg = false;
+
+        for(String arg : args){
+            if(isServerArg){
+                config.serverArgs.add(arg);
+                continue;
+            }
+            if(arg.equals("--")){
+                isServerArg = true;
+                continue;
+            }
+
+            final String value = arg.contains("=") ? arg.substring(arg.indexOf("=")+1).trim() : "";
+
+            if(arg.startsWith("-target")){
+                config.targetUrl = value.endsWith("/") ? value.substring(0, value.length()-1) : value;
+            }
+            if(arg.startsWith("-rate")){
+                config.ratePerSecond = positiveInt(arg, value, config.ratePerSecond);
+            }
+            if(arg.startsWith("-duration")){
+                config.durationSeconds = positiveInt(arg, value, config.durationSeconds);
+            }
+            if(arg.startsWith("-warmup")){
+                config.warmupSeconds = Math.max(0, intValue(arg, value, config.warmupSeconds));
+            }
+            if(arg.startsWith("-sessions")){
+                config.sessions = positiveInt(arg, value, config.sessions);
+            }
+            if(arg.startsWith("-xml")){
+                config.xmlPercent = Math.max(0, Math.min(100, intValue(arg, value, config.xmlPercent)));
+            }
+            if(arg.startsWith("-maxinflight")){
+                config.maxInFlight = positiveInt(arg, value, config.maxInFlight);
+            }
+            if(arg.startsWith("-report")){
+                config.reportFile = value;
+            }
+            if(arg.startsWith("-mix")){
+                config.setMix(value);
+            }
+            if(arg.startsWith("-seed")){
+                try{
+                    config.seed = Long.parseLong(value);
+                }catch(NumberFormatException e){
+                    System.out.println("Invalid value " + arg + " using " + config.seed);
+                }
+            }
+        }
+
+        return config;
+    }
+
+    /* e.g. list:40,get:25,create:15,amend:10,delete:10 missing types are not sent */
+    public LoadTestConfig setMix(final String mixDefinition){
+
+        final Map<TodoRequestType, Integer> newMix = new LinkedHashMap<>();
+
+        for(String weighting : mixDefinition.split(",")){
+            final String[] parts = weighting.split(":");
+            if(parts.length!=2){
+                throw new IllegalArgumentException(
+                        String.format("Invalid mix %s, expected type:weight e.g. list:40", weighting));
+            }
+            final TodoRequestType type = TodoRequestType.valueOf(parts[0].trim().toUpperCase());
+            newMix.put(type, Integer.parseInt(parts[1].trim()));
+        }
+
+        if(newMix.values().stream().mapToInt(Integer::intValue).sum()<=0){
+            throw new IllegalArgumentException("Request mix must have at least one positive weight");
+        }
+
+        mix.clear();
+        mix.putAll(newMix);
+        return this;
+    }
+
+    private static int intValue(final String arg, final String value, final int defaultValue){
+        try{
+            return Integer.parseInt(value);
+        }catch(NumberFormatException e){
+            System.out.println("Invalid value " + arg + " using " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    private static int positiveInt(final String arg, final String value, final int defaultValue){
+        final int parsed = intValue(arg, value, defaultValue);
+        return parsed > 0 ? parsed : defaultValue;
+    }
+
+    public boolean isInProcess(){
+        return targetUrl==null || targetUrl.isEmpty();
+    }
+
+    public String describe(){
+        return String.format("rate %d/s for %ds (+%ds warmup) across %d sessions, %d%% xml, mix %s",
+                ratePerSecond, durationSeconds, warmupSeconds, sessions, xmlPercent, mix);
+    }
+}
@@ -0,0 +1,79 @@
+package uk.co.compendiumdev.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    Run a load test against the challenger, see LoadTestConfig for the args.
+
+    By default the challenger is started in process on a free port,
+    use -target=http://host:port to test a running server instead.
+ */
+public class LoadTestMain {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+
+        final LoadTestConfig config = LoadTestConfig.fromArgs(args);
+
+        InProcessChallenger inProcess = null;
+        String baseUrl = config.targetUrl;
+
+        if(config.isInProcess()){
+            inProcess = new InProcessChallenger();
+            baseUrl = inProcess.start(config.serverArgs);
+        }
+
+        try {
+            System.out.println("Load testing " + baseUrl);
+            System.out.println(config.describe());
+
+            final HttpClient client = HttpClient.newBuilder().
+                    connectTimeout(Duration.ofSeconds(10)).
+                    build();
+            final TodoRequests requests = new TodoRequests(baseUrl);
+
+            final List<ChallengerSession> sessions = createSessions(config.sessions, client, requests);
+
+            final LoadTestReport report = new OpenLoopDriver(config, client, requests, sessions).run();
+
+            System.out.println(report.asText());
+            report.writeTo(config.reportFile);
+            System.out.println("Report written to " + config.reportFile);
+
+        }finally{
+            if(inProcess!=null){
+                inProcess.stop();
+            }
+        }
+    }
+
+    static List<ChallengerSession> createSessions(final int count, final HttpClient client,
+                                                  final TodoRequests requests) throws IOException, InterruptedException {
+
+        List<ChallengerSession> sessions = new ArrayList<>();
+
+        for(int sessionNumber=0; sessionNumber<count; sessionNumber++){
+
+            final HttpResponse<String> created = client.send(requests.createSession(), HttpResponse.BodyHandlers.ofString());
+            final String xChallenger = created.headers().firstValue("X-CHALLENGER").orElseThrow(() ->
+                    new IllegalStateException(String.format(
+                            "Could not create a challenger session, status %d", created.statusCode())));
+
+            final ChallengerSession session = new ChallengerSession(xChallenger);
+
+            // the session database is populated with todos, use those so GET and PUT hit existing todos
+            final HttpResponse<String> todos = client.send(requests.listTodosJson(session), HttpResponse.BodyHandlers.ofString());
+            if(todos.statusCode()==200){
+                requests.addTodoIdsFrom(session, todos.body());
+            }
+
+            sessions.add(session);
+        }
+
+        return sessions;
+    }
+}
@@ -0,0 +1,140 @@
+package uk.co.compendiumdev.loadtest;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonObject;
+import uk.co.compendiumdev.thingifier.application.metrics.MetricsHistogram;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/*
+    Throughput and latency percentiles for the measured part of a run,
+    as a text table and as json for comparing runs.
+
+    Latencies are reported in milliseconds, response time includes any
+    queueing delay from the intended send time, service time does not.
+ */
+public class LoadTestReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final LoadTestConfig config;
+    private final LatencyRecorder recorder;
+    private final long measuredNanos;
+
+    public LoadTestReport(final LoadTestConfig config, final LatencyRecorder recorder, final long measuredNanos){
+        this.config = config;
+        this.recorder = recorder;
+        this.measuredNanos = measuredNanos;
+    }
+
+    public double throughputPerSecond(final long count){
+        if(measuredNanos<=0){
+            return 0;
+        }
+        return count / (measuredNanos / 1_000_000_000.0);
+    }
+
+    public LatencyRecorder getRecorder(){
+        return recorder;
+    }
+
+    public String asText(){
+
+        StringBuilder output = new StringBuilder();
+        output.append(config.describe()).append("\n");
+
+        output.append(String.format("%-8s %8s %7s %7s %9s | %-37s | %-37s%n",
+                "type", "count", "errors", "4xx", "req/s",
+                "response ms p50 p90 p99 p99.9 max", "service ms p50 p90 p99 p99.9 max"));
+
+        for(TodoRequestType type : TodoRequestType.values()){
+            final MetricsHistogram responseTimes = recorder.responseTimes(type);
+            if(responseTimes.getCount()==0){
+                continue;
+            }
+            output.append(String.format("%-8s %8d %7d %7d %9.1f | %s | %s%n",
+                    type.name().toLowerCase(), responseTimes.getCount(),
+                    recorder.errors(type), recorder.clientErrors(type),
+                    throughputPerSecond(responseTimes.getCount()),
+                    percentiles(responseTimes), percentiles(recorder.serviceTimes(type))));
+        }
+
+        final MetricsHistogram all = recorder.allResponseTimes();
+        output.append(String.format("%-8s %8d %7d %7s %9.1f | %s |%n",
+                "all", all.getCount(), recorder.allErrors(), "",
+                throughputPerSecond(all.getCount()), percentiles(all)));
+
+        return output.toString();
+    }
+
+    private String percentiles(final MetricsHistogram histogram){
+        StringBuilder values = new StringBuilder();
+        for(double percentile : PERCENTILES){
+            values.append(String.format("%6.1f ", millis(histogram.getValueAtPercentile(percentile))));
+        }
+        values.append(String.format("%6.1f", millis(histogram.getMax())));
+        return values.toString();
+    }
+
+    private double millis(final long micros){
+        return micros / 1000.0;
+    }
+
+    public JsonObject asJson(){
+
+        JsonObject report = new JsonObject();
+        report.addProperty("ratePerSecond", config.ratePerSecond);
+        report.addProperty("durationSeconds", config.durationSeconds);
+        report.addProperty("warmupSeconds", config.warmupSeconds);
+        report.addProperty("sessions", config.sessions);
+        report.addProperty("xmlPercent", config.xmlPercent);
+        report.addProperty("seed", config.seed);
+        report.addProperty("measuredSeconds", measuredNanos / 1_000_000_000.0);
+
+        final MetricsHistogram all = recorder.allResponseTimes();
+        report.addProperty("requests", all.getCount());
+        report.addProperty("errors", recorder.allErrors());
+        report.addProperty("throughputPerSecond", throughputPerSecond(all.getCount()));
+        report.add("responseTimeMillis", histogramJson(all));
+
+        JsonObject types = new JsonObject();
+        for(TodoRequestType type : TodoRequestType.values()){
+            final MetricsHistogram responseTimes = recorder.responseTimes(type);
+            JsonObject typeReport = new JsonObject();
+            typeReport.addProperty("requests", responseTimes.getCount());
+            typeReport.addProperty("errors", recorder.errors(type));
+            typeReport.addProperty("clientErrors", recorder.clientErrors(type));
+            typeReport.addProperty("throughputPerSecond", throughputPerSecond(responseTimes.getCount()));
+            typeReport.add("responseTimeMillis", histogramJson(responseTimes));
+            typeReport.add("serviceTimeMillis", histogramJson(recorder.serviceTimes(type)));
+            types.add(type.name().toLowerCase(), typeReport);
+        }
+        report.add("types", types);
+
+        return report;
+    }
+
+    private JsonObject histogramJson(final MetricsHistogram histogram){
+        JsonObject values = new JsonObject();
+        values.addProperty("mean", millis(histogram.getMean()));
+        values.addProperty("p50", millis(histogram.getValueAtPercentile(50)));
+        values.addProperty("p90", millis(histogram.getValueAtPercentile(90)));
+        values.addProperty("p99", millis(histogram.getValueAtPercentile(99)));
+        values.addProperty("p999", millis(histogram.getValueAtPercentile(99.9)));
+        values.addProperty("max", millis(histogram.getMax()));
+        return values;
+    }
+
+    public void writeTo(final String reportFile) throws IOException {
+        final Path path = Paths.get(reportFile);
+        if(path.getParent()!=null){
+            Files.createDirectories(path.getParent());
+        }
+        Files.write(path, new GsonBuilder().setPrettyPrinting().create().
+                toJson(asJson()).getBytes(StandardCharsets.UTF_8));
+    }
+}
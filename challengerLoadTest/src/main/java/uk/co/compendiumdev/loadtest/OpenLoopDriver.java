@@ -0,0 +1,106 @@
+package uk.co.compendiumdev.loadtest;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/*
+    Send requests at a fixed arrival rate regardless of how quickly the server
+    responds (open loop). Request i is scheduled for start + i * interval and
+    its latency is recorded from that scheduled time, so when the server or
+    the driver falls behind the queueing delay is measured rather than hidden.
+
+    Requests are sent asynchronously, maxInFlight limits the outstanding
+    requests to protect the load generator, any time spent waiting for a
+    permit is included in the response time.
+ */
+public class OpenLoopDriver {
+
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final TodoRequests requests;
+    private final List<ChallengerSession> sessions;
+
+    private final AtomicLong sent = new AtomicLong();
+
+    public OpenLoopDriver(final LoadTestConfig config, final HttpClient client,
+                          final TodoRequests requests, final List<ChallengerSession> sessions){
+        this.config = config;
+        this.client = client;
+        this.requests = requests;
+        this.sessions = sessions;
+    }
+
+    public LoadTestReport run(){
+
+        final LatencyRecorder recorder = new LatencyRecorder();
+        final RequestMix mix = new RequestMix(config.mix);
+        final Random random = new Random(config.seed);
+        final Semaphore inFlight = new Semaphore(config.maxInFlight);
+
+        final long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.ratePerSecond;
+        final long totalRequests = (long)config.ratePerSecond * (config.warmupSeconds + config.durationSeconds);
+        final long warmupRequests = (long)config.ratePerSecond * config.warmupSeconds;
+
+        final long start = System.nanoTime();
+        final long measureFrom = start + warmupRequests * intervalNanos;
+
+        for(long requestNumber=0; requestNumber<totalRequests; requestNumber++){
+
+            final long intendedStart = start + requestNumber * intervalNanos;
+
+            long waitFor = intendedStart - System.nanoTime();
+            while(waitFor>0){
+                LockSupport.parkNanos(waitFor);
+                waitFor = intendedStart - System.nanoTime();
+            }
+
+            // choose everything from the seeded random on this thread so the mix is repeatable
+            final TodoRequestType type = mix.choose(random.nextDouble());
+            final ChallengerSession session = sessions.get(random.nextInt(sessions.size()));
+            final boolean useXml = random.nextInt(100) < config.xmlPercent;
+
+            inFlight.acquireUninterruptibly();
+
+            final HttpRequest request = requests.create(type, session, useXml, requestNumber);
+            final boolean measured = intendedStart >= measureFrom;
+            final long actualStart = System.nanoTime();
+            sent.incrementAndGet();
+
+            client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).
+                whenComplete((response, error) -> {
+                    final long completed = System.nanoTime();
+                    try{
+                        if(response!=null){
+                            requests.responded(type, session, response);
+                        }
+                        if(measured){
+                            recorder.record(type, intendedStart, actualStart, completed,
+                                    response==null ? 0 : response.statusCode());
+                        }
+                    }finally {
+                        // released last so the drain below only completes once every response is recorded
+                        inFlight.release();
+                    }
+                });
+        }
+
+        // wait for the outstanding responses before reporting
+        inFlight.acquireUninterruptibly(config.maxInFlight);
+        inFlight.release(config.maxInFlight);
+
+        final long measuredNanos = System.nanoTime() - measureFrom;
+
+        return new LoadTestReport(config, recorder, measuredNanos);
+    }
+
+    public long getSentCount(){
+        return sent.get();
+    }
+}
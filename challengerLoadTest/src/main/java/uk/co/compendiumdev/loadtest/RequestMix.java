@@ -0,0 +1,42 @@
+package uk.co.compendiumdev.loadtest;
+
+import java.util.Map;
+
+/*
+    Weighted choice of the request to send, chosen from a uniform random
+    number so that the mix is repeatable for a seeded random.
+ */
+public class RequestMix {
+
+    private final TodoRequestType[] types;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    public RequestMix(final Map<TodoRequestType, Integer> weights){
+
+        types = new TodoRequestType[weights.size()];
+        cumulativeWeights = new int[weights.size()];
+
+        int total = 0;
+        int index = 0;
+        for(Map.Entry<TodoRequestType, Integer> weight : weights.entrySet()){
+            total = total + Math.max(0, weight.getValue());
+            types[index] = weight.getKey();
+            cumulativeWeights[index] = total;
+            index++;
+        }
+
+        totalWeight = total;
+    }
+
+    /* choose from a random value between 0 (inclusive) and 1 (exclusive) */
+    public TodoRequestType choose(final double random){
+        final int point = (int)(random * totalWeight);
+        for(int index=0; index<types.length; index++){
+            if(point < cumulativeWeights[index]){
+                return types[index];
+            }
+        }
+        return types[types.length-1];
+    }
+}
@@ -0,0 +1,9 @@
+package uk.co.compendiumdev.loadtest;
+
+public enum TodoRequestType {
+    LIST,       // GET /todos
+    GET,        // GET /todos/{id}
+    CREATE,     // POST /todos
+    AMEND,      // PUT /todos/{id}
+    DELETE      // DELETE /todos/{id}
+}
@@ -0,0 +1,106 @@
+package uk.co.compendiumdev.loadtest;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+/*
+    Create the http requests for each request type against a session,
+    and track the todo ids created and deleted from the responses.
+ */
+public class TodoRequests {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+
+    public TodoRequests(final String baseUrl){
+        this.baseUrl = baseUrl;
+    }
+
+    public HttpRequest create(final TodoRequestType type, final ChallengerSession session,
+                              final boolean useXml, final long sequence){
+
+        final String mediaType = useXml ? "application/xml" : "application/json";
+
+        String id;
+        switch (type){
+            case GET:
+                id = session.anyTodoId();
+                return request("/todos/" + (id==null ? "1" : id), session, mediaType).GET().build();
+
+            case CREATE:
+                return request("/todos", session, mediaType).
+                        header("Content-Type", mediaType).
+                        POST(HttpRequest.BodyPublishers.ofString(todoBody(useXml, "load test todo " + sequence))).
+                        build();
+
+            case AMEND:
+                id = session.anyTodoId();
+                return request("/todos/" + (id==null ? "1" : id), session, mediaType).
+                        header("Content-Type", mediaType).
+                        PUT(HttpRequest.BodyPublishers.ofString(todoBody(useXml, "amended todo " + sequence))).
+                        build();
+
+            case DELETE:
+                id = session.takeTodoId();
+                return request("/todos/" + (id==null ? "1" : id), session, mediaType).DELETE().build();
+
+            case LIST:
+            default:
+                return request("/todos", session, mediaType).GET().build();
+        }
+    }
+
+    private HttpRequest.Builder request(final String path, final ChallengerSession session, final String accept){
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).
+                timeout(REQUEST_TIMEOUT).
+                header("X-CHALLENGER", session.getXChallenger()).
+                header("Accept", accept);
+    }
+
+    private String todoBody(final boolean useXml, final String title){
+        if(useXml){
+            return "<todo><title>" + title + "</title><doneStatus>false</doneStatus>" +
+                    "<description>created during a load test</description></todo>";
+        }
+        return "{\"title\":\"" + title + "\",\"doneStatus\":false," +
+                "\"description\":\"created during a load test\"}";
+    }
+
+    /* keep the session's known todos in line with the server */
+    public void responded(final TodoRequestType type, final ChallengerSession session,
+                          final HttpResponse<String> response){
+
+        if(type==TodoRequestType.CREATE && response.statusCode()==201){
+            response.headers().firstValue("Location").ifPresent(
+                    location -> session.addTodoId(location.substring(location.lastIndexOf("/")+1)));
+        }
+    }
+
+    public HttpRequest createSession(){
+        return HttpRequest.newBuilder(URI.create(baseUrl + "/challenger")).
+                timeout(REQUEST_TIMEOUT).
+                POST(HttpRequest.BodyPublishers.noBody()).
+                build();
+    }
+
+    public HttpRequest listTodosJson(final ChallengerSession session){
+        return request("/todos", session, "application/json").GET().build();
+    }
+
+    /* the ids from a GET /todos json response */
+    public void addTodoIdsFrom(final ChallengerSession session, final String todosJson){
+        final JsonObject todos = JsonParser.parseString(todosJson).getAsJsonObject();
+        if(todos.has("todos")){
+            for(JsonElement todo : todos.getAsJsonArray("todos")){
+                session.addTodoId(todo.getAsJsonObject().get("id").getAsString());
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package uk.co.compendiumdev.loadtest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class LoadTestConfigTest {
+
+    @Test
+    void canConfigureFromArgs(){
+
+        LoadTestConfig config = LoadTestConfig.fromArgs(new String[]{
+                "-target=http://localhost:4567/", "-rate=250", "-duration=60", "-warmup=0",
+                "-sessions=3", "-xml=150", "-mix=get:3,create:1", "-seed=42"});
+
+        Assertions.assertEquals("http://localhost:4567", config.targetUrl);
+        Assertions.assertFalse(config.isInProcess());
+        Assertions.assertEquals(250, config.ratePerSecond);
+        Assertions.assertEquals(60, config.durationSeconds);
+        Assertions.assertEquals(0, config.warmupSeconds);
+        Assertions.assertEquals(3, config.sessions);
+        Assertions.assertEquals(100, config.xmlPercent);
+        Assertions.assertEquals(42, config.seed);
+        Assertions.assertEquals(2, config.mix.size());
+        Assertions.assertEquals(3, config.mix.get(TodoRequestType.GET));
+    }
+
+    @Test
+    void invalidValuesKeepTheDefaults(){
+
+        LoadTestConfig config = LoadTestConfig.fromArgs(new String[]{"-rate=fast", "-duration=-1"});
+
+        Assertions.assertTrue(config.isInProcess());
+        Assertions.assertEquals(100, config.ratePerSecond);
+        Assertions.assertEquals(30, config.durationSeconds);
+    }
+
+    @Test
+    void argsAfterSeparatorArePassedToTheServer(){
+
+        LoadTestConfig config = LoadTestConfig.fromArgs(new String[]{
+                "-rate=10", "--", "-maxthreads=200", "-rate=5"});
+
+        Assertions.assertEquals(10, config.ratePerSecond);
+        Assertions.assertEquals(2, config.serverArgs.size());
+        Assertions.assertEquals("-maxthreads=200", config.serverArgs.get(0));
+    }
+
+    @Test
+    void mixMustHaveAWeight(){
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new LoadTestConfig().setMix("list:0,get:0"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> new LoadTestConfig().setMix("list"));
+    }
+}
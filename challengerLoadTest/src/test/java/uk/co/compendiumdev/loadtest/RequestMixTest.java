@@ -0,0 +1,42 @@
+package uk.co.compendiumdev.loadtest;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class RequestMixTest {
+
+    @Test
+    void choosesByCumulativeWeight(){
+
+        Map<TodoRequestType, Integer> weights = new LinkedHashMap<>();
+        weights.put(TodoRequestType.LIST, 50);
+        weights.put(TodoRequestType.CREATE, 0);
+        weights.put(TodoRequestType.DELETE, 50);
+
+        RequestMix mix = new RequestMix(weights);
+
+        Assertions.assertEquals(TodoRequestType.LIST, mix.choose(0.0));
+        Assertions.assertEquals(TodoRequestType.LIST, mix.choose(0.49));
+        Assertions.assertEquals(TodoRequestType.DELETE, mix.choose(0.5));
+        Assertions.assertEquals(TodoRequestType.DELETE, mix.choose(0.999));
+    }
+
+    @Test
+    void recordsLatencyFromIntendedStart(){
+
+        LatencyRecorder recorder = new LatencyRecorder();
+
+        // intended at 0, sent 9ms late, completed 1ms after sending
+        recorder.record(TodoRequestType.GET, 0, 9_000_000, 10_000_000, 200);
+        recorder.record(TodoRequestType.GET, 0, 0, 1_000_000, 404);
+        recorder.record(TodoRequestType.GET, 0, 0, 1_000_000, 0);
+
+        Assertions.assertTrue(recorder.responseTimes(TodoRequestType.GET).getMax() >= 10_000);
+        Assertions.assertTrue(recorder.serviceTimes(TodoRequestType.GET).getMax() < 1_100);
+        Assertions.assertEquals(1, recorder.clientErrors(TodoRequestType.GET));
+        Assertions.assertEquals(1, recorder.errors(TodoRequestType.GET));
+    }
+}
@@ -0,0 +1,80 @@
+package uk.co.compendiumdev.thingifier.core;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/*
+    Striped read/write locks keyed on database name.
+
+    Each database (e.g. a challenger session) maps to one of a fixed set
+    of locks. Requests against the same database are serialised for writes
+    so that a reader never sees a partly created, amended or deleted instance,
+    while requests against different databases will usually use different
+    locks and can run in parallel.
+
+    The number of stripes is fixed so we don't need to create or clean up a
+    lock when a database is created or deleted. Two databases may share a
+    stripe, which only means they contend for the same lock.
+ */
+public class DatabaseLocks {
+
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ReadWriteLock[] stripes;
+
+    public DatabaseLocks(){
+        this(DEFAULT_STRIPES);
+    }
+
+    public DatabaseLocks(final int numberOfStripes){
+
+        if(numberOfStripes<1){
+            throw new IllegalArgumentException(
+                    String.format("Database locks need at least 1 stripe, requested %d", numberOfStripes));
+        }
+
+        stripes = new ReadWriteLock[numberOfStripes];
+        for(int stripe=0; stripe<numberOfStripes; stripe++){
+            stripes[stripe] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public ReadWriteLock lockFor(final String databaseName){
+        return stripes[stripeFor(databaseName)];
+    }
+
+    int stripeFor(final String databaseName){
+        final String name = databaseName==null ? EntityRelModel.DEFAULT_DATABASE_NAME : databaseName;
+        // spread the hash so that similar names do not cluster on a stripe
+        int hash = name.hashCode();
+        hash ^= (hash >>> 16);
+        return Math.floorMod(hash, stripes.length);
+    }
+
+    public int numberOfStripes(){
+        return stripes.length;
+    }
+
+    /* for queries, many readers can access the same database at the same time */
+    public <T> T withReadLock(final String databaseName, final Supplier<T> action){
+        final ReadWriteLock lock = lockFor(databaseName);
+        lock.readLock().lock();
+        try{
+            return action.get();
+        }finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* for changes, only one writer, and no readers, can access the database at a time */
+    public <T> T withWriteLock(final String databaseName, final Supplier<T> action){
+        final ReadWriteLock lock = lockFor(databaseName);
+        lock.writeLock().lock();
+        try{
+            return action.get();
+        }finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -6,10 +6,15 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceDataSnapshot;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceStorageEngine;
 
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
 
 /*
     The ERM has the 'model' (ERSchema) and the 'instances' (things).
@@ -25,17 +30,25 @@ public class EntityRelModel {
     private final Map<String, ERInstanceData> databases;
     private final ERSchema schema; // all the definitions
     private DataPopulator dataPopulator;
+    // databases are created and accessed from request threads
+    private final DatabaseLocks databaseLocks;
+    // how new databases store their instances
+    private InstanceStorageEngine storageEngine = InstanceStorageEngine.getDefault();
+    // databases which have not been used for a while, held outside the heap
+    private OffHeapDatabaseStore idleDatabases;
 
     public EntityRelModel(){
         schema = new ERSchema();
-        databases = new HashMap<String,ERInstanceData>();
+        databaseLocks = new DatabaseLocks();
+        databases = new ConcurrentHashMap<String,ERInstanceData>();
         databases.put(DEFAULT_DATABASE_NAME, new ERInstanceData());
         dataPopulator = null;
     }
 
     public EntityRelModel(final ERSchema schema, final ERInstanceData erInstanceData) {
         this.schema = schema;
-        this.databases = new HashMap<String, ERInstanceData>();
+        this.databaseLocks = new DatabaseLocks();
+        this.databases = new ConcurrentHashMap<String, ERInstanceData>();
         this.databases.put(DEFAULT_DATABASE_NAME,erInstanceData);
     }
 
@@ -51,6 +64,26 @@ public class EntityRelModel {
         return defn;
     }
 
+    /* the storage engine for databases created after this is set, existing databases are unchanged */
+    public EntityRelModel setInstanceStorageEngine(final InstanceStorageEngine storageEngine){
+        this.storageEngine = storageEngine;
+        return this;
+    }
+
+    public InstanceStorageEngine getInstanceStorageEngine(){
+        return storageEngine;
+    }
+
+    /* where idle databases are spilled to, when null idle databases are kept on the heap */
+    public EntityRelModel setIdleDatabaseStore(final OffHeapDatabaseStore idleDatabases){
+        this.idleDatabases = idleDatabases;
+        return this;
+    }
+
+    public OffHeapDatabaseStore getIdleDatabaseStore(){
+        return idleDatabases;
+    }
+
     public ERSchema getSchema(){
         return schema;
     }
@@ -66,11 +99,113 @@ public class EntityRelModel {
     }
 
     public ERInstanceData getInstanceData(String databaseKey) {
-        return databases.get(databaseKey);
+        if(databaseKey==null){
+            return null;
+        }
+
+        ERInstanceData data = databases.get(databaseKey);
+        if(data==null){
+            data = restoreIdleDatabase(databaseKey);
+        }
+        if(data!=null){
+            data.touch();
+        }
+        return data;
+    }
+
+    /*
+        If the database was spilled because it was idle then restore it
+        to the heap, returns the database or null if there is no database
+        with the key.
+     */
+    public ERInstanceData restoreIdleDatabase(final String databaseKey){
+        if(databaseKey==null){
+            return null;
+        }
+
+        final ERInstanceData live = databases.get(databaseKey);
+        if(live!=null || idleDatabases==null || !idleDatabases.contains(databaseKey)){
+            return live;
+        }
+
+        // only one thread restores the database, the others wait for it
+        return databases.computeIfAbsent(databaseKey, key -> {
+            final ByteBuffer snapshot = idleDatabases.get(key);
+            if(snapshot==null){
+                return null;
+            }
+            final ERInstanceData restored = ERInstanceDataSnapshot.restore(schema, snapshot);
+            idleDatabases.remove(key);
+            return restored;
+        });
+    }
+
+    /*
+        Move the databases which have not been accessed for idleMillis to the
+        idle database store, returns the number of databases moved.
+        A database which is locked is being used so it is left on the heap.
+     */
+    public int spillIdleDatabases(final long idleMillis){
+        if(idleDatabases==null){
+            return 0;
+        }
+
+        final long idleSince = System.currentTimeMillis() - idleMillis;
+        int spilled = 0;
+
+        for(Map.Entry<String, ERInstanceData> database : databases.entrySet()){
+            final String databaseKey = database.getKey();
+            if(databaseKey.equals(DEFAULT_DATABASE_NAME) ||
+                    database.getValue().getLastAccessed() > idleSince){
+                continue;
+            }
+
+            final Lock lock = databaseLocks.lockFor(databaseKey).writeLock();
+            if(!lock.tryLock()){
+                continue;
+            }
+            try{
+                final ERInstanceData data = databases.get(databaseKey);
+                // it may have been used, or deleted, since we looked
+                if(data==null || data.getLastAccessed() > idleSince){
+                    continue;
+                }
+                idleDatabases.store(databaseKey, ERInstanceDataSnapshot.toBytes(data));
+                if(databases.remove(databaseKey, data)){
+                    spilled++;
+                }else{
+                    idleDatabases.remove(databaseKey);
+                }
+            }finally {
+                lock.unlock();
+            }
+        }
+
+        return spilled;
+    }
+
+    private boolean hasDatabase(final String databaseKey){
+        return databases.containsKey(databaseKey) ||
+                (idleDatabases!=null && idleDatabases.contains(databaseKey));
+    }
+
+    /* true when the database exists, even if it has been spilled because it was idle */
+    public boolean hasInstanceDatabaseNamed(final String databaseKey){
+        return databaseKey!=null && hasDatabase(databaseKey);
+    }
+
+    public DatabaseLocks getDatabaseLocks(){
+        return databaseLocks;
     }
 
     public Set<String> getDatabaseNames(){
-        return databases.keySet();
+        if(idleDatabases==null || idleDatabases.countDatabases()==0){
+            return databases.keySet();
+        }
+
+        final Set<String> names = new HashSet<>(databases.keySet());
+        names.addAll(idleDatabases.getDatabaseKeys());
+        return names;
     }
 
     // ERM Object Level
@@ -78,6 +213,18 @@ public class EntityRelModel {
         return new EntityRelModel(schema, new ERInstanceData(instances));
     }
 
+    /*
+        instance data for the schema which is not stored as one of the
+        databases, used for per request state which is thrown away
+        e.g. when the schema is shared across requests
+     */
+    public ERInstanceData createDetachedInstanceData() {
+        // detached data holds instances briefly, there is no benefit in moving them into columns
+        ERInstanceData aDatabase = new ERInstanceData(InstanceStorageEngine.ROW);
+        aDatabase.createInstanceCollectionFrom(this.schema);
+        return aDatabase;
+    }
+
     // Schema methods
     // TODO: consider inlining all of these
     public boolean hasEntityNamed(final String aName) {
@@ -121,7 +268,7 @@ public class EntityRelModel {
     // Multiple Databases
     public void createInstanceDatabase(String databaseKey) {
 
-        if(databases.containsKey(databaseKey)){
+        if(hasDatabase(databaseKey)){
             throw new IllegalStateException("ERM Database Already Exists with name " + databaseKey);
         }
 
@@ -134,21 +281,48 @@ public class EntityRelModel {
             throw new IllegalStateException("Cannot delete default database");
         }
         databases.remove(databaseKey);
+        if(idleDatabases!=null){
+            idleDatabases.remove(databaseKey);
+        }
     }
 
     public boolean createInstanceDatabaseIfNotExisting(String databaseKey) {
-        if(databases.containsKey(databaseKey)){
+        if(hasDatabase(databaseKey)){
             return false;
         }
 
-        ERInstanceData aDatabase = new ERInstanceData();
+        // another request may have created the database since we checked
+        return databases.putIfAbsent(databaseKey, createEmptyInstanceData())==null;
+    }
+
+    /*
+        an empty database for the schema which is not yet one of the
+        databases e.g. to import into, then use with restoreInstanceDatabase
+     */
+    public ERInstanceData createEmptyInstanceData() {
+        ERInstanceData aDatabase = new ERInstanceData(storageEngine);
         aDatabase.createInstanceCollectionFrom(this.schema);
-        databases.put(databaseKey, aDatabase);
-        return true;
+        return aDatabase;
+    }
+
+    /*
+        Use previously persisted data, e.g. restored from a snapshot, as the
+        database for the key, replacing any existing database.
+     */
+    public void restoreInstanceDatabase(final String databaseKey, final ERInstanceData data){
+        if(databaseKey==null || data==null){
+            throw new IllegalArgumentException("Can not restore a database without a name and data");
+        }
+
+        if(idleDatabases!=null){
+            idleDatabases.remove(databaseKey);
+        }
+        data.touch();
+        databases.put(databaseKey, data);
     }
 
     public boolean populateDatabase(String databaseKey){
-        if(!databases.containsKey(databaseKey)){
+        if(!hasDatabase(databaseKey)){
             return false;
         }
 
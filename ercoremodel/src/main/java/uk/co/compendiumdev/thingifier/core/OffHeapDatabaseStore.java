@@ -0,0 +1,138 @@
+package uk.co.compendiumdev.thingifier.core;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Snapshots of databases which have not been used for a while, held
+    outside of the heap so that a node can hold more databases e.g. when
+    most challenger sessions go idle after a few requests.
+
+    DIRECT keeps each snapshot in a direct ByteBuffer.
+    MAPPED_FILE writes each snapshot to a file in a directory and memory
+    maps it, so the operating system can page it out when it is not used.
+ */
+public class OffHeapDatabaseStore {
+
+    public enum Storage {DIRECT, MAPPED_FILE}
+
+    private final Storage storage;
+    private final Path directory;
+    private final Map<String, ByteBuffer> snapshots;
+    private final AtomicLong bytesStored;
+
+    private OffHeapDatabaseStore(final Storage storage, final Path directory){
+        this.storage = storage;
+        this.directory = directory;
+        this.snapshots = new ConcurrentHashMap<>();
+        this.bytesStored = new AtomicLong();
+    }
+
+    public static OffHeapDatabaseStore direct(){
+        return new OffHeapDatabaseStore(Storage.DIRECT, null);
+    }
+
+    public static OffHeapDatabaseStore mappedFiles(final Path directory){
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    String.format("Could not create idle database directory %s", directory), e);
+        }
+        return new OffHeapDatabaseStore(Storage.MAPPED_FILE, directory);
+    }
+
+    public Storage getStorage(){
+        return storage;
+    }
+
+    public void store(final String databaseKey, final byte[] snapshot){
+
+        final ByteBuffer buffer;
+        if(storage==Storage.MAPPED_FILE){
+            buffer = mapToFile(databaseKey, snapshot);
+        }else{
+            buffer = ByteBuffer.allocateDirect(snapshot.length);
+            buffer.put(snapshot);
+            buffer.flip();
+        }
+
+        final ByteBuffer previous = snapshots.put(databaseKey, buffer.asReadOnlyBuffer());
+        bytesStored.addAndGet(snapshot.length - (previous==null ? 0 : previous.capacity()));
+    }
+
+    private MappedByteBuffer mapToFile(final String databaseKey, final byte[] snapshot){
+        final Path file = fileFor(databaseKey);
+        try(FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)){
+
+            final ByteBuffer toWrite = ByteBuffer.wrap(snapshot);
+            while(toWrite.hasRemaining()){
+                channel.write(toWrite);
+            }
+            // the mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, snapshot.length);
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    String.format("Could not write idle database %s to %s", databaseKey, file), e);
+        }
+    }
+
+    private Path fileFor(final String databaseKey){
+        return directory.resolve(URLEncoder.encode(databaseKey, StandardCharsets.UTF_8) + ".snapshot");
+    }
+
+    /* the snapshot, or null if the database is not stored */
+    public ByteBuffer get(final String databaseKey){
+        final ByteBuffer snapshot = snapshots.get(databaseKey);
+        return snapshot==null ? null : snapshot.duplicate();
+    }
+
+    public boolean contains(final String databaseKey){
+        return snapshots.containsKey(databaseKey);
+    }
+
+    public void remove(final String databaseKey){
+        final ByteBuffer removed = snapshots.remove(databaseKey);
+        if(removed==null){
+            return;
+        }
+
+        bytesStored.addAndGet(-removed.capacity());
+
+        if(storage==Storage.MAPPED_FILE){
+            try {
+                Files.deleteIfExists(fileFor(databaseKey));
+            } catch (IOException e) {
+                // some platforms will not delete a mapped file, it is truncated when the key is stored again
+                fileFor(databaseKey).toFile().deleteOnExit();
+            }
+        }
+    }
+
+    public Set<String> getDatabaseKeys(){
+        return snapshots.keySet();
+    }
+
+    public int countDatabases(){
+        return snapshots.size();
+    }
+
+    public long countBytes(){
+        return bytesStored.get();
+    }
+}
@@ -0,0 +1,90 @@
+package uk.co.compendiumdev.thingifier.core;
+
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+/*
+    A pool of scratch instance data for a schema.
+
+    Used when a request should be processed against a set of instances
+    which are not stored in any database e.g. the simulation mode where
+    each request 'sees' a different subset of the instances.
+
+    Rather than cloning the EntityRelModel for each request, an ERInstanceData
+    is borrowed from the pool, the instances are added, the request is
+    processed and the instance data is reset and returned to the pool.
+
+    The instances are not copied, they are still owned by wherever they
+    were created, the scratch data only holds them for the duration of the action.
+ */
+public class ScratchInstanceDataPool {
+
+    public static final int DEFAULT_POOL_SIZE = 16;
+
+    private final EntityRelModel erm;
+    private final BlockingQueue<ERInstanceData> available;
+
+    public ScratchInstanceDataPool(final EntityRelModel erm){
+        this(erm, DEFAULT_POOL_SIZE);
+    }
+
+    public ScratchInstanceDataPool(final EntityRelModel erm, final int maxPooled){
+
+        if(maxPooled<1){
+            throw new IllegalArgumentException(
+                    String.format("Scratch pool needs to hold at least 1 instance data, requested %d", maxPooled));
+        }
+
+        this.erm = erm;
+        this.available = new ArrayBlockingQueue<>(maxPooled);
+    }
+
+    /*
+        run the action against scratch instance data holding only the given instances,
+        the instance data must not be used once the action has returned
+     */
+    public <T> T withInstances(final Collection<EntityInstance> instances,
+                               final Function<ERInstanceData, T> action){
+
+        final ERInstanceData scratch = borrow();
+        try{
+            for(EntityInstance instance : instances){
+                final EntityInstanceCollection collection =
+                        scratch.getInstanceCollectionForEntityNamed(instance.getEntity().getName());
+                if(collection==null){
+                    throw new IllegalArgumentException(
+                            String.format("Scratch data has no collection for entity %s",
+                                    instance.getEntity().getName()));
+                }
+                collection.addInstance(instance);
+            }
+            return action.apply(scratch);
+        }finally {
+            release(scratch);
+        }
+    }
+
+    private ERInstanceData borrow(){
+        final ERInstanceData pooled = available.poll();
+        if(pooled!=null){
+            return pooled;
+        }
+        return erm.createDetachedInstanceData();
+    }
+
+    private void release(final ERInstanceData scratch){
+        scratch.detachAllInstances();
+        // if the pool is full then let this one be garbage collected
+        available.offer(scratch);
+    }
+
+    public int pooledCount(){
+        return available.size();
+    }
+}
@@ -2,19 +2,44 @@ package uk.co.compendiumdev.thingifier.core.domain.definitions;
 
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.validation.ValidationPlan;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+/*
+    Each field has a position, the order it was first added, so that instances
+    can store values in an array rather than a map.
+
+    Field names are case insensitive. Positions are keyed by the name as
+    defined and by the lower case name, so a lookup using the defined name,
+    the usual case, does not need to lower case it.
+
+    Once frozen no fields can be added, and the field name and field type
+    lists are built once and shared rather than built on every call.
+    The validation is compiled into a ValidationPlan the first time it is used.
+ */
 public class DefinedFields {
 
     private Map<String, Field> fields = new ConcurrentHashMap<>();
     // to control field order
     private List<String> orderedFieldNames = new ArrayList<>();
 
+    private final List<Field> positionedFields = new ArrayList<>();
+    private final Map<String, Integer> positionsByName = new ConcurrentHashMap<>();
+    private final Map<String, Integer> positionsByLowerCaseName = new ConcurrentHashMap<>();
+
+    // set when frozen
+    private volatile List<String> frozenFieldNames;
+    // indexed by a bit mask of the FieldType ordinals asked for, filled as they are used
+    private volatile AtomicReferenceArray<List<Field>> frozenFieldsOfTypes;
+    private volatile AtomicReferenceArray<List<String>> frozenFieldNamesOfTypes;
+    private volatile ValidationPlan validationPlan;
+
     @Override
     public String toString() {
         StringBuilder output = new StringBuilder();
@@ -28,19 +53,99 @@ public class DefinedFields {
         return output.toString();
     }
 
+    public DefinedFields freeze() {
+        if(isFrozen()){
+            return this;
+        }
+
+        for(Field aField : positionedFields){
+            if(aField.getType()==FieldType.OBJECT && aField.getObjectDefinition()!=null){
+                aField.getObjectDefinition().freeze();
+            }
+        }
+
+        final int typeCombinations = 1 << FieldType.values().length;
+        frozenFieldsOfTypes = new AtomicReferenceArray<>(typeCombinations);
+        frozenFieldNamesOfTypes = new AtomicReferenceArray<>(typeCombinations);
+        frozenFieldNames = List.copyOf(orderedFieldNames);
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozenFieldNames!=null;
+    }
+
+    /*
+        the compiled validation for the fields, or null if the fields are not
+        frozen since fields can still be added
+     */
+    public ValidationPlan getValidationPlan() {
+        if(!isFrozen()){
+            return null;
+        }
+
+        ValidationPlan plan = validationPlan;
+        if(plan==null){
+            plan = ValidationPlan.compile(this);
+            validationPlan = plan;
+        }
+        return plan;
+    }
+
     public void addField(final Field aField) {
-        fields.put(aField.getName().toLowerCase(), aField);
+        if(isFrozen()){
+            throw new IllegalStateException(
+                    String.format("Fields are frozen, can not add field %s", aField.getName()));
+        }
+
+        final String lowerCaseName = aField.getName().toLowerCase();
+        fields.put(lowerCaseName, aField);
         orderedFieldNames.add(aField.getName());
+
+        // a redefined field keeps its position
+        final Integer existingPosition = positionsByLowerCaseName.get(lowerCaseName);
+        if(existingPosition!=null){
+            positionedFields.set(existingPosition, aField);
+            positionsByName.values().remove(existingPosition);
+            positionsByName.put(aField.getName(), existingPosition);
+            return;
+        }
+
+        positionsByName.put(aField.getName(), positionedFields.size());
+        positionsByLowerCaseName.put(lowerCaseName, positionedFields.size());
+        positionedFields.add(aField);
+    }
+
+    /* the position of the field, or -1 if it is not defined */
+    public int positionOf(final String fieldName) {
+        Integer position = positionsByName.get(fieldName);
+        if(position==null){
+            position = positionsByLowerCaseName.get(fieldName.toLowerCase());
+        }
+        return position==null ? -1 : position;
+    }
+
+    public Field getFieldAt(final int position) {
+        return positionedFields.get(position);
+    }
+
+    public int countFields() {
+        return positionedFields.size();
     }
 
     public List<String> getFieldNames() {
+        final List<String> frozen = frozenFieldNames;
+        if(frozen!=null){
+            return frozen;
+        }
+
         ArrayList<String> fieldNames = new ArrayList<>();
         fieldNames.addAll(orderedFieldNames);
         return fieldNames;
     }
 
     public boolean hasFieldNameDefined(final String fieldName) {
-        return fields.keySet().contains(fieldName.toLowerCase());
+        return positionOf(fieldName) != -1;
     }
 
     public DefinedFields addFields(final Field... theseFields) {
@@ -51,13 +156,36 @@ public class DefinedFields {
     }
 
     public Field getField(final String fieldName) {
-        if (hasFieldNameDefined(fieldName)) {
-            return fields.get(fieldName.toLowerCase());
+        final int position = positionOf(fieldName);
+        if (position != -1) {
+            return positionedFields.get(position);
         }
         return null;
     }
 
     public List<Field> getFieldsOfType(final FieldType... types) {
+        if(isFrozen()){
+            final int mask = maskOf(types);
+            List<Field> fieldsOfTypes = frozenFieldsOfTypes.get(mask);
+            if(fieldsOfTypes==null){
+                fieldsOfTypes = List.copyOf(findFieldsOfType(types));
+                frozenFieldsOfTypes.set(mask, fieldsOfTypes);
+            }
+            return fieldsOfTypes;
+        }
+
+        return findFieldsOfType(types);
+    }
+
+    private static int maskOf(final FieldType... types) {
+        int mask = 0;
+        for(FieldType type : types){
+            mask |= 1 << type.ordinal();
+        }
+        return mask;
+    }
+
+    private List<Field> findFieldsOfType(final FieldType... types) {
         final List<FieldType> typeCheck = Arrays.asList(types);
         List<Field> returnFields = new ArrayList<>();
 
@@ -71,6 +199,20 @@ public class DefinedFields {
     }
 
     public List<String> getFieldNamesOfType(final FieldType... types) {
+        if(isFrozen()){
+            final int mask = maskOf(types);
+            List<String> namesOfTypes = frozenFieldNamesOfTypes.get(mask);
+            if(namesOfTypes==null){
+                namesOfTypes = List.copyOf(findFieldNamesOfType(types));
+                frozenFieldNamesOfTypes.set(mask, namesOfTypes);
+            }
+            return namesOfTypes;
+        }
+
+        return findFieldNamesOfType(types);
+    }
+
+    private List<String> findFieldNamesOfType(final FieldType... types) {
 
         List<String> fieldNames = new ArrayList<>();
         List<Field> typedFields = getFieldsOfType(types);
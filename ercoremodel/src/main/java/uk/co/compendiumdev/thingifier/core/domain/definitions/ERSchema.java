@@ -5,20 +5,59 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.Relat
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/*
+    Freezing the schema, when the model has been defined, also compiles it
+    so that plural names and relationship names, including reversed
+    relationships, are found with a lookup rather than by searching all
+    of the definitions. The entity field lists are cached.
+ */
 public class ERSchema {
 
     private final ConcurrentHashMap<String, RelationshipDefinition> relationships;
     private final ConcurrentHashMap<String, EntityDefinition> entityDefinitions;
+    // a frozen schema can not have entities or relationships added so can be shared across threads
+    private volatile boolean frozen;
+    // built when frozen
+    private volatile Compiled compiled;
 
     public ERSchema(){
         relationships = new ConcurrentHashMap<>();
         entityDefinitions = new ConcurrentHashMap<>();
+        frozen = false;
+    }
+
+    public ERSchema freeze(){
+        if(frozen){
+            return this;
+        }
+        frozen = true;
+        for(EntityDefinition definition : entityDefinitions.values()){
+            definition.freeze();
+        }
+        compiled = new Compiled(entityDefinitions.values(), relationships);
+        return this;
+    }
+
+    public boolean isFrozen(){
+        return frozen;
+    }
+
+    private void failIfFrozen(final String change){
+        if(frozen){
+            throw new IllegalStateException(
+                    String.format("Schema is frozen, can not %s", change));
+        }
     }
 
     public EntityDefinition defineEntity(final String thingName, final String pluralName, final int maxiumNumberOfInstances) {
+        failIfFrozen("define entity " + thingName);
         EntityDefinition definition = new EntityDefinition(thingName, pluralName, maxiumNumberOfInstances);
         entityDefinitions.put(definition.getName(), definition);
         return definition;
@@ -32,6 +71,7 @@ public class ERSchema {
         return entityDefinitions.values();
     }
     public RelationshipDefinition defineRelationship(final EntityDefinition from, final EntityDefinition to, final String named, final Cardinality of) {
+        failIfFrozen("define relationship " + named);
         RelationshipDefinition relationship =
                 RelationshipDefinition.create(
                         new RelationshipVectorDefinition(
@@ -45,6 +85,12 @@ public class ERSchema {
 
     public boolean hasRelationshipNamed(final String relationshipName) {
         if(relationshipName==null) return false;
+
+        final Compiled lookups = compiled;
+        if(lookups!=null){
+            return lookups.relationshipNames.contains(relationshipName.toLowerCase());
+        }
+
         if (relationships.containsKey(relationshipName.toLowerCase())) {
             return true;
         }
@@ -63,6 +109,11 @@ public class ERSchema {
 
 
     public List<String> getEntityNames() {
+        final Compiled lookups = compiled;
+        if(lookups!=null){
+            return lookups.entityNames;
+        }
+
         List<String> names = new ArrayList();
         names.addAll(entityDefinitions.keySet());
         return names;
@@ -88,6 +139,12 @@ public class ERSchema {
 
     public EntityDefinition getEntityDefinitionWithPluralNamed(final String term) {
         if(term==null) return null;
+
+        final Compiled lookups = compiled;
+        if(lookups!=null){
+            return lookups.entitiesByPlural.get(term.toLowerCase());
+        }
+
         for(EntityDefinition defn : entityDefinitions.values()){
             if(defn.getPlural().equalsIgnoreCase(term)){
                 return defn;
@@ -108,5 +165,41 @@ public class ERSchema {
         return getEntityDefinitionWithPluralNamed(term);
     }
 
+    /* the lookups for a frozen schema, which can not change */
+    private static final class Compiled {
+
+        private final List<String> entityNames;
+        private final Map<String, EntityDefinition> entitiesByPlural;
+        private final Set<String> relationshipNames;
+
+        private Compiled(final Collection<EntityDefinition> entities,
+                         final Map<String, RelationshipDefinition> relationships){
+
+            entityNames = List.copyOf(namesOf(entities));
+
+            final Map<String, EntityDefinition> byPlural = new HashMap<>();
+            for(EntityDefinition definition : entities){
+                // the first found wins, as it does when searching
+                byPlural.putIfAbsent(definition.getPlural().toLowerCase(), definition);
+            }
+            entitiesByPlural = Map.copyOf(byPlural);
+
+            // relationships are looked up by the lower case name, reversed relationships ignoring case
+            final Set<String> names = new HashSet<>(relationships.keySet());
+            for(RelationshipDefinition definition : relationships.values()){
+                if(definition.isTwoWay()){
+                    names.add(definition.getReversedRelationship().getName().toLowerCase());
+                }
+            }
+            relationshipNames = Set.copyOf(names);
+        }
 
+        private static List<String> namesOf(final Collection<EntityDefinition> entities){
+            final List<String> names = new ArrayList<>();
+            for(EntityDefinition definition : entities){
+                names.add(definition.getName());
+            }
+            return names;
+        }
+    }
 }
@@ -110,6 +110,12 @@ public class EntityDefinition {
         return null;
     }
 
+    /* no more fields can be added, the field lists are cached */
+    public EntityDefinition freeze() {
+        fields.freeze();
+        return this;
+    }
+
     public InstanceFields instantiateFields() {
         return new InstanceFields(fields);
     }
@@ -40,6 +40,8 @@ public final class Field {
 
     private int truncatedStringLength;
     private Function<String, String> transformToMakeUnique;
+    // FieldValue is immutable so all unset instances share the default, reset when the definition changes
+    private FieldValue sharedDefaultValue;
 
     // todo: rather than all these fields, consider moving to more validation rules
     // to help keep the class to a more manageable size or create a FieldValidator class
@@ -79,10 +81,20 @@ public final class Field {
     public Field withDefaultValue(String aDefaultValue) {
         this.defaultValue = aDefaultValue;
         fieldExamples.add(aDefaultValue);
+        sharedDefaultValue = null;
         return this;
     }
 
     public FieldValue getDefaultValue() {
+        FieldValue shared = sharedDefaultValue;
+        if(shared==null){
+            shared = createDefaultValue();
+            sharedDefaultValue = shared;
+        }
+        return shared;
+    }
+
+    private FieldValue createDefaultValue() {
         // todo: allow configuration of allowedNullable
         // todo: handle defaults of object and array
         if(defaultValue==null && !allowedNullable){
@@ -98,6 +110,7 @@ public final class Field {
 
     public Field setMustBeUnique(boolean uniqueness) {
         this.mustBeUnique = uniqueness;
+        sharedDefaultValue = null;
         return this;
     }
 
@@ -198,7 +211,7 @@ public final class Field {
         if(value!= null && value.asObject()!=null){
             final ValidationReport objectValidity =
                     value.asObject().
-                            validateFields(new ArrayList<>(), true);
+                            validateFields(List.of(), true);
             report.combine(objectValidity);
         }
     }
@@ -488,6 +501,7 @@ public final class Field {
     public Field setUniqueAfterTransform(Function<String, String> transform) {
         setMustBeUnique(true);
         transformToMakeUnique = transform;
+        sharedDefaultValue = null;
         return this;
     }
 
@@ -3,18 +3,34 @@ package uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
 import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceFields;
 
+/*
+    Values of INTEGER, AUTO_INCREMENT, FLOAT and BOOLEAN fields are parsed
+    once when the FieldValue is created, so comparisons, sorting and rendering
+    do not parse the String each time. A value which does not parse is kept
+    as a String and the as methods will throw when used, as they always have.
+
+    Values can also be created from the primitive, e.g. when read from
+    a column, and the String is only created if it is asked for.
+ */
 public final class FieldValue {
 
+    private enum Parsed { NONE, INTEGER, FLOAT, BOOLEAN }
+
     //TODO: Field Value should have the definition and getValue would return default if not set
     // this would allow field values to compare against each other and simplify other code
     private final String fieldName; // should this be name or should it be a Field reference?
-    private final String valueOfField;
+    private String valueOfField; // created on demand when the value was created from a primitive
     private final Field forField; // the related field
-    private final String valueForUniqueComparison;
+    private String valueForUniqueComparison;
     private InstanceFields objectValue;
     // todo: list of strings for an array
     // todo: list of InstanceFields for an array of objects
 
+    private final Parsed parsed;
+    private final int integerValue;
+    private final float floatValue;
+    private final boolean booleanValue;
+
     public FieldValue(Field forField, String fieldValue) {
         this.forField = forField;
         this.fieldName = forField.getName();
@@ -26,13 +42,67 @@ public final class FieldValue {
         }else {
             this.valueForUniqueComparison = fieldValue;
         }
+
+        Parsed parsedAs = Parsed.NONE;
+        int anInteger = 0;
+        float aFloat = 0;
+        boolean aBoolean = false;
+
+        if(fieldValue!=null) {
+            switch (forField.getType()) {
+                case INTEGER:
+                case AUTO_INCREMENT:
+                    try {
+                        anInteger = Integer.parseInt(fieldValue);
+                        parsedAs = Parsed.INTEGER;
+                    } catch (NumberFormatException e) {
+                        // left as a String
+                    }
+                    break;
+                case FLOAT:
+                    try {
+                        aFloat = Float.parseFloat(fieldValue);
+                        parsedAs = Parsed.FLOAT;
+                    } catch (NumberFormatException e) {
+                        // left as a String
+                    }
+                    break;
+                case BOOLEAN:
+                    // the same check as asBoolean
+                    final String lowerCase = fieldValue.toLowerCase();
+                    if (lowerCase.contentEquals("true") || lowerCase.contentEquals("false")) {
+                        aBoolean = lowerCase.contentEquals("true");
+                        parsedAs = Parsed.BOOLEAN;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        this.parsed = parsedAs;
+        this.integerValue = anInteger;
+        this.floatValue = aFloat;
+        this.booleanValue = aBoolean;
+    }
+
+    private FieldValue(Field forField, Parsed parsed, int integerValue, float floatValue, boolean booleanValue) {
+        this.forField = forField;
+        this.fieldName = forField.getName();
+        this.valueOfField = null;
+        this.valueForUniqueComparison = null;
+        this.objectValue = null;
+        this.parsed = parsed;
+        this.integerValue = integerValue;
+        this.floatValue = floatValue;
+        this.booleanValue = booleanValue;
     }
 
     @Override
     public String toString() {
         String string =  "FieldValue{" +
                 "fieldName='" + fieldName + "'" +
-                ", fieldValue='" + valueOfField + "'";
+                ", fieldValue='" + asString() + "'";
         if(objectValue!=null){
             string = string + ",{ " + objectValue + " }";
         }
@@ -46,6 +116,18 @@ public final class FieldValue {
         return new FieldValue(forField, fieldValue);
     }
 
+    public static FieldValue is(Field forField, int integerValue) {
+        return new FieldValue(forField, Parsed.INTEGER, integerValue, 0, false);
+    }
+
+    public static FieldValue is(Field forField, float floatValue) {
+        return new FieldValue(forField, Parsed.FLOAT, 0, floatValue, false);
+    }
+
+    public static FieldValue is(Field forField, boolean booleanValue) {
+        return new FieldValue(forField, Parsed.BOOLEAN, 0, 0, booleanValue);
+    }
+
     public static FieldValue is(Field forField, InstanceFields objectValue) {
         final FieldValue value = new FieldValue(forField, "");
         value.setValue(objectValue);
@@ -66,14 +148,28 @@ public final class FieldValue {
         if(objectValue!=null){
             return FieldValue.is(forField, objectValue.cloned());
         }else{
-            return FieldValue.is(forField, valueOfField);
+            return FieldValue.is(forField, asString());
         }
     }
 
 
 
     public String asString() {
-        return valueOfField;
+        String value = valueOfField;
+        if(value==null && parsed!=Parsed.NONE){
+            switch (parsed){
+                case INTEGER:
+                    value = Integer.toString(integerValue);
+                    break;
+                case FLOAT:
+                    value = Float.toString(floatValue);
+                    break;
+                default:
+                    value = Boolean.toString(booleanValue);
+            }
+            valueOfField = value;
+        }
+        return value;
     }
 
     public InstanceFields asObject() {
@@ -81,22 +177,33 @@ public final class FieldValue {
     }
 
     public float asFloat() {
-        return Float.parseFloat(valueOfField);
+        if(parsed==Parsed.FLOAT){
+            return floatValue;
+        }
+        return Float.parseFloat(asString());
     }
 
     public boolean asBoolean() {
-        if (valueOfField.toLowerCase().contentEquals("true")){
+        if(parsed==Parsed.BOOLEAN){
+            return booleanValue;
+        }
+
+        final String value = asString();
+        if (value.toLowerCase().contentEquals("true")){
             return true;
         }
-        if(valueOfField.toLowerCase().contentEquals("false")) {
+        if(value.toLowerCase().contentEquals("false")) {
             return false;
         }
 
-        throw new IllegalArgumentException(valueOfField + " is not boolean");
+        throw new IllegalArgumentException(value + " is not boolean");
     }
 
     public int asInteger() {
-        return Integer.parseInt(valueOfField);
+        if(parsed==Parsed.INTEGER){
+            return integerValue;
+        }
+        return Integer.parseInt(asString());
     }
 
     public String asJsonValue() {
@@ -105,14 +212,14 @@ public final class FieldValue {
             case FLOAT:
             case AUTO_INCREMENT:
             case INTEGER:
-                return valueOfField;
+                return asString();
             case AUTO_GUID:
             case DATE:
             case ENUM:
             case STRING:
-                return quoted(valueOfField);
+                return quoted(asString());
             default:
-                return quoted(valueOfField);
+                return quoted(asString());
         }
     }
 
@@ -121,6 +228,11 @@ public final class FieldValue {
     }
 
     public String asUniqueComparisonString() {
-        return valueForUniqueComparison;
+        String value = valueForUniqueComparison;
+        if(value==null && parsed!=Parsed.NONE){
+            value = forField.mustBeUnique() ? forField.uniqueAfterTransform(asString()) : asString();
+            valueForUniqueComparison = value;
+        }
+        return value;
     }
 }
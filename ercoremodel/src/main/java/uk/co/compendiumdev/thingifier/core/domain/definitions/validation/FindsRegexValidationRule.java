@@ -28,6 +28,10 @@ public class FindsRegexValidationRule implements ValidationRule {
         return String.format("%s does not satisfy the regex %s",value.getName(), this.regexToMatch);
     }
 
+    public Pattern getPattern() {
+        return pattern;
+    }
+
     @Override
     public String getExplanation() {
         return String.format("Value must contain text that matches the regex %s", this.regexToMatch);
@@ -28,6 +28,10 @@ public class MatchesRegexValidationRule implements ValidationRule {
         return String.format("%s does not match the regex %s",value.getName(), this.regexToMatch);
     }
 
+    public Pattern getPattern() {
+        return pattern;
+    }
+
     @Override
     public String getExplanation() {
         return String.format("Value must match the regex %s", this.regexToMatch);
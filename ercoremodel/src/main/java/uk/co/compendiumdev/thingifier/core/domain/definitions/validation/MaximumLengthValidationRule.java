@@ -32,6 +32,10 @@ public class MaximumLengthValidationRule implements ValidationRule {
                 value.getName(), maxLength);
     }
 
+    public int getMaximumLength() {
+        return maxLength;
+    }
+
     @Override
     public String getExplanation() {
         return "Maximum length allowed is %d".formatted(maxLength);
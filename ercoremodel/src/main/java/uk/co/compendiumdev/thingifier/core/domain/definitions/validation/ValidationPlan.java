@@ -0,0 +1,214 @@
+package uk.co.compendiumdev.thingifier.core.domain.definitions.validation;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.DefinedFields;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceFields;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/*
+    The validation for a frozen DefinedFields compiled into an array of
+    checks, one per field, so that validating valid fields does not create
+    reports, messages, example lists or regex matchers.
+
+    The plan only answers 'are these fields valid?'. When a check fails, or
+    can not be decided cheaply e.g. an integer sent as 1.0, the caller
+    validates with Field.validate which reports the reasons, so the error
+    messages are only formatted when they are needed and stay the same.
+ */
+public final class ValidationPlan {
+
+    private final FieldCheck[] checks;
+
+    private ValidationPlan(final FieldCheck[] checks){
+        this.checks = checks;
+    }
+
+    public static ValidationPlan compile(final DefinedFields definition){
+        final FieldCheck[] checks = new FieldCheck[definition.countFields()];
+        for(int position=0; position<checks.length; position++){
+            checks[position] = new FieldCheck(position, definition.getFieldAt(position));
+        }
+        return new ValidationPlan(checks);
+    }
+
+    /* true when the fields are valid, false when they are not, or might not be */
+    public boolean passes(final InstanceFields fields, final List<String> excluding,
+                          final boolean allowedToSetIds){
+
+        final boolean checkExclusions = !excluding.isEmpty();
+
+        for(FieldCheck check : checks){
+            if(checkExclusions && excluding.contains(check.name)){
+                continue;
+            }
+            if(!check.passes(fields.getAssignedValueAt(check.position), allowedToSetIds)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static final class FieldCheck {
+
+        private final int position;
+        private final String name;
+        private final FieldType type;
+        private final boolean optional;
+        private final Field field;
+        private final Set<String> enumValues;
+        private final ValueCheck[] ruleChecks;
+
+        private FieldCheck(final int position, final Field field){
+            this.position = position;
+            this.field = field;
+            this.name = field.getName();
+            this.type = field.getType();
+            this.optional = !field.isMandatory();
+            this.enumValues = type==FieldType.ENUM ?
+                    Collections.unmodifiableSet(new HashSet<>(field.getExamples())) : Set.of();
+
+            final List<ValidationRule> rules = field.validationRules();
+            ruleChecks = new ValueCheck[rules.size()];
+            for(int rule=0; rule<ruleChecks.length; rule++){
+                ruleChecks[rule] = checkFor(rules.get(rule));
+            }
+        }
+
+        private boolean passes(final FieldValue value, final boolean allowedToSetIds){
+
+            // the same order of checks as Field.validate
+            if(optional && value==null){
+                return true;
+            }
+
+            if(!allowedToSetIds && type==FieldType.AUTO_INCREMENT){
+                return false;
+            }
+
+            if(value==null){
+                return false;
+            }
+
+            if(!passesTypeCheck(value)){
+                return false;
+            }
+
+            for(ValueCheck ruleCheck : ruleChecks){
+                if(!ruleCheck.passes(value)){
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private boolean passesTypeCheck(final FieldValue value){
+            try {
+                switch (type) {
+                    case BOOLEAN:
+                        value.asBoolean();
+                        return true;
+                    case INTEGER:
+                        // values like 1.0 or out of int range are left to Field.validate
+                        return field.withinAllowedIntegerRange(value.asInteger());
+                    case FLOAT:
+                        return field.withinAllowedFloatRange(value.asFloat());
+                    case ENUM:
+                        return enumValues.contains(value.asString());
+                    case OBJECT:
+                        return objectPasses(value.asObject());
+                    default:
+                        return true;
+                }
+            }catch(IllegalArgumentException e){
+                // includes NumberFormatException
+                return false;
+            }
+        }
+
+        private boolean objectPasses(final InstanceFields object){
+            if(object==null){
+                return true;
+            }
+
+            final ValidationPlan nested = object.getDefinition().getValidationPlan();
+            if(nested==null){
+                return object.validateFields(List.of(), true).isValid();
+            }
+            return nested.passes(object, List.of(), true);
+        }
+    }
+
+    private interface ValueCheck {
+        boolean passes(FieldValue value);
+    }
+
+    private static ValueCheck checkFor(final ValidationRule rule){
+
+        if(rule instanceof MaximumLengthValidationRule){
+            final int maxLength = ((MaximumLengthValidationRule) rule).getMaximumLength();
+            return value -> value.asString()==null || value.asString().length()<=maxLength;
+        }
+
+        if(rule instanceof NotEmptyValidationRule){
+            return value -> hasNonWhitespace(value.asString());
+        }
+
+        if(rule instanceof MatchesRegexValidationRule){
+            return new RegexCheck(((MatchesRegexValidationRule) rule).getPattern(), true);
+        }
+
+        if(rule instanceof FindsRegexValidationRule){
+            return new RegexCheck(((FindsRegexValidationRule) rule).getPattern(), false);
+        }
+
+        return rule::validates;
+    }
+
+    /* the same as trim().length()!=0 without creating a String */
+    private static boolean hasNonWhitespace(final String value){
+        if(value==null){
+            return false;
+        }
+        for(int index=0; index<value.length(); index++){
+            if(value.charAt(index) > ' '){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* each request thread reuses its own matcher */
+    private static final class RegexCheck implements ValueCheck {
+
+        private final ThreadLocal<Matcher> matchers;
+        private final boolean wholeValue;
+
+        private RegexCheck(final Pattern pattern, final boolean wholeValue){
+            this.matchers = ThreadLocal.withInitial(() -> pattern.matcher(""));
+            this.wholeValue = wholeValue;
+        }
+
+        @Override
+        public boolean passes(final FieldValue value){
+            final String stringValue = value.asString();
+            if(stringValue==null){
+                // the rule fails on null, leave it to report that
+                return false;
+            }
+            final Matcher matcher = matchers.get().reset(stringValue);
+            final boolean passes = wholeValue ? matcher.matches() : matcher.find();
+            // do not keep the value reachable from the thread
+            matcher.reset("");
+            return passes;
+        }
+    }
+}
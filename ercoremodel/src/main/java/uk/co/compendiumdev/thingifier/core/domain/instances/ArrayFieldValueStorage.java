@@ -0,0 +1,42 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.Arrays;
+
+/*
+    The default storage, the instance holds its own values in an array
+ */
+final class ArrayFieldValueStorage implements FieldValueStorage {
+
+    private FieldValue[] values;
+
+    ArrayFieldValueStorage(final int numberOfFields){
+        values = new FieldValue[numberOfFields];
+    }
+
+    @Override
+    public FieldValue get(final int position) {
+        if(position<0 || position>=values.length){
+            return null;
+        }
+        return values[position];
+    }
+
+    @Override
+    public void set(final int position, final FieldValue value) {
+        // fields added to the definition after this instance was created
+        if(position>=values.length){
+            if(value==null){
+                return;
+            }
+            values = Arrays.copyOf(values, position+1);
+        }
+        values[position] = value;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+}
@@ -27,6 +27,11 @@ public class AutoIncrement {
         return nextInt;
     }
 
+    /* the value the next instance will be given, without using it e.g. to save the counter */
+    public synchronized int peekNextValue(){
+        return nextInt;
+    }
+
     private synchronized void  update(){
         nextInt = nextInt + incrementBy;
     }
@@ -37,6 +42,10 @@ public class AutoIncrement {
         return curr;
     }
 
+    public synchronized void resetTo(int firstValue) {
+        nextInt = firstValue;
+    }
+
     public synchronized void incrementToNextAbove(Integer integer) {
         nextInt = integer;
         update();
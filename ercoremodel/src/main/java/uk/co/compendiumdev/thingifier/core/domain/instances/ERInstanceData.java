@@ -10,9 +10,29 @@ import java.util.concurrent.ConcurrentHashMap;
 
 public class ERInstanceData {
     private final ConcurrentHashMap<String, EntityInstanceCollection> instanceCollections;
+    private final InstanceStorageEngine storageEngine;
+    private volatile long lastAccessed = System.currentTimeMillis();
 
     public ERInstanceData() {
+        this(InstanceStorageEngine.getDefault());
+    }
+
+    public ERInstanceData(final InstanceStorageEngine storageEngine) {
         instanceCollections = new ConcurrentHashMap<>();
+        this.storageEngine = storageEngine;
+    }
+
+    public InstanceStorageEngine getStorageEngine() {
+        return storageEngine;
+    }
+
+    /* record that the database was used, so that idle databases can be found */
+    public void touch() {
+        lastAccessed = System.currentTimeMillis();
+    }
+
+    public long getLastAccessed() {
+        return lastAccessed;
     }
 
     public String quoted(String aString){
@@ -32,12 +52,13 @@ public class ERInstanceData {
 
             dataArray.append( separator +  quoted(defn.getPlural()) + " : [");
 
+            final List<String> fieldNames = defn.getFieldNames();
             String instanceSeparator = "";
             for(EntityInstance instance : entry.getInstances()){
                 dataArray.append( instanceSeparator + "{");
 
                 String fieldSeparator = "";
-                for(String fieldName : defn.getFieldNames()){
+                for(String fieldName : fieldNames){
                     Field aField = defn.getField(fieldName);
                     if(instance.hasInstantiatedFieldNamed(fieldName)){
                         dataArray.append(fieldSeparator);
@@ -65,8 +86,10 @@ public class ERInstanceData {
         return dataArray.toString();
     }
 
+    // the instances are owned by another database so are left in their own storage
     public ERInstanceData(final List<EntityInstance> instances) {
         instanceCollections = new ConcurrentHashMap<>();
+        storageEngine = InstanceStorageEngine.ROW;
         final EntityInstanceCollection managedInstances =
                 createInstanceCollectionFor(instances.get(0).getEntity());
         managedInstances.addInstances(instances);
@@ -74,7 +97,7 @@ public class ERInstanceData {
 
     public EntityInstanceCollection createInstanceCollectionFor(
                                         final EntityDefinition definition) {
-        EntityInstanceCollection aCollection = new EntityInstanceCollection(definition);
+        EntityInstanceCollection aCollection = new EntityInstanceCollection(definition, storageEngine);
         instanceCollections.put(definition.getName(), aCollection);
         return aCollection;
     }
@@ -89,6 +112,14 @@ public class ERInstanceData {
         return new ArrayList<EntityInstanceCollection>(instanceCollections.values());
     }
 
+    public int countInstances() {
+        int count = 0;
+        for (EntityInstanceCollection anInstanceCollection : instanceCollections.values()) {
+            count = count + anInstanceCollection.countInstances();
+        }
+        return count;
+    }
+
     public EntityInstance findEntityInstanceByGUID(final String thingGUID) {
         for (EntityInstanceCollection anInstanceCollection : instanceCollections.values()) {
             final List<String> guidFields = anInstanceCollection.definition().getFieldNamesOfType(FieldType.AUTO_GUID);
@@ -138,6 +169,16 @@ public class ERInstanceData {
         }
     }
 
+    /*
+        remove all instances from the collections without deleting them
+        or their relationships, for instance data used as scratch space
+     */
+    public void detachAllInstances() {
+        for(EntityInstanceCollection instanceCollection : instanceCollections.values()){
+            instanceCollection.detachAllInstances();
+        }
+    }
+
     public void clearInstanceDataFor(String instanceName) {
         EntityInstanceCollection instanceCollection = instanceCollections.get(instanceName);
 
@@ -0,0 +1,409 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.DefinedFields;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+    A compact binary copy of the instances in an ERInstanceData, so that a
+    database can be held outside of the heap e.g. an idle challenger database.
+
+    The snapshot records the field names of each entity so it can be restored
+    against a schema with fields added or removed. Values are written as their
+    parsed type when they would be read back as the same String, otherwise
+    as the String. Relationships are written once, by the position of the
+    instances in the snapshot.
+
+    Restoring does not validate the instances, they were valid when the
+    snapshot was taken.
+
+    Snapshots are held in memory for idle databases, and written to files
+    through a FileChannel when a database is persisted.
+ */
+public final class ERInstanceDataSnapshot {
+
+    static final int MAGIC = 0x45524944; // ERID
+    static final short VERSION = 1;
+
+    private static final byte ABSENT = 0;
+    private static final byte STRING = 1;
+    private static final byte NULL_STRING = 2;
+    private static final byte INTEGER = 3;
+    private static final byte FLOAT = 4;
+    private static final byte TRUE = 5;
+    private static final byte FALSE = 6;
+    private static final byte OBJECT = 7;
+
+    private ERInstanceDataSnapshot(){
+    }
+
+    public static byte[] toBytes(final ERInstanceData data){
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try(DataOutputStream out = new DataOutputStream(bytes)){
+            write(data, out);
+        }catch(IOException e){
+            // writing to memory
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /* write the snapshot to the channel e.g. a FileChannel, the channel is left open */
+    public static void writeTo(final ERInstanceData data, final WritableByteChannel channel) throws IOException {
+        // not closed, that would close the channel
+        final DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+        write(data, out);
+        out.flush();
+    }
+
+    /* read a snapshot from the channel's position to the end of the file */
+    public static ByteBuffer readFrom(final FileChannel channel) throws IOException {
+        final long size = channel.size() - channel.position();
+        if(size > Integer.MAX_VALUE){
+            throw new IOException(
+                    String.format("Instance data snapshot of %d bytes is too large to read", size));
+        }
+
+        // read rather than map, a mapped file can not be replaced on some platforms until the mapping is collected
+        final ByteBuffer snapshot = ByteBuffer.allocate((int) size);
+        while(snapshot.hasRemaining()){
+            if(channel.read(snapshot)==-1){
+                throw new IOException("Instance data snapshot ended before it was read");
+            }
+        }
+        snapshot.flip();
+        return snapshot;
+    }
+
+    public static ERInstanceData readFrom(final ERSchema schema, final FileChannel channel) throws IOException {
+        return restore(schema, readFrom(channel));
+    }
+
+    private static void write(final ERInstanceData data, final DataOutputStream out) throws IOException {
+
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeByte(data.getStorageEngine().ordinal());
+
+        final List<EntityInstanceCollection> collections = data.getAllInstanceCollections();
+
+        // relationships refer to instances by collection and position
+        final Map<EntityInstance, int[]> positions = new IdentityHashMap<>();
+        final List<List<EntityInstance>> instancesByCollection = new ArrayList<>();
+        for(EntityInstanceCollection collection : collections){
+            final List<EntityInstance> instances = new ArrayList<>(collection.getInstances());
+            for(int instance=0; instance<instances.size(); instance++){
+                positions.put(instances.get(instance), new int[]{instancesByCollection.size(), instance});
+            }
+            instancesByCollection.add(instances);
+        }
+
+        out.writeInt(collections.size());
+        for(int collectionIndex=0; collectionIndex<collections.size(); collectionIndex++){
+            final EntityInstanceCollection collection = collections.get(collectionIndex);
+            final EntityDefinition definition = collection.definition();
+
+            writeString(out, definition.getName());
+
+            final List<String> fieldNames = definition.getFieldNames();
+            out.writeInt(fieldNames.size());
+            for(String fieldName : fieldNames){
+                writeString(out, fieldName);
+            }
+
+            final Map<String, AutoIncrement> counters = collection.getCounters();
+            out.writeInt(counters.size());
+            for(AutoIncrement counter : counters.values()){
+                writeString(out, counter.getName());
+                out.writeInt(counter.peekNextValue());
+            }
+
+            final List<EntityInstance> instances = instancesByCollection.get(collectionIndex);
+            out.writeInt(instances.size());
+            for(EntityInstance instance : instances){
+                final UUID internalId = UUID.fromString(instance.getInternalId());
+                out.writeLong(internalId.getMostSignificantBits());
+                out.writeLong(internalId.getLeastSignificantBits());
+                for(String fieldName : fieldNames){
+                    writeValue(out, definition.getField(fieldName),
+                            instance.getFields().getAssignedValue(fieldName));
+                }
+            }
+        }
+
+        final ByteArrayOutputStream relationshipBytes = new ByteArrayOutputStream();
+        int relationshipCount = 0;
+        try(DataOutputStream relationships = new DataOutputStream(relationshipBytes)) {
+            for (List<EntityInstance> instances : instancesByCollection) {
+                for (EntityInstance instance : instances) {
+                    for (RelationshipVectorInstance relationship : instance.getRelationships().getRelationships()) {
+                        // two way relationships are held by both instances, only write them from one
+                        if (relationship.getFrom() != instance) {
+                            continue;
+                        }
+                        final int[] from = positions.get(instance);
+                        final int[] to = positions.get(relationship.getTo());
+                        if (to == null) {
+                            // related to an instance in another database
+                            continue;
+                        }
+                        relationships.writeInt(from[0]);
+                        relationships.writeInt(from[1]);
+                        writeString(relationships, relationship.getDefinition().getName());
+                        relationships.writeInt(to[0]);
+                        relationships.writeInt(to[1]);
+                        relationshipCount++;
+                    }
+                }
+            }
+        }
+        out.writeInt(relationshipCount);
+        relationshipBytes.writeTo(out);
+    }
+
+    private static void writeValue(final DataOutputStream out, final Field field, final FieldValue value) throws IOException {
+
+        if(value==null){
+            out.writeByte(ABSENT);
+            return;
+        }
+
+        if(value.asObject()!=null){
+            out.writeByte(OBJECT);
+            writeObject(out, value.asObject());
+            return;
+        }
+
+        final String asString = value.asString();
+        if(asString==null){
+            out.writeByte(NULL_STRING);
+            return;
+        }
+
+        final FieldType type = field==null ? FieldType.STRING : field.getType();
+        try {
+            switch (type) {
+                case INTEGER:
+                case AUTO_INCREMENT:
+                    final int anInteger = value.asInteger();
+                    if (Integer.toString(anInteger).equals(asString)) {
+                        out.writeByte(INTEGER);
+                        out.writeInt(anInteger);
+                        return;
+                    }
+                    break;
+                case FLOAT:
+                    final float aFloat = value.asFloat();
+                    if (Float.toString(aFloat).equals(asString)) {
+                        out.writeByte(FLOAT);
+                        out.writeFloat(aFloat);
+                        return;
+                    }
+                    break;
+                case BOOLEAN:
+                    if (asString.equals("true") || asString.equals("false")) {
+                        out.writeByte(value.asBoolean() ? TRUE : FALSE);
+                        return;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }catch(IllegalArgumentException e){
+            // not a valid value for the type, e.g. NumberFormatException, keep as a String
+        }
+
+        out.writeByte(STRING);
+        writeString(out, asString);
+    }
+
+    private static void writeObject(final DataOutputStream out, final InstanceFields fields) throws IOException {
+        final DefinedFields definition = fields.getDefinition();
+
+        final List<String> assigned = new ArrayList<>();
+        for(String fieldName : definition.getFieldNames()){
+            if(fields.hasAssignedValue(fieldName)){
+                assigned.add(fieldName);
+            }
+        }
+
+        out.writeInt(assigned.size());
+        for(String fieldName : assigned){
+            writeString(out, fieldName);
+            writeValue(out, definition.getField(fieldName), fields.getAssignedValue(fieldName));
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /*
+        Restore the snapshot as a new ERInstanceData for the schema.
+        The buffer is not changed so a snapshot can be restored more than once.
+     */
+    public static ERInstanceData restore(final ERSchema schema, final ByteBuffer snapshot){
+        try{
+            return restoreFrom(schema, snapshot.duplicate());
+        }catch(BufferUnderflowException | IndexOutOfBoundsException e){
+            throw new IllegalArgumentException("Instance data snapshot is incomplete", e);
+        }
+    }
+
+    private static ERInstanceData restoreFrom(final ERSchema schema, final ByteBuffer in){
+
+        if(in.remaining()<6 || in.getInt()!=MAGIC){
+            throw new IllegalArgumentException("Data is not an instance data snapshot");
+        }
+
+        final short version = in.getShort();
+        if(version!=VERSION){
+            throw new IllegalArgumentException(
+                    String.format("Unsupported instance data snapshot version %d, expected %d", version, VERSION));
+        }
+
+        final ERInstanceData data = new ERInstanceData(InstanceStorageEngine.values()[in.get()]);
+        data.createInstanceCollectionFrom(schema);
+
+        final int collectionCount = in.getInt();
+        final List<List<EntityInstance>> instancesByCollection = new ArrayList<>();
+
+        for(int collectionIndex=0; collectionIndex<collectionCount; collectionIndex++){
+
+            // an entity no longer in the schema is read, but not restored
+            final String entityName = readString(in);
+            final EntityInstanceCollection collection = data.getInstanceCollectionForEntityNamed(entityName);
+            final EntityDefinition definition = collection==null ? null : collection.definition();
+
+            final Field[] fields = new Field[in.getInt()];
+            for(int field=0; field<fields.length; field++){
+                final String fieldName = readString(in);
+                fields[field] = definition==null ? null : definition.getField(fieldName);
+            }
+
+            final int counterCount = in.getInt();
+            for(int counter=0; counter<counterCount; counter++){
+                final String counterName = readString(in);
+                final int nextValue = in.getInt();
+                if(collection!=null){
+                    final AutoIncrement auto = collection.getCounters().get(counterName);
+                    if(auto!=null){
+                        auto.resetTo(nextValue);
+                    }
+                }
+            }
+
+            final int instanceCount = in.getInt();
+            final List<EntityInstance> instances = new ArrayList<>(instanceCount);
+            for(int instanceIndex=0; instanceIndex<instanceCount; instanceIndex++){
+                final UUID internalId = new UUID(in.getLong(), in.getLong());
+                final EntityInstance instance = definition==null ? null : new EntityInstance(definition, internalId);
+
+                for(Field field : fields){
+                    final FieldValue value = readValue(in, field);
+                    if(instance!=null && value!=null){
+                        instance.getFields().addValue(value);
+                    }
+                }
+
+                if(instance!=null){
+                    collection.restoreInstance(instance);
+                }
+                instances.add(instance);
+            }
+            instancesByCollection.add(instances);
+        }
+
+        final int relationshipCount = in.getInt();
+        for(int relationship=0; relationship<relationshipCount; relationship++){
+            final EntityInstance from = instancesByCollection.get(in.getInt()).get(in.getInt());
+            final String relationshipName = readString(in);
+            final EntityInstance to = instancesByCollection.get(in.getInt()).get(in.getInt());
+            if(from!=null && to!=null){
+                from.getRelationships().connect(relationshipName, to);
+            }
+        }
+
+        return data;
+    }
+
+    /* the value for the field, or null if there was no value or the field is not known */
+    private static FieldValue readValue(final ByteBuffer in, final Field field){
+
+        final byte tag = in.get();
+
+        switch (tag){
+            case ABSENT:
+                return null;
+            case STRING:
+                final String value = readString(in);
+                return field==null ? null : FieldValue.is(field, value);
+            case NULL_STRING:
+                return field==null ? null : FieldValue.is(field, (String) null);
+            case INTEGER:
+                final int anInteger = in.getInt();
+                return field==null ? null : FieldValue.is(field, anInteger);
+            case FLOAT:
+                final float aFloat = in.getFloat();
+                return field==null ? null : FieldValue.is(field, aFloat);
+            case TRUE:
+            case FALSE:
+                return field==null ? null : FieldValue.is(field, tag==TRUE);
+            case OBJECT:
+                return readObject(in, field);
+            default:
+                throw new IllegalArgumentException(
+                        String.format("Unknown value type %d in instance data snapshot", tag));
+        }
+    }
+
+    private static FieldValue readObject(final ByteBuffer in, final Field field){
+
+        final DefinedFields definition = field==null ? null : field.getObjectDefinition();
+        final InstanceFields objectFields = definition==null ? null : new InstanceFields(definition);
+
+        final int valueCount = in.getInt();
+        for(int valueIndex=0; valueIndex<valueCount; valueIndex++){
+            final String fieldName = readString(in);
+            final Field childField = definition==null ? null : definition.getField(fieldName);
+            final FieldValue value = readValue(in, childField);
+            if(objectFields!=null && value!=null){
+                objectFields.addValue(value);
+            }
+        }
+
+        return objectFields==null ? null : FieldValue.is(field, objectFields);
+    }
+
+    private static String readString(final ByteBuffer in){
+        final byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
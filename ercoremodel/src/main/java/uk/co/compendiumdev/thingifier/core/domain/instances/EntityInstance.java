@@ -20,10 +20,15 @@ public class EntityInstance {
     private final UUID internalId;
 
     public EntityInstance(EntityDefinition eDefn) {
+        this(eDefn, UUID.randomUUID());
+    }
+
+    // when restoring an instance from a snapshot it keeps its internal id
+    EntityInstance(EntityDefinition eDefn, UUID internalId) {
         this.entityDefinition = eDefn;
         this.instanceFields = eDefn.instantiateFields();
         this.relationships = new EntityInstanceRelationships(this);
-        internalId = UUID.randomUUID();
+        this.internalId = internalId;
     }
 
     public EntityInstance addAutoGUIDstoInstance(){
@@ -121,7 +126,7 @@ public class EntityInstance {
      */
 
     private ValidationReport validateFields(){
-        return validateFieldValues(new ArrayList<>(), false);
+        return validateFieldValues(List.of(), false);
     }
 
     public ValidationReport validateFieldValues(List<String> excluding, boolean amAllowedToSetIds){
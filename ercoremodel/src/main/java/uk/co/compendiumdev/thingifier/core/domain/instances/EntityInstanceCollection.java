@@ -5,22 +5,38 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.NamedValue;
+import uk.co.compendiumdev.thingifier.core.domain.instances.columnar.ColumnRow;
+import uk.co.compendiumdev.thingifier.core.domain.instances.columnar.ColumnStore;
 import uk.co.compendiumdev.thingifier.core.reporting.ValidationReport;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 
 
+/*
+    The instances of an entity in a database.
+
+    With the COLUMNAR storage engine the field values of the instances
+    are moved into the collection's ColumnStore when they are added,
+    and moved back into the instance when they are removed.
+ */
 final public class EntityInstanceCollection {
 
     private final EntityDefinition definition;
     private final Map<String, EntityInstance> instances = new ConcurrentHashMap<>();
+    private final InstanceStorageEngine storageEngine;
+    private ColumnStore columns; // created with the first instance added to a COLUMNAR collection
 
     // id's should be auto incremented at an instance collection level, not on the field definitions
     private final Map<String, AutoIncrement> counters = new ConcurrentHashMap<>();
 
     public EntityInstanceCollection(EntityDefinition thingDefinition) {
+        this(thingDefinition, InstanceStorageEngine.getDefault());
+    }
+
+    public EntityInstanceCollection(EntityDefinition thingDefinition, InstanceStorageEngine storageEngine) {
         this.definition = thingDefinition;
+        this.storageEngine = storageEngine;
         ensureCountersInitialized();
     }
 
@@ -44,6 +60,7 @@ final public class EntityInstanceCollection {
 
     public EntityInstanceCollection(final EntityDefinition entity, final List<EntityInstance> instances) {
        this.definition=entity;
+       this.storageEngine = InstanceStorageEngine.getDefault();
        ensureCountersInitialized();
        addInstances(instances);
     }
@@ -57,14 +74,29 @@ final public class EntityInstanceCollection {
                     definition.getMaxInstanceLimit()));
         }
 
+        // check the primary keys against a set, rather than every instance for each added instance
+        final Set<String> primaryKeysInUse = definition.hasPrimaryKeyField() ? primaryKeyValues() : null;
         for(EntityInstance instance : addInstances){
-            addInstance(instance);
+            addInstance(instance, primaryKeysInUse);
         }
 
         return this;
     }
 
+    private Set<String> primaryKeyValues(){
+        final Set<String> primaryKeys = new HashSet<>();
+        for(EntityInstance existingInstance : instances.values()){
+            primaryKeys.add(existingInstance.getPrimaryKeyValue());
+        }
+        return primaryKeys;
+    }
+
     public EntityInstanceCollection addInstance(EntityInstance instance) {
+        return addInstance(instance, null);
+    }
+
+    /* primaryKeysInUse, when not null, holds the primary key of every instance and is updated */
+    private EntityInstanceCollection addInstance(EntityInstance instance, final Set<String> primaryKeysInUse) {
 
         if(instance.getEntity()!=definition){
             throw new RuntimeException(String.format(
@@ -112,24 +144,36 @@ final public class EntityInstanceCollection {
                         primaryField.getName()));
             }
 
-            for(EntityInstance existingInstance : instances.values()){
-                if(existingInstance.getPrimaryKeyValue().equals(
-                        instance.getPrimaryKeyValue()
-                )){
+            if(primaryKeysInUse!=null){
+                if(primaryKeysInUse.contains(instance.getPrimaryKeyValue())){
                     throw new RuntimeException(String.format(
                             "ERROR: Cannot add instance, another instance with primary key value exists: %s",
-                            existingInstance.getPrimaryKeyValue()));
+                            instance.getPrimaryKeyValue()));
+                }
+            }else{
+                for(EntityInstance existingInstance : instances.values()){
+                    if(existingInstance.getPrimaryKeyValue().equals(
+                            instance.getPrimaryKeyValue()
+                    )){
+                        throw new RuntimeException(String.format(
+                                "ERROR: Cannot add instance, another instance with primary key value exists: %s",
+                                existingInstance.getPrimaryKeyValue()));
+                    }
                 }
             }
         }
 
+        storeFieldsInColumns(instance);
         instances.put(instance.getInternalId(), instance);
+        if(primaryKeysInUse!=null){
+            primaryKeysInUse.add(instance.getPrimaryKeyValue());
+        }
 
         for(String autoIncrementFieldSet : autoIncrementFieldsSet){
             // auto increment auto increments to above the value
             // should only do this if we actually add the item
             AutoIncrement counter = counters.get(autoIncrementFieldSet);
-            if(counter.getCurrentValue() < instance.getFieldValue(autoIncrementFieldSet).asInteger()) {
+            if(counter.peekNextValue() < instance.getFieldValue(autoIncrementFieldSet).asInteger()) {
                 counter.incrementToNextAbove(instance.getFieldValue(autoIncrementFieldSet).asInteger());
             }
         }
@@ -137,6 +181,56 @@ final public class EntityInstanceCollection {
         return this;
     }
 
+    /*
+        Only instances which hold their own values are moved into the columns,
+        an instance already stored in another collection's columns e.g. when
+        this collection is scratch space, stays where it is.
+     */
+    private void storeFieldsInColumns(final EntityInstance instance) {
+        if(storageEngine!=InstanceStorageEngine.COLUMNAR){
+            return;
+        }
+
+        final InstanceFields fields = instance.getFields();
+        if(!(fields.getStorage() instanceof ArrayFieldValueStorage)){
+            return;
+        }
+
+        if(columns==null){
+            columns = new ColumnStore(fields.getDefinition());
+        }
+
+        if(fields.getDefinition()==columns.getDefinition()){
+            fields.moveValuesTo(columns.allocateRow());
+        }
+    }
+
+    private void removeFieldsFromColumns(final EntityInstance instance) {
+        if(columns==null){
+            return;
+        }
+
+        final InstanceFields fields = instance.getFields();
+        final FieldValueStorage storage = fields.getStorage();
+        if(storage instanceof ColumnRow && ((ColumnRow) storage).getStore()==columns){
+            fields.moveValuesTo(new ArrayFieldValueStorage(storage.size()));
+            columns.releaseRow((ColumnRow) storage);
+        }
+    }
+
+    public InstanceStorageEngine getStorageEngine() {
+        return storageEngine;
+    }
+
+    /*
+        add an instance restored from a snapshot, the instance was
+        valid when the snapshot was taken so it is not checked again
+     */
+    void restoreInstance(final EntityInstance instance) {
+        storeFieldsInColumns(instance);
+        instances.put(instance.getInternalId(), instance);
+    }
+
     /* create and add */
     // TODO: this looks like it was added to support testing, consider removing and adding to a test helper
     public EntityInstance createManagedInstance() {
@@ -189,6 +283,26 @@ final public class EntityInstanceCollection {
     }
 
 
+    /*
+        Remove all the instances and reset the counters, without deleting
+        any relationships on the instances. Used when the collection is
+        scratch space for instances which are owned by another collection
+        e.g. ScratchInstanceDataPool, the instances are not deleted, just
+        no longer held here.
+     */
+    public void detachAllInstances() {
+        for(EntityInstance instance : instances.values()){
+            removeFieldsFromColumns(instance);
+        }
+        instances.clear();
+        for(AutoIncrement counter : counters.values()){
+            final Field fieldDefn = definition.getField(counter.getName());
+            if(fieldDefn!=null){
+                counter.resetTo(fieldDefn.getDefaultValue().asInteger());
+            }
+        }
+    }
+
     /**
      * This deletes the instance but does not delete any mandatorily related items, these need to be handled by
      * another class using the returned list of alsoDelete, otherwise the model will be invalid
@@ -218,6 +332,7 @@ final public class EntityInstanceCollection {
         }
 
         instances.remove(anInstance.getInternalId());
+        removeFieldsFromColumns(anInstance);
 
         final List<EntityInstance> alsoDelete = anInstance.getRelationships().removeAllRelationships();
 
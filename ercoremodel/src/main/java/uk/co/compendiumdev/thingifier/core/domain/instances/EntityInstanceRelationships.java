@@ -212,6 +212,11 @@ public class EntityInstanceRelationships {
         return instancesToDelete;
     }
 
+    /* the relationships this instance is involved in, two way relationships are held by both instances */
+    public List<RelationshipVectorInstance> getRelationships() {
+        return Collections.unmodifiableList(relationships);
+    }
+
     public boolean hasAnyRelationshipInstances() {
         return !relationships.isEmpty();
     }
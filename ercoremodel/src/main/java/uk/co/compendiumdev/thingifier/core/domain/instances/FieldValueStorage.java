@@ -0,0 +1,21 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+/*
+    Where InstanceFields keeps its values, indexed by the field's position
+    in the DefinedFields. A null value means the field has not been set.
+
+    By default each instance has its own array of values, a columnar
+    EntityInstanceCollection moves the values of its instances into
+    typed columns and the instance fields become a view of a row.
+ */
+public interface FieldValueStorage {
+
+    FieldValue get(int position);
+
+    void set(int position, FieldValue value);
+
+    /* positions which may have a value are 0 to size-1 */
+    int size();
+}
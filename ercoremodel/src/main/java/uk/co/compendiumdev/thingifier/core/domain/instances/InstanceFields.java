@@ -6,6 +6,7 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.F
 import uk.co.compendiumdev.thingifier.core.domain.definitions.DefinedFields;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.validation.ValidationPlan;
 
 import java.util.*;
 
@@ -14,15 +15,22 @@ import java.util.*;
     for a specific field, in which case the default from the DefinedFields
     will be used instead.
 
+    Values are stored by the field's position in the DefinedFields, unset
+    fields are null. Defaults are shared by all instances, they are not
+    created for each read.
+
+    The values are usually held in an array, but a columnar collection
+    can move them into its columns, see FieldValueStorage.
  */
 public class InstanceFields {
 
     private final DefinedFields objectDefinition;
-    private final Map<String, FieldValue> values = new HashMap<>();
+    private FieldValueStorage values;
     private final AutoIncrement defaultAuto;
 
     public InstanceFields(final DefinedFields objectDefinition) {
         this.objectDefinition = objectDefinition;
+        this.values = new ArrayFieldValueStorage(objectDefinition.countFields());
         // todo: there should be no auto increment here
         defaultAuto = new AutoIncrement("default", 1);
     }
@@ -39,7 +47,7 @@ public class InstanceFields {
         List<Field>idfields = objectDefinition.getFieldsOfType(FieldType.AUTO_INCREMENT);
         for(Field aField : idfields){
             if(aField.getType()==FieldType.AUTO_INCREMENT){
-                if(!values.containsKey(aField.getName().toLowerCase())) {
+                if(!hasAssignedValue(aField.getName())) {
                     addValue(
                         FieldValue.is(aField,
                             String.valueOf(anAuto.getNextValueAndUpdate())));
@@ -50,40 +58,62 @@ public class InstanceFields {
     }
 
     public void addValue(final FieldValue value) {
-        values.put(value.getName().toLowerCase(), value);
+        final int position = objectDefinition.positionOf(value.getName());
+        if(position==-1){
+            reportCannotFindFieldError(value.getName());
+        }
+
+        values.set(position, value);
+    }
+
+    /* the value at the field's position in the DefinedFields, or null if it is not set */
+    public FieldValue getAssignedValueAt(final int position) {
+        if(position<0){
+            return null;
+        }
+        return values.get(position);
+    }
+
+    public FieldValueStorage getStorage() {
+        return values;
+    }
+
+    /*
+        copy the assigned values into the new storage and use that from now on,
+        the old storage is no longer referenced by this instance
+     */
+    void moveValuesTo(final FieldValueStorage storage) {
+        for (int position=0; position<values.size(); position++) {
+            final FieldValue value = values.get(position);
+            if(value!=null) {
+                storage.set(position, value);
+            }
+        }
+        values = storage;
     }
 
     public FieldValue getAssignedValue(String fieldName) {
-        return values.get(fieldName.toLowerCase());
+        return getAssignedValueAt(objectDefinition.positionOf(fieldName));
     }
 
     public FieldValue getFieldValue(String fieldName) {
 
         // todo : support complex fieldNames e.g. person.firstname
 
-        if(!objectDefinition.hasFieldNameDefined(fieldName)){
+        final int position = objectDefinition.positionOf(fieldName);
+        if(position==-1){
             reportCannotFindFieldError(fieldName);
         }
 
-        // bypass default processing for OBJECT, ARRAY - at the moment
-        // todo: allow defaults for OBJECT, ARRAY, etc.
-        Field field = objectDefinition.getField(fieldName);
-        if(field.getType()==FieldType.OBJECT){
-            getAssignedValue(fieldName);
-        }
-
         // pass back any defaults setup
-        FieldValue assignedValue = getAssignedValue(fieldName);
+        FieldValue assignedValue = getAssignedValueAt(position);
         if (assignedValue == null) {
-            // does definition have a default value?
-            if (objectDefinition.getField(fieldName).hasDefaultValue()) {
-                assignedValue = objectDefinition.getField(fieldName).getDefaultValue();
-            } else {
-                // return the field type default value
-                String defaultVal = objectDefinition.getField(fieldName).getType().getDefault();
-                if (defaultVal != null) {
-                    assignedValue =  FieldValue.is(field, defaultVal);
-                }
+            // the definition default, or the field type default value
+            // there is no type default for OBJECT, ARRAY - at the moment
+            // todo: allow defaults for OBJECT, ARRAY, etc.
+            final Field field = objectDefinition.getFieldAt(position);
+            if (field.hasDefaultValue() || field.getType().getDefault() != null) {
+                assignedValue = field.getDefaultValue();
             }
         }
 
@@ -94,8 +124,11 @@ public class InstanceFields {
 
         StringBuilder output = new StringBuilder();
 
-        for (Map.Entry<String, FieldValue> entry : values.entrySet()) {
-            output.append("\n\t\t\t\t" + entry.getKey() + " : " + entry.getValue() + "\n");
+        for (int position=0; position<values.size(); position++) {
+            final FieldValue value = values.get(position);
+            if(value!=null) {
+                output.append("\n\t\t\t\t" + value.getName().toLowerCase() + " : " + value + "\n");
+            }
         }
 
         return output.toString();
@@ -104,20 +137,25 @@ public class InstanceFields {
 
     public void deleteAllFieldValuesExcept(List<String> fieldNamesToIgnore) {
 
-        Set<String> ignorekeys = new HashSet<>(fieldNamesToIgnore);
-        Set<String> keys = new HashSet<>(values.keySet());
+        Set<Integer> ignorePositions = new HashSet<>();
+        for(String fieldName : fieldNamesToIgnore){
+            ignorePositions.add(objectDefinition.positionOf(fieldName));
+        }
 
-        for (String key : keys) {
-            if (!ignorekeys.contains(key)) {
-                values.remove(key);
+        for (int position=0; position<values.size(); position++) {
+            if (!ignorePositions.contains(position)) {
+                values.set(position, null);
             }
         }
     }
 
     public InstanceFields cloned(){
         final InstanceFields clone = new InstanceFields(objectDefinition);
-        for(FieldValue value : values.values()){
-            clone.addValue(value.cloned());
+        for (int position=0; position<values.size(); position++) {
+            final FieldValue value = values.get(position);
+            if(value!=null) {
+                clone.addValue(value.cloned());
+            }
         }
         return clone;
     }
@@ -233,6 +271,13 @@ public class InstanceFields {
     // way to configure the validation rules or exceptions to the rules
     public ValidationReport validateFields(final List<String> excluding,
                                            final boolean amAllowedToSetIds) {
+
+        // a frozen definition can check valid fields without building the report
+        final ValidationPlan plan = objectDefinition.getValidationPlan();
+        if(plan!=null && plan.passes(this, excluding, amAllowedToSetIds)){
+            return new ValidationReport();
+        }
+
         ValidationReport report = new ValidationReport();
 
         // Field validation
@@ -297,6 +342,6 @@ public class InstanceFields {
     }
 
     public boolean hasAssignedValue(String fieldName) {
-        return values.containsKey(fieldName.toLowerCase());
+        return getAssignedValue(fieldName)!=null;
     }
 }
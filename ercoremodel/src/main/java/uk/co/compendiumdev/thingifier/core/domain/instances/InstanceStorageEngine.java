@@ -0,0 +1,34 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+/*
+    How an EntityInstanceCollection stores the field values of its instances.
+
+    ROW - each instance keeps its own values, the default
+    COLUMNAR - the collection keeps the values in typed columns e.g. an int[] for
+               INTEGER fields, a dictionary of codes for ENUM fields, which uses
+               less memory for large collections and allows filtering and sorting
+               to scan the columns without creating FieldValues
+
+    The default can be set with the system property thingifier.instance.storage
+    e.g. -Dthingifier.instance.storage=columnar
+ */
+public enum InstanceStorageEngine {
+
+    ROW, COLUMNAR;
+
+    public static final String SYSTEM_PROPERTY = "thingifier.instance.storage";
+
+    public static InstanceStorageEngine getDefault(){
+        return from(System.getProperty(SYSTEM_PROPERTY, ROW.name()));
+    }
+
+    public static InstanceStorageEngine from(final String name){
+        for(InstanceStorageEngine engine : values()){
+            if(engine.name().equalsIgnoreCase(name.trim())){
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException(
+                String.format("Unknown instance storage engine %s, expected one of row, columnar", name));
+    }
+}
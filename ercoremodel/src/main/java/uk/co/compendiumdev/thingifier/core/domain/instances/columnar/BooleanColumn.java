@@ -0,0 +1,79 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.BitSet;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/* BOOLEAN values as a set bit for true */
+final class BooleanColumn extends Column {
+
+    private final BitSet values = new BitSet();
+
+    @Override
+    boolean store(final int row, final String value) {
+        final Boolean parsed = parse(value);
+        if(parsed==null){
+            return false;
+        }
+        values.set(row, parsed);
+        return true;
+    }
+
+    @Override
+    String valueAt(final int row) {
+        return values.get(row) ? "true" : "false";
+    }
+
+    @Override
+    FieldValue typedValueAt(final Field field, final int row) {
+        return FieldValue.is(field, values.get(row));
+    }
+
+    @Override
+    void remove(final int row) {
+        values.clear(row);
+    }
+
+    private boolean booleanAt(final int row, final boolean defaultValue){
+        return isPresent(row) ? values.get(row) : defaultValue;
+    }
+
+    /* the same values as FieldValue asBoolean */
+    private static Boolean parse(final String value){
+        if(value==null){
+            return null;
+        }
+        if(value.toLowerCase().contentEquals("true")){
+            return true;
+        }
+        if(value.toLowerCase().contentEquals("false")){
+            return false;
+        }
+        return null;
+    }
+
+    @Override
+    IntBinaryOperator comparator(final FieldValue defaultValue) {
+        final Boolean defaultBoolean = parse(defaultValue.asString());
+        if(defaultBoolean==null || !isScannable()){
+            return null;
+        }
+        final boolean unset = defaultBoolean;
+        return (rowA, rowB) -> Boolean.compare(booleanAt(rowA, unset), booleanAt(rowB, unset));
+    }
+
+    @Override
+    IntUnaryOperator comparisonWith(final FieldValue defaultValue, final String value) {
+        final Boolean defaultBoolean = parse(defaultValue.asString());
+        final Boolean compareWith = parse(value);
+        if(defaultBoolean==null || compareWith==null || !isScannable()){
+            return null;
+        }
+        final boolean unset = defaultBoolean;
+        final boolean target = compareWith;
+        return (row) -> Boolean.compare(booleanAt(row, unset), target);
+    }
+}
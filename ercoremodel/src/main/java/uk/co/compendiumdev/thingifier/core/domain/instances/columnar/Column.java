@@ -0,0 +1,128 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/*
+    The values of one field for all the rows in a ColumnStore.
+
+    Typed columns hold the parsed value e.g. an int, and recreate the String
+    when the value is read. Values which would not be read back exactly as
+    they were set e.g. "007" in an INTEGER column, are remembered as set.
+    Values which can not be parsed for the column type are also remembered
+    as set, and mark the column as untyped so it is not scanned, the
+    FieldValue comparisons are used instead, which will report the error
+    in the same way as a row stored instance.
+ */
+abstract class Column {
+
+    private final BitSet present = new BitSet();
+    private final BitSet untyped = new BitSet();
+    private final Map<Integer, String> asSet = new HashMap<>();
+
+    static Column forField(final Field field){
+        switch (field.getType()){
+            case INTEGER:
+            case AUTO_INCREMENT:
+                return new IntColumn();
+            case FLOAT:
+                return new FloatColumn();
+            case BOOLEAN:
+                return new BooleanColumn();
+            case ENUM:
+                return new DictionaryColumn();
+            case STRING:
+            case AUTO_GUID:
+            case DATE:
+                return new StringColumn(field.getType()==FieldType.STRING);
+            default:
+                return new ValueColumn();
+        }
+    }
+
+    FieldValue get(final Field field, final int row){
+        if(!present.get(row)){
+            return null;
+        }
+        if(asSet.containsKey(row)){
+            return FieldValue.is(field, asSet.get(row));
+        }
+        return typedValueAt(field, row);
+    }
+
+    void set(final int row, final FieldValue value){
+        if(value==null){
+            clear(row);
+            return;
+        }
+
+        final String valueToStore = value.asString();
+        asSet.remove(row);
+        untyped.clear(row);
+        present.set(row);
+
+        if(!store(row, valueToStore)){
+            untyped.set(row);
+            asSet.put(row, valueToStore);
+        }else if(!Objects.equals(valueAt(row), valueToStore)){
+            asSet.put(row, valueToStore);
+        }
+    }
+
+    void clear(final int row){
+        present.clear(row);
+        untyped.clear(row);
+        asSet.remove(row);
+        remove(row);
+    }
+
+    boolean isPresent(final int row){
+        return present.get(row);
+    }
+
+    /* can the typed values be compared directly */
+    boolean isScannable(){
+        return untyped.isEmpty();
+    }
+
+    /* parse and store the value, false if it can not be stored as the column type */
+    abstract boolean store(int row, String value);
+
+    /* the stored value as a String */
+    abstract String valueAt(int row);
+
+    abstract void remove(int row);
+
+    /* the stored value, typed columns create the FieldValue from the primitive */
+    FieldValue typedValueAt(final Field field, final int row){
+        return FieldValue.is(field, valueAt(row));
+    }
+
+    /*
+        compare the values in two rows, the same ordering as ComparableFieldValue,
+        rows without a value use the default, null if the column can not be scanned
+     */
+    IntBinaryOperator comparator(final FieldValue defaultValue){
+        return null;
+    }
+
+    /*
+        compare the value in a row with the given value,
+        null if the column can not be scanned or the value can not be parsed
+     */
+    IntUnaryOperator comparisonWith(final FieldValue defaultValue, final String value){
+        return null;
+    }
+
+    static int grownCapacity(final int currentCapacity, final int row){
+        return Math.max(row+1, Math.max(16, currentCapacity*2));
+    }
+}
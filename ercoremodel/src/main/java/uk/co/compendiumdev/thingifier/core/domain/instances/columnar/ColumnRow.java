@@ -0,0 +1,44 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+import uk.co.compendiumdev.thingifier.core.domain.instances.FieldValueStorage;
+
+/*
+    The field values of an instance as a row in a ColumnStore.
+
+    FieldValues are created when read, so the same FieldValue object
+    is not returned for each read of a field, only an equal value.
+ */
+public final class ColumnRow implements FieldValueStorage {
+
+    private final ColumnStore store;
+    private final int row;
+
+    ColumnRow(final ColumnStore store, final int row){
+        this.store = store;
+        this.row = row;
+    }
+
+    public ColumnStore getStore() {
+        return store;
+    }
+
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public FieldValue get(final int position) {
+        return store.get(row, position);
+    }
+
+    @Override
+    public void set(final int position, final FieldValue value) {
+        store.set(row, position, value);
+    }
+
+    @Override
+    public int size() {
+        return store.countColumns();
+    }
+}
@@ -0,0 +1,140 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.DefinedFields;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.FieldValueStorage;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/*
+    The field values of a columnar EntityInstanceCollection, one typed
+    Column per field in the DefinedFields and one row per instance.
+
+    Rows of deleted instances are reused by the next instance added.
+
+    Writes are synchronised, reads are not since the database locks
+    stop a read happening at the same time as a write to the database.
+ */
+public final class ColumnStore {
+
+    private final DefinedFields definition;
+    private Column[] columns;
+    private final BitSet rows;
+
+    public ColumnStore(final DefinedFields definition){
+        this.definition = definition;
+        this.columns = new Column[definition.countFields()];
+        this.rows = new BitSet();
+    }
+
+    public DefinedFields getDefinition() {
+        return definition;
+    }
+
+    public synchronized ColumnRow allocateRow(){
+        final int row = rows.nextClearBit(0);
+        rows.set(row);
+        return new ColumnRow(this, row);
+    }
+
+    public synchronized void releaseRow(final ColumnRow aRow){
+        if(aRow.getStore()!=this){
+            throw new IllegalArgumentException(
+                    String.format("Cannot release row %d, it is from a different column store", aRow.getRow()));
+        }
+        for(Column column : columns){
+            if(column!=null){
+                column.clear(aRow.getRow());
+            }
+        }
+        rows.clear(aRow.getRow());
+    }
+
+    public int countRows(){
+        return rows.cardinality();
+    }
+
+    int countColumns(){
+        return columns.length;
+    }
+
+    FieldValue get(final int row, final int position){
+        final Column[] current = columns;
+        if(position>=current.length || current[position]==null){
+            return null;
+        }
+        return current[position].get(definition.getFieldAt(position), row);
+    }
+
+    synchronized void set(final int row, final int position, final FieldValue value){
+        if(value==null){
+            if(position<columns.length && columns[position]!=null){
+                columns[position].clear(row);
+            }
+            return;
+        }
+        columnAt(position).set(row, value);
+    }
+
+    private Column columnAt(final int position){
+        // fields added to the definition after the store was created
+        if(position>=columns.length){
+            columns = Arrays.copyOf(columns, Math.max(position+1, definition.countFields()));
+        }
+        if(columns[position]==null){
+            columns[position] = Column.forField(definition.getFieldAt(position));
+        }
+        return columns[position];
+    }
+
+    /*
+        Scans. These compare the typed values in the columns without creating
+        FieldValues, they return null when the column can not be scanned
+        and the FieldValue comparisons should be used instead.
+     */
+
+    /* compare two rows by the field, the same ordering as ComparableFieldValue */
+    public synchronized IntBinaryOperator comparatorFor(final String fieldName){
+        final int position = definition.positionOf(fieldName);
+        if(position==-1){
+            return null;
+        }
+        return columnAt(position).comparator(definition.getFieldAt(position).getDefaultValue());
+    }
+
+    /* compare the field in a row to a value, the same ordering as ComparableFieldValue */
+    public synchronized IntUnaryOperator comparisonWith(final String fieldName, final String value){
+        final int position = definition.positionOf(fieldName);
+        if(position==-1){
+            return null;
+        }
+        return columnAt(position).comparisonWith(definition.getFieldAt(position).getDefaultValue(), value);
+    }
+
+    /* the store which holds all the instances, or null if they are not all rows of the same store */
+    public static ColumnStore commonStoreOf(final Collection<EntityInstance> instances){
+        ColumnStore common = null;
+        for(EntityInstance instance : instances){
+            final FieldValueStorage storage = instance.getFields().getStorage();
+            if(!(storage instanceof ColumnRow)){
+                return null;
+            }
+            final ColumnStore store = ((ColumnRow) storage).getStore();
+            if(common!=null && common!=store){
+                return null;
+            }
+            common = store;
+        }
+        return common;
+    }
+
+    /* only valid for instances of the commonStoreOf */
+    public static int rowOf(final EntityInstance instance){
+        return ((ColumnRow) instance.getFields().getStorage()).getRow();
+    }
+}
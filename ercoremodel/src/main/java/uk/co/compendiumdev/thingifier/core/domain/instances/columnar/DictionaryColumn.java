@@ -0,0 +1,108 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/*
+    ENUM values, each distinct value is stored once in the dictionary
+    and the rows hold the code of their value.
+
+    Comparisons are made once per dictionary entry rather than per row,
+    the rows then compare the results for their codes.
+ */
+final class DictionaryColumn extends Column {
+
+    private final List<String> dictionary = new ArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private int[] rowCodes = new int[0];
+
+    @Override
+    boolean store(final int row, final String value) {
+        if(value==null){
+            return false;
+        }
+        Integer code = codes.get(value);
+        if(code==null){
+            code = dictionary.size();
+            dictionary.add(value);
+            codes.put(value, code);
+        }
+        if(row>=rowCodes.length){
+            rowCodes = Arrays.copyOf(rowCodes, grownCapacity(rowCodes.length, row));
+        }
+        rowCodes[row] = code;
+        return true;
+    }
+
+    @Override
+    String valueAt(final int row) {
+        return dictionary.get(rowCodes[row]);
+    }
+
+    @Override
+    void remove(final int row) {
+        if(row<rowCodes.length){
+            rowCodes[row] = 0;
+        }
+    }
+
+    /* the code of a row, rows without a value use the code after the dictionary */
+    private int codeAt(final int row){
+        return isPresent(row) ? rowCodes[row] : dictionary.size();
+    }
+
+    /* the dictionary values with the default value as the last entry */
+    private String[] entriesWithDefault(final String defaultValue){
+        final String[] entries = dictionary.toArray(new String[dictionary.size()+1]);
+        entries[dictionary.size()] = defaultValue;
+        return entries;
+    }
+
+    @Override
+    IntBinaryOperator comparator(final FieldValue defaultValue) {
+        if(defaultValue.asString()==null || !isScannable()){
+            return null;
+        }
+
+        final String[] entries = entriesWithDefault(defaultValue.asString());
+        final Integer[] byValue = new Integer[entries.length];
+        for(int code=0; code<entries.length; code++){
+            byValue[code] = code;
+        }
+        Arrays.sort(byValue, (codeA, codeB) -> entries[codeA].compareTo(entries[codeB]));
+
+        // equal values share a rank so that the sort is stable across them
+        final int[] ranks = new int[entries.length];
+        int rank = 0;
+        for(int index=0; index<byValue.length; index++){
+            if(index>0 && !entries[byValue[index]].equals(entries[byValue[index-1]])){
+                rank++;
+            }
+            ranks[byValue[index]] = rank;
+        }
+
+        return (rowA, rowB) -> Integer.compare(ranks[codeAt(rowA)], ranks[codeAt(rowB)]);
+    }
+
+    @Override
+    IntUnaryOperator comparisonWith(final FieldValue defaultValue, final String value) {
+        if(value==null || defaultValue.asString()==null || !isScannable()){
+            return null;
+        }
+
+        final String[] entries = entriesWithDefault(defaultValue.asString());
+        final int[] comparisons = new int[entries.length];
+        for(int code=0; code<entries.length; code++){
+            comparisons[code] = entries[code].compareTo(value);
+        }
+
+        return (row) -> comparisons[codeAt(row)];
+    }
+}
@@ -0,0 +1,78 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/* FLOAT values */
+final class FloatColumn extends Column {
+
+    private float[] values = new float[0];
+
+    @Override
+    boolean store(final int row, final String value) {
+        final Float parsed = parse(value);
+        if(parsed==null){
+            return false;
+        }
+        if(row>=values.length){
+            values = Arrays.copyOf(values, grownCapacity(values.length, row));
+        }
+        values[row] = parsed;
+        return true;
+    }
+
+    @Override
+    String valueAt(final int row) {
+        return Float.toString(values[row]);
+    }
+
+    @Override
+    FieldValue typedValueAt(final Field field, final int row) {
+        return FieldValue.is(field, values[row]);
+    }
+
+    @Override
+    void remove(final int row) {
+        if(row<values.length){
+            values[row] = 0;
+        }
+    }
+
+    private float floatAt(final int row, final float defaultValue){
+        return isPresent(row) ? values[row] : defaultValue;
+    }
+
+    private static Float parse(final String value){
+        try{
+            return Float.parseFloat(value);
+        }catch(NumberFormatException | NullPointerException e){
+            return null;
+        }
+    }
+
+    @Override
+    IntBinaryOperator comparator(final FieldValue defaultValue) {
+        final Float defaultFloat = parse(defaultValue.asString());
+        if(defaultFloat==null || !isScannable()){
+            return null;
+        }
+        final float unset = defaultFloat;
+        return (rowA, rowB) -> Float.compare(floatAt(rowA, unset), floatAt(rowB, unset));
+    }
+
+    @Override
+    IntUnaryOperator comparisonWith(final FieldValue defaultValue, final String value) {
+        final Float defaultFloat = parse(defaultValue.asString());
+        final Float compareWith = parse(value);
+        if(defaultFloat==null || compareWith==null || !isScannable()){
+            return null;
+        }
+        final float unset = defaultFloat;
+        final float target = compareWith;
+        return (row) -> Float.compare(floatAt(row, unset), target);
+    }
+}
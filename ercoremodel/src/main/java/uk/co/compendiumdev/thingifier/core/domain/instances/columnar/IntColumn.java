@@ -0,0 +1,80 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/* INTEGER and AUTO_INCREMENT values */
+final class IntColumn extends Column {
+
+    private int[] values = new int[0];
+
+    @Override
+    boolean store(final int row, final String value) {
+        final int parsed;
+        try{
+            parsed = Integer.parseInt(value);
+        }catch(NumberFormatException e){
+            return false;
+        }
+        if(row>=values.length){
+            values = Arrays.copyOf(values, grownCapacity(values.length, row));
+        }
+        values[row] = parsed;
+        return true;
+    }
+
+    @Override
+    String valueAt(final int row) {
+        return Integer.toString(values[row]);
+    }
+
+    @Override
+    FieldValue typedValueAt(final Field field, final int row) {
+        return FieldValue.is(field, values[row]);
+    }
+
+    @Override
+    void remove(final int row) {
+        if(row<values.length){
+            values[row] = 0;
+        }
+    }
+
+    private int intAt(final int row, final int defaultValue){
+        return isPresent(row) ? values[row] : defaultValue;
+    }
+
+    private static Integer parse(final String value){
+        try{
+            return Integer.parseInt(value);
+        }catch(NumberFormatException e){
+            return null;
+        }
+    }
+
+    @Override
+    IntBinaryOperator comparator(final FieldValue defaultValue) {
+        final Integer defaultInt = parse(defaultValue.asString());
+        if(defaultInt==null || !isScannable()){
+            return null;
+        }
+        final int unset = defaultInt;
+        return (rowA, rowB) -> Integer.compare(intAt(rowA, unset), intAt(rowB, unset));
+    }
+
+    @Override
+    IntUnaryOperator comparisonWith(final FieldValue defaultValue, final String value) {
+        final Integer defaultInt = parse(defaultValue.asString());
+        final Integer compareWith = parse(value);
+        if(defaultInt==null || compareWith==null || !isScannable()){
+            return null;
+        }
+        final int unset = defaultInt;
+        final int target = compareWith;
+        return (row) -> Integer.compare(intAt(row, unset), target);
+    }
+}
@@ -0,0 +1,69 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.Arrays;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+
+/* STRING, AUTO_GUID and DATE values, only STRING values are scanned */
+final class StringColumn extends Column {
+
+    private final boolean comparable;
+    private String[] values = new String[0];
+
+    StringColumn(final boolean comparable){
+        this.comparable = comparable;
+    }
+
+    @Override
+    boolean store(final int row, final String value) {
+        // a null would throw when compared, so leave it to the FieldValue comparisons
+        if(value==null){
+            return false;
+        }
+        if(row>=values.length){
+            values = Arrays.copyOf(values, grownCapacity(values.length, row));
+        }
+        values[row] = value;
+        return true;
+    }
+
+    @Override
+    String valueAt(final int row) {
+        return values[row];
+    }
+
+    @Override
+    void remove(final int row) {
+        if(row<values.length){
+            values[row] = null;
+        }
+    }
+
+    private String stringAt(final int row, final String defaultValue){
+        return isPresent(row) ? values[row] : defaultValue;
+    }
+
+    private boolean canScan(final String defaultValue){
+        return comparable && defaultValue!=null && isScannable();
+    }
+
+    @Override
+    IntBinaryOperator comparator(final FieldValue defaultValue) {
+        final String unset = defaultValue.asString();
+        if(!canScan(unset)){
+            return null;
+        }
+        return (rowA, rowB) -> stringAt(rowA, unset).compareTo(stringAt(rowB, unset));
+    }
+
+    @Override
+    IntUnaryOperator comparisonWith(final FieldValue defaultValue, final String value) {
+        final String unset = defaultValue.asString();
+        if(value==null || !canScan(unset)){
+            return null;
+        }
+        return (row) -> stringAt(row, unset).compareTo(value);
+    }
+}
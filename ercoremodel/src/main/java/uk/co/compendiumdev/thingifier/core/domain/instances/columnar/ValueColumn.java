@@ -0,0 +1,55 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+
+import java.util.Arrays;
+
+/* OBJECT, and any other field types, hold the FieldValue as set */
+final class ValueColumn extends Column {
+
+    private FieldValue[] values = new FieldValue[0];
+
+    @Override
+    FieldValue get(final Field field, final int row) {
+        if(row>=values.length){
+            return null;
+        }
+        return values[row];
+    }
+
+    @Override
+    void set(final int row, final FieldValue value) {
+        if(row>=values.length){
+            if(value==null){
+                return;
+            }
+            values = Arrays.copyOf(values, grownCapacity(values.length, row));
+        }
+        values[row] = value;
+    }
+
+    @Override
+    void clear(final int row) {
+        set(row, null);
+    }
+
+    @Override
+    boolean isScannable() {
+        return false;
+    }
+
+    @Override
+    boolean store(final int row, final String value) {
+        return false;
+    }
+
+    @Override
+    String valueAt(final int row) {
+        return null;
+    }
+
+    @Override
+    void remove(final int row) {
+    }
+}
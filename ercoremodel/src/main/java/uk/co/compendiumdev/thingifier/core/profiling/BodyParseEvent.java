@@ -0,0 +1,17 @@
+package uk.co.compendiumdev.thingifier.core.profiling;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("uk.co.compendiumdev.thingifier.BodyParse")
+@Label("Thingifier Body Parse")
+public class BodyParseEvent extends ThingifierEvent {
+
+    @Label("Content Type")
+    public String contentType;
+
+    @Label("Body Size")
+    @DataAmount
+    public long bodySize;
+}
@@ -0,0 +1,25 @@
+package uk.co.compendiumdev.thingifier.core.profiling;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("uk.co.compendiumdev.thingifier.Hook")
+@Label("Thingifier Hook")
+public class HookEvent extends ThingifierEvent {
+
+    @Label("Hook")
+    public String hook;
+
+    @Label("Stage")
+    public String stage;
+
+    /* hooks are run in loops at several stages so commit the same way for all of them */
+    public void commitFor(final Object hook, final String stage){
+        if(shouldCommit()){
+            this.hook = hook.getClass().getSimpleName();
+            this.stage = stage;
+            tag(null);
+            commit();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package uk.co.compendiumdev.thingifier.core.profiling;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("uk.co.compendiumdev.thingifier.PersistenceWrite")
+@Label("Thingifier Persistence Write")
+public class PersistenceWriteEvent extends ThingifierEvent {
+
+    @Label("Storage")
+    public String storage;
+
+    @Label("Success")
+    public boolean success;
+}
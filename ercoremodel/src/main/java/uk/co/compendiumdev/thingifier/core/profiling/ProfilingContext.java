@@ -0,0 +1,91 @@
+package uk.co.compendiumdev.thingifier.core.profiling;
+
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+
+import java.util.function.Supplier;
+
+/*
+    The verb, path and database of the request being processed on this thread,
+    so that profiling events raised deep in the pipeline e.g. serialization,
+    can be tagged with them without passing them through every call.
+
+    Only read when an event is committed, i.e. when a recording is running.
+
+    Set the context with duringRequest and usingDatabase, which clear it when
+    the work is done, even if it fails, so that pooled threads do not keep a
+    database which has since been deleted or spilled.
+ */
+public final class ProfilingContext {
+
+    private static final ThreadLocal<ProfilingContext> CONTEXT = ThreadLocal.withInitial(ProfilingContext::new);
+
+    private String verb;
+    private String path;
+    private ERInstanceData database;
+
+    private ProfilingContext(){
+    }
+
+    public static ProfilingContext current(){
+        return CONTEXT.get();
+    }
+
+    public static <T> T duringRequest(final String verb, final String path, final Supplier<T> action){
+        final ProfilingContext context = current();
+        context.request(verb, path);
+        try{
+            return action.get();
+        }finally {
+            context.clear();
+        }
+    }
+
+    /* the database is only set for the action, then the previous database, if any, is restored */
+    public static <T> T usingDatabase(final ERInstanceData database, final Supplier<T> action){
+        final ProfilingContext context = current();
+        final ERInstanceData previous = context.database;
+        context.database(database);
+        try{
+            return action.get();
+        }finally {
+            context.database(previous);
+        }
+    }
+
+    public ProfilingContext request(final String verb, final String path){
+        this.verb = verb;
+        this.path = path;
+        this.database = null;
+        return this;
+    }
+
+    public ProfilingContext database(final ERInstanceData database){
+        this.database = database;
+        return this;
+    }
+
+    public void clear(){
+        verb = null;
+        path = null;
+        database = null;
+    }
+
+    public String getVerb(){
+        return verb==null ? "" : verb;
+    }
+
+    /* the first path segment e.g. todos from /todos/1/categories */
+    public String getResource(){
+        if(path==null){
+            return "";
+        }
+        final int start = path.startsWith("/") ? 1 : 0;
+        final int end = path.indexOf("/", start);
+        return end==-1 ? path.substring(start) : path.substring(start, end);
+    }
+
+    /* number of instances in the request's database, -1 if not known */
+    public int getDatabaseSize(){
+        return database==null ? -1 : database.countInstances();
+    }
+}
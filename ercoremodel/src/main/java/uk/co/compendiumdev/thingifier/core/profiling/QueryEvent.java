@@ -0,0 +1,15 @@
+package uk.co.compendiumdev.thingifier.core.profiling;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("uk.co.compendiumdev.thingifier.Query")
+@Label("Thingifier Query")
+public class QueryEvent extends ThingifierEvent {
+
+    @Label("Query")
+    public String query;
+
+    @Label("Result Count")
+    public int resultCount;
+}
@@ -0,0 +1,15 @@
+package uk.co.compendiumdev.thingifier.core.profiling;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("uk.co.compendiumdev.thingifier.Serialize")
+@Label("Thingifier Serialize")
+public class SerializeEvent extends ThingifierEvent {
+
+    @Label("Format")
+    public String format;
+
+    @Label("Instance Count")
+    public int instanceCount;
+}
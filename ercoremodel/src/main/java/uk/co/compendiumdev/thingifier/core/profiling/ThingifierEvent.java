@@ -0,0 +1,62 @@
+package uk.co.compendiumdev.thingifier.core.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+
+/*
+    Base for the Flight Recorder events raised in the Thingifier pipeline,
+    tagged with the entity type, verb and database size so that slow events
+    can be correlated with the amount of data.
+
+    Events are only enabled while a recording is running, when they are
+    disabled begin, end and shouldCommit are cheap and nothing is tagged.
+    Usage:
+
+        final QueryEvent event = new QueryEvent();
+        event.begin();
+        ... the work
+        event.end();
+        if(event.shouldCommit()){
+            event.query = ...
+            event.tag(entityType);
+            event.commit();
+        }
+ */
+@Category("Thingifier")
+@StackTrace(false)
+public abstract class ThingifierEvent extends Event {
+
+    @Label("Entity Type")
+    public String entityType;
+
+    @Label("Verb")
+    @Description("HTTP verb of the request being processed")
+    public String verb;
+
+    @Label("Database Size")
+    @Description("Number of instances in the database, -1 if not known")
+    public int databaseSize;
+
+    /*
+        tag using the verb and database from the current ProfilingContext,
+        when the entity type is not known use the resource from the request path
+     */
+    public void tag(final String entityType){
+        final ProfilingContext context = ProfilingContext.current();
+        this.entityType = entityType==null || entityType.isEmpty() ? context.getResource() : entityType;
+        this.verb = context.getVerb();
+        this.databaseSize = context.getDatabaseSize();
+    }
+
+    /* tag with a known database rather than the request's database */
+    public void tag(final String entityType, final ERInstanceData database){
+        tag(entityType);
+        if(database!=null){
+            this.databaseSize = database.countInstances();
+        }
+    }
+}
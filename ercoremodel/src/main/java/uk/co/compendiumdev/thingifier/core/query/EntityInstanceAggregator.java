@@ -0,0 +1,143 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/*
+    Count the instances which match the filters, optionally grouped by
+    ENUM, BOOLEAN or STRING fields, with the min, max, sum and avg of
+    numeric fields e.g.
+
+        groupBy=doneStatus&min=estimate&avg=estimate,priority&priority>2
+
+    The filters are the same as for a list of instances, and are compiled
+    once, then the instances are filtered and aggregated in a single pass
+    without building the filtered list.
+ */
+public class EntityInstanceAggregator {
+
+    public static final List<String> STATISTICS = List.of("min", "max", "sum", "avg");
+
+    private final EntityDefinition definition;
+    private final List<String> groupByFieldNames;
+    private final Map<String, List<String>> statisticFieldNames;
+    private final EntityListFilterParamParser instanceFilter;
+
+    public EntityInstanceAggregator(final EntityDefinition definition, final QueryFilterParams queryParams) {
+        this.definition = definition;
+        this.groupByFieldNames = new ArrayList<>();
+        this.statisticFieldNames = new LinkedHashMap<>();
+
+        for(FilterBy by : queryParams.toList()){
+            if(isGroupByParam(by.fieldName)){
+                addFieldNames(groupByFieldNames, by.fieldValue);
+            }
+            if(STATISTICS.contains(by.fieldName.toLowerCase())){
+                addFieldNames(statisticFieldNames.computeIfAbsent(
+                                by.fieldName.toLowerCase(), statistic -> new ArrayList<>()), by.fieldValue);
+            }
+        }
+
+        this.instanceFilter = new EntityListFilterParamParser(
+                queryParams.withoutParams(EntityInstanceAggregator::isAggregateParam));
+    }
+
+    public static boolean isGroupByParam(final String key) {
+        return (key.equalsIgnoreCase("groupby") ||
+                key.equalsIgnoreCase("group_by"));
+    }
+
+    public static boolean isAggregateParam(final String key) {
+        return isGroupByParam(key) || STATISTICS.contains(key.toLowerCase());
+    }
+
+    /* defined fields are named as they were defined, whatever the case they were requested in */
+    private void addFieldNames(final List<String> fieldNames, final String commaSeparated){
+        for(String fieldName : commaSeparated.split(",")){
+            if(fieldName.isBlank()){
+                continue;
+            }
+            final Field field = definition.getField(fieldName.trim());
+            final String name = field==null ? fieldName.trim() : field.getName();
+            if(!fieldNames.contains(name)){
+                fieldNames.add(name);
+            }
+        }
+    }
+
+    /* an error message for each field which can not be grouped by, or is not numeric */
+    public List<String> validate() {
+        final List<String> errors = new ArrayList<>();
+
+        for(String fieldName : groupByFieldNames){
+            if(!isFieldOfType(fieldName, FieldType.ENUM, FieldType.BOOLEAN, FieldType.STRING)){
+                errors.add(String.format("Can not group by %s, it is not an ENUM, BOOLEAN or STRING field of %s",
+                        fieldName, definition.getName()));
+            }
+        }
+
+        for(Map.Entry<String, List<String>> statistic : statisticFieldNames.entrySet()){
+            for(String fieldName : statistic.getValue()){
+                if(!isFieldOfType(fieldName, FieldType.INTEGER, FieldType.FLOAT, FieldType.AUTO_INCREMENT)){
+                    errors.add(String.format("Can not %s %s, it is not a numeric field of %s",
+                            statistic.getKey(), fieldName, definition.getName()));
+                }
+            }
+        }
+
+        return errors;
+    }
+
+    /* field names are matched ignoring case, as they are when the instances are filtered */
+    private boolean isFieldOfType(final String fieldName, final FieldType... types){
+        final Field field = definition.getField(fieldName);
+        return field!=null && Arrays.asList(types).contains(field.getType());
+    }
+
+    public InstanceAggregate aggregate(final List<EntityInstance> instances) {
+
+        final List<Field> numericFields = new ArrayList<>();
+        for(List<String> fieldNames : statisticFieldNames.values()){
+            for(String fieldName : fieldNames){
+                final Field field = definition.getField(fieldName);
+                if(!numericFields.contains(field)){
+                    numericFields.add(field);
+                }
+            }
+        }
+
+        final InstanceAggregate aggregate = new InstanceAggregate(
+                                                    groupByFieldNames, statisticFieldNames, numericFields);
+
+        final Predicate<EntityInstance> matches = instanceFilter.matcherFor(instances);
+
+        for(EntityInstance instance : instances){
+            if(!matches.test(instance)){
+                continue;
+            }
+
+            aggregate.add(instance);
+
+            if(!groupByFieldNames.isEmpty()){
+                final List<String> groupValues = new ArrayList<>(groupByFieldNames.size());
+                for(String fieldName : groupByFieldNames){
+                    final FieldValue value = instance.getFieldValue(fieldName);
+                    groupValues.add(value==null ? "" : value.asString());
+                }
+                aggregate.groupFor(groupValues).add(instance);
+            }
+        }
+
+        return aggregate;
+    }
+}
@@ -3,6 +3,7 @@ package uk.co.compendiumdev.thingifier.core.query;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class EntityInstanceListFilter {
     EntityListFilterParamParser instanceFilter;
@@ -23,11 +24,14 @@ public class EntityInstanceListFilter {
 
     public List<EntityInstance> filter(final List<EntityInstance> foundItems) {
 
+        // columnar instances can be filtered on the column values
+        final Predicate<EntityInstance> matches = instanceFilter.matcherFor(foundItems);
+
         List<EntityInstance> filtered = new ArrayList<>();
 
         for(EntityInstance instance : foundItems){
             // does it match the filter?
-            if(instanceFilter.matches(instance)){
+            if(matches.test(instance)){
                 filtered.add(instance);
             }
         }
@@ -2,8 +2,10 @@ package uk.co.compendiumdev.thingifier.core.query;
 
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.columnar.ColumnStore;
 
 import java.util.*;
+import java.util.function.IntBinaryOperator;
 
 public class EntityInstanceListSorter {
     EntityListSortParamParser instanceFilter;
@@ -48,16 +50,21 @@ public class EntityInstanceListSorter {
         if(fieldDefn==null)
             return sortedList;
 
-        Comparator<EntityInstance> compareByFieldValue = new Comparator<EntityInstance>() {
-            @Override
-            public int compare(EntityInstance thing1, EntityInstance thing2) {
+        // columnar instances can be compared on the column values
+        Comparator<EntityInstance> compareByFieldValue = columnComparator(fieldName, sortedList);
 
-                final ComparableFieldValue comparableFieldValue1 = new ComparableFieldValue(fieldDefn, thing1.getFieldValue(fieldName));
-                final ComparableFieldValue comparableFieldValue2 = new ComparableFieldValue(fieldDefn, thing2.getFieldValue(fieldName));
+        if(compareByFieldValue==null) {
+            compareByFieldValue = new Comparator<EntityInstance>() {
+                @Override
+                public int compare(EntityInstance thing1, EntityInstance thing2) {
 
-                return comparableFieldValue1.compareTo(comparableFieldValue2);
-            }
-        };
+                    final ComparableFieldValue comparableFieldValue1 = new ComparableFieldValue(fieldDefn, thing1.getFieldValue(fieldName));
+                    final ComparableFieldValue comparableFieldValue2 = new ComparableFieldValue(fieldDefn, thing2.getFieldValue(fieldName));
+
+                    return comparableFieldValue1.compareTo(comparableFieldValue2);
+                }
+            };
+        }
 
 
         if(order<0) {
@@ -70,4 +77,19 @@ public class EntityInstanceListSorter {
 
         return sortedList;
     }
+
+    /* compare the column values of columnar instances, null if they can not be compared that way */
+    private Comparator<EntityInstance> columnComparator(final String fieldName, final List<EntityInstance> instances) {
+        final ColumnStore columns = ColumnStore.commonStoreOf(instances);
+        if(columns==null){
+            return null;
+        }
+
+        final IntBinaryOperator compareRows = columns.comparatorFor(fieldName);
+        if(compareRows==null){
+            return null;
+        }
+
+        return (thing1, thing2) -> compareRows.applyAsInt(ColumnStore.rowOf(thing1), ColumnStore.rowOf(thing2));
+    }
 }
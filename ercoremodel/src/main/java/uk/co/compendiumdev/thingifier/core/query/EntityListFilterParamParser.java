@@ -3,10 +3,14 @@ package uk.co.compendiumdev.thingifier.core.query;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.columnar.ColumnStore;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntUnaryOperator;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -109,6 +113,83 @@ public class EntityListFilterParamParser {
         return true;
     }
 
+    /*
+        The same conditions as matches, for the rows of a column store. Returns
+        null if any condition can not be checked against the columns, e.g. a
+        regex, in which case matches should be used for each instance.
+     */
+    public IntPredicate rowMatcherFor(final ColumnStore columns) {
+
+        final List<IntPredicate> conditions = new ArrayList<>();
+
+        for(FilterBy filterByCondition : filterByConditions){
+
+            // conditions on unknown fields are ignored, as they are by matches
+            if(!columns.getDefinition().hasFieldNameDefined(filterByCondition.fieldName)){
+                continue;
+            }
+
+            final IntUnaryOperator comparison = columns.comparisonWith(
+                                                    filterByCondition.fieldName,
+                                                    filterByCondition.fieldValue);
+            if(comparison==null){
+                return null;
+            }
+
+            switch (filterByCondition.filterOperation){
+                case "=":
+                    conditions.add(row -> comparison.applyAsInt(row)==0);
+                    break;
+                case "<":
+                    conditions.add(row -> comparison.applyAsInt(row)<0);
+                    break;
+                case ">":
+                    conditions.add(row -> comparison.applyAsInt(row)>0);
+                    break;
+                case "<=":
+                    conditions.add(row -> comparison.applyAsInt(row)<=0);
+                    break;
+                case ">=":
+                    conditions.add(row -> comparison.applyAsInt(row)>=0);
+                    break;
+                case "!=":
+                case "!":
+                    conditions.add(row -> comparison.applyAsInt(row)!=0);
+                    break;
+                default:
+                    return null;
+            }
+        }
+
+        final IntPredicate[] allConditions = conditions.toArray(new IntPredicate[0]);
+        return row -> {
+            for(IntPredicate condition : allConditions){
+                if(!condition.test(row)){
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    /*
+        A predicate for the conditions, compiled once for the instances.
+        When the instances share a column store the conditions are checked
+        against the column values, otherwise matches is used.
+     */
+    public Predicate<EntityInstance> matcherFor(final List<EntityInstance> instances) {
+
+        final ColumnStore columns = ColumnStore.commonStoreOf(instances);
+        if(columns!=null){
+            final IntPredicate rowMatches = rowMatcherFor(columns);
+            if(rowMatches!=null){
+                return instance -> rowMatches.test(ColumnStore.rowOf(instance));
+            }
+        }
+
+        return this::matches;
+    }
+
     public List<FilterBy> filterBys(){
         return filterByConditions;
     }
@@ -0,0 +1,135 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.instance.FieldValue;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    The count, and numeric statistics, of a set of instances, and of
+    each group of instances when they are grouped by field values.
+
+    Only the running totals are kept, not the instances.
+ */
+public class InstanceAggregate {
+
+    private final List<String> groupByFieldNames;
+    private final Map<String, List<String>> statisticFieldNames;
+    private final List<Field> numericFields;
+
+    private int count;
+    private final Map<String, NumericSummary> summaries;
+    private final Map<List<String>, InstanceAggregate> groups;
+
+    InstanceAggregate(final List<String> groupByFieldNames,
+                      final Map<String, List<String>> statisticFieldNames,
+                      final List<Field> numericFields) {
+        this.groupByFieldNames = groupByFieldNames;
+        this.statisticFieldNames = statisticFieldNames;
+        this.numericFields = numericFields;
+        this.summaries = new LinkedHashMap<>();
+        this.groups = new LinkedHashMap<>();
+
+        for(Field field : numericFields){
+            summaries.put(field.getName(), new NumericSummary(field.getType()!=FieldType.FLOAT));
+        }
+    }
+
+    void add(final EntityInstance instance){
+        count++;
+
+        for(Field field : numericFields){
+            final FieldValue value = instance.getFieldValue(field.getName());
+            if(value==null){
+                continue;
+            }
+            summaries.get(field.getName()).add(
+                    field.getType()==FieldType.FLOAT ? value.asFloat() : value.asInteger());
+        }
+    }
+
+    /* groups have the same statistics, but are not grouped any further */
+    InstanceAggregate groupFor(final List<String> groupValues){
+        return groups.computeIfAbsent(groupValues,
+                values -> new InstanceAggregate(List.of(), statisticFieldNames, numericFields));
+    }
+
+    public int getCount(){
+        return count;
+    }
+
+    /* the field names for each of the requested statistics, in the order requested */
+    public Map<String, List<String>> getStatisticFieldNames(){
+        return statisticFieldNames;
+    }
+
+    /* null when no instance has a value for the field */
+    public Number getStatistic(final String statistic, final String fieldName){
+        final NumericSummary summary = summaries.get(fieldName);
+        if(summary==null){
+            throw new IllegalArgumentException(
+                    String.format("%s was not aggregated", fieldName));
+        }
+        return summary.get(statistic);
+    }
+
+    public List<String> getGroupByFieldNames(){
+        return groupByFieldNames;
+    }
+
+    /* the groups in the order they were found, keyed by the values of the group by fields */
+    public Map<List<String>, InstanceAggregate> getGroups(){
+        return groups;
+    }
+
+    private static class NumericSummary {
+
+        private final boolean wholeNumbers;
+        private int count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        NumericSummary(final boolean wholeNumbers){
+            this.wholeNumbers = wholeNumbers;
+        }
+
+        void add(final double value){
+            count++;
+            sum = sum + value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        Number get(final String statistic){
+            if(count==0){
+                return statistic.equals("sum") ? asNumber(0) : null;
+            }
+
+            switch (statistic){
+                case "min":
+                    return asNumber(min);
+                case "max":
+                    return asNumber(max);
+                case "sum":
+                    return asNumber(sum);
+                case "avg":
+                    return sum / count;
+                default:
+                    throw new IllegalArgumentException(
+                            String.format("Unknown statistic %s", statistic));
+            }
+        }
+
+        private Number asNumber(final double value){
+            if(wholeNumbers){
+                return (long) value;
+            }
+            return value;
+        }
+    }
+}
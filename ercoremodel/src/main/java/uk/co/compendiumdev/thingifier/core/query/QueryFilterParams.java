@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 public class QueryFilterParams {
 
@@ -44,6 +45,47 @@ public class QueryFilterParams {
         return filterBys.get(i);
     }
 
+    public static boolean isFieldsParam(final String key) {
+        return key.equalsIgnoreCase("fields");
+    }
+
+    /*
+        the field names to render from fields=id,title
+        empty when every field should be rendered
+     */
+    public List<String> fieldsToRender() {
+        List<String> fieldNames = new ArrayList<>();
+
+        for(FilterBy by : filterBys){
+            if(isFieldsParam(by.fieldName)){
+                for(String fieldName : by.fieldValue.split(",")){
+                    if(!fieldName.isBlank() && !fieldNames.contains(fieldName.trim())){
+                        fieldNames.add(fieldName.trim());
+                    }
+                }
+            }
+        }
+
+        return fieldNames;
+    }
+
+    public boolean hasFieldsToRender() {
+        return !fieldsToRender().isEmpty();
+    }
+
+    /* the params which are not named e.g. to remove params which control the output from the filters */
+    public QueryFilterParams withoutParams(final Predicate<String> isParamName) {
+        QueryFilterParams remaining = new QueryFilterParams();
+
+        for(FilterBy by : filterBys){
+            if(!isParamName.test(by.fieldName)){
+                remaining.add(by);
+            }
+        }
+
+        return remaining;
+    }
+
     public boolean hasSortBy() {
         for(FilterBy filterBy : filterBys){
             if(filterBy.fieldName.equals("sortBy") || filterBy.fieldName.equals("sort_by")){
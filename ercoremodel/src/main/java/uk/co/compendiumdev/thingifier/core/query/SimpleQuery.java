@@ -8,6 +8,7 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.F
 import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipVectorDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.profiling.QueryEvent;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -68,6 +69,24 @@ final public class SimpleQuery {
 
 
     public SimpleQuery performQuery() {
+        final QueryEvent event = new QueryEvent();
+        event.begin();
+        matchQueryTerms();
+        event.end();
+        commitIfRecording(event);
+        return this;
+    }
+
+    private void commitIfRecording(final QueryEvent event){
+        if(event.shouldCommit()){
+            event.query = query;
+            event.resultCount = foundItems.size();
+            event.tag(resultContainsDefinition==null ? "" : resultContainsDefinition.getName(), database);
+            event.commit();
+        }
+    }
+
+    private void matchQueryTerms() {
         // a simple query is a URL based REST query
         // e.g. THING/_GUID_/RELATIONSHIP/THING
         // e.g. THING/_ID_/RELATIONSHIP/THING
@@ -224,8 +243,6 @@ final public class SimpleQuery {
             // is it a filter query?  e.g. ?title="name"
             lastMatch = NOTHING;
         }
-
-        return this;
     }
 
     // i.e. did the query end with an identifier which was a primary key
@@ -241,21 +258,25 @@ final public class SimpleQuery {
 
     public SimpleQuery performQuery(final QueryFilterParams queryParams) {
 
-        performQuery();
+        final QueryEvent event = new QueryEvent();
+        event.begin();
+
+        matchQueryTerms();
         //filter the results based on the query
         // todo: should we filter single instances?
-        if(!isCollection){
-            return this;
-        }
+        if(isCollection){
 
-        final EntityInstanceListFilter filterer = new EntityInstanceListFilter(queryParams);
+            final EntityInstanceListFilter filterer = new EntityInstanceListFilter(queryParams);
 
-        foundItems = filterer.filter(foundItems);
+            foundItems = filterer.filter(foundItems);
 
-        // support sorting after filtering
-        final EntityInstanceListSorter sorter = new EntityInstanceListSorter(queryParams);
-        foundItems = sorter.sort(foundItems);
+            // support sorting after filtering
+            final EntityInstanceListSorter sorter = new EntityInstanceListSorter(queryParams);
+            foundItems = sorter.sort(foundItems);
+        }
 
+        event.end();
+        commitIfRecording(event);
         return this;
     }
 
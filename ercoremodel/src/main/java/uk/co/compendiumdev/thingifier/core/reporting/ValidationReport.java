@@ -17,11 +17,12 @@ public class ValidationReport {
 
 
     private boolean validity;
+    // most reports are valid, the list is created for the first message
     private List<String> errorMessages;
 
     public ValidationReport() {
         validity = true;
-        errorMessages = new ArrayList<>();
+        errorMessages = null;
     }
 
     public ValidationReport setValid(boolean validity) {
@@ -34,10 +35,18 @@ public class ValidationReport {
             setValid(false);
         }
 
-        errorMessages.addAll(report.getErrorMessages());
+        if(report.errorMessages!=null){
+            for(String errorMessage : report.errorMessages){
+                addErrorMessage(errorMessage);
+            }
+        }
     }
 
     public Collection<String> getErrorMessages() {
+        // callers can add to the messages
+        if(errorMessages==null){
+            errorMessages = new ArrayList<>();
+        }
         return errorMessages;
     }
 
@@ -46,6 +55,9 @@ public class ValidationReport {
     }
 
     public ValidationReport addErrorMessage(String errorMessage) {
+        if(errorMessages==null){
+            errorMessages = new ArrayList<>();
+        }
         errorMessages.add(errorMessage);
         return this;
     }
@@ -54,7 +66,7 @@ public class ValidationReport {
         StringBuilder reasons = new StringBuilder();
         reasons.append("Failed Validation: ");
         String delimiter ="";
-        for(String reason : errorMessages){
+        for(String reason : getErrorMessages()){
             reasons.append( delimiter + reason);
             delimiter = ", ";
         }
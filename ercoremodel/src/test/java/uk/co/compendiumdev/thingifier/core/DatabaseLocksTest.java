@@ -0,0 +1,69 @@
+package uk.co.compendiumdev.thingifier.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class DatabaseLocksTest {
+
+    @Test
+    public void sameDatabaseAlwaysUsesTheSameLock(){
+        DatabaseLocks locks = new DatabaseLocks();
+
+        Assertions.assertSame(locks.lockFor("session-1"), locks.lockFor("session-1"));
+        Assertions.assertSame(locks.lockFor(EntityRelModel.DEFAULT_DATABASE_NAME), locks.lockFor(null));
+    }
+
+    @Test
+    public void databasesAreSpreadOverTheStripes(){
+        DatabaseLocks locks = new DatabaseLocks(8);
+
+        boolean[] used = new boolean[8];
+        for(int session=0; session<100; session++){
+            used[locks.stripeFor("session-" + session)] = true;
+        }
+
+        for(boolean stripeUsed : used){
+            Assertions.assertTrue(stripeUsed);
+        }
+    }
+
+    @Test
+    public void mustHaveAtLeastOneStripe(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new DatabaseLocks(0));
+    }
+
+    @Test
+    public void writeLockBlocksReadersOfTheSameDatabase() throws InterruptedException {
+        DatabaseLocks locks = new DatabaseLocks();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch finishWriting = new CountDownLatch(1);
+        AtomicBoolean readerGotLock = new AtomicBoolean(true);
+
+        Thread writer = new Thread(() -> locks.withWriteLock("session", () -> {
+            writing.countDown();
+            try {
+                finishWriting.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        writer.start();
+        writing.await(5, TimeUnit.SECONDS);
+
+        Thread reader = new Thread(() ->
+                readerGotLock.set(locks.lockFor("session").readLock().tryLock()));
+        reader.start();
+        reader.join();
+
+        finishWriting.countDown();
+        writer.join();
+
+        Assertions.assertFalse(readerGotLock.get());
+        Assertions.assertEquals("read", locks.withReadLock("session", () -> "read"));
+    }
+}
@@ -245,4 +245,57 @@ public class EntityRelModelTest {
 
         Assertions.assertEquals(1, erm.getInstanceData().getAllInstanceCollections().size());
     }
+
+    @Test
+    public void aFrozenSchemaCanNotBeChanged(){
+
+        EntityRelModel erm = new EntityRelModel();
+        final EntityDefinition thing = erm.createEntityDefinition("thing", "things");
+        erm.getSchema().freeze();
+
+        Assertions.assertTrue(erm.getSchema().isFrozen());
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> erm.createEntityDefinition("other", "others"));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> erm.createRelationshipDefinition(thing, thing, "related", Cardinality.ONE_TO_MANY()));
+        Assertions.assertTrue(erm.hasEntityNamed("thing"));
+    }
+
+    @Test
+    public void aFrozenSchemaFindsTheSameDefinitions(){
+
+        EntityRelModel erm = new EntityRelModel();
+        final EntityDefinition thing = erm.createEntityDefinition("thing", "things");
+        final EntityDefinition other = erm.createEntityDefinition("other", "Others");
+        erm.createRelationshipDefinition(thing, other, "related", Cardinality.ONE_TO_MANY())
+                .whenReversed(Cardinality.ONE_TO_ONE(), "RelatedTo");
+        erm.getSchema().freeze();
+
+        Assertions.assertSame(other, erm.getEntityDefinitionWithPluralNamed("others"));
+        Assertions.assertSame(thing, erm.getSchema().getDefinitionWithSingularOrPluralNamed("Things"));
+        Assertions.assertNull(erm.getEntityDefinitionWithPluralNamed("nothings"));
+        Assertions.assertTrue(erm.hasRelationshipNamed("Related"));
+        Assertions.assertTrue(erm.hasRelationshipNamed("relatedto"));
+        Assertions.assertFalse(erm.hasRelationshipNamed("unrelated"));
+        Assertions.assertEquals(2, erm.getEntityNames().size());
+
+        // the entity fields are frozen with the schema
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> thing.addField(Field.is("title", FieldType.STRING)));
+    }
+
+    @Test
+    public void detachedInstanceDataIsNotADatabase(){
+
+        EntityRelModel erm = new EntityRelModel();
+        erm.createEntityDefinition("thing", "things");
+
+        final ERInstanceData detached = erm.createDetachedInstanceData();
+        detached.getInstanceCollectionForEntityNamed("thing").createManagedInstance();
+
+        Assertions.assertEquals(1, detached.getInstanceCollectionForEntityNamed("thing").countInstances());
+        Assertions.assertEquals(0, erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                getInstanceCollectionForEntityNamed("thing").countInstances());
+        Assertions.assertEquals(1, erm.getDatabaseNames().size());
+    }
 }
@@ -0,0 +1,106 @@
+package uk.co.compendiumdev.thingifier.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class IdleDatabaseSpillTest {
+
+    private EntityRelModel erm;
+
+    @BeforeEach
+    public void createModel(){
+        erm = new EntityRelModel();
+        final EntityDefinition thingDefn = erm.createEntityDefinition("thing", "things");
+        thingDefn.addField(Field.is("title", FieldType.STRING));
+        erm.createInstanceDatabase("session");
+    }
+
+    private EntityInstance addThingTo(final String databaseKey){
+        final EntityInstance thing = erm.getInstanceData(databaseKey).
+                getInstanceCollectionForEntityNamed("thing").createManagedInstance();
+        thing.setValue("title", "spilled thing");
+        return thing;
+    }
+
+    @Test
+    public void withoutAStoreDatabasesStayOnTheHeap(){
+
+        addThingTo("session");
+
+        Assertions.assertEquals(0, erm.spillIdleDatabases(0));
+        Assertions.assertEquals(1, erm.getInstanceData("session").
+                getInstanceCollectionForEntityNamed("thing").countInstances());
+    }
+
+    @Test
+    public void idleDatabaseIsSpilledAndRestoredWhenAccessed(){
+
+        final OffHeapDatabaseStore store = OffHeapDatabaseStore.direct();
+        erm.setIdleDatabaseStore(store);
+        final EntityInstance thing = addThingTo("session");
+
+        // the default database is never spilled
+        Assertions.assertEquals(1, erm.spillIdleDatabases(-1));
+        Assertions.assertTrue(store.contains("session"));
+        Assertions.assertTrue(store.countBytes()>0);
+        Assertions.assertTrue(erm.getDatabaseNames().contains("session"));
+
+        final EntityInstance restored = erm.getInstanceData("session").
+                getInstanceCollectionForEntityNamed("thing").findInstanceByInternalID(thing.getInternalId());
+
+        Assertions.assertEquals("spilled thing", restored.getFieldValue("title").asString());
+        Assertions.assertFalse(store.contains("session"));
+        Assertions.assertEquals(0, store.countBytes());
+    }
+
+    @Test
+    public void recentlyUsedDatabaseIsNotSpilled(){
+
+        erm.setIdleDatabaseStore(OffHeapDatabaseStore.direct());
+        addThingTo("session");
+
+        Assertions.assertEquals(0, erm.spillIdleDatabases(60000));
+        Assertions.assertEquals(0, erm.getIdleDatabaseStore().countDatabases());
+    }
+
+    @Test
+    public void spilledDatabaseExistsAndCanBeDeleted(){
+
+        final OffHeapDatabaseStore store = OffHeapDatabaseStore.direct();
+        erm.setIdleDatabaseStore(store);
+        erm.spillIdleDatabases(-1);
+
+        Assertions.assertFalse(erm.createInstanceDatabaseIfNotExisting("session"));
+
+        erm.deleteInstanceDatabase("session");
+
+        Assertions.assertFalse(store.contains("session"));
+        Assertions.assertNull(erm.getInstanceData("session"));
+    }
+
+    @Test
+    public void canSpillToMemoryMappedFiles() throws IOException {
+
+        final Path folder = Files.createTempDirectory("idle-databases");
+        folder.toFile().deleteOnExit();
+        final OffHeapDatabaseStore store = OffHeapDatabaseStore.mappedFiles(folder);
+        erm.setIdleDatabaseStore(store);
+        addThingTo("session");
+
+        Assertions.assertEquals(1, erm.spillIdleDatabases(-1));
+        Assertions.assertTrue(Files.exists(folder.resolve("session.snapshot")));
+
+        Assertions.assertEquals(1, erm.getInstanceData("session").
+                getInstanceCollectionForEntityNamed("thing").countInstances());
+        Assertions.assertFalse(store.contains("session"));
+    }
+}
@@ -0,0 +1,94 @@
+package uk.co.compendiumdev.thingifier.core;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScratchInstanceDataPoolTest {
+
+    EntityRelModel erm;
+    EntityInstanceCollection things;
+
+    @BeforeEach
+    public void createThings(){
+        erm = new EntityRelModel();
+        final EntityDefinition thing = erm.createEntityDefinition("thing", "things");
+        thing.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thing.addFields(Field.is("title", FieldType.STRING));
+
+        things = erm.getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME).
+                        getInstanceCollectionForEntityNamed("thing");
+
+        for(int count=1; count<=5; count++){
+            things.createManagedInstance().setValue("title", "thing " + count);
+        }
+    }
+
+    @Test
+    public void actionOnlySeesTheGivenInstances(){
+
+        ScratchInstanceDataPool pool = new ScratchInstanceDataPool(erm);
+
+        List<EntityInstance> someThings = new ArrayList<>();
+        someThings.add(things.findInstanceByPrimaryKey("2"));
+        someThings.add(things.findInstanceByPrimaryKey("4"));
+
+        final int count = pool.withInstances(someThings, (scratch) ->
+                scratch.getInstanceCollectionForEntityNamed("thing").countInstances());
+
+        Assertions.assertEquals(2, count);
+
+        // the source instances are untouched
+        Assertions.assertEquals(5, things.countInstances());
+        Assertions.assertEquals("thing 2", things.findInstanceByPrimaryKey("2").getFieldValue("title").asString());
+    }
+
+    @Test
+    public void scratchDataIsResetAndReused(){
+
+        ScratchInstanceDataPool pool = new ScratchInstanceDataPool(erm);
+
+        final ERInstanceData first = pool.withInstances(things.getInstances(), (scratch) -> scratch);
+        Assertions.assertEquals(1, pool.pooledCount());
+        Assertions.assertEquals(0, first.getInstanceCollectionForEntityNamed("thing").countInstances());
+
+        final ERInstanceData second = pool.withInstances(new ArrayList<>(), (scratch) -> scratch);
+        Assertions.assertSame(first, second);
+
+        // counters are reset so new instances in the scratch data do not clash
+        final String id = pool.withInstances(new ArrayList<>(), (scratch) ->
+                scratch.getInstanceCollectionForEntityNamed("thing").
+                        createManagedInstance().getFieldValue("id").asString());
+        Assertions.assertEquals("1", id);
+    }
+
+    @Test
+    public void scratchDataIsReturnedEvenWhenActionFails(){
+
+        ScratchInstanceDataPool pool = new ScratchInstanceDataPool(erm, 1);
+
+        Assertions.assertThrows(IllegalStateException.class, () ->
+            pool.withInstances(things.getInstances(), (scratch) -> {
+                throw new IllegalStateException("failed");
+            }));
+
+        Assertions.assertEquals(1, pool.pooledCount());
+        final int count = pool.withInstances(new ArrayList<>(), (scratch) ->
+                scratch.getInstanceCollectionForEntityNamed("thing").countInstances());
+        Assertions.assertEquals(0, count);
+    }
+
+    @Test
+    public void mustPoolAtLeastOne(){
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new ScratchInstanceDataPool(erm, 0));
+    }
+}
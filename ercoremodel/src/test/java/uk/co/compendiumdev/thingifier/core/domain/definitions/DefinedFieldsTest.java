@@ -81,6 +81,36 @@ class DefinedFieldsTest {
         Assertions.assertNull(fields.getField("bob"));
     }
 
+    @Test
+    void fieldsHavePositionsInTheOrderAdded(){
+
+        DefinedFields fields = new DefinedFields();
+        fields.addField(Field.is("zacharay", FieldType.STRING));
+        fields.addField(Field.is("Middle", FieldType.STRING));
+
+        Assertions.assertEquals(2, fields.countFields());
+        Assertions.assertEquals(0, fields.positionOf("zacharay"));
+        Assertions.assertEquals(1, fields.positionOf("Middle"));
+        // names are case insensitive
+        Assertions.assertEquals(1, fields.positionOf("middle"));
+        Assertions.assertEquals(-1, fields.positionOf("bob"));
+        Assertions.assertEquals("Middle", fields.getFieldAt(1).getName());
+    }
+
+    @Test
+    void redefinedFieldKeepsItsPosition(){
+
+        DefinedFields fields = new DefinedFields();
+        fields.addField(Field.is("zacharay", FieldType.STRING));
+        fields.addField(Field.is("middle", FieldType.STRING));
+        fields.addField(Field.is("Zacharay", FieldType.INTEGER));
+
+        Assertions.assertEquals(2, fields.countFields());
+        Assertions.assertEquals(0, fields.positionOf("Zacharay"));
+        Assertions.assertEquals(0, fields.positionOf("zacharay"));
+        Assertions.assertEquals(FieldType.INTEGER, fields.getField("zacharay").getType());
+    }
+
 
     @BeforeEach
     public void multipleFieldsDefined(){
@@ -168,4 +198,28 @@ class DefinedFieldsTest {
 
     }
 
+    @Test
+    void frozenFieldsShareTheirListsAndCanNotBeAdded(){
+
+        DefinedFields fields = new DefinedFields();
+        fields.addFields(Field.is("id", FieldType.AUTO_INCREMENT),
+                Field.is("guid", FieldType.AUTO_GUID),
+                Field.is("title", FieldType.STRING));
+        fields.freeze();
+
+        Assertions.assertTrue(fields.isFrozen());
+        Assertions.assertSame(fields.getFieldNames(), fields.getFieldNames());
+        Assertions.assertEquals(List.of("id", "guid", "title"), fields.getFieldNames());
+
+        final List<Field> autoFields = fields.getFieldsOfType(FieldType.AUTO_INCREMENT, FieldType.AUTO_GUID);
+        Assertions.assertEquals(2, autoFields.size());
+        Assertions.assertSame(autoFields, fields.getFieldsOfType(FieldType.AUTO_GUID, FieldType.AUTO_INCREMENT));
+        Assertions.assertEquals(List.of("title"), fields.getFieldNamesOfType(FieldType.STRING));
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> fields.addField(Field.is("other", FieldType.STRING)));
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> fields.getFieldNames().add("other"));
+    }
+
 }
@@ -55,4 +55,45 @@ class FieldValueTest {
         Assertions.assertThrows(NumberFormatException.class,
                 ()-> {value.asFloat();});
     }
+
+    @Test
+    void typedValuesAreParsedOnceAndKeepTheirString(){
+
+        final FieldValue anInteger = FieldValue.is(Field.is("anInt", FieldType.INTEGER), "007");
+        Assertions.assertEquals(7, anInteger.asInteger());
+        Assertions.assertEquals("007", anInteger.asString());
+
+        final FieldValue aBoolean = FieldValue.is(Field.is("aBoolean", FieldType.BOOLEAN), "TRUE");
+        Assertions.assertTrue(aBoolean.asBoolean());
+        Assertions.assertEquals("TRUE", aBoolean.asString());
+
+        // invalid values are kept and throw when used as the type
+        final FieldValue notAnInteger = FieldValue.is(Field.is("anInt", FieldType.INTEGER), "seven");
+        Assertions.assertEquals("seven", notAnInteger.asString());
+        Assertions.assertThrows(NumberFormatException.class, notAnInteger::asInteger);
+
+        final FieldValue notABoolean = FieldValue.is(Field.is("aBoolean", FieldType.BOOLEAN), "yes");
+        Assertions.assertThrows(IllegalArgumentException.class, notABoolean::asBoolean);
+    }
+
+    @Test
+    void primitiveValuesCreateTheirStringWhenNeeded(){
+
+        final Field uniqueField = Field.is("anInt", FieldType.INTEGER).
+                                    setUniqueAfterTransform((value) -> "#" + value);
+
+        final FieldValue anInteger = FieldValue.is(uniqueField, 12);
+        Assertions.assertEquals(12, anInteger.asInteger());
+        Assertions.assertEquals("12", anInteger.asString());
+        Assertions.assertEquals("12", anInteger.asJsonValue());
+        Assertions.assertEquals("#12", anInteger.asUniqueComparisonString());
+
+        final FieldValue aFloat = FieldValue.is(Field.is("aFloat", FieldType.FLOAT), 1.5F);
+        Assertions.assertEquals(1.5F, aFloat.asFloat());
+        Assertions.assertEquals("1.5", aFloat.asString());
+
+        final FieldValue aBoolean = FieldValue.is(Field.is("aBoolean", FieldType.BOOLEAN), false);
+        Assertions.assertFalse(aBoolean.asBoolean());
+        Assertions.assertEquals("false", aBoolean.cloned().asString());
+    }
 }
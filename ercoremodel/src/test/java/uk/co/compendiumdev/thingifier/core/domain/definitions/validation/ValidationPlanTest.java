@@ -0,0 +1,127 @@
+package uk.co.compendiumdev.thingifier.core.domain.definitions.validation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.DefinedFields;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceFields;
+import uk.co.compendiumdev.thingifier.core.reporting.ValidationReport;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+class ValidationPlanTest {
+
+    private DefinedFields definition(){
+        return new DefinedFields().addFields(
+                Field.is("id", FieldType.AUTO_INCREMENT),
+                Field.is("title", FieldType.STRING).makeMandatory().
+                        withValidation(VRule.notEmpty(), VRule.maximumLength(10)),
+                Field.is("code", FieldType.STRING).
+                        withValidation(VRule.matchesRegex("[A-Z]{2}")),
+                Field.is("quantity", FieldType.INTEGER).withMinimumValue(0).withMaximumValue(100),
+                Field.is("price", FieldType.FLOAT),
+                Field.is("done", FieldType.BOOLEAN),
+                Field.is("status", FieldType.ENUM).withExample("open").withExample("closed"),
+                Field.is("person", FieldType.OBJECT).
+                        withField(Field.is("name", FieldType.STRING).withValidation(VRule.notEmpty())));
+    }
+
+    private InstanceFields validFields(final DefinedFields definition){
+        final InstanceFields fields = new InstanceFields(definition);
+        setUnvalidated(fields, "id", "1");
+        return fields.
+                setValue("title", "title").
+                setValue("code", "AB").
+                setValue("quantity", "12").
+                setValue("price", "9.99").
+                setValue("done", "true").
+                setValue("status", "open").
+                setValue("person.name", "Bob");
+    }
+
+    /* the frozen, compiled, validation reports the same as the unfrozen validation */
+    private ValidationReport assertSameValidation(final Consumer<InstanceFields> change,
+                                                  final boolean allowedToSetIds){
+
+        final InstanceFields interpreted = validFields(definition());
+        change.accept(interpreted);
+
+        final DefinedFields frozen = definition().freeze();
+        final InstanceFields compiled = validFields(frozen);
+        change.accept(compiled);
+
+        Assertions.assertNotNull(frozen.getValidationPlan());
+
+        final ValidationReport expected = interpreted.validateFields(List.of(), allowedToSetIds);
+        final ValidationReport actual = compiled.validateFields(List.of(), allowedToSetIds);
+
+        Assertions.assertEquals(expected.isValid(), actual.isValid());
+        Assertions.assertEquals(expected.getCombinedErrorMessages(), actual.getCombinedErrorMessages());
+        return actual;
+    }
+
+    private void setUnvalidated(final InstanceFields fields, final String fieldName, final String value){
+        fields.addValue(fields.getDefinition().getField(fieldName).valueFor(value));
+    }
+
+    @Test
+    void unfrozenFieldsHaveNoPlan(){
+        Assertions.assertNull(definition().getValidationPlan());
+    }
+
+    @Test
+    void validFieldsAreValid(){
+        Assertions.assertTrue(assertSameValidation(fields -> {}, true).isValid());
+    }
+
+    @Test
+    void idsCanNotBeSetWhenNotAllowed(){
+        Assertions.assertFalse(assertSameValidation(fields -> {}, false).isValid());
+    }
+
+    @Test
+    void excludedFieldsAreNotValidated(){
+        final InstanceFields fields = validFields(definition().freeze());
+
+        Assertions.assertTrue(fields.validateFields(List.of("id"), false).isValid());
+    }
+
+    @Test
+    void reportsTheSameRuleFailures(){
+        Assertions.assertFalse(assertSameValidation(
+                fields -> setUnvalidated(fields, "title", "a title which is too long"), true).isValid());
+        Assertions.assertFalse(assertSameValidation(
+                fields -> setUnvalidated(fields, "title", "   "), true).isValid());
+        Assertions.assertFalse(assertSameValidation(
+                fields -> setUnvalidated(fields, "code", "ABC"), true).isValid());
+    }
+
+    @Test
+    void reportsTheSameTypeFailures(){
+        Assertions.assertFalse(assertSameValidation(
+                fields -> setUnvalidated(fields, "quantity", "101"), true).isValid());
+        Assertions.assertFalse(assertSameValidation(
+                fields -> setUnvalidated(fields, "quantity", "twelve"), true).isValid());
+        Assertions.assertFalse(assertSameValidation(
+                fields -> setUnvalidated(fields, "price", "cheap"), true).isValid());
+        Assertions.assertFalse(assertSameValidation(
+                fields -> setUnvalidated(fields, "done", "yes"), true).isValid());
+        Assertions.assertFalse(assertSameValidation(
+                fields -> setUnvalidated(fields, "status", "pending"), true).isValid());
+    }
+
+    @Test
+    void integersSentAsFloatsAreLeftToTheFieldToDecide(){
+        Assertions.assertTrue(assertSameValidation(
+                fields -> setUnvalidated(fields, "quantity", "12.0"), true).isValid());
+    }
+
+    @Test
+    void nestedObjectsAreValidated(){
+        Assertions.assertFalse(assertSameValidation(
+                fields -> fields.getFieldValue("person").asObject().
+                        addValue(Field.is("name", FieldType.STRING).valueFor("")), true).isValid());
+    }
+}
@@ -52,4 +52,14 @@ public class AutoIncrementTest {
         Assertions.assertEquals(11, auto.getNextValueAndUpdate());
         Assertions.assertEquals(16, auto.getNextValueAndUpdate());
     }
+
+    @Test
+    public void canPeekAtTheNextValueWithoutUsingIt(){
+        AutoIncrement auto = new AutoIncrement("afield", 1);
+        auto.getNextValueAndUpdate();
+
+        Assertions.assertEquals(2, auto.peekNextValue());
+        Assertions.assertEquals(2, auto.peekNextValue());
+        Assertions.assertEquals(2, auto.getNextValueAndUpdate());
+    }
 }
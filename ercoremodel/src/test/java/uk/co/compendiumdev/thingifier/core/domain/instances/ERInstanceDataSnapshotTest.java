@@ -0,0 +1,146 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+class ERInstanceDataSnapshotTest {
+
+    private EntityRelModel erm;
+    private EntityDefinition thingDefn;
+
+    @BeforeEach
+    void createModel(){
+        erm = new EntityRelModel();
+        thingDefn = erm.createEntityDefinition("thing", "things");
+        thingDefn.addFields(
+                Field.is("id", FieldType.AUTO_INCREMENT),
+                Field.is("title", FieldType.STRING),
+                Field.is("done", FieldType.BOOLEAN),
+                Field.is("price", FieldType.FLOAT),
+                Field.is("count", FieldType.INTEGER));
+        final EntityDefinition partDefn = erm.createEntityDefinition("part", "parts");
+        partDefn.addField(Field.is("name", FieldType.STRING));
+
+        erm.createRelationshipDefinition(thingDefn, partDefn, "parts", Cardinality.ONE_TO_MANY())
+                .whenReversed(Cardinality.ONE_TO_ONE(), "partof");
+    }
+
+    @Test
+    void canRestoreFieldValuesRelationshipsAndCounters(){
+
+        final ERInstanceData data = erm.getInstanceData();
+        final EntityInstanceCollection things = data.getInstanceCollectionForEntityNamed("thing");
+        final EntityInstanceCollection parts = data.getInstanceCollectionForEntityNamed("part");
+
+        final EntityInstance thing = new EntityInstance(thingDefn);
+        thing.setValue("title", "a thing");
+        thing.setValue("done", "true");
+        thing.setValue("price", "1.5");
+        thing.setValue("count", "12");
+        things.addInstance(thing);
+        things.createManagedInstance();
+
+        final EntityInstance part = parts.createManagedInstance();
+        part.setValue("name", "a part");
+        thing.getRelationships().connect("parts", part);
+
+        final ByteBuffer snapshot = ByteBuffer.wrap(ERInstanceDataSnapshot.toBytes(data));
+        final ERInstanceData restored = ERInstanceDataSnapshot.restore(erm.getSchema(), snapshot);
+
+        final EntityInstanceCollection restoredThings = restored.getInstanceCollectionForEntityNamed("thing");
+        Assertions.assertEquals(2, restoredThings.countInstances());
+
+        final EntityInstance restoredThing = restoredThings.findInstanceByInternalID(thing.getInternalId());
+        Assertions.assertNotSame(thing, restoredThing);
+        Assertions.assertEquals("1", restoredThing.getFieldValue("id").asString());
+        Assertions.assertEquals("a thing", restoredThing.getFieldValue("title").asString());
+        Assertions.assertTrue(restoredThing.getFieldValue("done").asBoolean());
+        Assertions.assertEquals(1.5f, restoredThing.getFieldValue("price").asFloat());
+        Assertions.assertEquals(12, restoredThing.getFieldValue("count").asInteger());
+
+        // both sides of the relationship are restored
+        final EntityInstance restoredPart = restoredThing.getRelationships().getConnectedItems("parts").iterator().next();
+        Assertions.assertEquals(part.getInternalId(), restoredPart.getInternalId());
+        Assertions.assertEquals("a part", restoredPart.getFieldValue("name").asString());
+        Assertions.assertEquals(restoredThing,
+                restoredPart.getRelationships().getConnectedItems("partof").iterator().next());
+
+        // counters continue from where they were
+        Assertions.assertEquals("3",
+                restoredThings.createManagedInstance().getFieldValue("id").asString());
+    }
+
+    @Test
+    void snapshotCanBeRestoredMoreThanOnce(){
+
+        erm.getInstanceData().getInstanceCollectionForEntityNamed("thing").createManagedInstance();
+
+        final ByteBuffer snapshot = ByteBuffer.wrap(ERInstanceDataSnapshot.toBytes(erm.getInstanceData()));
+
+        Assertions.assertEquals(1, ERInstanceDataSnapshot.restore(erm.getSchema(), snapshot).
+                getInstanceCollectionForEntityNamed("thing").countInstances());
+        Assertions.assertEquals(1, ERInstanceDataSnapshot.restore(erm.getSchema(), snapshot).
+                getInstanceCollectionForEntityNamed("thing").countInstances());
+    }
+
+    @Test
+    void cannotRestoreSomethingWhichIsNotASnapshot(){
+
+        final ByteBuffer notASnapshot = ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ERInstanceDataSnapshot.restore(erm.getSchema(), notASnapshot));
+    }
+
+    @Test
+    void cannotRestoreATruncatedSnapshot(){
+
+        erm.getInstanceData().getInstanceCollectionForEntityNamed("thing").
+                createManagedInstance().setValue("title", "a thing");
+        final byte[] bytes = ERInstanceDataSnapshot.toBytes(erm.getInstanceData());
+        final ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 5));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> ERInstanceDataSnapshot.restore(erm.getSchema(), truncated));
+    }
+
+    @Test
+    void canStreamASnapshotThroughAFileChannel() throws IOException {
+
+        final EntityInstance thing = erm.getInstanceData().
+                getInstanceCollectionForEntityNamed("thing").createManagedInstance();
+        thing.setValue("title", "a saved thing");
+
+        final Path file = Files.createTempFile("instances", ".snapshot");
+        file.toFile().deleteOnExit();
+
+        try(FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)){
+            ERInstanceDataSnapshot.writeTo(erm.getInstanceData(), out);
+        }
+
+        Assertions.assertArrayEquals(ERInstanceDataSnapshot.toBytes(erm.getInstanceData()),
+                Files.readAllBytes(file));
+
+        final ERInstanceData restored;
+        try(FileChannel in = FileChannel.open(file, StandardOpenOption.READ)){
+            restored = ERInstanceDataSnapshot.readFrom(erm.getSchema(), in);
+        }
+
+        Assertions.assertEquals("a saved thing", restored.getInstanceCollectionForEntityNamed("thing").
+                findInstanceByInternalID(thing.getInternalId()).getFieldValue("title").asString());
+    }
+}
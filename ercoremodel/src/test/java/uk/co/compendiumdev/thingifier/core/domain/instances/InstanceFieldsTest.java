@@ -355,4 +355,57 @@ class InstanceFieldsTest {
         Assertions.assertEquals("false",
                 session.getFieldValue("falsey").asString());
     }
+
+    @Test
+    public void unsetFieldsShareTheDefaultValue() {
+
+        DefinedFields fieldsDefn = new DefinedFields();
+        fieldsDefn.addFields(
+                Field.is("title", FieldType.STRING),
+                Field.is("count", FieldType.INTEGER).withDefaultValue("5"),
+                Field.is("details", FieldType.OBJECT));
+
+        InstanceFields instance = new InstanceFields(fieldsDefn);
+        InstanceFields another = new InstanceFields(fieldsDefn);
+
+        Assertions.assertSame(instance.getFieldValue("title"), another.getFieldValue("title"));
+        Assertions.assertSame(instance.getFieldValue("count"), another.getFieldValue("Count"));
+        Assertions.assertEquals("5", instance.getFieldValue("count").asString());
+        Assertions.assertEquals("", instance.getFieldValue("title").asString());
+        // no type default for objects
+        Assertions.assertNull(instance.getFieldValue("details"));
+
+        instance.setValue("title", "my title");
+        Assertions.assertEquals("my title", instance.getFieldValue("TITLE").asString());
+        Assertions.assertEquals("", another.getFieldValue("title").asString());
+        Assertions.assertTrue(instance.hasAssignedValue("Title"));
+        Assertions.assertFalse(another.hasAssignedValue("title"));
+    }
+
+    @Test
+    public void canAddValuesForFieldsDefinedAfterCreation() {
+
+        DefinedFields fieldsDefn = new DefinedFields();
+        fieldsDefn.addFields(Field.is("title", FieldType.STRING));
+
+        InstanceFields instance = new InstanceFields(fieldsDefn);
+
+        fieldsDefn.addFields(Field.is("later", FieldType.STRING));
+        Assertions.assertNull(instance.getAssignedValue("later"));
+
+        instance.setValue("later", "added");
+        Assertions.assertEquals("added", instance.getFieldValue("later").asString());
+    }
+
+    @Test
+    public void canNotAddValuesForUndefinedFields() {
+
+        DefinedFields fieldsDefn = new DefinedFields();
+        fieldsDefn.addFields(Field.is("title", FieldType.STRING));
+
+        InstanceFields instance = new InstanceFields(fieldsDefn);
+
+        Assertions.assertThrows(RuntimeException.class,
+                () -> instance.addValue(Field.is("other", FieldType.STRING).valueFor("value")));
+    }
 }
@@ -0,0 +1,188 @@
+package uk.co.compendiumdev.thingifier.core.domain.instances.columnar;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceStorageEngine;
+import uk.co.compendiumdev.thingifier.core.query.EntityInstanceListFilter;
+import uk.co.compendiumdev.thingifier.core.query.EntityInstanceListSorter;
+import uk.co.compendiumdev.thingifier.core.query.FilterBy;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ColumnarEntityInstanceCollectionTest {
+
+    EntityDefinition entityDefn;
+
+    @BeforeEach
+    public void createEntity(){
+
+        entityDefn = new EntityDefinition("Entity", "Entities");
+
+        entityDefn.addAsPrimaryKeyField(Field.is("pk", FieldType.STRING));
+        entityDefn.addFields(
+                Field.is("id", FieldType.AUTO_INCREMENT),
+                Field.is("count", FieldType.INTEGER),
+                Field.is("price", FieldType.FLOAT),
+                Field.is("done", FieldType.BOOLEAN),
+                Field.is("status", FieldType.ENUM).
+                        withExample("todo").withExample("doing").withExample("done"));
+    }
+
+    private EntityInstanceCollection populated(final InstanceStorageEngine engine){
+        EntityInstanceCollection collection = new EntityInstanceCollection(entityDefn, engine);
+
+        final String[] statuses = {"todo", "doing", "done"};
+        for(int item=0; item<30; item++){
+            EntityInstance instance = new EntityInstance(entityDefn);
+            instance.setValue("pk", "item" + item);
+            instance.setValue("count", String.valueOf((item * 7) % 11));
+            instance.setValue("price", String.valueOf(1 + item / 4.0f));
+            if(item%3!=0){
+                // leave some unset so that the defaults are used
+                instance.setValue("done", String.valueOf(item%2==0));
+            }
+            instance.setValue("status", statuses[item % 3]);
+            collection.addInstance(instance);
+        }
+
+        return collection;
+    }
+
+    private List<String> primaryKeys(final List<EntityInstance> instances){
+        List<String> keys = new ArrayList<>();
+        for(EntityInstance instance : instances){
+            keys.add(instance.getPrimaryKeyValue());
+        }
+        return keys;
+    }
+
+    @Test
+    public void valuesAreReadBackAsTheyWereSet(){
+
+        EntityInstanceCollection collection = new EntityInstanceCollection(entityDefn, InstanceStorageEngine.COLUMNAR);
+
+        EntityInstance instance = new EntityInstance(entityDefn);
+        instance.setValue("pk", "first");
+        // not the canonical form of the typed values
+        instance.overrideValue("count", "007");
+        instance.overrideValue("price", "1.50");
+        instance.overrideValue("done", "TRUE");
+        instance.setValue("status", "doing");
+        collection.addInstance(instance);
+
+        Assertions.assertTrue(instance.getFields().getStorage() instanceof ColumnRow);
+        Assertions.assertEquals("first", instance.getFieldValue("pk").asString());
+        Assertions.assertEquals("1", instance.getFieldValue("id").asString());
+        Assertions.assertEquals("007", instance.getFieldValue("count").asString());
+        Assertions.assertEquals(7, instance.getFieldValue("count").asInteger());
+        Assertions.assertEquals("1.50", instance.getFieldValue("price").asString());
+        Assertions.assertEquals("TRUE", instance.getFieldValue("done").asString());
+        Assertions.assertEquals("doing", instance.getFieldValue("status").asString());
+
+        // values which do not parse are kept as set
+        instance.overrideValue("count", "many");
+        Assertions.assertEquals("many", instance.getFieldValue("count").asString());
+
+        instance.setValue("count", "12");
+        Assertions.assertEquals(12, instance.getFieldValue("count").asInteger());
+    }
+
+    @Test
+    public void deletedInstancesKeepTheirValuesAndTheRowIsReused(){
+
+        EntityInstanceCollection collection = populated(InstanceStorageEngine.COLUMNAR);
+
+        EntityInstance deleted = collection.findInstanceByPrimaryKey("item5");
+        final int row = ColumnStore.rowOf(deleted);
+        final ColumnStore columns = ((ColumnRow)deleted.getFields().getStorage()).getStore();
+
+        collection.deleteInstance(deleted);
+
+        Assertions.assertFalse(deleted.getFields().getStorage() instanceof ColumnRow);
+        Assertions.assertEquals("item5", deleted.getPrimaryKeyValue());
+        Assertions.assertEquals("2", deleted.getFieldValue("count").asString());
+        Assertions.assertEquals(29, columns.countRows());
+
+        EntityInstance added = new EntityInstance(entityDefn);
+        added.setValue("pk", "added");
+        collection.addInstance(added);
+
+        Assertions.assertEquals(row, ColumnStore.rowOf(added));
+        // nothing left over from the deleted instance
+        Assertions.assertEquals("0", added.getFieldValue("count").asString());
+        Assertions.assertEquals("false", added.getFieldValue("done").asString());
+        Assertions.assertEquals("", added.getFieldValue("status").asString());
+    }
+
+    @Test
+    public void columnFiltersMatchTheRowFilters(){
+
+        final List<EntityInstance> rows = new ArrayList<>(populated(InstanceStorageEngine.ROW).getInstances());
+        final List<EntityInstance> columns = new ArrayList<>(populated(InstanceStorageEngine.COLUMNAR).getInstances());
+
+        Assertions.assertNull(ColumnStore.commonStoreOf(rows));
+        Assertions.assertNotNull(ColumnStore.commonStoreOf(columns));
+
+        final String[][] conditions = {
+                {"count", ">5"}, {"count", "<=3"}, {"price", ">=3.5"}, {"done", "false"},
+                {"done", "!true"}, {"status", "doing"}, {"status", ">doing"}, {"pk", "<item2"}};
+
+        for(String[] condition : conditions){
+            List<FilterBy> filter = new ArrayList<>();
+            filter.add(new FilterBy(condition[0], condition[1]));
+            filter.add(new FilterBy("count", "!=0"));
+
+            final List<String> expected = primaryKeys(new EntityInstanceListFilter(filter).filter(rows));
+            final List<String> actual = primaryKeys(new EntityInstanceListFilter(filter).filter(columns));
+
+            Assertions.assertFalse(expected.isEmpty(), condition[0] + condition[1]);
+            Assertions.assertEquals(expected.size(), actual.size(), condition[0] + condition[1]);
+            Assertions.assertTrue(expected.containsAll(actual), condition[0] + condition[1]);
+        }
+    }
+
+    @Test
+    public void columnSortsMatchTheRowSorts(){
+
+        final List<EntityInstance> rows = new ArrayList<>(populated(InstanceStorageEngine.ROW).getInstances());
+        final List<EntityInstance> columns = new ArrayList<>(populated(InstanceStorageEngine.COLUMNAR).getInstances());
+
+        // the sorts are stable so sort by primary key first to have the same order for equal values
+        final EntityInstanceListSorter sorter = new EntityInstanceListSorter(new QueryFilterParams());
+        final List<EntityInstance> sortedRows = sorter.sortByField("pk", -1, rows);
+        final List<EntityInstance> sortedColumns = sorter.sortByField("pk", -1, columns);
+
+        for(String fieldName : new String[]{"count", "price", "done", "status"}){
+            for(int order : new int[]{-1, 1}){
+                Assertions.assertEquals(
+                        primaryKeys(sorter.sortByField(fieldName, order, sortedRows)),
+                        primaryKeys(sorter.sortByField(fieldName, order, sortedColumns)),
+                        fieldName + " " + order);
+            }
+        }
+    }
+
+    @Test
+    public void columnsWithValuesWhichDoNotParseAreNotScanned(){
+
+        EntityInstanceCollection collection = populated(InstanceStorageEngine.COLUMNAR);
+        final ColumnStore columns = ColumnStore.commonStoreOf(collection.getInstances());
+
+        Assertions.assertNotNull(columns.comparatorFor("count"));
+        Assertions.assertNotNull(columns.comparisonWith("count", "3"));
+        Assertions.assertNull(columns.comparisonWith("count", "three"));
+
+        collection.findInstanceByPrimaryKey("item1").overrideValue("count", "three");
+
+        Assertions.assertNull(columns.comparatorFor("count"));
+        Assertions.assertNull(columns.comparisonWith("count", "3"));
+    }
+}
@@ -0,0 +1,44 @@
+package uk.co.compendiumdev.thingifier.core.profiling;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+
+public class ProfilingContextTest {
+
+    @Test
+    public void requestIsOnlySetWhileTheActionRuns(){
+
+        final String resource = ProfilingContext.duringRequest("GET", "/todos/1", () -> {
+            Assertions.assertEquals("GET", ProfilingContext.current().getVerb());
+            return ProfilingContext.current().getResource();
+        });
+
+        Assertions.assertEquals("todos", resource);
+        Assertions.assertEquals("", ProfilingContext.current().getVerb());
+        Assertions.assertEquals("", ProfilingContext.current().getResource());
+    }
+
+    @Test
+    public void contextIsClearedWhenTheActionFails(){
+
+        Assertions.assertThrows(IllegalStateException.class, () ->
+                ProfilingContext.duringRequest("POST", "/todos", () ->
+                        ProfilingContext.usingDatabase(new ERInstanceData(), () -> {
+                            throw new IllegalStateException("failed");
+                        })));
+
+        Assertions.assertEquals("", ProfilingContext.current().getVerb());
+        Assertions.assertEquals(-1, ProfilingContext.current().getDatabaseSize());
+    }
+
+    @Test
+    public void databaseIsOnlySetWhileTheActionRuns(){
+
+        final int size = ProfilingContext.usingDatabase(new ERInstanceData(), () ->
+                                ProfilingContext.current().getDatabaseSize());
+
+        Assertions.assertEquals(0, size);
+        Assertions.assertEquals(-1, ProfilingContext.current().getDatabaseSize());
+    }
+}
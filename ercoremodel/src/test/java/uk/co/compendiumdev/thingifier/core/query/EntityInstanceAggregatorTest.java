@@ -0,0 +1,152 @@
+package uk.co.compendiumdev.thingifier.core.query;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceStorageEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class EntityInstanceAggregatorTest {
+
+    EntityDefinition entityDefn;
+
+    @BeforeEach
+    public void createEntity(){
+
+        entityDefn = new EntityDefinition("thing", "things");
+        entityDefn.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        entityDefn.addFields(
+                Field.is("estimate", FieldType.INTEGER),
+                Field.is("price", FieldType.FLOAT),
+                Field.is("done", FieldType.BOOLEAN),
+                Field.is("title", FieldType.STRING));
+    }
+
+    private List<EntityInstance> things(final InstanceStorageEngine engine){
+        EntityInstanceCollection collection = new EntityInstanceCollection(entityDefn, engine);
+
+        // estimates 1 to 6, even estimates are done
+        for(int item=1; item<=6; item++){
+            EntityInstance instance = new EntityInstance(entityDefn);
+            instance.setValue("estimate", String.valueOf(item));
+            instance.setValue("price", String.valueOf(item / 2.0f));
+            instance.setValue("done", String.valueOf(item%2==0));
+            collection.addInstance(instance);
+        }
+
+        return new ArrayList<>(collection.getInstances());
+    }
+
+    private InstanceAggregate aggregate(final QueryFilterParams params, final InstanceStorageEngine engine){
+        final EntityInstanceAggregator aggregator = new EntityInstanceAggregator(entityDefn, params);
+        Assertions.assertEquals(List.of(), aggregator.validate());
+        return aggregator.aggregate(things(engine));
+    }
+
+    @Test
+    public void canCountTheInstancesWhichMatchTheFilters(){
+
+        for(InstanceStorageEngine engine : InstanceStorageEngine.values()){
+            QueryFilterParams params = new QueryFilterParams();
+            params.put("estimate", ">2");
+
+            Assertions.assertEquals(4, aggregate(params, engine).getCount());
+            Assertions.assertEquals(6, aggregate(new QueryFilterParams(), engine).getCount());
+        }
+    }
+
+    @Test
+    public void canSummariseNumericFields(){
+
+        for(InstanceStorageEngine engine : InstanceStorageEngine.values()){
+            QueryFilterParams params = new QueryFilterParams();
+            params.put("min", "estimate");
+            params.put("max", "estimate,price");
+            params.put("sum", "estimate");
+            params.put("avg", "price");
+
+            final InstanceAggregate aggregate = aggregate(params, engine);
+
+            Assertions.assertEquals(1L, aggregate.getStatistic("min", "estimate"));
+            Assertions.assertEquals(6L, aggregate.getStatistic("max", "estimate"));
+            Assertions.assertEquals(3.0, aggregate.getStatistic("max", "price"));
+            Assertions.assertEquals(21L, aggregate.getStatistic("sum", "estimate"));
+            Assertions.assertEquals(1.75, aggregate.getStatistic("avg", "price").doubleValue(), 0.0001);
+        }
+    }
+
+    @Test
+    public void canGroupByBooleanFields(){
+
+        for(InstanceStorageEngine engine : InstanceStorageEngine.values()){
+            QueryFilterParams params = new QueryFilterParams();
+            params.put("groupBy", "done");
+            params.put("sum", "estimate");
+            params.put("estimate", "<=5");
+
+            final InstanceAggregate aggregate = aggregate(params, engine);
+
+            Assertions.assertEquals(5, aggregate.getCount());
+            Assertions.assertEquals(2, aggregate.getGroups().size());
+
+            final InstanceAggregate done = aggregate.getGroups().get(List.of("true"));
+            Assertions.assertEquals(2, done.getCount());
+            Assertions.assertEquals(6L, done.getStatistic("sum", "estimate"));
+
+            final InstanceAggregate notDone = aggregate.getGroups().get(List.of("false"));
+            Assertions.assertEquals(3, notDone.getCount());
+            Assertions.assertEquals(9L, notDone.getStatistic("sum", "estimate"));
+        }
+    }
+
+    @Test
+    public void fieldNamesAreMatchedIgnoringCase(){
+
+        QueryFilterParams params = new QueryFilterParams();
+        params.put("groupBy", "DONE");
+        params.put("sum", "Estimate,ESTIMATE");
+
+        final InstanceAggregate aggregate = aggregate(params, InstanceStorageEngine.ROW);
+
+        Assertions.assertEquals(List.of("done"), aggregate.getGroupByFieldNames());
+        Assertions.assertEquals(List.of("estimate"), aggregate.getStatisticFieldNames().get("sum"));
+        Assertions.assertEquals(2, aggregate.getGroups().size());
+        Assertions.assertEquals(12L, aggregate.getGroups().get(List.of("true")).getStatistic("sum", "estimate"));
+    }
+
+    @Test
+    public void statisticsOfNoInstancesAreEmpty(){
+
+        QueryFilterParams params = new QueryFilterParams();
+        params.put("min", "estimate");
+        params.put("sum", "estimate");
+        params.put("estimate", ">10");
+
+        final InstanceAggregate aggregate = aggregate(params, InstanceStorageEngine.ROW);
+
+        Assertions.assertEquals(0, aggregate.getCount());
+        Assertions.assertNull(aggregate.getStatistic("min", "estimate"));
+        Assertions.assertEquals(0L, aggregate.getStatistic("sum", "estimate"));
+    }
+
+    @Test
+    public void canOnlyGroupByAndSummariseFieldsOfTheRightType(){
+
+        QueryFilterParams params = new QueryFilterParams();
+        params.put("group_by", "estimate");
+        params.put("avg", "title,unknown");
+
+        final List<String> errors = new EntityInstanceAggregator(entityDefn, params).validate();
+
+        Assertions.assertEquals(3, errors.size());
+        Assertions.assertTrue(errors.get(0).startsWith("Can not group by estimate"), errors.get(0));
+        Assertions.assertTrue(errors.get(1).startsWith("Can not avg title"), errors.get(1));
+    }
+}
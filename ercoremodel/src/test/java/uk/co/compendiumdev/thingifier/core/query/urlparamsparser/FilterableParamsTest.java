@@ -103,4 +103,18 @@ public class FilterableParamsTest {
         Assertions.assertEquals(">=", values.get(0).filterOperation);
         Assertions.assertEquals("", values.get(0).fieldValue);
     }
+
+    @Test
+    public void canParseFieldsToRenderSeparatelyFromFilters(){
+        UrlParamParser parser = new UrlParamParser();
+        QueryFilterParams values = parser.parse("fields=id,title&id%3E%3D4&fields=title,%20doneStatus");
+        Assertions.assertEquals(3, values.size());
+
+        Assertions.assertEquals(List.of("id", "title", "doneStatus"), values.fieldsToRender());
+
+        QueryFilterParams filters = values.withoutParams(QueryFilterParams::isFieldsParam);
+        Assertions.assertEquals(1, filters.size());
+        Assertions.assertEquals("id", filters.get(0).fieldName);
+        Assertions.assertFalse(filters.hasFieldsToRender());
+    }
 }
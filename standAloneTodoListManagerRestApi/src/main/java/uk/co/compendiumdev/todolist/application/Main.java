@@ -32,5 +32,6 @@ public class Main {
 
         app.startRestServer();
         app.addBuiltInArgConfiguredHooks();
+        app.warmUpAndReportReady();
     }
 }
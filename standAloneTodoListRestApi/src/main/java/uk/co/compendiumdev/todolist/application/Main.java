@@ -33,6 +33,7 @@ public class Main {
 
         app.startRestServer();
         app.addBuiltInArgConfiguredHooks();
+        app.warmUpAndReportReady();
 
     }
 }
@@ -0,0 +1,103 @@
+#!/bin/bash
+# Measure the time from launching a fat jar until it is ready, for each startup mode
+#
+#   ./startup-times.sh thingifierapp/target/thingifierapp-1.5.5-full.jar
+#   READY_TIMEOUT=300 ./startup-times.sh challenger/target/apichallenges.jar -memory
+#
+# standard - java -jar
+# appcds   - if the jar has a .jsa archive next to it, created by mvn -Pappcds package
+# crac     - if CRAC_JAVA_HOME is a CRaC enabled JDK, checkpoint with -crac then time the restore
+#
+# the app is ready when READY_PATH (default /admin/ready) returns a 2xx status,
+# /admin/ready returns 503 until the app has started and warmed up
+#
+# a mode fails if the app exits, or is not ready within READY_TIMEOUT seconds (default 120)
+#
+# each result is printed and appended to RESULTS (default startup-times.csv) as
+#   date,jar,mode,millis   (millis is empty when the mode failed)
+
+JAR=$1
+shift
+APP_ARGS="$@"
+PORT=${PORT:-4567}
+READY_PATH=${READY_PATH:-/admin/ready}
+READY_TIMEOUT=${READY_TIMEOUT:-120}
+RESULTS=${RESULTS:-startup-times.csv}
+ARCHIVE="${JAR%.jar}.jsa"
+
+if [ ! -f "$JAR" ]; then
+  echo "Usage: $0 <fat jar> [app args]"
+  exit 1
+fi
+
+if [ ! -f "$RESULTS" ]; then
+  echo "date,jar,mode,millis" > "$RESULTS"
+fi
+
+now_millis() {
+  echo $(( $(date +%s%N) / 1000000 ))
+}
+
+record() {
+  echo "$(date -u +%Y-%m-%dT%H:%M:%SZ),$(basename "$JAR"),$1,$2" >> "$RESULTS"
+}
+
+# wait_until_ready <pid> <started millis>, fails if the process exits or the timeout passes
+wait_until_ready() {
+  local pid=$1
+  local deadline=$(( $2 + READY_TIMEOUT * 1000 ))
+  while true; do
+    status=$(curl -s -o /dev/null -w "%{http_code}" "http://localhost:$PORT$READY_PATH")
+    if [[ $status == 2* ]]; then
+      return 0
+    fi
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "exited before it was ready"
+      return 1
+    fi
+    if [ "$(now_millis)" -ge "$deadline" ]; then
+      echo "not ready after ${READY_TIMEOUT}s"
+      return 1
+    fi
+    sleep 0.01
+  done
+}
+
+# time_mode <mode name> <command...>
+time_mode() {
+  local mode=$1
+  shift
+  local started=$(now_millis)
+  "$@" > "startup-$mode.log" 2>&1 &
+  local pid=$!
+  local failure
+  if failure=$(wait_until_ready $pid $started); then
+    local millis=$(( $(now_millis) - started ))
+    echo "$mode: ready in $millis ms"
+    record "$mode" "$millis"
+  else
+    echo "$mode: failed, $failure, see startup-$mode.log"
+    tail -n 5 "startup-$mode.log"
+    record "$mode" ""
+  fi
+  kill $pid 2>/dev/null
+  wait $pid 2>/dev/null
+}
+
+time_mode standard java -jar "$JAR" -port=$PORT $APP_ARGS
+
+if [ -f "$ARCHIVE" ]; then
+  time_mode appcds java -XX:SharedArchiveFile="$ARCHIVE" -jar "$JAR" -port=$PORT $APP_ARGS
+else
+  echo "appcds: skipped, no archive $ARCHIVE"
+fi
+
+if [ -n "$CRAC_JAVA_HOME" ]; then
+  CHECKPOINT=$(mktemp -d)
+  # the process exits once the checkpoint is written
+  "$CRAC_JAVA_HOME/bin/java" -XX:CRaCCheckpointTo="$CHECKPOINT" -jar "$JAR" -port=$PORT -crac $APP_ARGS > startup-checkpoint.log 2>&1
+  time_mode crac "$CRAC_JAVA_HOME/bin/java" -XX:CRaCRestoreFrom="$CHECKPOINT"
+  rm -rf "$CHECKPOINT"
+else
+  echo "crac: skipped, set CRAC_JAVA_HOME to a CRaC enabled JDK"
+fi
@@ -1,5 +1,6 @@
 package uk.co.compendiumdev.thingifier.swaggerizer;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.api.docgen.ThingifierApiDocumentationDefn;
@@ -32,4 +33,26 @@ public class SwaggerizerTest {
 
 
     }
+
+    @Test
+    public void canCreateSwaggerAsYaml(){
+        Thingifier t = new TodoListThingifierTestModel().get();
+
+        ThingifierApiDocumentationDefn apiDefn = new ThingifierApiDocumentationDefn();
+        apiDefn.setThingifier(t);
+
+        apiDefn.addRouteToDocumentation(new RoutingDefinition(
+                RoutingVerb.POST,
+                "/plan",
+                RoutingStatus.returnedFromCall(),
+                null).addDocumentation("Create a plan").
+                addPossibleStatuses(200,400));
+
+        final String yaml = new Swaggerizer(apiDefn).asYaml();
+        System.out.println(yaml);
+
+        Assertions.assertTrue(yaml.startsWith("---"));
+        Assertions.assertTrue(yaml.contains("\"/plan\":"));
+        Assertions.assertTrue(yaml.contains("description: \"Create a plan\""));
+    }
 }
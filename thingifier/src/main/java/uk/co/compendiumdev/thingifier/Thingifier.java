@@ -11,10 +11,12 @@ import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollec
 import uk.co.compendiumdev.thingifier.core.domain.datapopulator.DataPopulator;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.*;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 import uk.co.compendiumdev.thingifier.reporting.ThingReporter;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /* Thingifier
     is the main class that allows access to:
@@ -33,6 +35,14 @@ final public class Thingifier {
     private final ThingifierApiConfig apiConfig;
     private final ThingifierApiConfigProfiles apiConfigProfiles;
 
+    // incremented whenever the schema or api config is changed through the Thingifier
+    // used by generated artifacts e.g. documentation to know when to regenerate
+    private final AtomicInteger configurationVersion = new AtomicInteger();
+
+    // a frozen Thingifier can not have its schema or configuration changed through
+    // the Thingifier and can be shared across requests e.g. by the mirror mode
+    private volatile boolean frozen = false;
+
     public Thingifier(){
         erm = new EntityRelModel();
         title = "";
@@ -81,6 +91,8 @@ final public class Thingifier {
     }
 
     public EntityDefinition defineThing(final String thingName, final String pluralName, final int maximumNumberOfInstances) {
+        failIfFrozen();
+        configurationVersion.incrementAndGet();
         return erm.createEntityDefinition(thingName, pluralName, maximumNumberOfInstances);
     }
 
@@ -110,6 +122,8 @@ final public class Thingifier {
 
     public RelationshipDefinition defineRelationship(EntityDefinition from, EntityDefinition to,
                                                      final String named, final Cardinality of) {
+        failIfFrozen();
+        configurationVersion.incrementAndGet();
         return erm.createRelationshipDefinition(from,to,named, of);
     }
 
@@ -205,11 +219,42 @@ final public class Thingifier {
     }
 
     public void configureWithProfile(final ThingifierApiConfigProfile profileToUse) {
+        failIfFrozen();
         if(profileToUse==null){
             System.out.println("API System Defaults Used");
         }else {
             apiConfig.setFrom(profileToUse.apiConfig());
         }
+        configurationVersion.incrementAndGet();
+    }
+
+    public int getConfigurationVersion() {
+        return configurationVersion.get();
+    }
+
+    /*
+        Prevent any further schema or config changes through the Thingifier.
+        The schema is frozen so entities and relationships can not be added.
+     */
+    public Thingifier freeze() {
+        erm.getSchema().freeze();
+        frozen = true;
+        return this;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    private void failIfFrozen() {
+        if(frozen){
+            throw new IllegalStateException("Thingifier is frozen, the schema and config can not be changed");
+        }
+    }
+
+    /* per request instance data which is not stored in the Thingifier */
+    public ERInstanceData createThrowawayInstanceData() {
+        return erm.createDetachedInstanceData();
     }
 
 
@@ -223,8 +268,10 @@ final public class Thingifier {
         documentation classes e.g. ThingifierAPIDefn ?
      */
     public void setDocumentation(final String modelTitle, final String anInitialParagraph) {
+        failIfFrozen();
         this.title = modelTitle;
         this.initialParagraph = anInitialParagraph;
+        configurationVersion.incrementAndGet();
     }
 
     public String getTitle() {
@@ -251,18 +298,31 @@ final public class Thingifier {
 
     // TODO: this is used in too many places, suggesting something went wrong with coding
     // decision: when we create a challenger we always create and populate a database, no need to do it any other time - check that this is enforced and cut down on this usage
+    /*
+        The database is created and populated under its write lock, so requests
+        for the same session wait until it is fully populated rather than seeing
+        it part way through. Must not be called while holding the read lock for
+        the database.
+     */
     public void ensureCreatedAndPopulatedInstanceDatabaseNamed(String databaseName) {
-        if(getERmodel().createInstanceDatabaseIfNotExisting(databaseName)){
-            // if we created it then populate it
-            if(getDefaultDataPopulator()!=null){
-                // Use any default data populator to populate the new database
-                getDefaultDataPopulator().
-                        populate(
-                                getERmodel().getSchema(),
-                                getERmodel().getInstanceData(databaseName)
-                        );
-            }
+        if(getERmodel().hasInstanceDatabaseNamed(databaseName)){
+            return;
         }
+
+        getERmodel().getDatabaseLocks().withWriteLock(databaseName, () -> {
+            if(getERmodel().createInstanceDatabaseIfNotExisting(databaseName)){
+                // if we created it then populate it
+                if(getDefaultDataPopulator()!=null){
+                    // Use any default data populator to populate the new database
+                    getDefaultDataPopulator().
+                            populate(
+                                    getERmodel().getSchema(),
+                                    getERmodel().getInstanceData(databaseName)
+                            );
+                }
+            }
+            return null;
+        });
     }
 
     public void ensureCreatedAndPopulatedInstanceDatabaseFromJson(String databaseName, String jsonDatabaseContents) {
@@ -5,6 +5,8 @@ import uk.co.compendiumdev.thingifier.api.http.bodyparser.BodyParser;
 import uk.co.compendiumdev.thingifier.api.http.headers.HttpHeadersBlock;
 import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
 import uk.co.compendiumdev.thingifier.api.restapihandlers.*;
+import uk.co.compendiumdev.thingifier.core.DatabaseLocks;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
 import uk.co.compendiumdev.thingifier.core.query.FilterBy;
 import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
 
@@ -16,8 +18,10 @@ public class ThingifierRestAPIHandler {
     private final RestApiPostHandler post;
     private final RestApiPutHandler put;
     private final RestApiGetHandler get;
+    private final DatabaseLocks locks;
 
     public ThingifierRestAPIHandler(final Thingifier aThingifier) {
+        this.locks = aThingifier.getERmodel().getDatabaseLocks();
         this.get = new RestApiGetHandler(aThingifier);
         this.delete = new RestApiDeleteHandler(aThingifier);
         this.post = new RestApiPostHandler(aThingifier);
@@ -35,26 +39,46 @@ public class ThingifierRestAPIHandler {
     // TODO: possibly consider an X- header which has the number of items in the collection
 
 
+    /*
+        Each verb is run under the lock for the session database in the request headers.
+        GET and HEAD share a read lock, POST, PUT and DELETE take the write lock so that
+        multi step changes (create then relate, amend, cascade delete) are seen as a
+        whole by other requests on the same session. Different sessions use different
+        lock stripes so can be processed in parallel.
+     */
+
     public ApiResponse get(final String url, final QueryFilterParams queryParams, HttpHeadersBlock headers) {
-        return get.handle(url, queryParams, headers);
+        return locks.withReadLock(databaseNameFrom(headers),
+                () -> get.handle(url, queryParams, headers));
     }
 
     public ApiResponse head(final String url, final QueryFilterParams queryParams, HttpHeadersBlock headers) {
-        final ApiResponse response = get.handle(url, queryParams, headers);
+        final ApiResponse response = locks.withReadLock(databaseNameFrom(headers),
+                () -> get.handle(url, queryParams, headers));
         response.clearBody();
         return response;
     }
 
     public ApiResponse delete(final String url, HttpHeadersBlock headers) {
-        return delete.handle(url, headers);
+        return locks.withWriteLock(databaseNameFrom(headers),
+                () -> delete.handle(url, headers));
     }
 
     public ApiResponse post(final String url, final BodyParser args, HttpHeadersBlock headers) {
-        return post.handle(url, args, headers);
+        return locks.withWriteLock(databaseNameFrom(headers),
+                () -> post.handle(url, args, headers));
     }
 
     public ApiResponse put(final String url, final BodyParser args, HttpHeadersBlock headers) {
-        return put.handle(url, args, headers);
+        return locks.withWriteLock(databaseNameFrom(headers),
+                () -> put.handle(url, args, headers));
+    }
+
+    private String databaseNameFrom(final HttpHeadersBlock headers){
+        if(headers==null){
+            return EntityRelModel.DEFAULT_DATABASE_NAME;
+        }
+        return SessionHeaderParser.getDatabaseNameFromHeaderValue(headers);
     }
 
 
@@ -3,6 +3,7 @@ package uk.co.compendiumdev.thingifier.api.docgen;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
 import uk.co.compendiumdev.thingifier.api.response.ResponseHeader;
+import uk.co.compendiumdev.thingifier.api.restapihandlers.RestApiGetHandler;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
@@ -141,6 +142,34 @@ public class ApiRoutingDefinitionDocGenerator {
             defn.addRouting("method not allowed",
                     RoutingVerb.TRACE, pluralUrl, RoutingStatus.returnValue(405));
 
+            // summarise the instances rather than return them e.g. GET projects/_aggregate?groupBy=status&max=priority
+            // defined before the routings for a specific instance so that _aggregate is not treated as an id
+            String aggregateUrl = pluralUrl + RestApiGetHandler.AGGREGATE_URL_SUFFIX;
+            defn.addRouting(
+                    String.format("count the instances of %s which match the filters, optionally grouped by the ENUM, BOOLEAN or STRING fields in groupBy, with the min, max, sum or avg of numeric fields",
+                            entityDefn.getName()),
+                    RoutingVerb.GET, aggregateUrl, RoutingStatus.returnedFromCall()).
+                    addPossibleStatus(RoutingStatus.returnValue(
+                            200, String.format("The count and statistics of the %s", entityDefn.getPlural()))).
+                    addPossibleStatus(RoutingStatus.returnValue(
+                            400, "The fields can not be grouped by or aggregated")).
+                    setAsFilterableFrom(entityDefn);
+
+            defn.addRouting(String.format("headers for the aggregate of the instances of %s", entityDefn.getName()),
+                    RoutingVerb.HEAD, aggregateUrl, RoutingStatus.returnedFromCall()).
+                    addPossibleStatus(RoutingStatus.returnValue(200));
+
+            defn.addRouting(
+                    String.format("show all Options for endpoint of %s", aggregateUrl),
+                    RoutingVerb.OPTIONS, aggregateUrl, RoutingStatus.returnValue(204, "the endpoint verb options"),
+                    new ResponseHeader("Allow", "OPTIONS, GET, HEAD"));
+
+            defn.addRouting("method not allowed", RoutingVerb.POST, aggregateUrl, RoutingStatus.returnValue(405));
+            defn.addRouting("method not allowed", RoutingVerb.PUT, aggregateUrl, RoutingStatus.returnValue(405));
+            defn.addRouting("method not allowed", RoutingVerb.DELETE, aggregateUrl, RoutingStatus.returnValue(405));
+            defn.addRouting("method not allowed", RoutingVerb.PATCH, aggregateUrl, RoutingStatus.returnValue(405));
+            defn.addRouting("method not allowed", RoutingVerb.TRACE, aggregateUrl, RoutingStatus.returnValue(405));
+
             String aUrlWGuid = pluralUrl + "/" + uniqueIdentifier;
             // we should be able to get specific things based on the GUID e.g. GET project/GUID
             defn.addRouting(
@@ -0,0 +1,65 @@
+package uk.co.compendiumdev.thingifier.api.docgen;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/*
+    A pre-rendered documentation output e.g. the docs html or the swagger json,
+    with the fingerprint of the schema and config it was rendered from
+    and an ETag so clients can avoid downloading it again.
+ */
+public final class DocumentationArtifact {
+
+    private final String content;
+    private final String fingerprint;
+    private final String etag;
+
+    public DocumentationArtifact(final String content, final String fingerprint) {
+        this.content = content;
+        this.fingerprint = fingerprint;
+        this.etag = "\"" + digestOf(content) + "\"";
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public boolean matchesEtag(final String ifNoneMatchHeader) {
+        if(ifNoneMatchHeader==null || ifNoneMatchHeader.isEmpty()){
+            return false;
+        }
+
+        for(String anEtag : ifNoneMatchHeader.split(",")){
+            final String trimmed = anEtag.trim();
+            if(trimmed.equals("*") || trimmed.equals(etag) || trimmed.equals("W/" + etag)){
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static String digestOf(final String content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").
+                                    digest(content.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            // first 16 bytes are more than enough to identify a docs version
+            for(int byteIndex=0; byteIndex<16; byteIndex++){
+                hex.append(String.format("%02x", digest[byteIndex]));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(content.hashCode());
+        }
+    }
+}
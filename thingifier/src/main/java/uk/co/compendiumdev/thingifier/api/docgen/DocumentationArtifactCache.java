@@ -0,0 +1,89 @@
+package uk.co.compendiumdev.thingifier.api.docgen;
+
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipDefinition;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/*
+    The documentation, swagger etc. only change when the schema or the api config changes
+    so we render them once and serve them from memory until the fingerprint changes.
+
+    The fingerprint combines the Thingifier configuration version (incremented on
+    configureWithProfile, defineThing etc.) and a hash of the schema structure
+    to catch fields added directly to entity definitions.
+ */
+public class DocumentationArtifactCache {
+
+    public static final String DOCS_HTML = "docs.html";
+    public static final String SWAGGER_JSON = "swagger.json";
+    public static final String SWAGGER_YAML = "swagger.yaml";
+
+    private final ThingifierApiDocumentationDefn apiDefn;
+    private final Map<String, DocumentationArtifact> artifacts;
+
+    public DocumentationArtifactCache(final ThingifierApiDocumentationDefn apiDefn) {
+        this.apiDefn = apiDefn;
+        this.artifacts = new ConcurrentHashMap<>();
+    }
+
+    public DocumentationArtifact get(final String artifactName, final Supplier<String> renderer) {
+
+        final String currentFingerprint = fingerprint();
+
+        DocumentationArtifact artifact = artifacts.get(artifactName);
+        if(artifact!=null && artifact.getFingerprint().equals(currentFingerprint)){
+            return artifact;
+        }
+
+        // if two requests render at the same time, last one wins, both outputs are the same
+        artifact = new DocumentationArtifact(renderer.get(), currentFingerprint);
+        artifacts.put(artifactName, artifact);
+        return artifact;
+    }
+
+    public void invalidate() {
+        artifacts.clear();
+    }
+
+    public int countCachedArtifacts() {
+        return artifacts.size();
+    }
+
+    public String fingerprint() {
+
+        final Thingifier thingifier = apiDefn.getThingifier();
+
+        int schemaHash = 0;
+        // order independent since the schema stores definitions in hash maps
+        for(EntityDefinition defn : thingifier.getERmodel().getEntityDefinitions()){
+            int entityHash = defn.getName().hashCode();
+            entityHash = 31 * entityHash + defn.getPlural().hashCode();
+            for(String fieldName : defn.getFieldNames()){
+                final Field field = defn.getField(fieldName);
+                entityHash = 31 * entityHash + fieldName.hashCode();
+                entityHash = 31 * entityHash + field.getType().hashCode();
+                entityHash = 31 * entityHash + Boolean.hashCode(field.isMandatory());
+                entityHash = 31 * entityHash + field.validationRules().size();
+            }
+            schemaHash += entityHash;
+        }
+
+        for(RelationshipDefinition relationship : thingifier.getERmodel().getRelationshipDefinitions()){
+            schemaHash += 31 * relationship.getFromRelationship().getName().hashCode()
+                            + Boolean.hashCode(relationship.isTwoWay());
+        }
+
+        return String.format("%d-%d-%x-%d-%d-%s",
+                thingifier.getConfigurationVersion(),
+                System.identityHashCode(thingifier),
+                schemaHash,
+                apiDefn.getAdditionalRoutes().size(),
+                apiDefn.getServers().size(),
+                apiDefn.getPathPrefix());
+    }
+}
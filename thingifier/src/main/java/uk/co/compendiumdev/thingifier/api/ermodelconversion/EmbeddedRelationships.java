@@ -0,0 +1,191 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import com.google.gson.JsonObject;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipVectorDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.FilterBy;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/*
+    The related instances to embed in a GET response, in place of their
+    primary keys, from include or embed url params e.g.
+
+        /projects?include=tasks
+        /projects/1?embed=tasks.categories,categories
+
+    Each param value is a comma separated list of relationship paths,
+    a path embeds the related instances of each relationship in turn,
+    up to MAX_DEPTH relationships deep.
+
+    An instance related to many of the returned instances is rendered
+    once per response and the rendering is shared, and relationships
+    which are not included are rendered as primary keys, as normal.
+
+    The related instances are resolved when the request is handled, under
+    the lock for the database, so rendering later does not walk the
+    relationships while another request may be changing them.
+
+    Created for each request, the rendered instances are not thread safe.
+ */
+public class EmbeddedRelationships {
+
+    public static final int MAX_DEPTH = 3;
+
+    private final Map<String, EmbeddedRelationships> relationships;
+    private final Map<EntityInstance, JsonObject> rendered;
+    private final Map<EntityInstance, Collection<EntityInstance>> related;
+
+    public EmbeddedRelationships(){
+        relationships = new LinkedHashMap<>();
+        rendered = new IdentityHashMap<>();
+        related = new IdentityHashMap<>();
+    }
+
+    public static EmbeddedRelationships none(){
+        return new EmbeddedRelationships();
+    }
+
+    public static boolean isIncludeParam(final String key){
+        return key.equalsIgnoreCase("include") ||
+                key.equalsIgnoreCase("embed");
+    }
+
+    /* the include and embed params, the other params are left for filtering and sorting */
+    public static EmbeddedRelationships fromParams(final QueryFilterParams params){
+        final EmbeddedRelationships embedded = new EmbeddedRelationships();
+        for(FilterBy param : params.toList()){
+            if(isIncludeParam(param.fieldName)){
+                for(String path : param.fieldValue.split(",")){
+                    if(!path.isBlank()){
+                        embedded.include(path.trim());
+                    }
+                }
+            }
+        }
+        return embedded;
+    }
+
+    public static QueryFilterParams withoutIncludeParams(final QueryFilterParams params){
+        return params.withoutParams(EmbeddedRelationships::isIncludeParam);
+    }
+
+    /* a path of relationship names separated by . */
+    public EmbeddedRelationships include(final String path){
+        EmbeddedRelationships current = this;
+        for(String relationshipName : path.split("\\.")){
+            current = current.relationships.computeIfAbsent(relationshipName,
+                    name -> new EmbeddedRelationships());
+        }
+        return this;
+    }
+
+    public boolean isEmpty(){
+        return relationships.isEmpty();
+    }
+
+    /* the relationships to embed within the related instances, or null if not embedded */
+    public EmbeddedRelationships forRelationship(final String relationshipName){
+        return relationships.get(relationshipName);
+    }
+
+    public int depth(){
+        int deepest = 0;
+        for(EmbeddedRelationships embedded : relationships.values()){
+            deepest = Math.max(deepest, embedded.depth() + 1);
+        }
+        return deepest;
+    }
+
+    /* an error message for each path which is too deep, or does not follow a relationship */
+    public List<String> validateFor(final EntityDefinition definition){
+        final List<String> errors = new ArrayList<>();
+
+        if(depth() > MAX_DEPTH){
+            errors.add(String.format("Can not include relationships more than %d deep", MAX_DEPTH));
+            return errors;
+        }
+
+        validateFor(List.of(definition), "", errors);
+        return errors;
+    }
+
+    private void validateFor(final Collection<EntityDefinition> definitions, final String pathSoFar,
+                             final List<String> errors){
+
+        for(Map.Entry<String, EmbeddedRelationships> embedded : relationships.entrySet()){
+            final String path = pathSoFar.isEmpty() ? embedded.getKey() : pathSoFar + "." + embedded.getKey();
+
+            final List<EntityDefinition> relatedDefinitions = new ArrayList<>();
+            for(EntityDefinition definition : definitions){
+                for(RelationshipVectorDefinition vector : definition.related().getRelationships()){
+                    if(vector.getName().equals(embedded.getKey())){
+                        relatedDefinitions.add(vector.getTo());
+                    }
+                }
+            }
+
+            if(relatedDefinitions.isEmpty()){
+                errors.add(String.format("Can not include %s, it is not a relationship", path));
+            }else{
+                embedded.getValue().validateFor(relatedDefinitions, path, errors);
+            }
+        }
+    }
+
+    /* find the related instances to embed for each of the instances, and theirs in turn */
+    public EmbeddedRelationships resolveFor(final Collection<EntityInstance> instances){
+        for(Map.Entry<String, EmbeddedRelationships> embedded : relationships.entrySet()){
+            embedded.getValue().resolveRelatedTo(instances, embedded.getKey());
+        }
+        return this;
+    }
+
+    private void resolveRelatedTo(final Collection<EntityInstance> instances, final String relationshipName){
+        final List<EntityInstance> newlyRelated = new ArrayList<>();
+        for(EntityInstance instance : instances){
+            if(related.containsKey(instance)){
+                continue;
+            }
+            final Collection<EntityInstance> connected = instance.getRelationships().getConnectedItems(relationshipName);
+            related.put(instance, connected);
+            newlyRelated.addAll(connected);
+        }
+
+        if(!newlyRelated.isEmpty()){
+            resolveFor(newlyRelated);
+        }
+    }
+
+    /* the instances related to the instance by this relationship, as resolved when the request was handled */
+    public Collection<EntityInstance> relatedTo(final EntityInstance instance, final String relationshipName){
+        final Collection<EntityInstance> resolved = related.get(instance);
+        if(resolved!=null){
+            return resolved;
+        }
+        return instance.getRelationships().getConnectedItems(relationshipName);
+    }
+
+    /* render the instance once, later uses of the instance share the rendering */
+    JsonObject rendered(final EntityInstance instance, final Function<EntityInstance, JsonObject> render){
+        JsonObject json = rendered.get(instance);
+        if(json==null){
+            json = render.apply(instance);
+            rendered.put(instance, json);
+        }
+        return json;
+    }
+
+    public Set<String> getRelationshipNames(){
+        return relationships.keySet();
+    }
+}
@@ -1,6 +1,7 @@
 package uk.co.compendiumdev.thingifier.api.ermodelconversion;
 
 import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
 import uk.co.compendiumdev.thingifier.apiconfig.JsonOutputConfig;
@@ -11,6 +12,7 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.Relat
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.InstanceFields;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.InstanceAggregate;
 
 import java.util.*;
 
@@ -49,8 +51,14 @@ public class JsonThing {
 
      */
     public JsonObject asJsonObjectTypedArrayWithContentsUntyped(final List<EntityInstance> things, String typeName) {
+        return asJsonObjectTypedArrayWithContentsUntyped(things, typeName, EmbeddedRelationships.none(), SparseFieldset.all());
+    }
+
+    public JsonObject asJsonObjectTypedArrayWithContentsUntyped(final List<EntityInstance> things, String typeName,
+                                                                final EmbeddedRelationships embedded,
+                                                                final SparseFieldset fieldset) {
         final JsonObject arrayObj = new JsonObject();
-        arrayObj.add(typeName, asJsonArray(things));
+        arrayObj.add(typeName, asJsonArray(things, embedded, fieldset));
         return arrayObj;
     }
 
@@ -59,14 +67,15 @@ public class JsonThing {
      * @param things
      * @return
      */
-    private JsonArray asJsonArray(final Collection<EntityInstance> things) {
+    private JsonArray asJsonArray(final Collection<EntityInstance> things, final EmbeddedRelationships embedded,
+                                  final SparseFieldset fieldset) {
 
         // [{"guid":"bob"}, {"guid":"bob2"}]
 
         final JsonArray jsonArray = new JsonArray();
 
         for (EntityInstance thing : things) {
-            jsonArray.add(asJsonObject(thing));
+            jsonArray.add(asJsonObject(thing, embedded, fieldset));
         }
 
         //System.out.println(jsonArray.toString());
@@ -77,54 +86,52 @@ public class JsonThing {
 
 
     public JsonObject asJsonObject(final InstanceFields fields){
+        return asJsonObject(fields, SparseFieldset.all());
+    }
+
+    public JsonObject asJsonObject(final InstanceFields fields, final SparseFieldset fieldset){
         final JsonObject jsonobj = new JsonObject();
 
         if (fields == null) {
             return jsonobj;
         }
 
-        for (String fieldName : fields.getDefinition().getFieldNames()) {
+        // fields which are not rendered are not read, so their defaults are not resolved
+        for (String fieldName : fieldset.fieldNamesFor(fields.getDefinition())) {
             Field theField = fields.getDefinition().getField(fieldName);
 
-            String fieldValue = "";
-
             try {
-                fieldValue = fields.getFieldValue(theField.getName()).asString();
+                final FieldValue value = fields.getFieldValue(theField.getName());
+                if(value==null){
+                    // e.g. an unset DATE is not output
+                    continue;
+                }
 
                 if(apiConfig.willRenderFieldsAsDefinedTypes()) {
+                    // the typed values were parsed when the field value was created
                     switch (theField.getType()) {
                         case BOOLEAN:
-                            jsonobj.addProperty(fieldName, Boolean.valueOf(fieldValue));
+                            jsonobj.addProperty(fieldName, Boolean.valueOf(value.asString()));
                             break;
                         case INTEGER:
-                            jsonobj.addProperty(fieldName, Integer.valueOf(fieldValue));
+                        case AUTO_INCREMENT:
+                            jsonobj.addProperty(fieldName, value.asInteger());
                             break;
                         case FLOAT:
-                            jsonobj.addProperty(fieldName, Float.valueOf(fieldValue));
-                            break;
-                        case AUTO_INCREMENT:
-                            jsonobj.addProperty(fieldName, Integer.valueOf(fieldValue));
+                            jsonobj.addProperty(fieldName, value.asFloat());
                             break;
                         case OBJECT:
-                            final FieldValue objectFieldValue = fields.getFieldValue(fieldName);
-                            if(objectFieldValue!=null) {
-                                jsonobj.add(fieldName, asJsonObject(
-                                        objectFieldValue.asObject()));
-                            }
+                            jsonobj.add(fieldName, asJsonObject(value.asObject()));
                             break;
                         default:
-                            jsonobj.addProperty(fieldName, fieldValue);
+                            jsonobj.addProperty(fieldName, value.asString());
                     }
                 }else {
                     // output as string
                     if(theField.getType()==FieldType.OBJECT){
-                        final FieldValue objectFieldValue = fields.getFieldValue(fieldName);
-                        if(objectFieldValue!=null) {
-                            jsonobj.add(fieldName, asJsonObject(
-                                    objectFieldValue.asObject()));
-                        }
+                        jsonobj.add(fieldName, asJsonObject(value.asObject()));
                     }else {
-                        jsonobj.addProperty(fieldName, fieldValue);
+                        jsonobj.addProperty(fieldName, value.asString());
                     }
                 }
             }catch(Exception e){
@@ -143,6 +150,19 @@ public class JsonThing {
      * @return
      */
     public JsonObject asJsonObject(final EntityInstance thingInstance) {
+        return asJsonObject(thingInstance, EmbeddedRelationships.none(), SparseFieldset.all());
+    }
+
+    /**
+     * JSON Output of the object with the included relationships rendered as the related objects,
+     * rather than their primary keys, and only the fields in the fieldset
+     * @param thingInstance
+     * @param embedded
+     * @param fieldset
+     * @return
+     */
+    public JsonObject asJsonObject(final EntityInstance thingInstance, final EmbeddedRelationships embedded,
+                                   final SparseFieldset fieldset) {
 
         // todo: I swallowed exception generation in here because I was passing in the 'input' representations
         // for the report generation - perhaps the reporting instances should have reporting entities which
@@ -153,7 +173,7 @@ public class JsonThing {
             return new JsonObject();
         }
 
-        final JsonObject jsonobj = asJsonObject(thingInstance.getFields());
+        final JsonObject jsonobj = asJsonObject(thingInstance.getFields(), fieldset);
 
 
         /*
@@ -186,7 +206,14 @@ public class JsonThing {
 
             // fill the array "relationship_name" : [
             for(RelationshipVectorDefinition relationship : relationships){
-                final Collection<EntityInstance> relatedItems = thingInstance.getRelationships().getConnectedItems(relationship.getName());
+                final EmbeddedRelationships embeddedRelated = embedded.forRelationship(relationship.getName());
+                if(embeddedRelated==null && !fieldset.rendersRelationship(relationship.getName())){
+                    continue;
+                }
+
+                final Collection<EntityInstance> relatedItems = embeddedRelated!=null ?
+                                embeddedRelated.relatedTo(thingInstance, relationship.getName()) :
+                                thingInstance.getRelationships().getConnectedItems(relationship.getName());
 
                 boolean isCompressedRelationship=true;
                 if(thingInstance.getEntity().hasFieldNameDefined(relationship.getName())){
@@ -200,6 +227,14 @@ public class JsonThing {
                     //"typeofthingsplural": [
                     final JsonArray arrayOfGuids = new JsonArray();
                     for(EntityInstance item : relatedItems) {
+
+                        if(embeddedRelated!=null){
+                            // the whole related object, rendered once per response however many things it is related to
+                            arrayOfGuids.add(embeddedRelated.rendered(item,
+                                                related -> asJsonObject(related, embeddedRelated, SparseFieldset.all())));
+                            continue;
+                        }
+
                         final JsonObject itemGuidObject = new JsonObject();
 
                         String fieldNameAsUniqueId = item.getEntity().getPrimaryKeyField().getName();
@@ -246,6 +281,47 @@ public class JsonThing {
         return jsonobj;
     }
 
+    /*
+        {
+            "count": 3,
+            "min": {"estimate": 1},
+            "groups": [
+                {"doneStatus": "false", "count": 2, "min": {"estimate": 1}},
+                {"doneStatus": "true", "count": 1, "min": {"estimate": 5}}
+            ]
+        }
+     */
+    public JsonObject asJsonObject(final InstanceAggregate aggregate) {
+
+        final JsonObject jsonobj = new JsonObject();
+        jsonobj.addProperty("count", aggregate.getCount());
+
+        for(Map.Entry<String, List<String>> statistic : aggregate.getStatisticFieldNames().entrySet()){
+            final JsonObject fieldValues = new JsonObject();
+            for(String fieldName : statistic.getValue()){
+                fieldValues.addProperty(fieldName, aggregate.getStatistic(statistic.getKey(), fieldName));
+            }
+            jsonobj.add(statistic.getKey(), fieldValues);
+        }
+
+        if(!aggregate.getGroupByFieldNames().isEmpty()){
+            final JsonArray groups = new JsonArray();
+            for(Map.Entry<List<String>, InstanceAggregate> group : aggregate.getGroups().entrySet()){
+                final JsonObject groupobj = new JsonObject();
+                for(int field=0; field<aggregate.getGroupByFieldNames().size(); field++){
+                    groupobj.addProperty(aggregate.getGroupByFieldNames().get(field), group.getKey().get(field));
+                }
+                for(Map.Entry<String, JsonElement> summary : asJsonObject(group.getValue()).entrySet()){
+                    groupobj.add(summary.getKey(), summary.getValue());
+                }
+                groups.add(groupobj);
+            }
+            jsonobj.add("groups", groups);
+        }
+
+        return jsonobj;
+    }
+
     /**
      * This is more suitable for XML output
      * @param things
@@ -253,9 +329,15 @@ public class JsonThing {
      * @return
      */
     public String asJsonTypedArrayWithContentsTyped(final List<EntityInstance> things, EntityDefinition defn) {
+        return asJsonTypedArrayWithContentsTyped(things, defn, EmbeddedRelationships.none(), SparseFieldset.all());
+    }
+
+    public String asJsonTypedArrayWithContentsTyped(final List<EntityInstance> things, EntityDefinition defn,
+                                                    final EmbeddedRelationships embedded,
+                                                    final SparseFieldset fieldset) {
 
         final JsonObject arrayObj = new JsonObject();
-        arrayObj.add(defn.getPlural(), asJsonArrayInstanceWrapped(things));
+        arrayObj.add(defn.getPlural(), asJsonArrayInstanceWrapped(things, embedded, fieldset));
         return arrayObj.toString();
     }
 
@@ -265,7 +347,8 @@ public class JsonThing {
      * @param things
      * @return
      */
-    private JsonArray asJsonArrayInstanceWrapped(Collection<EntityInstance> things) {
+    private JsonArray asJsonArrayInstanceWrapped(Collection<EntityInstance> things, final EmbeddedRelationships embedded,
+                                                 final SparseFieldset fieldset) {
 
 
         // [{"item":{"guid":"bob"}}, {"item":{"guid":"bob2"}}]
@@ -275,7 +358,7 @@ public class JsonThing {
         for (EntityInstance thing : things) {
 
             JsonObject jsonObj = new JsonObject();
-            jsonObj.add(thing.getEntity().getName(), asJsonObject(thing));
+            jsonObj.add(thing.getEntity().getName(), asJsonObject(thing, embedded, fieldset));
             jsonArray.add(jsonObj);
 
         }
@@ -291,9 +374,14 @@ public class JsonThing {
      *   Suitable for XML output as it has a name
      */
     public JsonObject asNamedJsonObject(final EntityInstance instance) {
+        return asNamedJsonObject(instance, EmbeddedRelationships.none(), SparseFieldset.all());
+    }
+
+    public JsonObject asNamedJsonObject(final EntityInstance instance, final EmbeddedRelationships embedded,
+                                        final SparseFieldset fieldset) {
 
         final JsonObject retObj = new JsonObject();
-        retObj.add(instance.getEntity().getName(), asJsonObject(instance));
+        retObj.add(instance.getEntity().getName(), asJsonObject(instance, embedded, fieldset));
         return retObj;
 
     }
@@ -0,0 +1,108 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import com.google.gson.stream.JsonWriter;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.domain.instances.RelationshipVectorInstance;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/*
+    Write a database as newline delimited json, one line per entity
+    instance then one line per relationship, e.g.
+
+        {"entity":"todos","ref":"<ref>","fields":{"id":"1","title":"scan paperwork"}}
+        {"relationship":"task-of","from":"<ref>","to":"<ref>"}
+
+    Each line is written straight to the writer so an export of a large
+    database does not build the whole document in memory. The ref is the
+    internal id of the instance and is only used to connect the
+    relationships on import. Field values are written as Strings, the
+    same values that the api would accept when creating the instance.
+ */
+public class NdjsonExporter {
+
+    public static final String CONTENT_TYPE = "application/x-ndjson";
+
+    private int instancesExported;
+    private int relationshipsExported;
+
+    public void export(final ERInstanceData database, final Writer output) throws IOException {
+
+        for(EntityInstanceCollection collection : database.getAllInstanceCollections()){
+            final EntityDefinition definition = collection.definition();
+            for(EntityInstance instance : collection.getInstances()){
+                writeInstance(definition, instance, output);
+            }
+        }
+
+        // all instances are written first so the import can connect them as it reads
+        for(EntityInstanceCollection collection : database.getAllInstanceCollections()){
+            for(EntityInstance instance : collection.getInstances()){
+                for(RelationshipVectorInstance relationship : instance.getRelationships().getRelationships()){
+                    // two way relationships are held by both instances, only write them from one
+                    if(relationship.getFrom()==instance){
+                        writeRelationship(relationship, output);
+                    }
+                }
+            }
+        }
+
+        output.flush();
+    }
+
+    private void writeInstance(final EntityDefinition definition, final EntityInstance instance,
+                               final Writer output) throws IOException {
+
+        final JsonWriter line = lineWriter(output);
+        line.beginObject();
+        line.name("entity").value(definition.getPlural());
+        line.name("ref").value(instance.getInternalId());
+        line.name("fields").beginObject();
+        for(String fieldName : definition.getFieldNames()){
+            if(instance.hasInstantiatedFieldNamed(fieldName)){
+                line.name(fieldName).value(instance.getFieldValue(fieldName).asString());
+            }
+        }
+        line.endObject();
+        line.endObject();
+        endLine(output);
+        instancesExported++;
+    }
+
+    private void writeRelationship(final RelationshipVectorInstance relationship,
+                                   final Writer output) throws IOException {
+
+        final JsonWriter line = lineWriter(output);
+        line.beginObject();
+        line.name("relationship").value(relationship.getDefinition().getName());
+        line.name("from").value(relationship.getFrom().getInternalId());
+        line.name("to").value(relationship.getTo().getInternalId());
+        line.endObject();
+        endLine(output);
+        relationshipsExported++;
+    }
+
+    private JsonWriter lineWriter(final Writer output){
+        // the json writer escapes any line breaks in values so each line is a complete json object
+        final JsonWriter line = new JsonWriter(output);
+        line.setSerializeNulls(false);
+        return line;
+    }
+
+    private void endLine(final Writer output) throws IOException {
+        // the json writer does not buffer, so there is nothing to flush before the line ends
+        output.write('\n');
+    }
+
+    public int getInstancesExported(){
+        return instancesExported;
+    }
+
+    public int getRelationshipsExported(){
+        return relationshipsExported;
+    }
+}
@@ -0,0 +1,225 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.ERSchema;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.reporting.ValidationReport;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/*
+    Read newline delimited json, as written by the NdjsonExporter, into a
+    database one line at a time so only the current line, and the batch
+    of instances waiting to be added, are held in addition to the data.
+
+    Each instance is validated as it is read and the instances are added
+    to their collection in batches. Relationship lines connect instances
+    read earlier in the input by their ref.
+
+    An invalid line stops the import with an IllegalArgumentException
+    naming the line, import into a new database and only use it when the
+    import succeeds.
+ */
+public class NdjsonImporter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private final ERSchema schema;
+    private int batchSize;
+
+    private ERInstanceData database;
+    private final Map<String, EntityInstance> instancesByRef;
+    private final List<EntityInstance> batch;
+    private EntityInstanceCollection batchCollection;
+
+    private int lineNumber;
+    private int instancesImported;
+    private int relationshipsImported;
+
+    public NdjsonImporter(final ERSchema schema){
+        this.schema = schema;
+        this.batchSize = DEFAULT_BATCH_SIZE;
+        this.instancesByRef = new HashMap<>();
+        this.batch = new ArrayList<>();
+    }
+
+    public NdjsonImporter setBatchSize(final int batchSize){
+        if(batchSize<1){
+            throw new IllegalArgumentException(
+                    String.format("Batch size must be at least 1, was %d", batchSize));
+        }
+        this.batchSize = batchSize;
+        return this;
+    }
+
+    public void importInto(final ERInstanceData database, final Reader input) throws IOException {
+
+        this.database = database;
+        final BufferedReader lines = input instanceof BufferedReader ?
+                (BufferedReader) input : new BufferedReader(input);
+
+        String line;
+        while((line = lines.readLine())!=null){
+            lineNumber++;
+            if(line.isBlank()){
+                continue;
+            }
+
+            try{
+                importLine(line);
+            }catch(RuntimeException e){
+                throw new IllegalArgumentException(
+                        String.format("Line %d: %s", lineNumber, e.getMessage()), e);
+            }
+        }
+
+        try{
+            addBatch();
+        }catch(RuntimeException e){
+            throw new IllegalArgumentException(
+                    String.format("Line %d: %s", lineNumber, e.getMessage()), e);
+        }
+    }
+
+    private void importLine(final String line){
+
+        final JsonElement parsed = JsonParser.parseString(line);
+        if(!parsed.isJsonObject()){
+            throw new IllegalArgumentException("Expected a json object");
+        }
+
+        final JsonObject object = parsed.getAsJsonObject();
+        if(object.has("entity")){
+            importInstance(object);
+        }else if(object.has("relationship")){
+            importRelationship(object);
+        }else{
+            throw new IllegalArgumentException("Expected an entity or a relationship");
+        }
+    }
+
+    private void importInstance(final JsonObject line){
+
+        final String plural = line.get("entity").getAsString();
+        if(!schema.hasEntityWithPluralNamed(plural)){
+            throw new IllegalArgumentException(String.format("Unknown entity %s", plural));
+        }
+        final EntityDefinition entityDefn = schema.getEntityDefinitionWithPluralNamed(plural);
+
+        final JsonElement fields = line.get("fields");
+        if(fields!=null && !fields.isJsonObject()){
+            throw new IllegalArgumentException(String.format("Expected fields of %s to be an object", plural));
+        }
+
+        final EntityInstance instance = new EntityInstance(entityDefn);
+        if(fields!=null){
+            for(Map.Entry<String, JsonElement> value : fields.getAsJsonObject().entrySet()){
+                setField(entityDefn, instance, value.getKey(), value.getValue());
+            }
+        }
+
+        final ValidationReport validation = instance.validateFieldValues(new ArrayList<>(), true);
+        if(!validation.isValid()){
+            throw new IllegalArgumentException(String.format("Invalid %s entity instance because %s",
+                    entityDefn.getName(), validation.getCombinedErrorMessages()));
+        }
+
+        final JsonElement ref = line.get("ref");
+        if(ref!=null && !ref.isJsonNull()){
+            if(instancesByRef.putIfAbsent(ref.getAsString(), instance)!=null){
+                throw new IllegalArgumentException(String.format("Duplicate ref %s", ref.getAsString()));
+            }
+        }
+
+        final EntityInstanceCollection collection = database.getInstanceCollectionForEntityNamed(entityDefn.getName());
+        if(collection!=batchCollection || batch.size()>=batchSize){
+            addBatch();
+            batchCollection = collection;
+        }
+        batch.add(instance);
+    }
+
+    private void setField(final EntityDefinition entityDefn, final EntityInstance instance,
+                          final String fieldName, final JsonElement value){
+
+        if(!entityDefn.hasFieldNameDefined(fieldName)){
+            throw new IllegalArgumentException(
+                    String.format("Unknown property %s for %s", fieldName, entityDefn.getName()));
+        }
+
+        if(value.isJsonNull()){
+            return;
+        }
+
+        final String asString = value.isJsonPrimitive() ? value.getAsString() : value.toString();
+        final Field fieldDefn = entityDefn.getField(fieldName);
+        switch (fieldDefn.getType()){
+            case AUTO_GUID:
+                instance.overrideValue(fieldDefn.getName(), UUID.fromString(asString).toString());
+                break;
+            case AUTO_INCREMENT:
+                instance.overrideValue(fieldDefn.getName(), String.valueOf(Integer.parseInt(asString)));
+                break;
+            default:
+                instance.setValue(fieldDefn.getName(), asString);
+        }
+    }
+
+    private void importRelationship(final JsonObject line){
+
+        // the instances must be in their collections before they are connected
+        addBatch();
+
+        final String relationshipName = line.get("relationship").getAsString();
+        final EntityInstance from = instanceForRef(line, "from");
+        final EntityInstance to = instanceForRef(line, "to");
+
+        from.getRelationships().connect(relationshipName, to);
+        relationshipsImported++;
+    }
+
+    private EntityInstance instanceForRef(final JsonObject line, final String property){
+        final JsonElement ref = line.get(property);
+        if(ref==null || ref.isJsonNull()){
+            throw new IllegalArgumentException(String.format("Relationship has no %s ref", property));
+        }
+
+        final EntityInstance instance = instancesByRef.get(ref.getAsString());
+        if(instance==null){
+            throw new IllegalArgumentException(
+                    String.format("Relationship %s ref %s has not been imported", property, ref.getAsString()));
+        }
+        return instance;
+    }
+
+    private void addBatch(){
+        if(batch.isEmpty()){
+            return;
+        }
+
+        batchCollection.addInstances(batch);
+        instancesImported = instancesImported + batch.size();
+        batch.clear();
+    }
+
+    public int getInstancesImported(){
+        return instancesImported;
+    }
+
+    public int getRelationshipsImported(){
+        return relationshipsImported;
+    }
+}
@@ -0,0 +1,99 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import uk.co.compendiumdev.thingifier.core.domain.definitions.DefinedFields;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    The fields to render for the returned instances, from a fields url param e.g.
+
+        /todos?fields=id,title
+
+    Relationships are named in the same way as fields, a relationship which
+    is not named is not rendered, unless it is embedded.
+
+    Names are matched ignoring case, as they are when validated, so
+    fields=Title renders the title field.
+
+    The fields to render are worked out once for each definition, and the
+    fields which are not named are never read from the instances.
+
+    Embedded related instances, and OBJECT field values, are rendered with
+    all their fields.
+ */
+public class SparseFieldset {
+
+    private final List<String> fieldNames;
+    private final Set<String> lowerCaseFieldNames;
+    private final Map<DefinedFields, List<String>> fieldNamesFor;
+
+    private SparseFieldset(final List<String> fieldNames){
+        this.fieldNames = fieldNames;
+        this.lowerCaseFieldNames = new HashSet<>();
+        for(String fieldName : fieldNames){
+            lowerCaseFieldNames.add(fieldName.toLowerCase());
+        }
+        this.fieldNamesFor = new IdentityHashMap<>();
+    }
+
+    public static SparseFieldset all(){
+        return new SparseFieldset(List.of());
+    }
+
+    public static SparseFieldset of(final List<String> fieldNames){
+        return new SparseFieldset(new ArrayList<>(fieldNames));
+    }
+
+    public static SparseFieldset fromParams(final QueryFilterParams params){
+        return of(params.fieldsToRender());
+    }
+
+    public boolean isAll(){
+        return fieldNames.isEmpty();
+    }
+
+    /* the names of the defined fields to render, in the order they are defined */
+    public List<String> fieldNamesFor(final DefinedFields definition){
+        if(isAll()){
+            return definition.getFieldNames();
+        }
+
+        List<String> renderedNames = fieldNamesFor.get(definition);
+        if(renderedNames==null){
+            renderedNames = new ArrayList<>();
+            for(String fieldName : definition.getFieldNames()){
+                if(lowerCaseFieldNames.contains(fieldName.toLowerCase())){
+                    renderedNames.add(fieldName);
+                }
+            }
+            fieldNamesFor.put(definition, renderedNames);
+        }
+        return renderedNames;
+    }
+
+    public boolean rendersRelationship(final String relationshipName){
+        return isAll() || lowerCaseFieldNames.contains(relationshipName.toLowerCase());
+    }
+
+    /* an error message for each name which is not a field or relationship of the definition */
+    public List<String> validateFor(final EntityDefinition definition){
+        final List<String> errors = new ArrayList<>();
+
+        for(String fieldName : fieldNames){
+            if(!definition.hasFieldNameDefined(fieldName) &&
+                    !definition.related().hasRelationship(fieldName)){
+                errors.add(String.format("Can not render %s, it is not a field of %s",
+                        fieldName, definition.getName()));
+            }
+        }
+
+        return errors;
+    }
+}
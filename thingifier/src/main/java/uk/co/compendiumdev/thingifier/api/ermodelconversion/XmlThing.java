@@ -1,9 +1,11 @@
 package uk.co.compendiumdev.thingifier.api.ermodelconversion;
 
+import com.google.gson.JsonObject;
 import org.json.JSONObject;
 import org.json.XML;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.InstanceAggregate;
 
 import java.util.*;
 
@@ -17,14 +19,30 @@ public class XmlThing {
     }
 
     public String getSingleObjectXml(final EntityInstance instance) {
-        String parseForXMLOutput = jsonConvertor.asNamedJsonObject(instance).toString();
+        return getSingleObjectXml(instance, EmbeddedRelationships.none(), SparseFieldset.all());
+    }
+
+    public String getSingleObjectXml(final EntityInstance instance, final EmbeddedRelationships embedded,
+                                     final SparseFieldset fieldset) {
+        String parseForXMLOutput = jsonConvertor.asNamedJsonObject(instance, embedded, fieldset).toString();
         //System.out.println(parseForXMLOutput);
         return XML.toString(new JSONObject(parseForXMLOutput));
     }
 
+    public String getAggregateXml(final InstanceAggregate aggregate) {
+        final JsonObject aggregateObj = new JsonObject();
+        aggregateObj.add("aggregate", jsonConvertor.asJsonObject(aggregate));
+        return XML.toString(new JSONObject(aggregateObj.toString()));
+    }
+
     public String getCollectionOfThings(final List<EntityInstance> thingsToReturn, final EntityDefinition typeOfThingReturned) {
+        return getCollectionOfThings(thingsToReturn, typeOfThingReturned, EmbeddedRelationships.none(), SparseFieldset.all());
+    }
+
+    public String getCollectionOfThings(final List<EntityInstance> thingsToReturn, final EntityDefinition typeOfThingReturned,
+                                        final EmbeddedRelationships embedded, final SparseFieldset fieldset) {
         String parseForXMLOutput = jsonConvertor.asJsonTypedArrayWithContentsTyped(
-                                                thingsToReturn, typeOfThingReturned);
+                                                thingsToReturn, typeOfThingReturned, embedded, fieldset);
 
         String output = XML.toString(new JSONObject(parseForXMLOutput));
 
@@ -22,7 +22,7 @@ public class HttpApiRequestValidator {
         // Config Validation
 
         ApiResponse apiResponse = new AcceptHeaderValidator(this.apiConfig).
-                validate(request.getAcceptHeader());
+                validate(request.getHeaders().acceptHeader());
         ;
 
         if (apiResponse == null) {
@@ -44,7 +44,7 @@ public class HttpApiRequestValidator {
             if (verb == ThingifierHttpApi.HttpVerb.POST || verb == ThingifierHttpApi.HttpVerb.PUT || verb == ThingifierHttpApi.HttpVerb.PATCH) {
 
                 apiResponse = new ContentTypeHeaderValidator(this.apiConfig).
-                        validate(request.getContentTypeHeader());
+                        validate(request.getHeaders().contentTypeHeader());
 
                 // validate the content syntax format against content type
                 if (apiResponse == null) {
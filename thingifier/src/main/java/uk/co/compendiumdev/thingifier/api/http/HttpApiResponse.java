@@ -21,6 +21,7 @@ final public class HttpApiResponse {
 
     private String type;
     private boolean asJson;
+    private String body;
 
     public HttpApiResponse(final HttpHeadersBlock requestHeaders,
                            final ApiResponse anApiResponse,
@@ -41,9 +42,7 @@ final public class HttpApiResponse {
 
     private void configureFrom(final HttpHeadersBlock requestHeaders, final HttpHeadersBlock originalApiResponseHeaders) {
 
-        String acceptHeader = requestHeaders.get("accept");
-
-        AcceptHeaderParser accept = new AcceptHeaderParser(acceptHeader);
+        AcceptHeaderParser accept = requestHeaders.acceptHeader();
 
         if(accept.hasAPreferenceForXml()){
             if(apiConfig.willApiAllowXmlForResponses()) {
@@ -72,21 +71,32 @@ final public class HttpApiResponse {
 
     }
 
+    /*
+        The body is rendered once, then kept, so that it can be rendered while
+        the lock for the session database is held, and the instances can not
+        be changed by another request part way through rendering.
+     */
+    public HttpApiResponse renderBody() {
+        getBody();
+        return this;
+    }
+
     // TODO: handle text/plain, text/html
     public String getBody() {
 
-        String returnBody = "";
+        if(body!=null){
+            return body;
+        }
 
         if(apiResponse.hasABodyOverride()){
-            return apiResponse.getBody();
-        }
-        if (asJson) {
-            returnBody = new ApiResponseAsJson(apiResponse, jsonThing).getJson();
+            body = apiResponse.getBody();
+        }else if (asJson) {
+            body = new ApiResponseAsJson(apiResponse, jsonThing).getJson();
         } else {
-            returnBody = new ApiResponseAsXml(apiResponse, jsonThing).getXml();
+            body = new ApiResponseAsXml(apiResponse, jsonThing).getXml();
         }
 
-        return returnBody;
+        return body;
     }
 
 
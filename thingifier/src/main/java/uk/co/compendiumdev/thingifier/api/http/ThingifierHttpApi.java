@@ -7,9 +7,14 @@ import uk.co.compendiumdev.thingifier.api.restapihandlers.SessionHeaderParser;
 import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiRequestHook;
 import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiResponseHook;
 import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
+import uk.co.compendiumdev.thingifier.application.metrics.RequestTimer;
+import uk.co.compendiumdev.thingifier.core.DatabaseLocks;
+import uk.co.compendiumdev.thingifier.core.profiling.HookEvent;
+import uk.co.compendiumdev.thingifier.core.profiling.ProfilingContext;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 final public class ThingifierHttpApi {
 
@@ -17,6 +22,8 @@ final public class ThingifierHttpApi {
     // TODO: would need the ability to create and delete sessions
     public static final String HTTP_SESSION_HEADER_NAME = "X-THING-HTTP-SESSION-GUID";
 
+    private static final int SESSION_DATABASE_ATTEMPTS = 3;
+
     private final Thingifier thingifier;
     private final JsonThing jsonThing;
     private List<HttpApiRequestHook> apiRequestHooks;
@@ -72,23 +79,26 @@ final public class ThingifierHttpApi {
         // any pre-request override processing
         HttpApiResponse httpResponse = runTheHttpApiRequestHooksOn(request);
 
-        ApiResponse apiResponse = null;
-
         // TODO: consider 'validation' hooks which can be used to override/augment validation
 
         // validate request syntax
         if(httpResponse==null) {
+            final RequestTimer timer = RequestTimer.current();
+            final long validationStarted = timer.mark();
             httpResponse = validateRequestSyntax(request, verb);
+            timer.phase(RequestTimer.Phase.PARSE, validationStarted);
         }
 
         // TODO: consider 'processing' hooks which can be used to override the generic processing
 
         // no httpResponse generated after validation so it is not in error
         if(httpResponse==null) {
-            apiResponse = routeAndProcessRequest(request, verb);
+            final String databaseToUse = SessionHeaderParser.getDatabaseNameFromHeaderValue(request.getHeaders());
 
-            httpResponse = new HttpApiResponse(request.getHeaders(), apiResponse,
-                    jsonThing, thingifier.apiConfig());
+            final long queryStarted = RequestTimer.current().mark();
+            httpResponse = underSessionLockFor(verb, databaseToUse, request, () ->
+                        processAndRender(request, databaseToUse, queryStarted, () ->
+                            routeAndProcessRequest(request, verb)));
         }
 
         // run any post processing response hooks
@@ -116,6 +126,70 @@ final public class ThingifierHttpApi {
         return httpResponse;
     }
 
+    /*
+        If there is a session id and we have not created the database yet, then do that
+        now, before taking the lock for the verb, creating needs the write lock and a read
+        lock can not be upgraded.
+
+        The session database can be deleted e.g. purged, between creating it and taking the
+        lock, then the lock is released and we try again, rather than creating it under the lock.
+     */
+    private HttpApiResponse underSessionLockFor(final HttpVerb verb, final String databaseName,
+                                                final HttpApiRequest request,
+                                                final Supplier<HttpApiResponse> action){
+
+        for(int attempt=0; attempt<SESSION_DATABASE_ATTEMPTS; attempt++){
+            createDatabaseBasedOnSessionHeaderUIfNecessary(databaseName);
+
+            final HttpApiResponse response = underLockFor(verb, databaseName, () ->
+                    isDatabaseAvailable(databaseName) ? action.get() : null);
+
+            if(response!=null){
+                return response;
+            }
+        }
+
+        return new HttpApiResponse(request.getHeaders(),
+                        ApiResponse.error404(String.format("Could not find session database %s", databaseName)),
+                        jsonThing, thingifier.apiConfig());
+    }
+
+    private boolean isDatabaseAvailable(final String databaseName){
+        return databaseName==null || thingifier.getERmodel().hasInstanceDatabaseNamed(databaseName);
+    }
+
+    /*
+        The body is rendered under the same lock as the processing so it is a consistent view.
+
+        Processing, including creating the session database and waiting for the lock, is
+        timed as the query phase, and rendering the body as the serialize phase.
+     */
+    private HttpApiResponse processAndRender(final HttpApiRequest request, final String databaseName,
+                                             final long queryStarted, final Supplier<ApiResponse> process){
+
+        final RequestTimer timer = RequestTimer.current();
+
+        return ProfilingContext.usingDatabase(thingifier.getERmodel().getInstanceData(databaseName), () -> {
+            final ApiResponse apiResponse = process.get();
+            final long renderStarted = timer.phase(RequestTimer.Phase.QUERY, queryStarted);
+
+            final HttpApiResponse httpResponse = new HttpApiResponse(request.getHeaders(), apiResponse,
+                                                        jsonThing, thingifier.apiConfig()).renderBody();
+            timer.phase(RequestTimer.Phase.SERIALIZE, renderStarted);
+            return httpResponse;
+        });
+    }
+
+    /* GET and HEAD share the read lock for the session database, anything else needs the write lock */
+    private HttpApiResponse underLockFor(final HttpVerb verb, final String databaseName,
+                                         final Supplier<HttpApiResponse> action){
+        final DatabaseLocks locks = thingifier.getERmodel().getDatabaseLocks();
+        if(verb==HttpVerb.GET || verb==HttpVerb.HEAD){
+            return locks.withReadLock(databaseName, action);
+        }
+        return locks.withWriteLock(databaseName, action);
+    }
+
     private void createDatabaseBasedOnSessionHeaderUIfNecessary(final String sessionHeaderValue){
         if(sessionHeaderValue !=null){
             // make sure database exists
@@ -123,15 +197,12 @@ final public class ThingifierHttpApi {
         }
     }
 
-    public ApiResponse routeAndProcessRequest(final HttpApiRequest request,
+    /* called under the lock for the session database, which must already exist */
+    private ApiResponse routeAndProcessRequest(final HttpApiRequest request,
                                               HttpVerb verb) {
 
         ApiResponse apiResponse=null;
 
-        // if there is a session id and we have not created the erm yet, then do that now
-        String databaseToUse = SessionHeaderParser.getDatabaseNameFromHeaderValue(request.getHeaders());
-        createDatabaseBasedOnSessionHeaderUIfNecessary(databaseToUse);
-
         switch (verb){
             case GET:
                 apiResponse = thingifier.api().get(request.getPath(),
@@ -187,22 +258,35 @@ final public class ThingifierHttpApi {
 
         HttpApiResponse httpResponse = runTheHttpApiRequestHooksOn(request);
 
-        // if there is a session id and we have not created the erm yet, then do that
-        String databaseToUse = SessionHeaderParser.getDatabaseNameFromHeaderValue(request.getHeaders());
-        createDatabaseBasedOnSessionHeaderUIfNecessary(databaseToUse);
-
         if(httpResponse==null) {
-            ApiResponse apiResponse = thingifier.api().get(query, request.getFilterableQueryParams(), request.getHeaders());
-            httpResponse = new HttpApiResponse(request.getHeaders(), apiResponse,
-                    jsonThing, thingifier.apiConfig());
+            String databaseToUse = SessionHeaderParser.getDatabaseNameFromHeaderValue(request.getHeaders());
+            final long queryStarted = RequestTimer.current().mark();
+            httpResponse = underSessionLockFor(HttpVerb.GET, databaseToUse, request, () ->
+                        processAndRender(request, databaseToUse, queryStarted, () ->
+                            thingifier.api().get(query, request.getFilterableQueryParams(), request.getHeaders())));
         }
 
         return runTheHttpApiResponseHooksOn(request, httpResponse);
     }
 
+    /* the api hooks are timed as the hooks phase, as the spark and internal http hooks are */
     private HttpApiResponse runTheHttpApiResponseHooksOn(final HttpApiRequest request, final HttpApiResponse response) {
+        final RequestTimer timer = RequestTimer.current();
+        final long hooksStarted = timer.mark();
+        try{
+            return runTheHttpApiResponseHooks(request, response);
+        }finally {
+            timer.phase(RequestTimer.Phase.HOOKS, hooksStarted);
+        }
+    }
+
+    private HttpApiResponse runTheHttpApiResponseHooks(final HttpApiRequest request, final HttpApiResponse response) {
         for(HttpApiResponseHook hook : apiResponseHooks){
+            final HookEvent event = new HookEvent();
+            event.begin();
             HttpApiResponse returnImmediately = hook.run(request, response, thingifier.apiConfig());
+            event.end();
+            event.commitFor(hook, "api response");
             if(returnImmediately!=null){
                 return returnImmediately;
             }
@@ -211,8 +295,22 @@ final public class ThingifierHttpApi {
     }
 
     private HttpApiResponse runTheHttpApiRequestHooksOn(final HttpApiRequest request) {
+        final RequestTimer timer = RequestTimer.current();
+        final long hooksStarted = timer.mark();
+        try{
+            return runTheHttpApiRequestHooks(request);
+        }finally {
+            timer.phase(RequestTimer.Phase.HOOKS, hooksStarted);
+        }
+    }
+
+    private HttpApiResponse runTheHttpApiRequestHooks(final HttpApiRequest request) {
         for(HttpApiRequestHook hook : apiRequestHooks){
+            final HookEvent event = new HookEvent();
+            event.begin();
             HttpApiResponse response = hook.run(request, thingifier.apiConfig());
+            event.end();
+            event.commitFor(hook, "api request");
             if(response!=null){
                 return response;
             }
@@ -9,6 +9,7 @@ import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.profiling.BodyParseEvent;
 
 import java.util.*;
 
@@ -124,7 +125,7 @@ public class BodyParser {
         valid if error message returned is empty
      */
     public String validBodyBasedOnContentType(){
-        final ContentTypeHeaderParser contentTypeParser = new ContentTypeHeaderParser(request.getHeader("content-type"));
+        final ContentTypeHeaderParser contentTypeParser = request.getHeaders().contentTypeHeader();
         if (contentTypeParser.isXML()) {
             String validateResultsErrorReport = this.xmlParser.validateXML();
             if(!validateResultsErrorReport.isEmpty()){
@@ -166,7 +167,10 @@ public class BodyParser {
         // this is just a quick hack to amend it to support XML
         // TODO: try to change this in the future to make it more robust, perhaps the API shouldn't take a String as the body, it should take a parsed class?
         // TODO: BUG - since we remove the wrapper we might send in a POST <project><title>My posted to do on the project</title></project> to /todo and it will work fine if the fields are the same
-        final ContentTypeHeaderParser contentTypeParser = new ContentTypeHeaderParser(request.getHeader("content-type"));
+        final BodyParseEvent event = new BodyParseEvent();
+        event.begin();
+
+        final ContentTypeHeaderParser contentTypeParser = request.getHeaders().contentTypeHeader();
         if (contentTypeParser.isXML()) {
             System.out.println(request.getBody());
             args = this.xmlParser.xmlAsMap();
@@ -175,6 +179,15 @@ public class BodyParser {
             args = new Gson().fromJson(request.getBody(), Map.class);
         }
 
+        event.end();
+        if(event.shouldCommit()){
+            event.contentType = contentTypeParser.isXML() ? "xml" : "json";
+            event.bodySize = request.getBody().length();
+            // the entity type is not known until the body is validated against the path
+            event.tag(null);
+            event.commit();
+        }
+
         if(args==null) {
             // something went wrong during conversion, could report as json/xml error
             args = new HashMap<>();
@@ -1,22 +1,116 @@
 package uk.co.compendiumdev.thingifier.api.http.headers;
 
+import uk.co.compendiumdev.thingifier.api.http.headers.headerparser.AcceptHeaderParser;
+import uk.co.compendiumdev.thingifier.api.http.headers.headerparser.ContentTypeHeaderParser;
+
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+
+/*
+    Header names are case insensitive, they are stored using a canonical
+    lower case name. Common header names are looked up in a table of the
+    usual spellings so that the hook path does not need to allocate a new
+    lower case String for every header access.
 
+    Accept and Content-Type are parsed at most once per block and the
+    parsed values cached until the header value changes.
+ */
 public class HttpHeadersBlock {
 
+    public static final String ACCEPT = "accept";
+    public static final String CONTENT_TYPE = "content-type";
+    public static final String X_CHALLENGER = "x-challenger";
+    public static final String X_THING_HTTP_SESSION_GUID = "x-thing-http-session-guid";
+
+    private static final Map<String, String> canonicalNames = new HashMap<>();
+
+    static {
+        for(String knownName : new String[]{ACCEPT, CONTENT_TYPE, X_CHALLENGER, X_THING_HTTP_SESSION_GUID,
+                                            "location", "authorization", "x-auth-token",
+                                            "access-control-allow-methods", "x-robots-tag"}){
+            addCanonicalName(knownName);
+        }
+    }
+
+    private static void addCanonicalName(final String lowerCaseName){
+        canonicalNames.put(lowerCaseName, lowerCaseName);
+        canonicalNames.put(lowerCaseName.toUpperCase(), lowerCaseName);
+
+        // Title-Case e.g. Content-Type
+        StringBuilder titleCase = new StringBuilder(lowerCaseName.length());
+        boolean upperNext = true;
+        for(char c : lowerCaseName.toCharArray()){
+            titleCase.append(upperNext ? Character.toUpperCase(c) : c);
+            upperNext = (c=='-');
+        }
+        canonicalNames.put(titleCase.toString(), lowerCaseName);
+    }
+
+    /*
+        the canonical name, without allocating if it is a common
+        header or if the name is already trimmed lower case
+     */
+    public static String canonicalName(final String headerName){
+
+        final String known = canonicalNames.get(headerName);
+        if(known!=null){
+            return known;
+        }
+
+        if(isCanonical(headerName)){
+            return headerName;
+        }
+
+        return headerName.trim().toLowerCase();
+    }
+
+    private static boolean isCanonical(final String headerName){
+        final int length = headerName.length();
+        if(length==0){
+            return true;
+        }
+        if(Character.isWhitespace(headerName.charAt(0)) ||
+                Character.isWhitespace(headerName.charAt(length-1))){
+            return false;
+        }
+        for(int index=0; index<length; index++){
+            if(Character.isUpperCase(headerName.charAt(index))){
+                return false;
+            }
+        }
+        return true;
+    }
+
     final Map<String,String> headers;
 
+    private AcceptHeaderParser acceptHeaderParser;
+    private ContentTypeHeaderParser contentTypeHeaderParser;
+
     public HttpHeadersBlock(){
         headers = new HashMap<>();
     }
+
     public void put(String headername, String value) {
         if(headername==null){return;}
 
         String valueToAdd = value==null ? "" : value;
 
         // header names are case insensitive
-        headers.put(headername.trim().toLowerCase(), valueToAdd);
+        putCanonical(canonicalName(headername), valueToAdd);
+    }
+
+    private void putCanonical(final String canonicalName, final String value){
+        headers.put(canonicalName, value);
+
+        // the cached parsed values are no longer valid
+        if(canonicalName.equals(ACCEPT)){
+            acceptHeaderParser = null;
+        }
+        if(canonicalName.equals(CONTENT_TYPE)){
+            contentTypeHeaderParser = null;
+        }
     }
 
     public String get(String headername) {
@@ -25,17 +119,32 @@ public class HttpHeadersBlock {
             return "";
         }
 
-        if (!headers.containsKey(headername.toLowerCase())) {
+        final String value = headers.get(canonicalName(headername));
+        if(value==null){
             return "";
         }
 
-        return headers.get(headername.toLowerCase());
+        return value;
     }
 
+    /*
+        a copy of the headers, use headerNames or entries to iterate
+        over the headers without copying
+     */
     public Map<String, String> asMap() {
         return new HashMap<>(headers);
     }
 
+    /* read only view of the canonical header names */
+    public Set<String> headerNames() {
+        return Collections.unmodifiableSet(headers.keySet());
+    }
+
+    /* read only view of the headers keyed on canonical header name */
+    public Set<Map.Entry<String, String>> entries() {
+        return Collections.unmodifiableMap(headers).entrySet();
+    }
+
     public void putAll(Map<String, String> headers) {
 
         if(headers==null){return;}
@@ -46,7 +155,13 @@ public class HttpHeadersBlock {
     }
 
     public void putAll(HttpHeadersBlock originalApiResponseHeaders) {
-        putAll(originalApiResponseHeaders.asMap());
+
+        if(originalApiResponseHeaders==null){return;}
+
+        // names are already canonical so no need to normalise them again
+        for( Map.Entry<String, String> entry : originalApiResponseHeaders.headers.entrySet()) {
+            putCanonical(entry.getKey(), entry.getValue());
+        }
     }
 
     public int size() {
@@ -57,6 +172,22 @@ public class HttpHeadersBlock {
         if(headerName==null){
             return false;
         }
-        return headers.containsKey(headerName.trim().toLowerCase());
+        return headers.containsKey(canonicalName(headerName));
+    }
+
+    /* parsed Accept header, only parsed once for the current value */
+    public AcceptHeaderParser acceptHeader() {
+        if(acceptHeaderParser==null){
+            acceptHeaderParser = new AcceptHeaderParser(headers.get(ACCEPT));
+        }
+        return acceptHeaderParser;
+    }
+
+    /* parsed Content-Type header, only parsed once for the current value */
+    public ContentTypeHeaderParser contentTypeHeader() {
+        if(contentTypeHeaderParser==null){
+            contentTypeHeaderParser = new ContentTypeHeaderParser(headers.get(CONTENT_TYPE));
+        }
+        return contentTypeHeaderParser;
     }
 }
@@ -6,22 +6,33 @@ import java.util.*;
 public class AcceptHeaderParser {
     private final String acceptHeader;
     private final List<String> acceptMediaTypeDefinitionsList;
-    private final String[] acceptedXmlStrings = {
+    private static final String[] acceptedXmlStrings = {
                                             "application/xml",
                         };
-    private final String[] acceptedJsonStrings = {
+    private static final String[] acceptedJsonStrings = {
             "application/json"
     };
 
-    private final String[] acceptedAnythingStrings = {
+    private static final String[] acceptedAnythingStrings = {
             "application/*", "*/*"
     };
 
-    private final String[] acceptedTextStrings = {
+    private static final String[] acceptedTextStrings = {
             "text/plain", "text/html"
     };
 
-    private final Map<ACCEPT_TYPE, List<String>> acceptedTypes;
+    // the accepted types do not change so are shared by all parsers
+    private static final Map<ACCEPT_TYPE, List<String>> acceptedTypes = createAcceptedTypes();
+
+    private static Map<ACCEPT_TYPE, List<String>> createAcceptedTypes() {
+        Map<ACCEPT_TYPE, List<String>> types = new EnumMap<>(ACCEPT_TYPE.class);
+        types.put(ACCEPT_TYPE.XML, Arrays.asList(acceptedXmlStrings));
+        types.put(ACCEPT_TYPE.JSON, Arrays.asList(acceptedJsonStrings));
+        types.put(ACCEPT_TYPE.ANYTHING, Arrays.asList(acceptedAnythingStrings));
+        types.put(ACCEPT_TYPE.NO_MATCHING_TYPE, new ArrayList<>());
+        types.put(ACCEPT_TYPE.TEXT, Arrays.asList(acceptedTextStrings));
+        return Collections.unmodifiableMap(types);
+    }
 
     public boolean willAcceptAnything() {
         return willAccept(ACCEPT_TYPE.ANYTHING);
@@ -82,13 +93,6 @@ public class AcceptHeaderParser {
             this.acceptHeader = acceptHeader.trim().toLowerCase();
         }
 
-        acceptedTypes = new HashMap<ACCEPT_TYPE, List<String>>();
-        acceptedTypes.put(ACCEPT_TYPE.XML, Arrays.asList(acceptedXmlStrings));
-        acceptedTypes.put(ACCEPT_TYPE.JSON, Arrays.asList(acceptedJsonStrings));
-        acceptedTypes.put(ACCEPT_TYPE.ANYTHING, Arrays.asList(acceptedAnythingStrings));
-        acceptedTypes.put(ACCEPT_TYPE.NO_MATCHING_TYPE, new ArrayList<>());
-        acceptedTypes.put(ACCEPT_TYPE.TEXT, Arrays.asList(acceptedTextStrings));
-
         // TODO: use ;q=0.9 to sort items in the array
         String[] acceptMediaTypeDefinitions = this.acceptHeader.split(",");
         acceptMediaTypeDefinitionsList = new ArrayList<>();
@@ -1,12 +1,15 @@
 package uk.co.compendiumdev.thingifier.api.http.headers.headerparser;
 
 public class ContentTypeHeaderParser {
+    private final String originalHeader;
     private final String header;
 
     public ContentTypeHeaderParser(final String header) {
         if(header==null){
+            this.originalHeader="";
             this.header="";
         }else {
+            this.originalHeader = header;
             this.header = header.trim().toLowerCase();
         }
     }
@@ -24,6 +27,11 @@ public class ContentTypeHeaderParser {
         return (header.isEmpty());
     }
 
+    /* the header as it was sent, for reporting, matching is done on the normalised value */
+    public String getHeader() {
+        return originalHeader;
+    }
+
     public boolean isText() {
         return header.contains("text/");
     }
@@ -12,7 +12,10 @@ public class AcceptHeaderValidator {
     }
 
     public ApiResponse validate(final String acceptHeader) {
-        final AcceptHeaderParser accept = new AcceptHeaderParser(acceptHeader);
+        return validate(new AcceptHeaderParser(acceptHeader));
+    }
+
+    public ApiResponse validate(final AcceptHeaderParser accept) {
         ApiResponse apiResponse=null;
 
         int statusAcceptTypeNotSupported = this.apiConfig.statusCodes().acceptTypeNotSupported();
@@ -12,13 +12,15 @@ public class ContentTypeHeaderValidator {
     }
 
     public ApiResponse validate(final String header) {
+        return validate(new ContentTypeHeaderParser(header));
+    }
+
+    public ApiResponse validate(final ContentTypeHeaderParser accept) {
         // we don't validate content type header
         if(!this.apiConfig.willApiEnforceContentTypeHeaderForRequests()){
             return null;
         }
 
-        final ContentTypeHeaderParser accept = new ContentTypeHeaderParser(header);
-
         if(accept.isMissing() || accept.isText() && apiConfig.willAllowJsonAsDefaultContentType()){
             // assume that we can derive content type from the actual content
             return null;
@@ -29,7 +31,7 @@ public class ContentTypeHeaderValidator {
 
         if(!accept.isXML() && !accept.isJSON()){
             return ApiResponse.error(statusContentTypeNotSupported,
-                    "Unsupported Content Type - " + header);
+                    "Unsupported Content Type - " + accept.getHeader());
         }
 
         if(accept.isXML() && !this.apiConfig.willAcceptXMLContent()){
@@ -1,10 +1,13 @@
 package uk.co.compendiumdev.thingifier.api.response;
 
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.EmbeddedRelationships;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.SparseFieldset;
 import uk.co.compendiumdev.thingifier.api.http.headers.HttpHeadersBlock;
 import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfig;
 import uk.co.compendiumdev.thingifier.api.ApiUrls;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.InstanceAggregate;
 
 import java.util.*;
 
@@ -28,6 +31,9 @@ public final class ApiResponse {
     private HttpHeadersBlock headers;
     private EntityDefinition typeOfResults;
     private String body;
+    private EmbeddedRelationships embedded;
+    private SparseFieldset fieldset;
+    private InstanceAggregate aggregate;
 
 
     public ApiResponse(final int aStatusCode) {
@@ -39,6 +45,8 @@ public final class ApiResponse {
         errorMessages = new ArrayList<>();
         hasBody = false;
         body=null;
+        embedded = EmbeddedRelationships.none();
+        fieldset = SparseFieldset.all();
     }
 
     public ApiResponse(final int aStatusCode, final boolean isError, final Collection<String> theErrorMessages) {
@@ -69,6 +77,14 @@ public final class ApiResponse {
         return this;
     }
 
+    public ApiResponse returnAggregate(final InstanceAggregate anAggregate) {
+        thingsToReturn.clear();
+        isCollection = false;
+        aggregate = anAggregate;
+        this.hasBody = true;
+        return this;
+    }
+
     public ApiResponse returnInstanceCollection(final List<EntityInstance> items) {
         thingsToReturn.clear();
         thingsToReturn.addAll(items);
@@ -178,6 +194,22 @@ public final class ApiResponse {
     }
 
 
+    /* number of instances in the body, 0 for errors and responses without a body */
+    public int countReturnedInstances() {
+        if (!hasBody || isErrorResponse || thingsToReturn == null) {
+            return 0;
+        }
+        return isCollection ? thingsToReturn.size() : Math.min(1, thingsToReturn.size());
+    }
+
+    public boolean isAggregate() {
+        return aggregate != null;
+    }
+
+    public InstanceAggregate getReturnedAggregate() {
+        return aggregate;
+    }
+
     public boolean isCollection() {
         return isCollection;
     }
@@ -189,6 +221,26 @@ public final class ApiResponse {
         return this;
     }
 
+    /* related instances to render in full, rather than as primary keys */
+    public ApiResponse embedding(final EmbeddedRelationships embeddedRelationships) {
+        this.embedded = embeddedRelationships;
+        return this;
+    }
+
+    public EmbeddedRelationships getEmbeddedRelationships() {
+        return embedded;
+    }
+
+    /* only the fields to render for the returned instances */
+    public ApiResponse renderingFields(final SparseFieldset fieldsToRender) {
+        this.fieldset = fieldsToRender;
+        return this;
+    }
+
+    public SparseFieldset getFieldsToRender() {
+        return fieldset;
+    }
+
     public EntityDefinition getTypeOfThingReturned() {
         return typeOfResults;
     }
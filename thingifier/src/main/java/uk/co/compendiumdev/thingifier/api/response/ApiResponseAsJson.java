@@ -3,6 +3,7 @@ package uk.co.compendiumdev.thingifier.api.response;
 import com.google.gson.Gson;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
+import uk.co.compendiumdev.thingifier.core.profiling.SerializeEvent;
 
 import java.util.*;
 
@@ -17,6 +18,24 @@ public final class ApiResponseAsJson {
 
     public String getJson() {
 
+        final SerializeEvent event = new SerializeEvent();
+        event.begin();
+
+        final String output = serializeAsJson();
+
+        event.end();
+        if(event.shouldCommit()){
+            event.format = "json";
+            event.instanceCount = apiResponse.countReturnedInstances();
+            event.tag(apiResponse.getTypeOfThingReturned()==null ? "" : apiResponse.getTypeOfThingReturned().getName());
+            event.commit();
+        }
+
+        return output;
+    }
+
+    private String serializeAsJson() {
+
         if (!apiResponse.hasABody()) {
             return "";
         }
@@ -25,6 +44,10 @@ public final class ApiResponseAsJson {
             return getErrorMessageJson(apiResponse.getErrorMessages());
         }
 
+        if (apiResponse.isAggregate()) {
+            return jsonThing.asJsonObject(apiResponse.getReturnedAggregate()).toString();
+        }
+
         // we always return an object
         // collections are named with their plural
         if (apiResponse.isCollection()) {
@@ -46,7 +69,9 @@ public final class ApiResponseAsJson {
             }
 
             if (typeName.length() > 0) {
-                output = jsonThing.asJsonTypedArrayWithContentsUntyped(apiResponse.getReturnedInstanceCollection(), typeName);
+                output = jsonThing.asJsonObjectTypedArrayWithContentsUntyped(apiResponse.getReturnedInstanceCollection(), typeName,
+                                                    apiResponse.getEmbeddedRelationships(),
+                                                    apiResponse.getFieldsToRender()).toString();
             } else {
                 if (things.size() == 0) {
                     output = "{}";
@@ -59,7 +84,8 @@ public final class ApiResponseAsJson {
             EntityInstance instance = apiResponse.getReturnedInstance();
 
             //return JsonThing.asNamedJsonObject(instance).toString();
-            return jsonThing.asJsonObject(instance).toString();
+            return jsonThing.asJsonObject(instance, apiResponse.getEmbeddedRelationships(),
+                                                    apiResponse.getFieldsToRender()).toString();
         }
     }
 
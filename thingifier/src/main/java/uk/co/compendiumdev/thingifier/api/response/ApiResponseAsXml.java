@@ -4,6 +4,7 @@ import uk.co.compendiumdev.thingifier.api.http.bodyparser.xml.StringToXML;
 import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
+import uk.co.compendiumdev.thingifier.core.profiling.SerializeEvent;
 import uk.co.compendiumdev.thingifier.api.ermodelconversion.XmlThing;
 
 import java.util.*;
@@ -21,6 +22,24 @@ final public class ApiResponseAsXml {
 
     public String getXml() {
 
+        final SerializeEvent event = new SerializeEvent();
+        event.begin();
+
+        final String output = serializeAsXml();
+
+        event.end();
+        if(event.shouldCommit()){
+            event.format = "xml";
+            event.instanceCount = apiResponse.countReturnedInstances();
+            event.tag(apiResponse.getTypeOfThingReturned()==null ? "" : apiResponse.getTypeOfThingReturned().getName());
+            event.commit();
+        }
+
+        return output;
+    }
+
+    private String serializeAsXml() {
+
         if (!apiResponse.hasABody()) {
             return "";
         }
@@ -28,6 +47,10 @@ final public class ApiResponseAsXml {
         if (apiResponse.isErrorResponse()) {
             return getErrorMessageXml(apiResponse.getErrorMessages());
         }
+
+        if (apiResponse.isAggregate()) {
+            return xmlThing.getAggregateXml(apiResponse.getReturnedAggregate());
+        }
         // we always return an object
         // collections are named with their plural
         if (apiResponse.isCollection()) {
@@ -57,7 +80,9 @@ final public class ApiResponseAsXml {
             try {
                 if (thingsToReturn.size() > 0) {
 
-                    output = xmlThing.getCollectionOfThings(thingsToReturn, apiResponse.getTypeOfThingReturned());
+                    output = xmlThing.getCollectionOfThings(thingsToReturn, apiResponse.getTypeOfThingReturned(),
+                                                            apiResponse.getEmbeddedRelationships(),
+                                                            apiResponse.getFieldsToRender());
                 }
             } catch (Exception e) {
                 // TODO: if this happens then the status code is going to be wrong, should probably throw an exception instead
@@ -73,7 +98,8 @@ final public class ApiResponseAsXml {
             String output = "";
 
             try {
-                output = xmlThing.getSingleObjectXml(instance);
+                output = xmlThing.getSingleObjectXml(instance, apiResponse.getEmbeddedRelationships(),
+                                                            apiResponse.getFieldsToRender());
             } catch (Exception e) {
                 // TODO: if this happens then the status code is going to be wrong
                 output = getErrorMessageXml(e.getMessage());
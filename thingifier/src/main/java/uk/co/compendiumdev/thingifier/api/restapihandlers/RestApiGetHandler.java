@@ -1,15 +1,26 @@
 package uk.co.compendiumdev.thingifier.api.restapihandlers;
 
 import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.EmbeddedRelationships;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.SparseFieldset;
 import uk.co.compendiumdev.thingifier.api.http.headers.HttpHeadersBlock;
 import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.EntityInstanceAggregator;
+import uk.co.compendiumdev.thingifier.core.query.FilterBy;
 import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
 import uk.co.compendiumdev.thingifier.core.query.SimpleQuery;
 
+import java.util.ArrayList;
 import java.util.List;
 
 public class RestApiGetHandler {
+
+    // e.g. /todos/_aggregate, /projects/1/tasks/_aggregate
+    public static final String AGGREGATE_URL_SUFFIX = "/_aggregate";
+
     private final Thingifier thingifier;
 
     public RestApiGetHandler(final Thingifier aThingifier) {
@@ -18,6 +29,28 @@ public class RestApiGetHandler {
 
     public ApiResponse handle(final String url, final QueryFilterParams queryParams, final HttpHeadersBlock requestHeaders) {
 
+        String instanceDatabaseName = SessionHeaderParser.getDatabaseNameFromHeaderValue(requestHeaders);
+
+        return handle(url, queryParams, thingifier.getERmodel().getInstanceData(instanceDatabaseName));
+    }
+
+    /*
+        query against specific instance data rather than the database named in the
+        request headers e.g. scratch instance data which is not stored in the model
+     */
+    public ApiResponse handle(final String url, final QueryFilterParams params, final ERInstanceData instanceData) {
+
+        if(url.endsWith(AGGREGATE_URL_SUFFIX)){
+            return aggregate(url.substring(0, url.length() - AGGREGATE_URL_SUFFIX.length()), params, instanceData);
+        }
+
+        // include, embed and fields are not filters, they control how the results are rendered,
+        // the instances to embed are resolved here, while the database is locked for reading
+        final EmbeddedRelationships embedded = EmbeddedRelationships.fromParams(params);
+        final SparseFieldset fieldset = SparseFieldset.fromParams(params);
+        final QueryFilterParams queryParams = EmbeddedRelationships.withoutIncludeParams(params).
+                                                    withoutParams(QueryFilterParams::isFieldsParam);
+
         // if there are params, and we are not allowed to filter, and we enforce that
         if(queryParams.size()>0 &&
             thingifier.apiConfig().forParams().willEnforceFilteringThroughUrlParams() &&
@@ -26,15 +59,13 @@ public class RestApiGetHandler {
                         String.format("Can not use query parameters with %s", url));
         }
 
-        String instanceDatabaseName = SessionHeaderParser.getDatabaseNameFromHeaderValue(requestHeaders);
-
         SimpleQuery queryResults;
 
         if(thingifier.apiConfig().forParams().willAllowFilteringThroughUrlParams()){
-           queryResults = new SimpleQuery(thingifier.getERmodel().getSchema(), thingifier.getERmodel().getInstanceData(instanceDatabaseName), url).performQuery(
+           queryResults = new SimpleQuery(thingifier.getERmodel().getSchema(), instanceData, url).performQuery(
                    queryParams);
         }else{
-            queryResults = new SimpleQuery(thingifier.getERmodel().getSchema(), thingifier.getERmodel().getInstanceData(instanceDatabaseName), url).performQuery();
+            queryResults = new SimpleQuery(thingifier.getERmodel().getSchema(), instanceData, url).performQuery();
         }
 
         // TODO: we should support pagination through query params
@@ -64,21 +95,107 @@ public class RestApiGetHandler {
                 asCollection = true;
             }
 
+            final ApiResponse invalidRendering = validateRendering(embedded, fieldset, queryItems.get(0).getEntity());
+            if(invalidRendering!=null){
+                return invalidRendering;
+            }
+
             if(asCollection){
                 // if we asked for /projects then we should always return a collection
                 return ApiResponse.success().
                         returnInstanceCollection(
-                                queryResults.getListEntityInstances());
+                                queryResults.getListEntityInstances()).
+                        embedding(embedded.resolveFor(queryResults.getListEntityInstances())).
+                        renderingFields(fieldset);
             }else {
-                return ApiResponse.success().returnSingleInstance(queryResults.getLastInstance());
+                return ApiResponse.success().returnSingleInstance(queryResults.getLastInstance()).
+                        embedding(embedded.resolveFor(List.of(queryResults.getLastInstance()))).
+                        renderingFields(fieldset);
             }
 
         } else {
 
+            final ApiResponse invalidRendering = validateRendering(embedded, fieldset, queryResults.resultContainsDefn());
+            if(invalidRendering!=null){
+                return invalidRendering;
+            }
+
             return ApiResponse.success().
                     returnInstanceCollection(queryItems).
-                    resultContainsType(queryResults.resultContainsDefn());
+                    resultContainsType(queryResults.resultContainsDefn()).
+                    embedding(embedded.resolveFor(queryItems)).
+                    renderingFields(fieldset);
+        }
+    }
+
+    /*
+        summarise a collection rather than return it, the filters are applied
+        as the instances are aggregated
+     */
+    private ApiResponse aggregate(final String url, final QueryFilterParams params, final ERInstanceData instanceData){
+
+        QueryFilterParams filterParams = params.withoutParams(EntityInstanceAggregator::isAggregateParam);
+
+        if(filterParams.size()>0 && !thingifier.apiConfig().forParams().willAllowFilteringThroughUrlParams()){
+            if(thingifier.apiConfig().forParams().willEnforceFilteringThroughUrlParams()){
+                return ApiResponse.error(400,
+                        String.format("Can not use query parameters with %s", url));
+            }
+            filterParams = new QueryFilterParams();
+        }
+
+        final SimpleQuery queryResults = new SimpleQuery(thingifier.getERmodel().getSchema(), instanceData, url).performQuery();
+
+        if (queryResults.lastMatchWasNothing() || queryResults.lastMatchWasInstance()) {
+            return ApiResponse.error404(String.format("Could not find a collection to aggregate with %s", url));
+        }
+
+        final List<EntityInstance> queryItems = queryResults.getListEntityInstances();
+        EntityDefinition resultType = queryResults.resultContainsDefn();
+        if(resultType==null && !queryItems.isEmpty()){
+            resultType = queryItems.get(0).getEntity();
+        }
+        if(resultType==null){
+            // an empty relationship, without instances we do not know the type to aggregate
+            return ApiResponse.error404(String.format("Could not find a collection to aggregate with %s", url));
+        }
+
+        for(FilterBy aggregateParam : params.toList()){
+            if(EntityInstanceAggregator.isAggregateParam(aggregateParam.fieldName)){
+                filterParams.add(aggregateParam);
+            }
+        }
+
+        final EntityInstanceAggregator aggregator = new EntityInstanceAggregator(resultType, filterParams);
+        final List<String> errors = aggregator.validate();
+        if(!errors.isEmpty()){
+            return ApiResponse.error(400, errors);
+        }
+
+        return ApiResponse.success().
+                returnAggregate(aggregator.aggregate(queryItems)).
+                resultContainsType(resultType);
+    }
+
+    private ApiResponse validateRendering(final EmbeddedRelationships embedded, final SparseFieldset fieldset,
+                                          final EntityDefinition resultType){
+        if(resultType==null){
+            return null;
         }
+
+        final List<String> errors = new ArrayList<>();
+        if(!embedded.isEmpty()){
+            errors.addAll(embedded.validateFor(resultType));
+        }
+        if(!fieldset.isAll()){
+            errors.addAll(fieldset.validateFor(resultType));
+        }
+
+        if(errors.isEmpty()){
+            return null;
+        }
+
+        return ApiResponse.error(400, errors);
     }
 
 }
@@ -6,12 +6,30 @@ public class AdminConfig {
     private String adminSearchUrl = "/admin/query/*";
     private boolean allowAdminClearData = false;
     private String adminClearDataUrl = "/admin/data/thingifier";
+    private boolean allowAdminDataTransfer = false;
+    private String adminDataExportUrl = "/admin/data/export";
+    private String adminDataImportUrl = "/admin/data/import";
 
     public void setFrom(final AdminConfig adminConfig) {
         this.allowAdminSearch=adminConfig.isAdminSearchAllowed();
         this.allowAdminClearData=adminConfig.isAdminDataClearAllowed();
         this.adminSearchUrl=adminConfig.getAdminSearchUrl();
         this.adminClearDataUrl = adminConfig.getAdminDataClearUrl();
+        this.allowAdminDataTransfer=adminConfig.isAdminDataTransferAllowed();
+        this.adminDataExportUrl = adminConfig.getAdminDataExportUrl();
+        this.adminDataImportUrl = adminConfig.getAdminDataImportUrl();
+    }
+
+    public String getAdminDataExportUrl() {
+        return adminDataExportUrl;
+    }
+
+    public String getAdminDataImportUrl() {
+        return adminDataImportUrl;
+    }
+
+    public boolean isAdminDataTransferAllowed() {
+        return allowAdminDataTransfer;
     }
 
     public String getAdminDataClearUrl() {
@@ -37,4 +55,8 @@ public class AdminConfig {
     public void enableAdminDataClear() {
         allowAdminClearData=true;
     }
+
+    public void enableAdminDataTransfer() {
+        allowAdminDataTransfer=true;
+    }
 }
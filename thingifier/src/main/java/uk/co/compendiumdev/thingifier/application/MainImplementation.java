@@ -12,10 +12,23 @@ import uk.co.compendiumdev.thingifier.application.httprouting.ThingifierHttpApiR
 import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.ClearDataPreSparkRequestHook;
 import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.LogTheSparkRequestHook;
 import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.LogTheResponseHook;
+import uk.co.compendiumdev.thingifier.application.metrics.MetricsRegistry;
+import uk.co.compendiumdev.thingifier.application.profiling.FlightRecorderProfiler;
+import uk.co.compendiumdev.thingifier.application.requestconcurrency.RequestConcurrencyLimiter;
+import uk.co.compendiumdev.thingifier.application.routehandlers.MetricsRouteHandler;
+import uk.co.compendiumdev.thingifier.application.routehandlers.ProfilingRouteHandler;
+import uk.co.compendiumdev.thingifier.application.routehandlers.ReadinessRouteHandler;
+import uk.co.compendiumdev.thingifier.application.routehandlers.RequestConcurrencyRouteHandler;
 import uk.co.compendiumdev.thingifier.application.routehandlers.ShutdownRouteHandler;
+import uk.co.compendiumdev.thingifier.application.startup.CheckpointRestore;
+import uk.co.compendiumdev.thingifier.application.startup.CheckpointableJettyServerFactory;
+import uk.co.compendiumdev.thingifier.application.startup.StartupTimer;
+import uk.co.compendiumdev.thingifier.application.startup.StartupWarmUp;
+import uk.co.compendiumdev.thingifier.application.startup.ThingifierApiWarmUp;
 import uk.co.compendiumdev.thingifier.htmlgui.routing.DefaultGuiRoutings;
 import uk.co.compendiumdev.thingifier.htmlgui.htmlgen.DefaultGUIHTML;
 
+import java.lang.management.ManagementFactory;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -51,12 +64,44 @@ public class MainImplementation {
     int desiredVersionNumber;
     String desiredVersionName;
 
+    // request handling thread pool and concurrency e.g. -maxthreads=200 -maxconcurrency=100
+    // the Jetty pool must be larger than the concurrency limit since waiting requests hold a thread
+    int maxThreads;
+    int minThreads;
+    int threadIdleTimeoutMillis;
+    int maxConcurrentRequests;
+    long concurrencyWaitMillis;
+    // expose the in flight request metrics -requestmetrics
+    boolean showRequestMetrics;
+    private RequestConcurrencyLimiter requestConcurrency;
+    // record and expose per route latency metrics -metrics
+    boolean recordMetrics;
+    private MetricsRegistry metrics;
+    // allow starting and stopping flight recorder recordings -profiling
+    boolean allowProfiling;
+    // exercise the api before reporting ready, switch off with -nowarmup
+    boolean warmUpOnStartup;
+    private final StartupTimer startupTimer;
+    private final StartupWarmUp startupWarmUp;
+    private volatile boolean ready;
+    // training run for an AppCDS archive, exit once ready -exitafterwarmup
+    boolean exitAfterWarmUp;
+    // checkpoint once ready when running on a CRaC JVM -crac
+    boolean checkpointWhenReady;
+    private final CheckpointRestore checkpointRestore;
+    private CheckpointableJettyServerFactory jettyServerFactory;
+
     DefaultGUIHTML guiManagement;
     private ThingifierAutoDocGenRouting docsServerRouting;
     private SparkHttpGenericExceptionRoutings exceptionRoutings;
 
     public MainImplementation(){
 
+        startupTimer = new StartupTimer();
+        startupWarmUp = new StartupWarmUp();
+        checkpointRestore = new CheckpointRestore(startupTimer);
+        ready = false;
+
         proxyport = 4567; // default for spark
 
         // added to support heroku as per https://sparktutorials.github.io/2015/08/24/spark-heroku.html
@@ -80,6 +125,18 @@ public class MainImplementation {
         desiredVersionNumber=-1;
         desiredVersionName=null;
 
+        maxThreads=-1; // use spark default
+        minThreads=-1;
+        threadIdleTimeoutMillis=-1;
+        maxConcurrentRequests=0; // unlimited
+        concurrencyWaitMillis=RequestConcurrencyLimiter.DEFAULT_WAIT_MILLIS;
+        showRequestMetrics=false;
+        recordMetrics=false;
+        allowProfiling=false;
+        warmUpOnStartup=true;
+        exitAfterWarmUp=false;
+        checkpointWhenReady=false;
+
         guiManagement = new DefaultGUIHTML();
     }
 
@@ -186,6 +243,60 @@ public class MainImplementation {
                     System.out.println("Argument version number provided: "+ desiredVersionNumber);
                 }
             }
+            if (arg.startsWith("-maxthreads")) {
+                maxThreads = intArgValue(arg, maxThreads);
+                System.out.println("Will use a maximum of request threads: " + maxThreads);
+            }
+
+            if (arg.startsWith("-minthreads")) {
+                minThreads = intArgValue(arg, minThreads);
+                System.out.println("Will use a minimum of request threads: " + minThreads);
+            }
+
+            if (arg.startsWith("-threadtimeout")) {
+                threadIdleTimeoutMillis = intArgValue(arg, threadIdleTimeoutMillis);
+                System.out.println("Will use request thread idle timeout millis: " + threadIdleTimeoutMillis);
+            }
+
+            if (arg.startsWith("-maxconcurrency")) {
+                maxConcurrentRequests = intArgValue(arg, maxConcurrentRequests);
+                System.out.println("Will process a maximum number of concurrent requests: " + maxConcurrentRequests);
+            }
+
+            if (arg.startsWith("-concurrencywait")) {
+                concurrencyWaitMillis = intArgValue(arg, (int)concurrencyWaitMillis);
+                System.out.println("Will wait for a request slot for millis: " + concurrencyWaitMillis);
+            }
+
+            if (arg.startsWith("-requestmetrics")) {
+                showRequestMetrics = true;
+            }
+
+            if (arg.startsWith("-metrics")) {
+                recordMetrics = true;
+                System.out.println("Will record request metrics");
+            }
+
+            if (arg.startsWith("-profiling")) {
+                allowProfiling = true;
+                System.out.println("Will allow flight recorder profiling from admin routes");
+            }
+
+            if (arg.startsWith("-nowarmup")) {
+                warmUpOnStartup = false;
+                System.out.println("Will not warm up the api before reporting ready");
+            }
+
+            if (arg.startsWith("-exitafterwarmup")) {
+                exitAfterWarmUp = true;
+                System.out.println("Will exit once warmed up and ready");
+            }
+
+            if (arg.startsWith("-crac")) {
+                checkpointWhenReady = true;
+                System.out.println("Will checkpoint once ready if the JVM supports CRaC");
+            }
+
             if (arg.startsWith("-versionName")) {
                 String[] details = arg.split("=");
                 if (details != null && details.length > 1) {
@@ -198,6 +309,18 @@ public class MainImplementation {
 
     }
 
+    private int intArgValue(final String arg, final int defaultValue){
+        String[] details = arg.split("=");
+        if (details != null && details.length > 1) {
+            try{
+                return Integer.parseInt(details[1].trim());
+            }catch(Exception e){
+                System.out.println("Invalid value " + arg + " " + e.getMessage());
+            }
+        }
+        return defaultValue;
+    }
+
     private void outputVersionDetailsFor(String modelName, final Thingifier aThingifier) {
 
         final ThingifierApiConfigProfiles profiles = aThingifier.apiConfigProfiles();
@@ -245,12 +368,120 @@ public class MainImplementation {
         clearDownMinutes=minutes;
     }
 
+    public void setRequestThreadPool(int maxThreads, int minThreads, int idleTimeoutMillis){
+        this.maxThreads=maxThreads;
+        this.minThreads=minThreads;
+        this.threadIdleTimeoutMillis=idleTimeoutMillis;
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests, long waitMillis){
+        this.maxConcurrentRequests=maxConcurrentRequests;
+        this.concurrencyWaitMillis=waitMillis;
+    }
+
+    public void setShowRequestMetrics(boolean config){
+        showRequestMetrics=config;
+    }
+
+    public void setRecordMetrics(boolean config){
+        recordMetrics=config;
+    }
+
+    public void setAllowProfiling(boolean config){
+        allowProfiling=config;
+    }
+
+    public void setWarmUpOnStartup(boolean config){
+        warmUpOnStartup=config;
+    }
+
+    public void setExitAfterWarmUp(boolean config){
+        exitAfterWarmUp=config;
+    }
+
+    public void setCheckpointWhenReady(boolean config){
+        checkpointWhenReady=config;
+    }
+
+    /* register anything holding files or sockets open so it can be checkpointed */
+    public CheckpointRestore getCheckpointRestore() {
+        return checkpointRestore;
+    }
+
+    public StartupTimer getStartupTimer() {
+        return startupTimer;
+    }
+
+    /* tasks added here run, when warming up, after the api warm up */
+    public StartupWarmUp getStartupWarmUp() {
+        return startupWarmUp;
+    }
+
+    /* false until warmUpAndReportReady has completed */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /* null unless metrics are being recorded */
+    public MetricsRegistry getMetrics() {
+        return metrics;
+    }
+
     public void configurePortAndDefaultRoutes() {
+        // the jetty server is only reachable for checkpointing if we create it
+        if(checkpointWhenReady){
+            jettyServerFactory = new CheckpointableJettyServerFactory().useForSpark();
+        }
+
+        // thread pool must be configured before any routes are added
+        if(maxThreads>0){
+            System.out.println(String.format("Request thread pool max %d, min %d, idle timeout %d",
+                    maxThreads, minThreads, threadIdleTimeoutMillis));
+            Spark.threadPool(maxThreads, minThreads, threadIdleTimeoutMillis);
+        }
         Spark.port(proxyport);
         Spark.staticFileLocation(staticFilePath);
     }
 
+    public RequestConcurrencyLimiter getRequestConcurrency() {
+        return requestConcurrency;
+    }
+
     public void setupBuiltInConfigurableRoutes() {
+
+        // always track requests in flight, only limit if configured
+        requestConcurrency = new RequestConcurrencyLimiter(maxConcurrentRequests, concurrencyWaitMillis);
+
+        // metrics first so that the time waiting for a request slot is included
+        if(recordMetrics) {
+            metrics = new MetricsRegistry();
+            metrics.registerGauge("thingifier_requests_in_flight", "Requests currently being processed",
+                    requestConcurrency::getInFlight);
+            metrics.registerGauge("thingifier_requests_rejected_total", "Requests rejected when the concurrency limit was reached",
+                    requestConcurrency::getRejectedRequests);
+            apiDefn.addRoutesToDocumentation(
+                    new MetricsRouteHandler(metrics).
+                            configureRoutes().
+                            getRoutes());
+        }
+
+        apiDefn.addRoutesToDocumentation(
+                new ReadinessRouteHandler(this::isReady).
+                        configureRoutes().
+                        getRoutes());
+
+        apiDefn.addRoutesToDocumentation(
+                new RequestConcurrencyRouteHandler(requestConcurrency).
+                        configureRoutes(showRequestMetrics).
+                        getRoutes());
+
+        if(allowProfiling) {
+            apiDefn.addRoutesToDocumentation(
+                new ProfilingRouteHandler(new FlightRecorderProfiler()).
+                    configureRoutes().
+                    getRoutes());
+        }
+
         if(allowShutdown) {
             apiDefn.addRoutesToDocumentation(
                 new ShutdownRouteHandler().
@@ -296,16 +527,30 @@ public class MainImplementation {
 
         apiDefn.setThingifier(thingifier);
 
+        // the model is defined by now, compile the schema for the request lookups
+        startupTimer.time("compile schema", () -> {
+            thingifier.getERmodel().getSchema().freeze();
+        });
+
+        if(metrics!=null){
+            // each session has its own database
+            final Thingifier sessionsFor = thingifier;
+            metrics.registerGauge("thingifier_active_sessions", "Instance databases currently in memory",
+                    () -> sessionsFor.getERmodel().getDatabaseNames().size());
+        }
+
         // start the docs and swagger endpoints
-        docsServerRouting = new ThingifierAutoDocGenRouting(
-                thingifier,
-                apiDefn,
-                guiManagement);
+        docsServerRouting = startupTimer.time("render documentation", () ->
+                new ThingifierAutoDocGenRouting(
+                    thingifier,
+                    apiDefn,
+                    guiManagement).prerender());
 
 
-        restServer = new ThingifierHttpApiRoutings(
+        restServer = startupTimer.time("configure api routes", () ->
+                new ThingifierHttpApiRoutings(
                                     thingifier,
-                                    apiDefn);
+                                    apiDefn));
 
 
         // sets up the wide * based generic 404s so no routings created after this will work
@@ -317,6 +562,90 @@ public class MainImplementation {
         return restServer;
     }
 
+    /*
+        Run the warm up tasks, if warming up, then report ready and output
+        the startup timing report. Until then isReady is false so
+        heartbeat routes can report that the server is not ready.
+     */
+    public void warmUpAndReportReady() {
+
+        if(warmUpOnStartup && thingifier!=null){
+            final ThingifierApiWarmUp apiWarmUp = new ThingifierApiWarmUp(thingifier, apiDefn.getPathPrefix());
+            final StartupWarmUp warmUp = new StartupWarmUp().
+                    addTask("api routes", apiWarmUp::exerciseRoutes);
+            warmUp.run(startupTimer);
+            startupWarmUp.run(startupTimer);
+
+            System.out.println(String.format("Warm up sent %d api requests, %d failed",
+                    apiWarmUp.getRequestsSent(), apiWarmUp.getRequestsFailed()));
+            for(String failure : startupWarmUp.getFailures()){
+                System.out.println("Warm up failed: " + failure);
+            }
+        }
+
+        startupTimer.setMode(startupMode());
+        startupTimer.ready();
+        ready = true;
+
+        for(String line : startupTimer.report()){
+            System.out.println(line);
+        }
+
+        if(checkpointWhenReady){
+            checkpointAndRestore();
+        }
+
+        if(exitAfterWarmUp){
+            // e.g. a training run with -XX:ArchiveClassesAtExit, the archive is written on exit
+            System.out.println("Exiting after warm up");
+            System.exit(0);
+        }
+    }
+
+    /*
+        Checkpoint the fully started application, the web server is closed
+        first and opened last, after the other registered resources. In the
+        restored process this returns once the resources are reopened.
+     */
+    private void checkpointAndRestore() {
+
+        if(!CheckpointRestore.isSupportedByJvm()){
+            System.out.println("Not checkpointing, the JVM needs CRaC support and -XX:CRaCCheckpointTo");
+            return;
+        }
+
+        if(jettyServerFactory==null){
+            System.out.println("Not checkpointing, -crac must be set before the routes are configured");
+            return;
+        }
+
+        checkpointRestore.register("web server",
+                jettyServerFactory::closeConnectors,
+                jettyServerFactory::openConnectors);
+
+        System.out.println("Checkpointing");
+        if(checkpointRestore.checkpoint()){
+            System.out.println(String.format("Restored from checkpoint, resources reopened in %d ms",
+                    checkpointRestore.getLastRestoreMillis()));
+        }
+    }
+
+    private String startupMode(){
+        String mode = "standard";
+        for(String jvmArg : ManagementFactory.getRuntimeMXBean().getInputArguments()){
+            if(jvmArg.startsWith("-XX:ArchiveClassesAtExit")){
+                mode = "appcds training run";
+            }
+            if(jvmArg.startsWith("-XX:SharedArchiveFile")){
+                mode = "appcds";
+            }
+        }
+        if(checkpointWhenReady){
+            mode = mode + ", crac checkpoint";
+        }
+        return mode;
+    }
+
     public void addBuiltInArgConfiguredHooks() {
 
         if(clearDataPeriodically) {
@@ -0,0 +1,125 @@
+package uk.co.compendiumdev.thingifier.application.httprouting;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import spark.Request;
+import spark.Response;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.NdjsonExporter;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.NdjsonImporter;
+import uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import static spark.Spark.get;
+import static spark.Spark.post;
+
+/*
+    Admin routes to move a whole database between servers as newline
+    delimited json, streamed to and from the request and response bodies
+    rather than built as a single document in memory e.g.
+
+        GET /admin/data/export   the database named in the session header, or the default database
+        POST /admin/data/import  replace, or create, the database named in the session header
+
+    The import is read into a new database which only replaces the named
+    database when every line has been imported.
+ */
+public class AdminDataTransferRouting {
+
+    private final Thingifier thingifier;
+
+    public AdminDataTransferRouting(final Thingifier thingifier){
+        this.thingifier = thingifier;
+    }
+
+    public void configureRoutes(final String exportUrl, final String importUrl){
+        get(exportUrl, this::exportDatabase);
+        post(importUrl, this::importDatabase);
+    }
+
+    private Object exportDatabase(final Request request, final Response response) throws IOException {
+
+        final String databaseName = databaseNameFor(request);
+        final EntityRelModel erModel = thingifier.getERmodel();
+        final ERInstanceData database = erModel.getInstanceData(databaseName);
+        if(database==null){
+            response.type("application/json");
+            response.status(404);
+            return errorJson(String.format("Unknown database %s", databaseName));
+        }
+
+        response.type(NdjsonExporter.CONTENT_TYPE);
+        response.status(200);
+
+        final Writer output = new BufferedWriter(
+                new OutputStreamWriter(response.raw().getOutputStream(), StandardCharsets.UTF_8));
+        final NdjsonExporter exporter = new NdjsonExporter();
+        erModel.getDatabaseLocks().withReadLock(databaseName, () -> {
+            try {
+                exporter.export(database, output);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        });
+
+        // the body has been written
+        return "";
+    }
+
+    private Object importDatabase(final Request request, final Response response) throws IOException {
+
+        response.type("application/json");
+
+        final String databaseName = databaseNameFor(request);
+        final EntityRelModel erModel = thingifier.getERmodel();
+        final ERInstanceData imported = erModel.createEmptyInstanceData();
+        final NdjsonImporter importer = new NdjsonImporter(erModel.getSchema());
+
+        try(Reader input = new BufferedReader(
+                new InputStreamReader(request.raw().getInputStream(), StandardCharsets.UTF_8))){
+            importer.importInto(imported, input);
+        }catch(IllegalArgumentException e){
+            response.status(400);
+            return errorJson(e.getMessage());
+        }
+
+        erModel.getDatabaseLocks().withWriteLock(databaseName, () -> {
+            erModel.restoreInstanceDatabase(databaseName, imported);
+            return null;
+        });
+
+        final JsonObject summary = new JsonObject();
+        summary.addProperty("instances", importer.getInstancesImported());
+        summary.addProperty("relationships", importer.getRelationshipsImported());
+        response.status(200);
+        return summary.toString();
+    }
+
+    private String databaseNameFor(final Request request){
+        final String sessionHeaderValue = request.headers(ThingifierHttpApi.HTTP_SESSION_HEADER_NAME);
+        if(sessionHeaderValue==null || sessionHeaderValue.isEmpty()){
+            return EntityRelModel.DEFAULT_DATABASE_NAME;
+        }
+        return sessionHeaderValue;
+    }
+
+    private String errorJson(final String message){
+        final JsonArray messages = new JsonArray();
+        messages.add(message);
+        final JsonObject error = new JsonObject();
+        error.add("errorMessages", messages);
+        return error.toString();
+    }
+}
@@ -1,8 +1,12 @@
 package uk.co.compendiumdev.thingifier.application.httprouting;
 
+import spark.Request;
+import spark.Response;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.api.docgen.ApiRoutingDefinition;
 import uk.co.compendiumdev.thingifier.api.docgen.ApiRoutingDefinitionDocGenerator;
+import uk.co.compendiumdev.thingifier.api.docgen.DocumentationArtifact;
+import uk.co.compendiumdev.thingifier.api.docgen.DocumentationArtifactCache;
 import uk.co.compendiumdev.thingifier.api.docgen.ThingifierApiDocumentationDefn;
 import uk.co.compendiumdev.thingifier.htmlgui.htmlgen.DefaultGUIHTML;
 import uk.co.compendiumdev.thingifier.htmlgui.htmlgen.RestApiDocumentationGenerator;
@@ -12,25 +16,25 @@ import static spark.Spark.get;
 
 public class ThingifierAutoDocGenRouting {
 
+    private final Thingifier thingifier;
+    private final ThingifierApiDocumentationDefn apiDefn;
+    private final DefaultGUIHTML guiManagement;
+    private final DocumentationArtifactCache docsCache;
+
     public ThingifierAutoDocGenRouting(final Thingifier thingifier,
                                        ThingifierApiDocumentationDefn apiDefn,
                                        DefaultGUIHTML guiManagement) {
 
-
-        // configure it based on a thingifier
-        ApiRoutingDefinition routingDefinitions = new ApiRoutingDefinitionDocGenerator(thingifier).generate(apiDefn.getPathPrefix());
+        this.thingifier = thingifier;
+        this.apiDefn = apiDefn;
+        this.guiManagement = guiManagement;
+        this.docsCache = new DocumentationArtifactCache(apiDefn);
 
         // TODO: config to enable docs and configure the URL and add a meta tag for description and additional headers
         // / - default for documentation
         get("%s/docs".formatted(apiDefn.getPathPrefix()), (request, response) -> {
             response.type("text/html");
-            response.status(200);
-            return new RestApiDocumentationGenerator(thingifier, guiManagement).
-                    getApiDocumentation(
-                            routingDefinitions,
-                            apiDefn.getAdditionalRoutes(),
-                            apiDefn.getPathPrefix(),
-                            "%s/docs".formatted(apiDefn.getPathPrefix()));
+            return respondWithArtifact(request, response, getDocsHtml());
         });
 
         //guiManagement.appendMenuItem("API documentation","/docs");
@@ -40,21 +44,82 @@ public class ThingifierAutoDocGenRouting {
         // now that we have an api definition we should be able to generate swagger
         get("%s/docs/swagger".formatted(apiDefn.getPathPrefix()), (request, response) -> {
             response.type("text/html");
-            response.status(200);
-            String nameprefix = "";
-            try {
-                nameprefix = apiDefn.getThingifier().getTitle().replace(" ", "-") + "-";
-            }catch (Exception e){
-                // invalid apidefn setup
-                System.out.println("Possibly incomplete swagger generation, api not defined from model");
-            }
             response.header("Content-Type", "application/octet-stream");
             response.header("Content-Disposition",
-                    String.format("attachment; filename=\"%sswagger.json\"",nameprefix));
+                    String.format("attachment; filename=\"%sswagger.json\"",getSwaggerFileNamePrefix()));
+
+            return respondWithArtifact(request, response, getSwaggerJson());
+        });
+
+        get("%s/docs/swagger.yaml".formatted(apiDefn.getPathPrefix()), (request, response) -> {
+            response.type("application/yaml");
+            response.header("Content-Disposition",
+                    String.format("attachment; filename=\"%sswagger.yaml\"",getSwaggerFileNamePrefix()));
+
+            return respondWithArtifact(request, response, getSwaggerYaml());
+        });
+
+    }
+
+    private String respondWithArtifact(final Request request, final Response response,
+                                       final DocumentationArtifact artifact) {
+
+        response.header("ETag", artifact.getEtag());
 
-            // TODO: the swaggerizer could be stored at a class level and allow caching to be used for the output
-            return new Swaggerizer(apiDefn).asJson();
+        if(artifact.matchesEtag(request.headers("If-None-Match"))){
+            response.status(304);
+            return "";
+        }
+
+        response.status(200);
+        return artifact.getContent();
+    }
+
+    private String getSwaggerFileNamePrefix() {
+        String nameprefix = "";
+        try {
+            nameprefix = apiDefn.getThingifier().getTitle().replace(" ", "-") + "-";
+        }catch (Exception e){
+            // invalid apidefn setup
+            System.out.println("Possibly incomplete swagger generation, api not defined from model");
+        }
+        return nameprefix;
+    }
+
+    public DocumentationArtifact getDocsHtml(){
+        return docsCache.get(DocumentationArtifactCache.DOCS_HTML, () -> {
+            // configure it based on a thingifier
+            ApiRoutingDefinition routingDefinitions = new ApiRoutingDefinitionDocGenerator(thingifier).generate(apiDefn.getPathPrefix());
+            return new RestApiDocumentationGenerator(thingifier, guiManagement).
+                    getApiDocumentation(
+                            routingDefinitions,
+                            apiDefn.getAdditionalRoutes(),
+                            apiDefn.getPathPrefix(),
+                            "%s/docs".formatted(apiDefn.getPathPrefix()));
         });
+    }
+
+    public DocumentationArtifact getSwaggerJson(){
+        return docsCache.get(DocumentationArtifactCache.SWAGGER_JSON,
+                () -> new Swaggerizer(apiDefn).asJson());
+    }
+
+    public DocumentationArtifact getSwaggerYaml(){
+        return docsCache.get(DocumentationArtifactCache.SWAGGER_YAML,
+                () -> new Swaggerizer(apiDefn).asYaml());
+    }
+
+    /*
+        render all the documentation artifacts now, rather than on the first requests
+     */
+    public ThingifierAutoDocGenRouting prerender(){
+        getDocsHtml();
+        getSwaggerJson();
+        getSwaggerYaml();
+        return this;
+    }
 
+    public DocumentationArtifactCache getDocsCache() {
+        return docsCache;
     }
 }
@@ -1,5 +1,7 @@
 package uk.co.compendiumdev.thingifier.application.httprouting;
 
+import spark.Request;
+import spark.Response;
 import uk.co.compendiumdev.thingifier.Thingifier;
 import uk.co.compendiumdev.thingifier.api.docgen.ThingifierApiDocumentationDefn;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
@@ -10,12 +12,16 @@ import uk.co.compendiumdev.thingifier.api.docgen.RoutingDefinition;
 import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiRequestHook;
 import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiResponseHook;
 import uk.co.compendiumdev.thingifier.application.internalhttpconversion.*;
+import uk.co.compendiumdev.thingifier.application.metrics.RequestTimer;
 import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpRequestHook;
 import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.InternalHttpResponseHook;
 import uk.co.compendiumdev.thingifier.application.sparkhttpmessageHooks.SparkRequestResponseHook;
+import uk.co.compendiumdev.thingifier.core.profiling.HookEvent;
+import uk.co.compendiumdev.thingifier.core.profiling.ProfilingContext;
 import uk.co.compendiumdev.thingifier.spark.SimpleSparkRouteCreator;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 
 import static spark.Spark.*;
 
@@ -69,50 +75,18 @@ public class ThingifierHttpApiRoutings {
 //                }
 //            }
 
-            // Run any hooks at the Spark Request and Response level
-            if(preSparkHttpRequestHooks !=null){
-                for(SparkRequestResponseHook hook : preSparkHttpRequestHooks){
-                    // todo: catch exceptions and `halt`
-                    hook.run(request, response);
-                }
-            }
-
-            HttpApiRequest iRequest = SparkToHttpApiRequest.convert(request);
-            // now run the HttpApiRequestHook hooks on this iRequest
-            if(preInternalHttpRequestHooks !=null){
-                for(InternalHttpRequestHook hook : preInternalHttpRequestHooks){
-                    // todo: catch exceptions and `halt`
-                    hook.run(iRequest);
-                }
-            }
+            ProfilingContext.duringRequest(request.requestMethod(), request.pathInfo(), () -> {
+                runPreRequestHooks(request, response);
+                return null;
+            });
         });
 
         after((request, response) -> {
 
-            // now run the HttpApiResponseHook hooks
-            // on this iRequest and iResponse
-            HttpApiRequest iRequest = SparkToHttpApiRequest.convert(request);
-            InternalHttpResponse iResponse = SparkResponseToInternalHttpResponse.
-                                                   convert(response);
-
-            // now run the HttpApiRequestHook hooks on this iRequest
-            if(postInternalHttpResponseHooks !=null){
-                for(InternalHttpResponseHook hook : postInternalHttpResponseHooks){
-                    // todo: catch exceptions and `halt`
-                    hook.run(iRequest, iResponse);
-                }
-            }
-
-            SparkResponseToInternalHttpResponse.
-                    updateResponseFromInternal(response, iResponse);
-
-
-            if(postSparkHttpResponseHooks !=null){
-                for(SparkRequestResponseHook hook : postSparkHttpResponseHooks){
-                    // todo: catch exceptions and let the response return
-                    hook.run(request, response);
-                }
-            }
+            ProfilingContext.duringRequest(request.requestMethod(), request.pathInfo(), () -> {
+                runPostResponseHooks(request, response);
+                return null;
+            });
         });
 
 
@@ -124,38 +98,23 @@ public class ThingifierHttpApiRoutings {
             switch (defn.verb()) {
                 case GET:
                     if (defn.status().isReturnedFromCall()) {
-                        get(defn.url(), (request, response) -> {
-                            //return apiBridge.get(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
-                            // TODO: allow amending the request and the response at a request level from framework
-                            // .e.g
-                            // Add the Challenger GUID identifier as a Thingifier HTTP Session header
-                            // in a hook we could write - request.addHeader(HTTP_SESSION_HEADER_NAME, challenger.getXChallenger());
-                            //runAnyCustomHttpApiRequestAmendmentHooks(theRequest)
-                            final HttpApiResponse theResponse = apiBridge.get(theRequest);
-                            // TODO: similarly allow amending the response from the API
-                            return HttpApiResponseToSpark.convert(theResponse, response);
-                        });
+                        final Function<HttpApiRequest, HttpApiResponse> apiGet = apiBridge::get;
+                        get(defn.url(), (request, response) ->
+                                handleApiRequest(defn.url(), request, response, apiGet));
                     }
                     break;
                 case POST:
                     if (defn.status().isReturnedFromCall()) {
-                        post(defn.url(), (request, response) -> {
-                            //return apiBridge.post(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
-                            final HttpApiResponse theResponse = apiBridge.post(theRequest);
-                            return HttpApiResponseToSpark.convert(theResponse, response);
-                        });
+                        final Function<HttpApiRequest, HttpApiResponse> apiPost = apiBridge::post;
+                        post(defn.url(), (request, response) ->
+                                handleApiRequest(defn.url(), request, response, apiPost));
                     }
                     break;
                 case HEAD:
                     if (defn.status().isReturnedFromCall()) {
-                        head(defn.url(), (request, response) -> {
-                            //return apiBridge.head(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
-                            final HttpApiResponse theResponse = apiBridge.head(theRequest);
-                            return HttpApiResponseToSpark.convert(theResponse, response);
-                        });
+                        final Function<HttpApiRequest, HttpApiResponse> apiHead = apiBridge::head;
+                        head(defn.url(), (request, response) ->
+                                handleApiRequest(defn.url(), request, response, apiHead));
                     }
                     break;
                 case DELETE:
@@ -165,12 +124,9 @@ public class ThingifierHttpApiRoutings {
                             return "";
                         });
                     } else {
-                        delete(defn.url(), (request, response) -> {
-                            //return apiBridge.delete(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
-                            final HttpApiResponse theResponse = apiBridge.delete(theRequest);
-                            return HttpApiResponseToSpark.convert(theResponse, response);
-                        });
+                        final Function<HttpApiRequest, HttpApiResponse> apiDelete = apiBridge::delete;
+                        delete(defn.url(), (request, response) ->
+                                handleApiRequest(defn.url(), request, response, apiDelete));
                     }
                     break;
                 case PATCH:
@@ -188,12 +144,9 @@ public class ThingifierHttpApiRoutings {
                             return "";
                         });
                     } else {
-                        put(defn.url(), (request, response) -> {
-                            //return apiBridge.put(request, response);
-                            final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
-                            final HttpApiResponse theResponse = apiBridge.put(theRequest);
-                            return HttpApiResponseToSpark.convert(theResponse, response);
-                        });
+                        final Function<HttpApiRequest, HttpApiResponse> apiPut = apiBridge::put;
+                        put(defn.url(), (request, response) ->
+                                handleApiRequest(defn.url(), request, response, apiPut));
                     }
                     break;
                 case OPTIONS:
@@ -235,6 +188,13 @@ public class ThingifierHttpApiRoutings {
             });
         }
 
+        // Undocumented admin interface
+        if(thingifier.apiConfig().adminConfig().isAdminDataTransferAllowed()) {
+            new AdminDataTransferRouting(thingifier).configureRoutes(
+                    thingifier.apiConfig().adminConfig().getAdminDataExportUrl(),
+                    thingifier.apiConfig().adminConfig().getAdminDataImportUrl());
+        }
+
         // create an API end point level 404 handler
         if(apiDefn.getPathPrefix()!=null && !apiDefn.getPathPrefix().isEmpty()) {
             SimpleSparkRouteCreator.routeStatus(404, apiDefn.getPathPrefix() + "/*", true, List.of("head", "get", "options", "put", "post", "patch", "delete"));
@@ -242,6 +202,122 @@ public class ThingifierHttpApiRoutings {
 
     }
 
+    private void runPreRequestHooks(final Request request, final Response response){
+
+        final RequestTimer timer = RequestTimer.current();
+        final long hooksStarted = timer.mark();
+
+        // Run any hooks at the Spark Request and Response level
+        if(preSparkHttpRequestHooks !=null){
+            for(SparkRequestResponseHook hook : preSparkHttpRequestHooks){
+                // todo: catch exceptions and `halt`
+                final HookEvent event = new HookEvent();
+                event.begin();
+                hook.run(request, response);
+                event.end();
+                event.commitFor(hook, "spark request");
+            }
+        }
+
+        HttpApiRequest iRequest = SparkToHttpApiRequest.convert(request);
+        // now run the HttpApiRequestHook hooks on this iRequest
+        if(preInternalHttpRequestHooks !=null){
+            for(InternalHttpRequestHook hook : preInternalHttpRequestHooks){
+                // todo: catch exceptions and `halt`
+                final HookEvent event = new HookEvent();
+                event.begin();
+                hook.run(iRequest);
+                event.end();
+                event.commitFor(hook, "internal request");
+            }
+        }
+
+        timer.phase(RequestTimer.Phase.HOOKS, hooksStarted);
+    }
+
+    private void runPostResponseHooks(final Request request, final Response response){
+
+        final RequestTimer timer = RequestTimer.current();
+        final long hooksStarted = timer.mark();
+
+        // now run the HttpApiResponseHook hooks
+        // on this iRequest and iResponse
+        HttpApiRequest iRequest = SparkToHttpApiRequest.convert(request);
+        InternalHttpResponse iResponse = SparkResponseToInternalHttpResponse.
+                                               convert(response);
+
+        // now run the HttpApiRequestHook hooks on this iRequest
+        if(postInternalHttpResponseHooks !=null){
+            for(InternalHttpResponseHook hook : postInternalHttpResponseHooks){
+                // todo: catch exceptions and `halt`
+                final HookEvent event = new HookEvent();
+                event.begin();
+                hook.run(iRequest, iResponse);
+                event.end();
+                event.commitFor(hook, "internal response");
+            }
+        }
+
+        SparkResponseToInternalHttpResponse.
+                updateResponseFromInternal(response, iResponse);
+
+
+        if(postSparkHttpResponseHooks !=null){
+            for(SparkRequestResponseHook hook : postSparkHttpResponseHooks){
+                // todo: catch exceptions and let the response return
+                final HookEvent event = new HookEvent();
+                event.begin();
+                hook.run(request, response);
+                event.end();
+                event.commitFor(hook, "spark response");
+            }
+        }
+
+        timer.phase(RequestTimer.Phase.HOOKS, hooksStarted);
+    }
+
+    /*
+        convert the Spark request, process it through the API and convert the
+        response back to Spark, timing each phase for the route template, the
+        body is rendered by the API so the serialize phase here is only the
+        copy of the response to Spark
+     */
+    private String handleApiRequest(final String routeTemplate,
+                                    final Request request, final Response response,
+                                    final Function<HttpApiRequest, HttpApiResponse> apiCall){
+
+        return ProfilingContext.duringRequest(request.requestMethod(), request.pathInfo(), () ->
+                    timeApiRequest(routeTemplate, request, response, apiCall));
+    }
+
+    private String timeApiRequest(final String routeTemplate,
+                                  final Request request, final Response response,
+                                  final Function<HttpApiRequest, HttpApiResponse> apiCall){
+
+        final RequestTimer timer = RequestTimer.current();
+        timer.routed(routeTemplate);
+
+        long mark = timer.mark();
+        final HttpApiRequest theRequest = SparkToHttpApiRequest.convert(request);
+        mark = timer.phase(RequestTimer.Phase.PARSE, mark);
+
+        // TODO: allow amending the request and the response at a request level from framework
+        // .e.g
+        // Add the Challenger GUID identifier as a Thingifier HTTP Session header
+        // in a hook we could write - request.addHeader(HTTP_SESSION_HEADER_NAME, challenger.getXChallenger());
+        //runAnyCustomHttpApiRequestAmendmentHooks(theRequest)
+        // the api times its own hooks, query and rendering phases
+        final HttpApiResponse theResponse = apiCall.apply(theRequest);
+        // TODO: similarly allow amending the response from the API
+        mark = timer.mark();
+
+        final String body = HttpApiResponseToSpark.convert(theResponse, response);
+        timer.phase(RequestTimer.Phase.SERIALIZE, mark);
+
+        timer.payloads(theRequest.getBody(), body);
+        return body;
+    }
+
     public void registerPreRequestHook(final SparkRequestResponseHook hook) {
         // pre-request hooks run pre-every-request
         preSparkHttpRequestHooks.add(hook);
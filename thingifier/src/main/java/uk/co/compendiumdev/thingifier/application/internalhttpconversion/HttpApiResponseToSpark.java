@@ -3,7 +3,7 @@ package uk.co.compendiumdev.thingifier.application.internalhttpconversion;
 import spark.Response;
 import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
 
-import java.util.Set;
+import java.util.Map;
 
 public class HttpApiResponseToSpark {
 
@@ -21,9 +21,8 @@ public class HttpApiResponseToSpark {
             response.type(httpResponse.getType());
         }
 
-        final Set<String> keys = httpResponse.getHeaders().asMap().keySet();
-        for (String headerKey : keys) {
-            response.header(headerKey, httpResponse.getHeaders().get(headerKey));
+        for (Map.Entry<String, String> header : httpResponse.getHeaders().entries()) {
+            response.header(header.getKey(), header.getValue());
         }
     }
 }
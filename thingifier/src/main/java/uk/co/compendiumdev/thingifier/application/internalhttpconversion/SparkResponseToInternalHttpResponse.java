@@ -2,7 +2,7 @@ package uk.co.compendiumdev.thingifier.application.internalhttpconversion;
 
 import spark.Response;
 
-import java.util.Set;
+import java.util.Map;
 
 public class SparkResponseToInternalHttpResponse {
 
@@ -29,9 +29,8 @@ public class SparkResponseToInternalHttpResponse {
             response.type(httpResponse.getType());
         }
 
-        final Set<String> keys = httpResponse.getHeaders().asMap().keySet();
-        for (String headerKey : keys) {
-            response.raw().setHeader(headerKey, httpResponse.getHeaders().get(headerKey));
+        for (Map.Entry<String, String> header : httpResponse.getHeaders().entries()) {
+            response.raw().setHeader(header.getKey(), header.getValue());
         }
 
         response.body(httpResponse.getBody());
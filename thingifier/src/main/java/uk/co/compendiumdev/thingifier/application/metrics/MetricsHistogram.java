@@ -0,0 +1,121 @@
+package uk.co.compendiumdev.thingifier.application.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    A fixed size, log linear histogram in the style of HdrHistogram.
+
+    Values are counted in buckets, each power of two range is split into
+    16 linear sub buckets so any recorded value is reported to within
+    about 6% of the actual value. Values 0 to 15 are counted exactly.
+
+    All the buckets are allocated up front so recording a value does not
+    allocate, it is a bucket index calculation and an atomic increment,
+    which means it can be used on the request path by many threads.
+
+    Values above MAX_TRACKABLE_VALUE are counted in the highest bucket,
+    negative values are counted as 0.
+ */
+public class MetricsHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_MAGNITUDE = 36;
+
+    // for microseconds this is about 19 hours, for bytes 64GB
+    public static final long MAX_TRACKABLE_VALUE = (1L << MAX_MAGNITUDE) - 1;
+
+    private static final int BUCKETS = indexFor(MAX_TRACKABLE_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder totalSum = new LongAdder();
+    private final AtomicLong maxValue = new AtomicLong();
+
+    static int indexFor(final long value){
+
+        if(value < SUB_BUCKET_COUNT){
+            return (int)value;
+        }
+
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        final int subBucket = (int)(value >>> shift); // between SUB_BUCKET_COUNT and 2*SUB_BUCKET_COUNT-1
+
+        return ((shift + 1) * SUB_BUCKET_COUNT) + (subBucket - SUB_BUCKET_COUNT);
+    }
+
+    static long lowestValueAt(final int index){
+        if(index < SUB_BUCKET_COUNT){
+            return index;
+        }
+        final int shift = (index / SUB_BUCKET_COUNT) - 1;
+        final long subBucket = (index % SUB_BUCKET_COUNT) + SUB_BUCKET_COUNT;
+        return subBucket << shift;
+    }
+
+    static long highestValueAt(final int index){
+        return lowestValueAt(index + 1) - 1;
+    }
+
+    public void record(final long value){
+
+        final long trackable = value < 0 ? 0 : Math.min(value, MAX_TRACKABLE_VALUE);
+
+        counts.incrementAndGet(indexFor(trackable));
+        totalCount.increment();
+        totalSum.add(trackable);
+
+        long currentMax = maxValue.get();
+        while(trackable > currentMax && !maxValue.compareAndSet(currentMax, trackable)){
+            currentMax = maxValue.get();
+        }
+    }
+
+    public long getCount(){
+        return totalCount.sum();
+    }
+
+    public long getSum(){
+        return totalSum.sum();
+    }
+
+    public long getMax(){
+        return maxValue.get();
+    }
+
+    public long getMean(){
+        final long count = getCount();
+        if(count==0){
+            return 0;
+        }
+        return getSum() / count;
+    }
+
+    /*
+        the highest value, within the histogram precision, that the given
+        percentage of recorded values are less than or equal to
+     */
+    public long getValueAtPercentile(final double percentile){
+
+        final long count = getCount();
+        if(count==0){
+            return 0;
+        }
+
+        final double clamped = Math.max(0, Math.min(100, percentile));
+        final long countAtPercentile = Math.max(1, (long)Math.ceil((clamped / 100.0) * count));
+
+        long seen = 0;
+        for(int index=0; index<BUCKETS; index++){
+            seen = seen + counts.get(index);
+            if(seen >= countAtPercentile){
+                return Math.min(highestValueAt(index), getMax());
+            }
+        }
+
+        return getMax();
+    }
+}
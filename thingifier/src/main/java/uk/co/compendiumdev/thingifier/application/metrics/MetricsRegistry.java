@@ -0,0 +1,238 @@
+package uk.co.compendiumdev.thingifier.application.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+
+/*
+    Request metrics grouped by route template and verb, plus any registered gauges
+    e.g. the number of active sessions.
+
+    Recording looks up the route metrics without allocating, a RouteMetrics is only
+    created the first time a route template and verb is seen. Reporting, as
+    Prometheus text or json, is done on demand and can allocate.
+
+    Requests which were not routed through a template are grouped as OTHER_ROUTE
+    so that ids and GUIDs in urls do not create a metric per url.
+ */
+public class MetricsRegistry {
+
+    public static final String OTHER_ROUTE = "other";
+
+    private static final String[] VERBS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE", "OTHER"};
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final RequestTimer.Phase[] PHASES = RequestTimer.Phase.values();
+
+    private final Map<String, AtomicReferenceArray<RouteMetrics>> routes = new ConcurrentHashMap<>();
+    private final List<Gauge> gauges = new CopyOnWriteArrayList<>();
+
+    private static class Gauge {
+        final String name;
+        final String help;
+        final LongSupplier value;
+
+        Gauge(final String name, final String help, final LongSupplier value){
+            this.name = name;
+            this.help = help;
+            this.value = value;
+        }
+    }
+
+    public MetricsRegistry registerGauge(final String name, final String help, final LongSupplier value){
+        gauges.add(new Gauge(name, help, value));
+        return this;
+    }
+
+    static int verbIndex(final String verb){
+        if(verb==null){
+            return VERBS.length-1;
+        }
+        switch (verb){
+            case "GET": return 0;
+            case "HEAD": return 1;
+            case "POST": return 2;
+            case "PUT": return 3;
+            case "PATCH": return 4;
+            case "DELETE": return 5;
+            case "OPTIONS": return 6;
+            case "TRACE": return 7;
+            default: return VERBS.length-1;
+        }
+    }
+
+    public RouteMetrics routeMetricsFor(final String routeTemplate, final String verb){
+
+        final String template = routeTemplate==null ? OTHER_ROUTE : routeTemplate;
+
+        AtomicReferenceArray<RouteMetrics> byVerb = routes.get(template);
+        if(byVerb==null){
+            byVerb = routes.computeIfAbsent(template, (key) -> new AtomicReferenceArray<>(VERBS.length));
+        }
+
+        final int index = verbIndex(verb);
+        RouteMetrics metrics = byVerb.get(index);
+        if(metrics==null){
+            byVerb.compareAndSet(index, null, new RouteMetrics(template, VERBS[index]));
+            metrics = byVerb.get(index);
+        }
+        return metrics;
+    }
+
+    /* record the request timed on the current thread and reset the timer ready for the next request */
+    public void recordRequest(final String verb, final int statusCode){
+        final RequestTimer timer = RequestTimer.current();
+        if(!timer.isActive()){
+            return;
+        }
+        routeMetricsFor(timer.getRouteTemplate(), verb).record(timer, statusCode);
+        timer.reset();
+    }
+
+    public List<RouteMetrics> getRouteMetrics(){
+        List<RouteMetrics> all = new ArrayList<>();
+        for(AtomicReferenceArray<RouteMetrics> byVerb : routes.values()){
+            for(int index=0; index<byVerb.length(); index++){
+                final RouteMetrics metrics = byVerb.get(index);
+                if(metrics!=null){
+                    all.add(metrics);
+                }
+            }
+        }
+        all.sort((a, b) -> {
+            final int byRoute = a.getRouteTemplate().compareTo(b.getRouteTemplate());
+            return byRoute!=0 ? byRoute : a.getVerb().compareTo(b.getVerb());
+        });
+        return all;
+    }
+
+    /*
+        Prometheus text exposition format, latencies in microseconds as summaries
+     */
+    public String asPrometheusText(){
+
+        final List<RouteMetrics> all = getRouteMetrics();
+        StringBuilder output = new StringBuilder();
+
+        output.append("# HELP thingifier_requests_total Requests by route, verb and status class\n");
+        output.append("# TYPE thingifier_requests_total counter\n");
+        for(RouteMetrics metrics : all){
+            for(int statusClass=0; statusClass<RouteMetrics.STATUS_CLASSES.length; statusClass++){
+                output.append("thingifier_requests_total{").append(routeLabels(metrics)).
+                        append(",status=\"").append(RouteMetrics.STATUS_CLASSES[statusClass]).append("\"} ").
+                        append(metrics.getStatusClassCount(statusClass)).append("\n");
+            }
+        }
+
+        output.append("# HELP thingifier_request_latency_microseconds Request latency by route, verb and phase\n");
+        output.append("# TYPE thingifier_request_latency_microseconds summary\n");
+        for(RouteMetrics metrics : all){
+            appendSummary(output, "thingifier_request_latency_microseconds",
+                    routeLabels(metrics) + ",phase=\"total\"", metrics.getTotalLatency());
+            for(RequestTimer.Phase phase : PHASES){
+                appendSummary(output, "thingifier_request_latency_microseconds",
+                        routeLabels(metrics) + ",phase=\"" + phase.name().toLowerCase() + "\"",
+                        metrics.getPhaseLatency(phase));
+            }
+        }
+
+        output.append("# HELP thingifier_request_payload_bytes Request body sizes by route and verb\n");
+        output.append("# TYPE thingifier_request_payload_bytes summary\n");
+        for(RouteMetrics metrics : all){
+            appendSummary(output, "thingifier_request_payload_bytes", routeLabels(metrics), metrics.getRequestSizes());
+        }
+
+        output.append("# HELP thingifier_response_payload_bytes Response body sizes by route and verb\n");
+        output.append("# TYPE thingifier_response_payload_bytes summary\n");
+        for(RouteMetrics metrics : all){
+            appendSummary(output, "thingifier_response_payload_bytes", routeLabels(metrics), metrics.getResponseSizes());
+        }
+
+        for(Gauge gauge : gauges){
+            output.append("# HELP ").append(gauge.name).append(" ").append(gauge.help).append("\n");
+            output.append("# TYPE ").append(gauge.name).append(" gauge\n");
+            output.append(gauge.name).append(" ").append(gauge.value.getAsLong()).append("\n");
+        }
+
+        return output.toString();
+    }
+
+    private void appendSummary(final StringBuilder output, final String name,
+                               final String labels, final MetricsHistogram histogram){
+        for(double quantile : QUANTILES){
+            output.append(name).append("{").append(labels).
+                    append(",quantile=\"").append(quantile).append("\"} ").
+                    append(histogram.getValueAtPercentile(quantile*100)).append("\n");
+        }
+        output.append(name).append("_sum{").append(labels).append("} ").append(histogram.getSum()).append("\n");
+        output.append(name).append("_count{").append(labels).append("} ").append(histogram.getCount()).append("\n");
+    }
+
+    private String routeLabels(final RouteMetrics metrics){
+        return "route=\"" + escapeLabel(metrics.getRouteTemplate()) + "\",verb=\"" + metrics.getVerb() + "\"";
+    }
+
+    private String escapeLabel(final String value){
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    public String asJson(){
+
+        StringBuilder output = new StringBuilder();
+        output.append("{\"routes\":[");
+
+        String separator = "";
+        for(RouteMetrics metrics : getRouteMetrics()){
+            output.append(separator);
+            output.append("{\"route\":").append(quoted(metrics.getRouteTemplate())).
+                    append(",\"verb\":").append(quoted(metrics.getVerb())).
+                    append(",\"requests\":").append(metrics.getRequestCount());
+
+            output.append(",\"status\":{");
+            for(int statusClass=0; statusClass<RouteMetrics.STATUS_CLASSES.length; statusClass++){
+                output.append(statusClass==0 ? "" : ",").
+                        append(quoted(RouteMetrics.STATUS_CLASSES[statusClass])).append(":").
+                        append(metrics.getStatusClassCount(statusClass));
+            }
+            output.append("}");
+
+            output.append(",\"latencyMicros\":{\"total\":").append(histogramJson(metrics.getTotalLatency()));
+            for(RequestTimer.Phase phase : PHASES){
+                output.append(",").append(quoted(phase.name().toLowerCase())).append(":").
+                        append(histogramJson(metrics.getPhaseLatency(phase)));
+            }
+            output.append("}");
+
+            output.append(",\"requestBytes\":").append(histogramJson(metrics.getRequestSizes()));
+            output.append(",\"responseBytes\":").append(histogramJson(metrics.getResponseSizes()));
+            output.append("}");
+            separator = ",";
+        }
+        output.append("]");
+
+        output.append(",\"gauges\":{");
+        separator = "";
+        for(Gauge gauge : gauges){
+            output.append(separator).append(quoted(gauge.name)).append(":").append(gauge.value.getAsLong());
+            separator = ",";
+        }
+        output.append("}}");
+
+        return output.toString();
+    }
+
+    private String histogramJson(final MetricsHistogram histogram){
+        return String.format("{\"count\":%d,\"mean\":%d,\"p50\":%d,\"p90\":%d,\"p99\":%d,\"p999\":%d,\"max\":%d}",
+                histogram.getCount(), histogram.getMean(),
+                histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90),
+                histogram.getValueAtPercentile(99), histogram.getValueAtPercentile(99.9),
+                histogram.getMax());
+    }
+
+    private String quoted(final String value){
+        return "\"" + value.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -0,0 +1,113 @@
+package uk.co.compendiumdev.thingifier.application.metrics;
+
+/*
+    Timings for the request being processed on the current thread.
+
+    Spark runs the before filters, the route and the after filters for a
+    request on the same thread, so the timer is held in a ThreadLocal and
+    reset for each request, rather than creating an object per request.
+
+    The timer is only active when metrics are enabled and a request has been
+    started, when inactive the recording methods do nothing, so routes can
+    always call them.
+
+    Routes which know their template e.g. /todos/:id should call routed so
+    the metrics are grouped by template rather than by actual url.
+ */
+public final class RequestTimer {
+
+    public enum Phase {PARSE, QUERY, SERIALIZE, HOOKS}
+
+    private static final Phase[] PHASES = Phase.values();
+
+    private static final ThreadLocal<RequestTimer> timers = ThreadLocal.withInitial(RequestTimer::new);
+
+    public static RequestTimer current(){
+        return timers.get();
+    }
+
+    private boolean active;
+    private long startNanos;
+    private final long[] phaseNanos = new long[PHASES.length];
+    private String routeTemplate;
+    private long requestBytes;
+    private long responseBytes;
+
+    RequestTimer(){
+        reset();
+    }
+
+    public void start(){
+        reset();
+        active = true;
+        startNanos = System.nanoTime();
+    }
+
+    void reset(){
+        active = false;
+        startNanos = 0;
+        for(int phase=0; phase<phaseNanos.length; phase++){
+            phaseNanos[phase] = 0;
+        }
+        routeTemplate = null;
+        requestBytes = -1;
+        responseBytes = -1;
+    }
+
+    public boolean isActive(){
+        return active;
+    }
+
+    public void routed(final String aRouteTemplate){
+        if(active){
+            routeTemplate = aRouteTemplate;
+        }
+    }
+
+    /* the time to measure a phase from */
+    public long mark(){
+        return active ? System.nanoTime() : 0;
+    }
+
+    /* add the time since the mark to the phase and return a new mark */
+    public long phase(final Phase phase, final long sinceMark){
+        if(!active){
+            return 0;
+        }
+        final long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] += (now - sinceMark);
+        return now;
+    }
+
+    /* sizes are in characters, for the ascii json and xml payloads this is the byte count */
+    public void payloads(final String requestBody, final String responseBody){
+        if(active){
+            requestBytes = requestBody==null ? 0 : requestBody.length();
+            responseBytes = responseBody==null ? 0 : responseBody.length();
+        }
+    }
+
+    String getRouteTemplate(){
+        return routeTemplate;
+    }
+
+    long elapsedMicros(){
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+
+    long phaseMicros(final Phase phase){
+        return phaseNanos[phase.ordinal()] / 1000;
+    }
+
+    boolean wasPhaseTimed(final Phase phase){
+        return phaseNanos[phase.ordinal()] > 0;
+    }
+
+    long getRequestBytes(){
+        return requestBytes;
+    }
+
+    long getResponseBytes(){
+        return responseBytes;
+    }
+}
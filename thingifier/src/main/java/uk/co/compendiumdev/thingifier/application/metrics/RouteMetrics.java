@@ -0,0 +1,98 @@
+package uk.co.compendiumdev.thingifier.application.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+    The metrics for a single route template and verb e.g. GET /todos/:id
+
+    Phase latencies are only recorded when the route timed that phase,
+    so e.g. a halted request does not skew the serialize timings with 0s.
+ */
+public class RouteMetrics {
+
+    public static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+    // values() creates a new array each call, so keep one for the recording path
+    private static final RequestTimer.Phase[] PHASES = RequestTimer.Phase.values();
+
+    private final String routeTemplate;
+    private final String verb;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder[] statusClasses = new LongAdder[STATUS_CLASSES.length];
+
+    private final MetricsHistogram totalLatency = new MetricsHistogram();
+    private final MetricsHistogram[] phaseLatency = new MetricsHistogram[PHASES.length];
+    private final MetricsHistogram requestSizes = new MetricsHistogram();
+    private final MetricsHistogram responseSizes = new MetricsHistogram();
+
+    public RouteMetrics(final String routeTemplate, final String verb){
+        this.routeTemplate = routeTemplate;
+        this.verb = verb;
+
+        for(int statusClass=0; statusClass<statusClasses.length; statusClass++){
+            statusClasses[statusClass] = new LongAdder();
+        }
+        for(int phase=0; phase<phaseLatency.length; phase++){
+            phaseLatency[phase] = new MetricsHistogram();
+        }
+    }
+
+    void record(final RequestTimer timer, final int statusCode){
+
+        requests.increment();
+
+        final int statusClass = (statusCode / 100) - 1;
+        if(statusClass>=0 && statusClass<statusClasses.length){
+            statusClasses[statusClass].increment();
+        }
+
+        totalLatency.record(timer.elapsedMicros());
+
+        for(RequestTimer.Phase phase : PHASES){
+            if(timer.wasPhaseTimed(phase)){
+                phaseLatency[phase.ordinal()].record(timer.phaseMicros(phase));
+            }
+        }
+
+        if(timer.getRequestBytes()>=0){
+            requestSizes.record(timer.getRequestBytes());
+        }
+        if(timer.getResponseBytes()>=0){
+            responseSizes.record(timer.getResponseBytes());
+        }
+    }
+
+    public String getRouteTemplate(){
+        return routeTemplate;
+    }
+
+    public String getVerb(){
+        return verb;
+    }
+
+    public long getRequestCount(){
+        return requests.sum();
+    }
+
+    /* count of responses for the status class e.g. "4xx" */
+    public long getStatusClassCount(final int statusClassIndex){
+        return statusClasses[statusClassIndex].sum();
+    }
+
+    public MetricsHistogram getTotalLatency(){
+        return totalLatency;
+    }
+
+    public MetricsHistogram getPhaseLatency(final RequestTimer.Phase phase){
+        return phaseLatency[phase.ordinal()];
+    }
+
+    public MetricsHistogram getRequestSizes(){
+        return requestSizes;
+    }
+
+    public MetricsHistogram getResponseSizes(){
+        return responseSizes;
+    }
+}
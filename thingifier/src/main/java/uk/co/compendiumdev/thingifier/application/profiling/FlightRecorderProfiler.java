@@ -0,0 +1,157 @@
+package uk.co.compendiumdev.thingifier.application.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import uk.co.compendiumdev.thingifier.core.profiling.BodyParseEvent;
+import uk.co.compendiumdev.thingifier.core.profiling.HookEvent;
+import uk.co.compendiumdev.thingifier.core.profiling.PersistenceWriteEvent;
+import uk.co.compendiumdev.thingifier.core.profiling.QueryEvent;
+import uk.co.compendiumdev.thingifier.core.profiling.SerializeEvent;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/*
+    Start and stop a JDK Flight Recorder recording of the JVM, with the
+    Thingifier events enabled, and keep the last recording as a .jfr file
+    for download.
+
+    Only one recording at a time. The JDK settings 'default' has a low
+    overhead, 'profile' samples more and is intended for short recordings.
+
+    The recording is written to a temporary file which is deleted when the
+    next recording replaces it, when it is discarded, or when the JVM exits.
+ */
+public class FlightRecorderProfiler {
+
+    public static final List<String> SETTINGS = List.of("default", "profile");
+
+    private static final List<Class<? extends Event>> THINGIFIER_EVENTS = List.of(
+            QueryEvent.class, BodyParseEvent.class, SerializeEvent.class,
+            HookEvent.class, PersistenceWriteEvent.class);
+
+    private Recording recording;
+    private String recordingSettings;
+    private Path lastRecordingFile;
+
+    /* maxDuration of null or zero records until stopped */
+    public synchronized void start(final String settings, final Duration maxDuration){
+
+        if(isRecording()){
+            throw new IllegalStateException("A recording is already in progress, stop it first");
+        }
+
+        if(!SETTINGS.contains(settings)){
+            throw new IllegalArgumentException(
+                    String.format("Unknown recording settings %s, expected one of %s", settings, SETTINGS));
+        }
+
+        final Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException(
+                    String.format("Could not load recording settings %s: %s", settings, e.getMessage()), e);
+        }
+
+        discardRecording();
+
+        recording = new Recording(configuration);
+        recording.setName("thingifier");
+        recording.setToDisk(true);
+        for(Class<? extends Event> eventType : THINGIFIER_EVENTS){
+            recording.enable(eventType).withThreshold(Duration.ZERO);
+        }
+        if(maxDuration!=null && !maxDuration.isZero()){
+            recording.setDuration(maxDuration);
+        }
+        recordingSettings = settings;
+        recording.start();
+    }
+
+    /* stop the recording, or collect it if it already stopped after its duration, and return the file */
+    public synchronized Path stop(){
+
+        if(recording==null || recording.getState()==RecordingState.CLOSED){
+            throw new IllegalStateException("There is no recording to stop");
+        }
+
+        if(recording.getState()==RecordingState.RUNNING){
+            recording.stop();
+        }
+
+        try {
+            final Path recordedTo = Files.createTempFile("thingifier-", ".jfr");
+            recordedTo.toFile().deleteOnExit();
+            recording.dump(recordedTo);
+            deleteLastRecordingFile();
+            lastRecordingFile = recordedTo;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write the recording: " + e.getMessage(), e);
+        } finally {
+            recording.close();
+            recording = null;
+        }
+
+        return lastRecordingFile;
+    }
+
+    public synchronized boolean isRecording(){
+        return recording!=null && recording.getState()==RecordingState.RUNNING;
+    }
+
+    /* null if no recording has been stopped yet */
+    public synchronized Path getLastRecordingFile(){
+        return lastRecordingFile;
+    }
+
+    /* stop any recording and delete the last recording file */
+    public synchronized void discard(){
+        discardRecording();
+        deleteLastRecordingFile();
+        lastRecordingFile = null;
+    }
+
+    private void discardRecording(){
+        if(recording!=null){
+            recording.close();
+            recording = null;
+        }
+    }
+
+    private void deleteLastRecordingFile(){
+        if(lastRecordingFile!=null){
+            try {
+                Files.deleteIfExists(lastRecordingFile);
+            } catch (IOException e) {
+                System.out.println("Could not delete old recording " + lastRecordingFile + " " + e.getMessage());
+            }
+        }
+    }
+
+    public synchronized String asJson(){
+
+        String state = "none";
+        if(recording!=null){
+            state = recording.getState().name().toLowerCase();
+        }
+
+        long lastRecordingBytes = -1;
+        if(lastRecordingFile!=null){
+            try {
+                lastRecordingBytes = Files.size(lastRecordingFile);
+            } catch (IOException e) {
+                lastRecordingBytes = -1;
+            }
+        }
+
+        return String.format("{\"recording\":\"%s\",\"settings\":\"%s\",\"lastRecordingBytes\":%d}",
+                state, recordingSettings==null ? "" : recordingSettings, lastRecordingBytes);
+    }
+}
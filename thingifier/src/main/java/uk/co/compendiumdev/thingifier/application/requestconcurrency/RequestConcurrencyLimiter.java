@@ -0,0 +1,116 @@
+package uk.co.compendiumdev.thingifier.application.requestconcurrency;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    Limit the number of requests being processed at the same time and
+    keep track of the requests in flight.
+
+    A request enters before it is handled, and must exit when the response
+    has been sent. If the limit has been reached then the request waits up to
+    the configured time for a slot, after which it is rejected and should be
+    responded to as unavailable (503) rather than queue indefinitely.
+
+    maxConcurrentRequests of 0 or less means unlimited, the metrics are still
+    tracked.
+ */
+public class RequestConcurrencyLimiter {
+
+    public static final long DEFAULT_WAIT_MILLIS = 10000;
+
+    private final int maxConcurrentRequests;
+    private final long waitMillis;
+    private final Semaphore permits;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong totalRequests = new AtomicLong();
+    private final AtomicLong rejectedRequests = new AtomicLong();
+
+    public RequestConcurrencyLimiter(final int maxConcurrentRequests){
+        this(maxConcurrentRequests, DEFAULT_WAIT_MILLIS);
+    }
+
+    public RequestConcurrencyLimiter(final int maxConcurrentRequests, final long waitMillis){
+        this.maxConcurrentRequests = Math.max(0, maxConcurrentRequests);
+        this.waitMillis = Math.max(0, waitMillis);
+        this.permits = this.maxConcurrentRequests>0 ? new Semaphore(this.maxConcurrentRequests, true) : null;
+    }
+
+    /*
+        returns true if the request can be processed, in which case exit must be called
+        returns false if no slot became available in time
+     */
+    public boolean enter(){
+
+        if(permits!=null){
+            boolean acquired;
+            try {
+                acquired = permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+
+            if(!acquired){
+                rejectedRequests.incrementAndGet();
+                return false;
+            }
+        }
+
+        totalRequests.incrementAndGet();
+        final int current = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(current, Math::max);
+        return true;
+    }
+
+    public void exit(){
+        inFlight.decrementAndGet();
+        if(permits!=null){
+            permits.release();
+        }
+    }
+
+    public boolean isLimited(){
+        return permits!=null;
+    }
+
+    public int getMaxConcurrentRequests(){
+        return maxConcurrentRequests;
+    }
+
+    public int getInFlight(){
+        return inFlight.get();
+    }
+
+    public int getPeakInFlight(){
+        return peakInFlight.get();
+    }
+
+    public long getTotalRequests(){
+        return totalRequests.get();
+    }
+
+    public long getRejectedRequests(){
+        return rejectedRequests.get();
+    }
+
+    /* waiting for a slot, only an estimate since threads join and leave the queue */
+    public int getWaiting(){
+        if(permits==null){
+            return 0;
+        }
+        return permits.getQueueLength();
+    }
+
+    public String asJson(){
+        return String.format(
+                "{\"maxConcurrentRequests\":%d,\"inFlight\":%d,\"peakInFlight\":%d," +
+                "\"waiting\":%d,\"totalRequests\":%d,\"rejectedRequests\":%d}",
+                maxConcurrentRequests, getInFlight(), getPeakInFlight(),
+                getWaiting(), getTotalRequests(), getRejectedRequests());
+    }
+}
@@ -0,0 +1,77 @@
+package uk.co.compendiumdev.thingifier.application.routehandlers;
+
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingDefinition;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingStatus;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingVerb;
+import uk.co.compendiumdev.thingifier.application.metrics.MetricsRegistry;
+import uk.co.compendiumdev.thingifier.application.metrics.RequestTimer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static spark.Spark.afterAfter;
+import static spark.Spark.before;
+import static spark.Spark.get;
+
+/*
+    Time every request and record it in the metrics registry,
+    and expose the metrics as Prometheus text and json.
+
+    This should be configured before any other filters so that the time
+    spent in the other filters is included in the request latency.
+ */
+public class MetricsRouteHandler {
+
+    public static final String PROMETHEUS_URL = "/admin/metrics";
+    public static final String JSON_URL = "/admin/metrics/json";
+
+    private final MetricsRegistry metrics;
+    List<RoutingDefinition> routes;
+
+    public MetricsRouteHandler(final MetricsRegistry metrics){
+        this.metrics = metrics;
+        routes = new ArrayList<>();
+    }
+
+    public List<RoutingDefinition> getRoutes(){
+        return routes;
+    }
+
+    public MetricsRouteHandler configureRoutes() {
+
+        before((request, response) -> {
+            RequestTimer.current().start();
+        });
+
+        // afterAfter is called even when the request was halted or threw an exception
+        afterAfter((request, response) -> {
+            metrics.recordRequest(request.requestMethod(), response.status());
+        });
+
+        get(PROMETHEUS_URL, (request, response) -> {
+            response.type("text/plain; version=0.0.4");
+            response.status(200);
+            return metrics.asPrometheusText();
+        });
+
+        routes.add(new RoutingDefinition(
+                RoutingVerb.GET,
+                PROMETHEUS_URL,
+                RoutingStatus.returnedFromCall(),
+                null).addDocumentation("Show request counts, latencies and payload sizes by route in Prometheus text format"));
+
+        get(JSON_URL, (request, response) -> {
+            response.type("application/json");
+            response.status(200);
+            return metrics.asJson();
+        });
+
+        routes.add(new RoutingDefinition(
+                RoutingVerb.GET,
+                JSON_URL,
+                RoutingStatus.returnedFromCall(),
+                null).addDocumentation("Show request counts, latencies and payload sizes by route as json"));
+
+        return this;
+    }
+}
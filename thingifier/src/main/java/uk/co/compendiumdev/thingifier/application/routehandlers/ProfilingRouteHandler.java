@@ -0,0 +1,145 @@
+package uk.co.compendiumdev.thingifier.application.routehandlers;
+
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingDefinition;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingStatus;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingVerb;
+import uk.co.compendiumdev.thingifier.application.profiling.FlightRecorderProfiler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static spark.Spark.get;
+import static spark.Spark.post;
+
+/*
+    Admin routes to start and stop a Flight Recorder recording and download it
+    e.g.
+
+        POST /admin/profiling/start?settings=profile&seconds=60
+        POST /admin/profiling/stop
+        GET /admin/profiling/recording   the .jfr file, open with JDK Mission Control
+ */
+public class ProfilingRouteHandler {
+
+    public static final String STATUS_URL = "/admin/profiling";
+    public static final String START_URL = "/admin/profiling/start";
+    public static final String STOP_URL = "/admin/profiling/stop";
+    public static final String RECORDING_URL = "/admin/profiling/recording";
+
+    private final FlightRecorderProfiler profiler;
+    List<RoutingDefinition> routes;
+
+    public ProfilingRouteHandler(final FlightRecorderProfiler profiler){
+        this.profiler = profiler;
+        routes = new ArrayList<>();
+    }
+
+    public List<RoutingDefinition> getRoutes(){
+        return routes;
+    }
+
+    public ProfilingRouteHandler configureRoutes() {
+
+        get(STATUS_URL, (request, response) -> {
+            response.type("application/json");
+            response.status(200);
+            return profiler.asJson();
+        });
+
+        routes.add(new RoutingDefinition(
+                RoutingVerb.GET,
+                STATUS_URL,
+                RoutingStatus.returnedFromCall(),
+                null).addDocumentation("Show whether a Flight Recorder recording is in progress"));
+
+        post(START_URL, (request, response) -> {
+            response.type("application/json");
+
+            final String settings = request.queryParams("settings")==null ? "default" : request.queryParams("settings");
+
+            Duration maxDuration = Duration.ZERO;
+            if(request.queryParams("seconds")!=null){
+                try {
+                    maxDuration = Duration.ofSeconds(Math.max(0, Long.parseLong(request.queryParams("seconds"))));
+                }catch(NumberFormatException e){
+                    response.status(400);
+                    return errorJson("seconds must be a number");
+                }
+            }
+
+            try {
+                profiler.start(settings, maxDuration);
+            }catch(IllegalArgumentException e){
+                response.status(400);
+                return errorJson(e.getMessage());
+            }catch(IllegalStateException e){
+                response.status(409);
+                return errorJson(e.getMessage());
+            }
+
+            response.status(201);
+            return profiler.asJson();
+        });
+
+        routes.add(new RoutingDefinition(
+                RoutingVerb.POST,
+                START_URL,
+                RoutingStatus.returnedFromCall(),
+                null).addDocumentation("Start a Flight Recorder recording, ?settings=default|profile and optional ?seconds= to stop automatically"));
+
+        post(STOP_URL, (request, response) -> {
+            response.type("application/json");
+            try {
+                profiler.stop();
+            }catch(IllegalStateException e){
+                response.status(409);
+                return errorJson(e.getMessage());
+            }
+            response.status(200);
+            return profiler.asJson();
+        });
+
+        routes.add(new RoutingDefinition(
+                RoutingVerb.POST,
+                STOP_URL,
+                RoutingStatus.returnedFromCall(),
+                null).addDocumentation("Stop the Flight Recorder recording so that it can be downloaded"));
+
+        get(RECORDING_URL, (request, response) -> {
+            final Path recording = profiler.getLastRecordingFile();
+            if(recording==null || !Files.exists(recording)){
+                response.type("application/json");
+                response.status(404);
+                return errorJson("No recording available, start and stop a recording first");
+            }
+
+            try {
+                final byte[] contents = Files.readAllBytes(recording);
+                response.type("application/octet-stream");
+                response.header("Content-Disposition", "attachment; filename=\"thingifier.jfr\"");
+                response.status(200);
+                return contents;
+            }catch(IOException e){
+                response.type("application/json");
+                response.status(500);
+                return errorJson("Could not read recording " + e.getMessage());
+            }
+        });
+
+        routes.add(new RoutingDefinition(
+                RoutingVerb.GET,
+                RECORDING_URL,
+                RoutingStatus.returnedFromCall(),
+                null).addDocumentation("Download the last Flight Recorder recording as a .jfr file"));
+
+        return this;
+    }
+
+    private String errorJson(final String message){
+        return "{\"errorMessages\":[\"" + message.replace("\\", "\\\\").replace("\"", "\\\"") + "\"]}";
+    }
+}
@@ -0,0 +1,51 @@
+package uk.co.compendiumdev.thingifier.application.routehandlers;
+
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingDefinition;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingStatus;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingVerb;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static spark.Spark.get;
+
+/*
+    Report whether the server has finished starting, including any warm up,
+    e.g. for a load balancer, or to time startup. The routes respond before
+    then, but with a 503.
+ */
+public class ReadinessRouteHandler {
+
+    public static final String READY_URL = "/admin/ready";
+
+    private final BooleanSupplier isReady;
+    List<RoutingDefinition> routes;
+
+    public ReadinessRouteHandler(final BooleanSupplier isReady){
+        this.isReady = isReady;
+        routes = new ArrayList<>();
+    }
+
+    public List<RoutingDefinition> getRoutes(){
+        return routes;
+    }
+
+    public ReadinessRouteHandler configureRoutes() {
+
+        get(READY_URL, (request, response) -> {
+            final boolean ready = isReady.getAsBoolean();
+            response.type("application/json");
+            response.status(ready ? 200 : 503);
+            return String.format("{\"ready\":%b}", ready);
+        });
+
+        routes.add(new RoutingDefinition(
+                RoutingVerb.GET,
+                READY_URL,
+                RoutingStatus.returnedFromCall(),
+                null).addDocumentation("200 once the server has started and warmed up, 503 until then"));
+
+        return this;
+    }
+}
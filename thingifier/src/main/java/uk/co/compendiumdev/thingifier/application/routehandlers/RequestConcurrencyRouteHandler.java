@@ -0,0 +1,71 @@
+package uk.co.compendiumdev.thingifier.application.routehandlers;
+
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingDefinition;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingStatus;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingVerb;
+import uk.co.compendiumdev.thingifier.application.requestconcurrency.RequestConcurrencyLimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static spark.Spark.afterAfter;
+import static spark.Spark.before;
+import static spark.Spark.get;
+import static spark.Spark.halt;
+
+/*
+    Wrap every request with the concurrency limiter so that we can limit
+    the requests being processed and report on the requests in flight.
+ */
+public class RequestConcurrencyRouteHandler {
+
+    public static final String METRICS_URL = "/admin/metrics/requests";
+    private static final String ENTERED_ATTRIBUTE = "thingifier.requestconcurrency.entered";
+
+    private final RequestConcurrencyLimiter limiter;
+    List<RoutingDefinition> routes;
+
+    public RequestConcurrencyRouteHandler(final RequestConcurrencyLimiter limiter){
+        this.limiter = limiter;
+        routes = new ArrayList<>();
+    }
+
+    public List<RoutingDefinition> getRoutes(){
+        return routes;
+    }
+
+    public RequestConcurrencyRouteHandler configureRoutes(final boolean showMetrics) {
+
+        before((request, response) -> {
+            if(!limiter.enter()){
+                response.header("Retry-After", "1");
+                halt(503, "Server busy, please retry");
+            }
+            request.attribute(ENTERED_ATTRIBUTE, Boolean.TRUE);
+        });
+
+        // afterAfter is called even when the request was halted or threw an exception
+        afterAfter((request, response) -> {
+            if(request.attribute(ENTERED_ATTRIBUTE)!=null){
+                request.attribute(ENTERED_ATTRIBUTE, null);
+                limiter.exit();
+            }
+        });
+
+        if(showMetrics) {
+            get(METRICS_URL, (request, response) -> {
+                response.type("application/json");
+                response.status(200);
+                return limiter.asJson();
+            });
+
+            routes.add(new RoutingDefinition(
+                    RoutingVerb.GET,
+                    METRICS_URL,
+                    RoutingStatus.returnedFromCall(),
+                    null).addDocumentation("Show the number of requests in flight and request concurrency metrics"));
+        }
+
+        return this;
+    }
+}
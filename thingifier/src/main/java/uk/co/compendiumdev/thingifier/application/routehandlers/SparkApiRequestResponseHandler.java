@@ -9,6 +9,7 @@ import uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi;
 import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
 import uk.co.compendiumdev.thingifier.application.internalhttpconversion.HttpApiResponseToSpark;
 import uk.co.compendiumdev.thingifier.application.internalhttpconversion.SparkToHttpApiRequest;
+import uk.co.compendiumdev.thingifier.application.metrics.RequestTimer;
 import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
 
 public class SparkApiRequestResponseHandler {
@@ -40,7 +41,11 @@ public class SparkApiRequestResponseHandler {
 
     public String handle(){
 
+        final RequestTimer timer = RequestTimer.current();
+        long mark = timer.mark();
+
         final HttpApiRequest myRequest = SparkToHttpApiRequest.convert(request);
+        mark = timer.phase(RequestTimer.Phase.PARSE, mark);
 
         final JsonThing jsonThing = new JsonThing(thingifier.apiConfig().jsonOutput());
 
@@ -52,6 +57,7 @@ public class SparkApiRequestResponseHandler {
             httpApiResponse = httpApi.validateRequestSyntax(myRequest,
                     ThingifierHttpApi.HttpVerb.GET);
         }
+        mark = timer.phase(RequestTimer.Phase.PARSE, mark);
 
         if(httpApiResponse == null) {
             apiResponse = handler.handle(myRequest);
@@ -59,7 +65,13 @@ public class SparkApiRequestResponseHandler {
             httpApiResponse = new HttpApiResponse(myRequest.getHeaders(), apiResponse,
                     jsonThing, thingifier.apiConfig());
         }
+        mark = timer.phase(RequestTimer.Phase.QUERY, mark);
+
+        // the body is rendered when converted, so that is the serialize phase
+        final String body = HttpApiResponseToSpark.convert(httpApiResponse, response);
+        timer.phase(RequestTimer.Phase.SERIALIZE, mark);
+        timer.payloads(myRequest.getBody(), body);
 
-        return HttpApiResponseToSpark.convert(httpApiResponse, response);
+        return body;
     }
 }
@@ -0,0 +1,200 @@
+package uk.co.compendiumdev.thingifier.application.startup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/*
+    Coordinated Restore at Checkpoint (CRaC) support, so a fully started
+    and warmed up application (compiled schema, rendered documentation,
+    populated databases) can be checkpointed by a CRaC enabled JVM and
+    restored in milliseconds rather than started from scratch.
+
+    The CRaC api is not a build dependency, the org.crac or jdk.crac
+    classes are found by reflection and, when neither is available or the
+    JVM was not started with -XX:CRaCCheckpointTo, checkpointing is not
+    supported and the application starts normally.
+
+    Anything holding open files or sockets registers a named resource to
+    close them before the checkpoint and reopen them after a restore.
+    Resources are closed in the reverse order of registration and reopened
+    in the order of registration, so register the web server last.
+ */
+public class CheckpointRestore {
+
+    private static final String[] CRAC_PACKAGES = {"org.crac", "jdk.crac"};
+
+    private final List<Resource> resources;
+    private final StartupTimer timer;
+    private Class<?> core;
+    // crac only holds weak references to resources so keep our own
+    private Object registeredResource;
+    private int restores;
+    private long lastRestoreNanos;
+
+    public CheckpointRestore(final StartupTimer timer){
+        this.timer = timer;
+        this.resources = new ArrayList<>();
+    }
+
+    /* true when a crac api is available and the jvm can write a checkpoint */
+    public static boolean isSupportedByJvm(){
+        return findCracCore()!=null && isCheckpointLocationConfigured();
+    }
+
+    private static boolean isCheckpointLocationConfigured(){
+        for(String jvmArg : ManagementFactory.getRuntimeMXBean().getInputArguments()){
+            if(jvmArg.startsWith("-XX:CRaCCheckpointTo")){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Class<?> findCracCore(){
+        for(String cracPackage : CRAC_PACKAGES){
+            try{
+                return Class.forName(cracPackage + ".Core");
+            }catch(ClassNotFoundException | LinkageError e){
+                // try the next api
+            }
+        }
+        return null;
+    }
+
+    public synchronized CheckpointRestore register(final String name,
+                                                   final Runnable beforeCheckpoint,
+                                                   final Runnable afterRestore){
+        resources.add(new Resource(name, beforeCheckpoint, afterRestore));
+        return this;
+    }
+
+    public synchronized int countResources(){
+        return resources.size();
+    }
+
+    public synchronized int countRestores(){
+        return restores;
+    }
+
+    /*
+        Register with the CRaC global context so the resources are closed
+        and reopened however the checkpoint is triggered, including with
+        jcmd <pid> JDK.checkpoint. Returns false if CRaC is not available.
+     */
+    public synchronized boolean enable(){
+        if(registeredResource!=null){
+            return true;
+        }
+
+        core = findCracCore();
+        if(core==null){
+            return false;
+        }
+
+        try{
+            final String cracPackage = core.getPackageName();
+            final Class<?> resourceInterface = Class.forName(cracPackage + ".Resource");
+            final Class<?> contextClass = Class.forName(cracPackage + ".Context");
+
+            final Object resource = Proxy.newProxyInstance(
+                    resourceInterface.getClassLoader(),
+                    new Class<?>[]{resourceInterface},
+                    (proxy, method, args) -> {
+                        switch (method.getName()){
+                            case "beforeCheckpoint":
+                                beforeCheckpoint();
+                                return null;
+                            case "afterRestore":
+                                afterRestore();
+                                return null;
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            case "equals":
+                                return proxy==args[0];
+                            case "toString":
+                                return "thingifier checkpoint resources";
+                            default:
+                                return null;
+                        }
+                    });
+
+            final Object context = core.getMethod("getGlobalContext").invoke(null);
+            final Method register = contextClass.getMethod("register", resourceInterface);
+            register.invoke(context, resource);
+            registeredResource = resource;
+            return true;
+
+        }catch(ReflectiveOperationException | LinkageError e){
+            System.out.println("Could not register for checkpoint and restore: " + e.getMessage());
+            core = null;
+            return false;
+        }
+    }
+
+    /*
+        Checkpoint now, the call returns in the restored process, or in this
+        process if the checkpoint failed. Returns true if the process was
+        restored from the checkpoint.
+     */
+    public boolean checkpoint(){
+        if(!enable()){
+            throw new IllegalStateException("Checkpoint and restore is not supported by this JVM");
+        }
+
+        final int restoresBefore = countRestores();
+        try{
+            core.getMethod("checkpointRestore").invoke(null);
+        }catch(InvocationTargetException e){
+            // e.g. an open file or socket which was not closed, the application keeps running
+            System.out.println("Checkpoint failed: " + e.getCause());
+        }catch(ReflectiveOperationException e){
+            throw new IllegalStateException("Could not checkpoint: " + e.getMessage(), e);
+        }
+        return countRestores() > restoresBefore;
+    }
+
+    void beforeCheckpoint(){
+        final List<Resource> closing = resourcesInOrder();
+        for(int index = closing.size()-1; index>=0; index--){
+            final Resource resource = closing.get(index);
+            timer.time("checkpoint: close " + resource.name, resource.beforeCheckpoint);
+        }
+    }
+
+    void afterRestore(){
+        final long started = System.nanoTime();
+        for(Resource resource : resourcesInOrder()){
+            timer.time("restore: reopen " + resource.name, resource.afterRestore);
+        }
+        synchronized (this){
+            restores++;
+            lastRestoreNanos = System.nanoTime() - started;
+        }
+    }
+
+    /* how long the last restore took to reopen the resources */
+    public synchronized long getLastRestoreMillis(){
+        return TimeUnit.NANOSECONDS.toMillis(lastRestoreNanos);
+    }
+
+    private synchronized List<Resource> resourcesInOrder(){
+        return List.copyOf(resources);
+    }
+
+    private static final class Resource {
+        private final String name;
+        private final Runnable beforeCheckpoint;
+        private final Runnable afterRestore;
+
+        private Resource(final String name, final Runnable beforeCheckpoint, final Runnable afterRestore){
+            this.name = name;
+            this.beforeCheckpoint = beforeCheckpoint;
+            this.afterRestore = afterRestore;
+        }
+    }
+}
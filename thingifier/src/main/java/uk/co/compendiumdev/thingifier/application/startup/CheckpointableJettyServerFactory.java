@@ -0,0 +1,72 @@
+package uk.co.compendiumdev.thingifier.application.startup;
+
+import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.util.thread.ThreadPool;
+import spark.embeddedserver.EmbeddedServers;
+import spark.embeddedserver.jetty.EmbeddedJettyFactory;
+import spark.embeddedserver.jetty.JettyServerFactory;
+
+/*
+    Creates the Jetty server for Spark the same way the Spark default does,
+    but keeps hold of it so the listening sockets can be closed before a
+    checkpoint and opened again after a restore. The routes, thread pool
+    and handlers stay configured, only the connectors are stopped.
+
+    Must be used before the first Spark route is added.
+ */
+public class CheckpointableJettyServerFactory implements JettyServerFactory {
+
+    private volatile Server server;
+
+    public CheckpointableJettyServerFactory useForSpark(){
+        EmbeddedServers.add(EmbeddedServers.Identifiers.JETTY, new EmbeddedJettyFactory(this));
+        return this;
+    }
+
+    @Override
+    public Server create(final int maxThreads, final int minThreads, final int threadTimeoutMillis) {
+        if(maxThreads > 0){
+            // same defaults as spark
+            final int min = minThreads > 0 ? minThreads : 8;
+            final int idleTimeout = threadTimeoutMillis > 0 ? threadTimeoutMillis : 60000;
+            server = new Server(new QueuedThreadPool(maxThreads, min, idleTimeout));
+        }else{
+            server = new Server();
+        }
+        return server;
+    }
+
+    @Override
+    public Server create(final ThreadPool threadPool) {
+        server = threadPool==null ? new Server() : new Server(threadPool);
+        return server;
+    }
+
+    public void closeConnectors(){
+        if(server==null){
+            return;
+        }
+        for(Connector connector : server.getConnectors()){
+            try{
+                connector.stop();
+            }catch(Exception e){
+                throw new IllegalStateException("Could not close connector: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    public void openConnectors(){
+        if(server==null){
+            return;
+        }
+        for(Connector connector : server.getConnectors()){
+            try{
+                connector.start();
+            }catch(Exception e){
+                throw new IllegalStateException("Could not open connector: " + e.getMessage(), e);
+            }
+        }
+    }
+}
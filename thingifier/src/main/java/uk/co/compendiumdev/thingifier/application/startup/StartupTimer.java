@@ -0,0 +1,108 @@
+package uk.co.compendiumdev.thingifier.application.startup;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+    Records how long each phase of starting the application takes so that
+    a report can show where the boot time goes, from the JVM starting
+    to the server being ready.
+ */
+public class StartupTimer {
+
+    private final List<Phase> phases;
+    private final long createdNanos;
+    private long readyNanos;
+    private long jvmUptimeAtReadyMillis;
+    private int classesLoadedAtReady;
+    private String mode;
+
+    public StartupTimer(){
+        phases = new ArrayList<>();
+        createdNanos = System.nanoTime();
+        readyNanos = -1;
+        mode = "standard";
+    }
+
+    /* e.g. standard, appcds, so timings from different modes can be compared */
+    public synchronized void setMode(final String mode){
+        this.mode = mode;
+    }
+
+    public void time(final String phaseName, final Runnable phase){
+        time(phaseName, () -> {
+            phase.run();
+            return null;
+        });
+    }
+
+    public <T> T time(final String phaseName, final Supplier<T> phase){
+        final long started = System.nanoTime();
+        try{
+            return phase.get();
+        }finally {
+            record(phaseName, System.nanoTime() - started);
+        }
+    }
+
+    public synchronized void record(final String phaseName, final long durationNanos){
+        phases.add(new Phase(phaseName, durationNanos));
+    }
+
+    public synchronized void ready(){
+        readyNanos = System.nanoTime();
+        jvmUptimeAtReadyMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+        classesLoadedAtReady = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+    }
+
+    public synchronized boolean isReady(){
+        return readyNanos!=-1;
+    }
+
+    public synchronized List<Phase> getPhases(){
+        return List.copyOf(phases);
+    }
+
+    public synchronized List<String> report(){
+        final List<String> lines = new ArrayList<>();
+        final long totalNanos = (readyNanos==-1 ? System.nanoTime() : readyNanos) - createdNanos;
+
+        lines.add("Startup timing report");
+        lines.add(String.format("  %-40s %s", "startup mode", mode));
+        for(Phase phase : phases){
+            lines.add(String.format("  %-40s %7d ms %5.1f%%",
+                    phase.getName(), phase.getMillis(),
+                    totalNanos==0 ? 0.0 : phase.durationNanos * 100.0 / totalNanos));
+        }
+        lines.add(String.format("  %-40s %7d ms", "application start to ready",
+                TimeUnit.NANOSECONDS.toMillis(totalNanos)));
+
+        if(readyNanos!=-1){
+            lines.add(String.format("  %-40s %7d ms", "jvm start to ready", jvmUptimeAtReadyMillis));
+            lines.add(String.format("  %-40s %7d", "classes loaded when ready", classesLoadedAtReady));
+        }
+        return lines;
+    }
+
+    public static final class Phase {
+
+        private final String name;
+        private final long durationNanos;
+
+        private Phase(final String name, final long durationNanos){
+            this.name = name;
+            this.durationNanos = durationNanos;
+        }
+
+        public String getName(){
+            return name;
+        }
+
+        public long getMillis(){
+            return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        }
+    }
+}
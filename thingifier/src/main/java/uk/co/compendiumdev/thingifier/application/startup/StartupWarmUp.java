@@ -0,0 +1,59 @@
+package uk.co.compendiumdev.thingifier.application.startup;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    The named tasks run once the routes are configured and before the
+    server reports that it is ready e.g. exercising the api, rendering
+    content pages, populating a database.
+
+    Each task is timed in the startup report. A task which fails is
+    reported and the remaining tasks still run, a failed warm up only
+    means the first real requests are slower.
+ */
+public class StartupWarmUp {
+
+    private final List<Task> tasks;
+    private final List<String> failures;
+
+    public StartupWarmUp(){
+        tasks = new ArrayList<>();
+        failures = new ArrayList<>();
+    }
+
+    public StartupWarmUp addTask(final String name, final Runnable task){
+        tasks.add(new Task(name, task));
+        return this;
+    }
+
+    public int countTasks(){
+        return tasks.size();
+    }
+
+    public void run(final StartupTimer timer){
+        for(Task task : tasks){
+            timer.time("warm up: " + task.name, () -> {
+                try{
+                    task.task.run();
+                }catch(RuntimeException e){
+                    failures.add(String.format("%s - %s", task.name, e.getMessage()));
+                }
+            });
+        }
+    }
+
+    public List<String> getFailures(){
+        return List.copyOf(failures);
+    }
+
+    private static final class Task {
+        private final String name;
+        private final Runnable task;
+
+        private Task(final String name, final Runnable task){
+            this.name = name;
+            this.task = task;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package uk.co.compendiumdev.thingifier.application.startup;
+
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.docgen.ApiRoutingDefinitionDocGenerator;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingDefinition;
+import uk.co.compendiumdev.thingifier.api.docgen.RoutingVerb;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
+import uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/*
+    Send a synthetic request to every api route template through the
+    ThingifierHttpApi, so the classes, parsers and response generation
+    used by real requests are loaded and exercised before the server
+    reports that it is ready.
+
+    The requests use their own database, populated with the default data
+    and deleted afterwards, so the warm up does not change any data that
+    users can see. No request or response hooks are used.
+ */
+public class ThingifierApiWarmUp {
+
+    // the order the verbs are sent in, deletes last so the other requests have data
+    private static final List<RoutingVerb> VERB_ORDER = List.of(
+            RoutingVerb.GET, RoutingVerb.HEAD, RoutingVerb.POST, RoutingVerb.PUT, RoutingVerb.DELETE);
+
+    private final Thingifier thingifier;
+    private final String apiPathPrefix;
+    private int requestsSent;
+    private int requestsFailed;
+
+    public ThingifierApiWarmUp(final Thingifier thingifier, final String apiPathPrefix){
+        this.thingifier = thingifier;
+        this.apiPathPrefix = apiPathPrefix==null ? "" : apiPathPrefix;
+    }
+
+    /* returns the number of requests sent */
+    public int exerciseRoutes(){
+
+        final String database = "warm-up-" + UUID.randomUUID();
+        final ThingifierHttpApi api = new ThingifierHttpApi(thingifier);
+
+        final List<RoutingDefinition> routes = new ArrayList<>(
+                new ApiRoutingDefinitionDocGenerator(thingifier).generate(apiPathPrefix).definitions());
+
+        thingifier.ensureCreatedAndPopulatedInstanceDatabaseNamed(database);
+        try{
+            for(RoutingVerb verb : VERB_ORDER){
+                for(RoutingDefinition route : routes){
+                    if(route.verb()==verb && route.status().isReturnedFromCall()){
+                        send(api, verb, route.url(), database, "application/json");
+                        if(verb==RoutingVerb.GET){
+                            send(api, verb, route.url(), database, "application/xml");
+                        }
+                    }
+                }
+            }
+        }finally {
+            thingifier.getERmodel().deleteInstanceDatabase(database);
+        }
+
+        return requestsSent;
+    }
+
+    private void send(final ThingifierHttpApi api, final RoutingVerb verb, final String urlTemplate,
+                      final String database, final String accept){
+
+        final HttpApiRequest request = new HttpApiRequest(pathFor(urlTemplate)).
+                setVerb(verb.name()).
+                addHeader(ThingifierHttpApi.HTTP_SESSION_HEADER_NAME, database).
+                addHeader("accept", accept).
+                addHeader("content-type", "application/json");
+
+        if(verb==RoutingVerb.POST || verb==RoutingVerb.PUT){
+            request.setBody("{}");
+        }
+
+        requestsSent++;
+        try{
+            final HttpApiResponse response = sendTo(api, verb, request);
+            if(response!=null){
+                // render the body as a real response would be
+                response.getBody();
+            }
+        }catch(RuntimeException e){
+            // the warm up must not stop the server starting
+            requestsFailed++;
+        }
+    }
+
+    private HttpApiResponse sendTo(final ThingifierHttpApi api, final RoutingVerb verb,
+                                   final HttpApiRequest request){
+        switch (verb){
+            case GET:
+                return api.get(request);
+            case HEAD:
+                return api.head(request);
+            case POST:
+                return api.post(request);
+            case PUT:
+                return api.put(request);
+            case DELETE:
+                return api.delete(request);
+            default:
+                return null;
+        }
+    }
+
+    /* templates like todos/:id/categories are sent as /todos/1/categories */
+    private String pathFor(final String urlTemplate){
+        final String[] segments = urlTemplate.split("/");
+        for(int segment=0; segment<segments.length; segment++){
+            // ? is used when the entity has no unique id field
+            if(segments[segment].startsWith(":") || segments[segment].equals("?")){
+                segments[segment] = "1";
+            }
+        }
+        final String path = String.join("/", segments);
+        return path.startsWith("/") ? path : "/" + path;
+    }
+
+    public int getRequestsSent(){
+        return requestsSent;
+    }
+
+    public int getRequestsFailed(){
+        return requestsFailed;
+    }
+}
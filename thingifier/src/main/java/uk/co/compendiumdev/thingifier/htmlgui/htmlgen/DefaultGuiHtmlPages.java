@@ -13,8 +13,10 @@ import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.F
 import uk.co.compendiumdev.thingifier.core.domain.definitions.relationship.RelationshipVectorDefinition;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
 import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public class DefaultGuiHtmlPages {
@@ -93,8 +95,13 @@ public class DefaultGuiHtmlPages {
     }
 
     public String getInstancesListPage(String database, String entityName) {
-        StringBuilder html = new StringBuilder();
+        return getInstancesListPage(database, entityName, new QueryFilterParams());
+    }
 
+    /* only the requested page of instances is rendered */
+    public String getInstancesListPage(String database, String entityName, QueryFilterParams params) {
+
+        StringBuilder html = new StringBuilder();
         html.append(templates.getPageStart(
                 entityName + " Instances",
                 "<meta name='robots' content='noindex'>", "%s/instances".formatted(urlPathPrefix)));
@@ -143,16 +150,25 @@ public class DefaultGuiHtmlPages {
 
                     final EntityDefinition definition = thing.definition();
 
+                    final InstanceListPaging paging = new InstanceListPaging(params);
+                    final List<EntityInstance> pageOfInstances = paging.pageOf(thing.getInstances());
+
                     html.append("<h2>" + definition.getPlural() + "</h2>");
 
-                    html.append(startHtmlTableFor(definition));
+                    html.append(pagingNavigationHtml(definition, database, paging));
+
+                    html.append(startHtmlTableFor(definition, database, paging));
 
-                    for (EntityInstance instance : thing.getInstances()) {
+                    for (EntityInstance instance : pageOfInstances) {
                         html.append(htmlTableRowFor(instance, database));
                     }
 
                     html.append("</tbody>");
                     html.append("</table>");
+
+                    if(paging.getPageCount()>1){
+                        html.append(pagingNavigationHtml(definition, database, paging));
+                    }
                 } catch (Exception e) {
                     htmlErrorMessage = htmlErrorMessage + "<p>Rendering Error: " + HtmlUtils.sanitise(e.getMessage()) + "</p>";
                 }
@@ -167,25 +183,79 @@ public class DefaultGuiHtmlPages {
         return html.toString();
     }
 
+    private String instancesListUrl(final EntityDefinition definition, final String database, final String params){
+        return "%s/instances?entity=%s%s%s".formatted(urlPathPrefix, definition.getName(), databaseParam(database), params);
+    }
 
-    private String startHtmlTableFor(final EntityDefinition definition) {
+    private String pagingNavigationHtml(final EntityDefinition definition, final String database, final InstanceListPaging paging) {
         StringBuilder html = new StringBuilder();
+        final int page = paging.getPage();
+        final int lastPage = paging.getPageCount();
 
+        html.append("<p class='paging'>");
+        html.append("Showing %d to %d of %d %s. ".formatted(
+                paging.getFirstShown(), paging.getLastShown(), paging.getTotalCount(), definition.getPlural()));
+
+        if(lastPage>1) {
+            if (page > 1) {
+                html.append("<a href='%s'>first</a> ".formatted(instancesListUrl(definition, database, paging.asUrlParams(1, null))));
+                html.append("<a href='%s'>previous</a> ".formatted(instancesListUrl(definition, database, paging.asUrlParams(page - 1, null))));
+            }
+            html.append("Page %d of %d".formatted(page, lastPage));
+            if (page < lastPage) {
+                html.append(" <a href='%s'>next</a>".formatted(instancesListUrl(definition, database, paging.asUrlParams(page + 1, null))));
+                html.append(" <a href='%s'>last</a>".formatted(instancesListUrl(definition, database, paging.asUrlParams(lastPage, null))));
+            }
+        }
+        html.append("</p>");
+        return html.toString();
+    }
 
-        html.append("<p id='%1$sentitytabledescription'>All instances for the %1$s entity are shown in the table below.<p>".formatted(definition.getPlural()));
+    /* sortable column heading, clicking a sorted column reverses the sort order */
+    private String sortableHeading(final EntityDefinition definition, final String database, final InstanceListPaging paging, final String field){
+        if(paging==null){
+            return String.format("<th>%s</th>", field);
+        }
+
+        String sortBy = "+" + field;
+        String indicator = "";
+        if(paging.getSortBy().equals(field) || paging.getSortBy().equals("+" + field)){
+            sortBy = "-" + field;
+            indicator = " &#9650;";
+        }else if(paging.getSortBy().equals("-" + field)){
+            indicator = " &#9660;";
+        }
+
+        return String.format("<th><a href='%s'>%s</a>%s</th>",
+                instancesListUrl(definition, database, paging.asUrlParams(1, sortBy)), field, indicator);
+    }
+
+
+    private String startHtmlTableFor(final EntityDefinition definition) {
+        return startHtmlTableFor(definition, null, null);
+    }
+
+    private String startHtmlTableFor(final EntityDefinition definition, final String database, final InstanceListPaging paging) {
+        StringBuilder html = new StringBuilder();
+
+        if(paging==null || paging.getPageCount()==1) {
+            html.append("<p id='%1$sentitytabledescription'>All instances for the %1$s entity are shown in the table below.<p>".formatted(definition.getPlural()));
+        }else{
+            html.append("<p id='%1$sentitytabledescription'>Page %2$d of %3$d of the instances for the %1$s entity are shown in the table below.<p>".formatted(definition.getPlural(), paging.getPage(), paging.getPageCount()));
+        }
         html.append("<table  aria-label='%1$s Instance Details' aria-describedby='%1$sentitytabledescription'>".formatted(definition.getPlural()));
         html.append("<thead>");
         html.append("<tr>");
         // guid first
         if(definition.hasPrimaryKeyField()) {
-            html.append(String.format("<th>%s</th>", definition.getPrimaryKeyField().getName()));
+            html.append(sortableHeading(definition, database, paging, definition.getPrimaryKeyField().getName()));
         }
         // then any ids
         for(String field : definition.getFieldNames()) {
             Field theField = definition.getField(field);
             if (theField!=definition.getPrimaryKeyField()){
                 if (theField.getType()== FieldType.AUTO_INCREMENT || theField.getType()==FieldType.AUTO_GUID){
-                    html.append(String.format("<th>%s</th>", field));
+                    html.append(sortableHeading(definition, database, paging, field));
                 }
             }
         }
@@ -193,7 +263,7 @@ public class DefaultGuiHtmlPages {
         for(String field : definition.getFieldNames()) {
             Field theField = definition.getField(field);
             if (theField!=definition.getPrimaryKeyField() && theField.getType()!=FieldType.AUTO_INCREMENT && theField.getType()!=FieldType.AUTO_GUID) {
-                html.append(String.format("<th>%s</th>", field));
+                html.append(sortableHeading(definition, database, paging, field));
             }
         }
         html.append("</tr>");
@@ -348,6 +418,7 @@ public class DefaultGuiHtmlPages {
                         html.append("<h3>" + relationship.getName() + "</h3>");
                         if (!relatedItems.isEmpty()) {
                             boolean header = true;
+                            int shown = 0;
 
                             for (EntityInstance relatedInstance : relatedItems) {
                                 if (header) {
@@ -356,9 +427,17 @@ public class DefaultGuiHtmlPages {
                                 }
                                 html.append(htmlTableRowFor(relatedInstance, database));
 
+                                // only render a page of related items, large relationships would make the page huge
+                                shown++;
+                                if(shown==InstanceListPaging.DEFAULT_PAGE_SIZE){
+                                    break;
+                                }
                             }
                             html.append("</tbody>");
                             html.append("</table>");
+                            if(relatedItems.size()>shown){
+                                html.append("<p>Showing %d of %d related items.</p>".formatted(shown, relatedItems.size()));
+                            }
 
                         } else {
                             html.append("<ul><li>none</li></ul>");
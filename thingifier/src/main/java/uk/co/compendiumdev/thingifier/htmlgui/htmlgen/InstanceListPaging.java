@@ -0,0 +1,178 @@
+package uk.co.compendiumdev.thingifier.htmlgui.htmlgen;
+
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.EntityInstanceListFilter;
+import uk.co.compendiumdev.thingifier.core.query.EntityInstanceListSorter;
+import uk.co.compendiumdev.thingifier.core.query.FilterBy;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+import uk.co.compendiumdev.thingifier.core.query.SortByFieldName;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/*
+    Server side paging for the GUI instance lists.
+
+    The GUI url params are parsed into QueryFilterParams (same as the API) e.g.
+
+        /gui/instances?entity=todo&doneStatus=true&sortBy=-id&page=2&pageSize=25
+
+    page and pageSize are removed from the params, everything else is
+    used to filter and sort with the same query machinery as the API.
+ */
+public class InstanceListPaging {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    private final QueryFilterParams filterParams;
+    private final int requestedPage;
+    private final int pageSize;
+    private int totalCount;
+
+    public InstanceListPaging(final QueryFilterParams params){
+
+        this.filterParams = new QueryFilterParams();
+
+        int page = 1;
+        int size = DEFAULT_PAGE_SIZE;
+
+        if(params!=null) {
+            for (FilterBy filterBy : params.toList()) {
+                if (isPageParam(filterBy.fieldName)) {
+                    page = asPositiveInt(filterBy.fieldValue, page);
+                } else if (isPageSizeParam(filterBy.fieldName)) {
+                    size = asPositiveInt(filterBy.fieldValue, size);
+                } else {
+                    filterParams.add(filterBy);
+                }
+            }
+        }
+
+        this.requestedPage = page;
+        this.pageSize = Math.min(size, MAX_PAGE_SIZE);
+    }
+
+    public static boolean isPageParam(final String key){
+        return key.equalsIgnoreCase("page");
+    }
+
+    public static boolean isPageSizeParam(final String key){
+        return key.equalsIgnoreCase("pagesize") ||
+                key.equalsIgnoreCase("page_size");
+    }
+
+    private int asPositiveInt(final String value, final int defaultValue){
+        try{
+            int parsed = Integer.parseInt(value.trim());
+            if(parsed>0){
+                return parsed;
+            }
+        }catch(NumberFormatException e){
+            // ignore invalid paging values and use the default
+        }
+        return defaultValue;
+    }
+
+    /*
+        filter and sort all the instances, then return the instances
+        on the requested page only, only the page is rendered
+     */
+    public List<EntityInstance> pageOf(final Collection<EntityInstance> instances){
+
+        List<EntityInstance> matching = new EntityInstanceListFilter(filterParams).
+                                            filter(new ArrayList<>(instances));
+
+        if(filterParams.hasSortBy()){
+            matching = new EntityInstanceListSorter(filterParams).sort(matching);
+        }
+
+        totalCount = matching.size();
+
+        int from = (getPage()-1)*pageSize;
+        int to = Math.min(from + pageSize, totalCount);
+
+        if(from>=to){
+            return new ArrayList<>();
+        }
+
+        return new ArrayList<>(matching.subList(from, to));
+    }
+
+    public int getTotalCount(){
+        return totalCount;
+    }
+
+    public int getPageSize(){
+        return pageSize;
+    }
+
+    /* the requested page, clamped to the last page when a count is known */
+    public int getPage(){
+        return Math.max(1, Math.min(requestedPage, getPageCount()));
+    }
+
+    public int getPageCount(){
+        if(totalCount==0){
+            return 1;
+        }
+        return ((totalCount-1)/pageSize)+1;
+    }
+
+    public int getFirstShown(){
+        if(totalCount==0){
+            return 0;
+        }
+        return ((getPage()-1)*pageSize)+1;
+    }
+
+    public int getLastShown(){
+        return Math.min(getPage()*pageSize, totalCount);
+    }
+
+    /* the first sortBy field name, with its +/- prefix, or "" if not sorted */
+    public String getSortBy(){
+        for(FilterBy sortBy : filterParams.sortBys()){
+            return sortBy.fieldValue;
+        }
+        return "";
+    }
+
+    /*
+        url params to add to a link so that paging, filtering and sorting are retained
+        sortBy of null keeps the current sort
+     */
+    public String asUrlParams(final int forPage, final String sortBy){
+
+        StringBuilder params = new StringBuilder();
+
+        for(FilterBy filterBy : filterParams.toList()){
+            if(SortByFieldName.isSortByParam(filterBy.fieldName) && sortBy!=null){
+                continue;
+            }
+            // operator replaces the = e.g. id>=4 as parsed by UrlParamParser
+            params.append("&").append(encode(filterBy.fieldName)).
+                    append(filterBy.filterOperation.equals("=") ? "=" : encode(filterBy.filterOperation)).
+                    append(encode(filterBy.fieldValue));
+        }
+
+        if(sortBy!=null && !sortBy.isEmpty()){
+            params.append("&sortBy=").append(encode(sortBy));
+        }
+
+        if(pageSize!=DEFAULT_PAGE_SIZE){
+            params.append("&pageSize=").append(pageSize);
+        }
+
+        params.append("&page=").append(forPage);
+
+        return params.toString();
+    }
+
+    private String encode(final String value){
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
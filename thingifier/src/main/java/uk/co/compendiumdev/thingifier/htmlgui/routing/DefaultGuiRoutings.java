@@ -3,6 +3,9 @@ package uk.co.compendiumdev.thingifier.htmlgui.routing;
 import spark.Request;
 import uk.co.compendiumdev.thingifier.core.EntityRelModel;
 import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.core.query.FilterBy;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+import uk.co.compendiumdev.thingifier.core.query.fromurl.UrlParamParser;
 import uk.co.compendiumdev.thingifier.htmlgui.htmlgen.DefaultGUIHTML;
 import uk.co.compendiumdev.thingifier.htmlgui.htmlgen.DefaultGuiHtmlPages;
 
@@ -14,7 +17,6 @@ import static spark.Spark.get;
 public class DefaultGuiRoutings {
 
     // TODO: templates or tidier way to create the default GUI pages with styling
-    // todo: support filters in the GUI Urls
     private final DefaultGUIHTML templates;
 
     private DefaultGuiHtmlPages htmlPages;
@@ -59,8 +61,10 @@ public class DefaultGuiRoutings {
 
             String entityName = request.queryParams("entity");
 
-            return htmlPages.getInstancesListPage(database, entityName);
-
+            // returned rather than streamed so the response is not committed before the
+            // after filters set the headers, and a render error is not sent as a partial 200,
+            // the list is paged so the page is bounded in size
+            return htmlPages.getInstancesListPage(database, entityName, getListQueryParams(request));
 
         });
 
@@ -95,6 +99,20 @@ public class DefaultGuiRoutings {
     }
 
 
+    /*
+        filter, sort and paging params for the instance lists e.g. ?entity=todo&doneStatus=true&sortBy=-id&page=2
+        entity and database select what is listed so are not filters
+     */
+    private QueryFilterParams getListQueryParams(Request request) {
+        QueryFilterParams params = new QueryFilterParams();
+        for(FilterBy filterBy : new UrlParamParser().parse(request.queryString()).toList()){
+            if(!filterBy.fieldName.equals("entity") && !filterBy.fieldName.equals("database")){
+                params.add(filterBy);
+            }
+        }
+        return params;
+    }
+
     // TODO: this is where we would 'inject' or handle the authentication process - could be injected with a Thingifier specific handler
     // TODO: multiple thingifiers would require different cookie names - give Thingifier a name and include in cookie
     // e.g. X-APICHALLENGES-THINGIFIER-DATABASE-NAME, X-SIMPLEAPI-THINGIFIER-DATABASE-NAME
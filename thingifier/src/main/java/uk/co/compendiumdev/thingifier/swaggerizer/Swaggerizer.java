@@ -1,6 +1,10 @@
 package uk.co.compendiumdev.thingifier.swaggerizer;
 
+import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.Operation;
 import io.swagger.v3.oas.models.PathItem;
@@ -18,6 +22,7 @@ import uk.co.compendiumdev.thingifier.api.docgen.RoutingStatus;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 public class Swaggerizer {
 
@@ -142,7 +147,7 @@ public class Swaggerizer {
         return api;
     }
 
-    // TODO: the output from swaggerizer json could be cached
+    // output is cached by the DocumentationArtifactCache in the doc routing
     public String asJson(){
         if(api==null){
             swagger();
@@ -150,4 +155,63 @@ public class Swaggerizer {
         return new GsonBuilder().setPrettyPrinting().
                 create().toJson(api);
     }
+
+    /*
+        swagger-models does not include a yaml serialiser so convert
+        the Gson tree of the model, this gives the same content as asJson
+     */
+    public String asYaml(){
+        if(api==null){
+            swagger();
+        }
+
+        final JsonElement tree = new Gson().toJsonTree(api);
+        StringBuilder yaml = new StringBuilder();
+        yaml.append("---\n");
+        appendYaml(yaml, tree, 0);
+        return yaml.toString();
+    }
+
+    private void appendYaml(final StringBuilder yaml, final JsonElement element, final int indent) {
+
+        if(element.isJsonObject()){
+            final JsonObject object = element.getAsJsonObject();
+            for(Map.Entry<String, JsonElement> entry : object.entrySet()){
+                yaml.append("  ".repeat(indent)).append(yamlKey(entry.getKey())).append(":");
+                appendYamlValue(yaml, entry.getValue(), indent);
+            }
+            return;
+        }
+
+        if(element.isJsonArray()){
+            final JsonArray array = element.getAsJsonArray();
+            for(JsonElement item : array){
+                yaml.append("  ".repeat(indent)).append("-");
+                appendYamlValue(yaml, item, indent);
+            }
+        }
+    }
+
+    private void appendYamlValue(final StringBuilder yaml, final JsonElement value, final int indent) {
+        if(value.isJsonNull()){
+            yaml.append(" null\n");
+        }else if(value.isJsonPrimitive()){
+            // json strings are valid yaml double quoted scalars
+            yaml.append(" ").append(value.toString()).append("\n");
+        }else if(value.isJsonObject() && value.getAsJsonObject().size()==0){
+            yaml.append(" {}\n");
+        }else if(value.isJsonArray() && value.getAsJsonArray().size()==0){
+            yaml.append(" []\n");
+        }else{
+            yaml.append("\n");
+            appendYaml(yaml, value, indent+1);
+        }
+    }
+
+    private String yamlKey(final String key) {
+        if(key.matches("[A-Za-z_][A-Za-z0-9_]*")){
+            return key;
+        }
+        return new Gson().toJson(key);
+    }
 }
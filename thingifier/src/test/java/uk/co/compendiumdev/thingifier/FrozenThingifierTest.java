@@ -0,0 +1,55 @@
+package uk.co.compendiumdev.thingifier;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfigProfile;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+
+public class FrozenThingifierTest {
+
+    private Thingifier frozenThingifier(){
+        Thingifier thingifier = new Thingifier();
+        thingifier.defineThing("thing", "things").
+                addFields(Field.is("title", FieldType.STRING));
+        return thingifier.freeze();
+    }
+
+    @Test
+    public void aFrozenThingifierCanNotBeReconfigured(){
+
+        Thingifier thingifier = frozenThingifier();
+        final EntityDefinition thing = thingifier.getDefinitionNamed("thing");
+
+        Assertions.assertTrue(thingifier.isFrozen());
+        Assertions.assertTrue(thingifier.getERmodel().getSchema().isFrozen());
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> thingifier.defineThing("other", "others"));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> thingifier.defineRelationship(thing, thing, "related", Cardinality.ONE_TO_MANY()));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> thingifier.configureWithProfile(new ThingifierApiConfigProfile("profile", "a profile")));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> thingifier.setDocumentation("title", "para"));
+    }
+
+    @Test
+    public void throwawayInstanceDataIsIsolatedPerRequest(){
+
+        Thingifier thingifier = frozenThingifier();
+
+        final ERInstanceData request1 = thingifier.createThrowawayInstanceData();
+        final ERInstanceData request2 = thingifier.createThrowawayInstanceData();
+
+        request1.getInstanceCollectionForEntityNamed("thing").createManagedInstance().
+                setValue("title", "request 1");
+
+        Assertions.assertEquals(1, request1.getInstanceCollectionForEntityNamed("thing").countInstances());
+        Assertions.assertEquals(0, request2.getInstanceCollectionForEntityNamed("thing").countInstances());
+        Assertions.assertEquals(0, thingifier.getThingInstancesNamed("thing", "__default").countInstances());
+    }
+}
@@ -0,0 +1,33 @@
+package uk.co.compendiumdev.thingifier.api.docgen;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ApiRoutingDefinitionDocGeneratorTest {
+
+    @Test
+    public void aggregateIsRoutedBeforeASpecificInstance(){
+
+        Thingifier thingifier = new Thingifier();
+        EntityDefinition thing = thingifier.defineThing("thing", "things");
+        thing.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+
+        // routes are matched in the order they are defined, so _aggregate must not be taken as an :id
+        List<String> getUrls = new ArrayList<>();
+        for(RoutingDefinition routing : new ApiRoutingDefinitionDocGenerator(thingifier).generate("").definitions()){
+            if(routing.verb()==RoutingVerb.GET){
+                getUrls.add(routing.url());
+            }
+        }
+
+        Assertions.assertTrue(getUrls.contains("things/_aggregate"));
+        Assertions.assertTrue(getUrls.indexOf("things/_aggregate") < getUrls.indexOf("things/:id"));
+    }
+}
@@ -0,0 +1,103 @@
+package uk.co.compendiumdev.thingifier.api.docgen;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.apiconfig.ThingifierApiConfigProfile;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+
+public class DocumentationArtifactCacheTest {
+
+    private Thingifier thingifier;
+    private DocumentationArtifactCache cache;
+    private int renderCount;
+
+    @BeforeEach
+    public void createCache(){
+        thingifier = new Thingifier();
+        final EntityDefinition todo = thingifier.defineThing("todo", "todos");
+        todo.addFields(Field.is("title", FieldType.STRING));
+
+        cache = new DocumentationArtifactCache(
+                    new ThingifierApiDocumentationDefn().setThingifier(thingifier));
+        renderCount = 0;
+    }
+
+    private DocumentationArtifact getDocs(){
+        return cache.get(DocumentationArtifactCache.DOCS_HTML, () -> {
+            renderCount++;
+            return "docs " + renderCount;
+        });
+    }
+
+    @Test
+    public void artifactIsOnlyRenderedOnceWhenNothingChanges(){
+
+        final DocumentationArtifact first = getDocs();
+        final DocumentationArtifact second = getDocs();
+
+        Assertions.assertSame(first, second);
+        Assertions.assertEquals(1, renderCount);
+        Assertions.assertEquals("docs 1", second.getContent());
+    }
+
+    @Test
+    public void configuringWithProfileInvalidatesArtifacts(){
+
+        final DocumentationArtifact first = getDocs();
+        thingifier.configureWithProfile(new ThingifierApiConfigProfile("v2", "another profile"));
+        final DocumentationArtifact second = getDocs();
+
+        Assertions.assertEquals(2, renderCount);
+        Assertions.assertNotEquals(first.getEtag(), second.getEtag());
+    }
+
+    @Test
+    public void definingNewThingInvalidatesArtifacts(){
+
+        getDocs();
+        thingifier.defineThing("project", "projects");
+        getDocs();
+
+        Assertions.assertEquals(2, renderCount);
+    }
+
+    @Test
+    public void addingFieldToExistingDefinitionInvalidatesArtifacts(){
+
+        getDocs();
+        thingifier.getDefinitionNamed("todo").addFields(Field.is("done", FieldType.BOOLEAN));
+        getDocs();
+
+        Assertions.assertEquals(2, renderCount);
+    }
+
+    @Test
+    public void canMatchEtagsFromIfNoneMatchHeader(){
+
+        final DocumentationArtifact artifact = getDocs();
+
+        Assertions.assertTrue(artifact.getEtag().startsWith("\""));
+        Assertions.assertTrue(artifact.matchesEtag(artifact.getEtag()));
+        Assertions.assertTrue(artifact.matchesEtag("\"other\", W/" + artifact.getEtag()));
+        Assertions.assertTrue(artifact.matchesEtag("*"));
+        Assertions.assertFalse(artifact.matchesEtag("\"other\""));
+        Assertions.assertFalse(artifact.matchesEtag(null));
+    }
+
+    @Test
+    public void canInvalidateAllArtifacts(){
+
+        getDocs();
+        Assertions.assertEquals(1, cache.countCachedArtifacts());
+
+        cache.invalidate();
+        Assertions.assertEquals(0, cache.countCachedArtifacts());
+
+        getDocs();
+        Assertions.assertEquals(2, renderCount);
+    }
+}
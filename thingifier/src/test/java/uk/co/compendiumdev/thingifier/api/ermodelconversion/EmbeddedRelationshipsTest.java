@@ -0,0 +1,148 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.headers.HttpHeadersBlock;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponseAsJson;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+
+import java.util.ArrayList;
+
+class EmbeddedRelationshipsTest {
+
+    private Thingifier thingifier;
+    private EntityDefinition thing;
+
+    @BeforeEach
+    void createData(){
+        thingifier = new Thingifier();
+        thing = thingifier.defineThing("thing", "things");
+        thing.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thing.addField(Field.is("title", FieldType.STRING));
+        final EntityDefinition part = thingifier.defineThing("part", "parts");
+        part.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        part.addField(Field.is("name", FieldType.STRING));
+        thingifier.defineRelationship(thing, part, "parts", Cardinality.ONE_TO_MANY());
+
+        final ERInstanceData database = thingifier.getERmodel().getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME);
+        final EntityInstance sharedPart = database.getInstanceCollectionForEntityNamed("part").
+                createManagedInstance().setValue("name", "shared");
+        for(int things=0; things<2; things++){
+            database.getInstanceCollectionForEntityNamed("thing").
+                    createManagedInstance().setValue("title", "thing " + things).
+                    getRelationships().connect("parts", sharedPart);
+        }
+    }
+
+    private QueryFilterParams params(final String key, final String value){
+        final QueryFilterParams params = new QueryFilterParams();
+        params.put(key, value);
+        return params;
+    }
+
+    private JsonObject getAsJson(final String url, final QueryFilterParams params){
+        final ApiResponse response = thingifier.api().get(url, params, new HttpHeadersBlock());
+        Assertions.assertEquals(200, response.getStatusCode());
+        return JsonParser.parseString(
+                new ApiResponseAsJson(response, new JsonThing(thingifier.apiConfig().jsonOutput())).getJson()).
+                getAsJsonObject();
+    }
+
+    @Test
+    void includedRelationshipsAreRenderedAsTheRelatedObjects(){
+
+        final JsonObject things = getAsJson("things", params("include", "parts"));
+
+        final JsonArray parts = things.getAsJsonArray("things").get(0).getAsJsonObject().getAsJsonArray("parts");
+        Assertions.assertEquals("shared", parts.get(0).getAsJsonObject().get("name").getAsString());
+    }
+
+    @Test
+    void relationshipsAreOnlyKeysWhenNotIncluded(){
+
+        final JsonObject things = getAsJson("things", new QueryFilterParams());
+
+        final JsonArray parts = things.getAsJsonArray("things").get(0).getAsJsonObject().getAsJsonArray("parts");
+        Assertions.assertFalse(parts.get(0).getAsJsonObject().has("name"));
+    }
+
+    @Test
+    void anInstanceRelatedToManyResultsIsRenderedOnce(){
+
+        final EmbeddedRelationships embedded = new EmbeddedRelationships().include("parts");
+        final JsonObject things = new JsonThing(thingifier.apiConfig().jsonOutput()).
+                asJsonObjectTypedArrayWithContentsUntyped(new ArrayList<>(
+                        thingifier.getThingInstancesNamed("thing", EntityRelModel.DEFAULT_DATABASE_NAME).getInstances()),
+                        "things", embedded, SparseFieldset.all());
+
+        final JsonArray renderedThings = things.getAsJsonArray("things");
+        Assertions.assertSame(
+                renderedThings.get(0).getAsJsonObject().getAsJsonArray("parts").get(0),
+                renderedThings.get(1).getAsJsonObject().getAsJsonArray("parts").get(0));
+    }
+
+    @Test
+    void includeIsNotTreatedAsAFilter(){
+
+        final QueryFilterParams params = params("embed", "parts");
+        params.put("title", "thing 1");
+
+        final JsonObject things = getAsJson("things", params);
+
+        Assertions.assertEquals(1, things.getAsJsonArray("things").size());
+    }
+
+    @Test
+    void unknownRelationshipsCanNotBeIncluded(){
+
+        final ApiResponse response = thingifier.api().get("things", params("include", "parts.unknown"), new HttpHeadersBlock());
+
+        Assertions.assertEquals(400, response.getStatusCode());
+        Assertions.assertTrue(response.getErrorMessages().iterator().next().contains("parts.unknown"));
+    }
+
+    @Test
+    void includedRelationshipsAreLimitedInDepth(){
+
+        final EmbeddedRelationships embedded = new EmbeddedRelationships().include("parts.things.parts.things");
+
+        Assertions.assertEquals(EmbeddedRelationships.MAX_DEPTH + 1, embedded.depth());
+        Assertions.assertEquals(1, embedded.validateFor(thing).size());
+    }
+
+    @Test
+    void theEmbeddedInstancesAreThoseRelatedWhenTheRequestWasHandled(){
+
+        final QueryFilterParams params = params("include", "parts");
+        params.put("title", "thing 0");
+        final ApiResponse response = thingifier.api().get("things", params, new HttpHeadersBlock());
+
+        // another request relates a part after the get was handled, but before it is rendered
+        final ERInstanceData database = thingifier.getERmodel().getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME);
+        final EntityInstance laterPart = database.getInstanceCollectionForEntityNamed("part").
+                createManagedInstance().setValue("name", "later");
+        database.getInstanceCollectionForEntityNamed("thing").findInstanceByFieldNameAndValue("title", "thing 0").
+                getRelationships().connect("parts", laterPart);
+
+        final JsonObject things = JsonParser.parseString(
+                new ApiResponseAsJson(response, new JsonThing(thingifier.apiConfig().jsonOutput())).getJson()).
+                getAsJsonObject();
+
+        final JsonArray parts = things.getAsJsonArray("things").get(0).getAsJsonObject().getAsJsonArray("parts");
+        Assertions.assertEquals(1, parts.size());
+        Assertions.assertEquals("shared", parts.get(0).getAsJsonObject().get("name").getAsString());
+    }
+}
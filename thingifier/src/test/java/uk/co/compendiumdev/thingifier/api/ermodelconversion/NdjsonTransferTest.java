@@ -0,0 +1,105 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+class NdjsonTransferTest {
+
+    private Thingifier thingifier;
+    private ERInstanceData database;
+
+    @BeforeEach
+    void createData(){
+        thingifier = new Thingifier();
+        final EntityDefinition thing = thingifier.defineThing("thing", "things");
+        thing.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thing.addField(Field.is("title", FieldType.STRING));
+        final EntityDefinition part = thingifier.defineThing("part", "parts");
+        part.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thingifier.defineRelationship(thing, part, "parts", Cardinality.ONE_TO_MANY());
+
+        database = thingifier.getERmodel().getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME);
+        final EntityInstance aThing = database.getInstanceCollectionForEntityNamed("thing").
+                createManagedInstance().setValue("title", "a title\nwith a line break");
+        for(int parts=0; parts<3; parts++){
+            aThing.getRelationships().connect("parts",
+                    database.getInstanceCollectionForEntityNamed("part").createManagedInstance());
+        }
+        database.getInstanceCollectionForEntityNamed("thing").createManagedInstance().setValue("title", "no parts");
+    }
+
+    private String export(final ERInstanceData data) throws IOException {
+        final StringWriter output = new StringWriter();
+        new NdjsonExporter().export(data, output);
+        return output.toString();
+    }
+
+    @Test
+    void canExportAndImportADatabaseLineByLine() throws IOException {
+
+        final NdjsonExporter exporter = new NdjsonExporter();
+        final StringWriter output = new StringWriter();
+        exporter.export(database, output);
+
+        Assertions.assertEquals(5, exporter.getInstancesExported());
+        Assertions.assertEquals(3, exporter.getRelationshipsExported());
+        Assertions.assertEquals(8, output.toString().split("\n").length);
+
+        final ERInstanceData imported = thingifier.getERmodel().createEmptyInstanceData();
+        final NdjsonImporter importer = new NdjsonImporter(thingifier.getERmodel().getSchema()).setBatchSize(2);
+        importer.importInto(imported, new StringReader(output.toString()));
+
+        Assertions.assertEquals(5, importer.getInstancesImported());
+        Assertions.assertEquals(3, importer.getRelationshipsImported());
+
+        final EntityInstanceCollection things = imported.getInstanceCollectionForEntityNamed("thing");
+        final EntityInstance aThing = things.findInstanceByPrimaryKey("1");
+        Assertions.assertEquals("a title\nwith a line break", aThing.getFieldValue("title").asString());
+        Assertions.assertEquals(3, aThing.getRelationships().getConnectedItems("parts").size());
+
+        // the id counters continue from the imported ids
+        Assertions.assertEquals("3", things.createManagedInstance().getFieldValue("id").asString());
+    }
+
+    @Test
+    void invalidLinesAreReportedWithTheLineNumber() throws IOException {
+
+        final String lines = export(database) +
+                "{\"relationship\":\"parts\",\"from\":\"unknown\",\"to\":\"unknown\"}\n";
+
+        final NdjsonImporter importer = new NdjsonImporter(thingifier.getERmodel().getSchema());
+        final IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> importer.importInto(thingifier.getERmodel().createEmptyInstanceData(), new StringReader(lines)));
+
+        Assertions.assertTrue(e.getMessage().startsWith("Line 9:"), e.getMessage());
+    }
+
+    @Test
+    void duplicatePrimaryKeysInABatchAreRejected() {
+
+        final String lines =
+                "{\"entity\":\"things\",\"fields\":{\"id\":\"1\",\"title\":\"one\"}}\n" +
+                "\n" +
+                "{\"entity\":\"things\",\"fields\":{\"id\":\"1\",\"title\":\"again\"}}\n";
+
+        final NdjsonImporter importer = new NdjsonImporter(thingifier.getERmodel().getSchema());
+        final IllegalArgumentException e = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> importer.importInto(thingifier.getERmodel().createEmptyInstanceData(), new StringReader(lines)));
+
+        Assertions.assertTrue(e.getMessage().contains("primary key"), e.getMessage());
+    }
+}
@@ -0,0 +1,137 @@
+package uk.co.compendiumdev.thingifier.api.ermodelconversion;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.headers.HttpHeadersBlock;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponseAsJson;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.DefinedFields;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.ERInstanceData;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+
+import java.util.List;
+
+class SparseFieldsetTest {
+
+    private Thingifier thingifier;
+    private EntityDefinition thing;
+
+    @BeforeEach
+    void createData(){
+        thingifier = new Thingifier();
+        thing = thingifier.defineThing("thing", "things");
+        thing.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thing.addFields(Field.is("title", FieldType.STRING),
+                        Field.is("description", FieldType.STRING),
+                        Field.is("done", FieldType.BOOLEAN));
+        final EntityDefinition part = thingifier.defineThing("part", "parts");
+        part.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        part.addField(Field.is("name", FieldType.STRING));
+        thingifier.defineRelationship(thing, part, "parts", Cardinality.ONE_TO_MANY());
+
+        final ERInstanceData database = thingifier.getERmodel().getInstanceData(EntityRelModel.DEFAULT_DATABASE_NAME);
+        final EntityInstance aPart = database.getInstanceCollectionForEntityNamed("part").
+                createManagedInstance().setValue("name", "a part");
+        database.getInstanceCollectionForEntityNamed("thing").
+                createManagedInstance().setValue("title", "a title").setValue("description", "a description").
+                getRelationships().connect("parts", aPart);
+    }
+
+    private QueryFilterParams fields(final String fieldNames){
+        final QueryFilterParams params = new QueryFilterParams();
+        params.put("fields", fieldNames);
+        return params;
+    }
+
+    private JsonObject getFirstThing(final QueryFilterParams params){
+        final ApiResponse response = thingifier.api().get("things", params, new HttpHeadersBlock());
+        Assertions.assertEquals(200, response.getStatusCode());
+        return JsonParser.parseString(
+                new ApiResponseAsJson(response, new JsonThing(thingifier.apiConfig().jsonOutput())).getJson()).
+                getAsJsonObject().getAsJsonArray("things").get(0).getAsJsonObject();
+    }
+
+    @Test
+    void onlyTheRequestedFieldsAreRendered(){
+
+        final JsonObject aThing = getFirstThing(fields("id,title"));
+
+        Assertions.assertEquals(2, aThing.size());
+        Assertions.assertEquals("a title", aThing.get("title").getAsString());
+        Assertions.assertFalse(aThing.has("description"));
+        Assertions.assertFalse(aThing.has("parts"), "relationships are only rendered when requested");
+    }
+
+    @Test
+    void relationshipsCanBeRequestedAsFields(){
+
+        final JsonObject aThing = getFirstThing(fields("title,parts"));
+
+        Assertions.assertEquals(2, aThing.size());
+        Assertions.assertTrue(aThing.has("parts"));
+    }
+
+    @Test
+    void embeddedRelationshipsAreRenderedWithAllTheirFields(){
+
+        final QueryFilterParams params = fields("title");
+        params.put("include", "parts");
+
+        final JsonObject aThing = getFirstThing(params);
+
+        Assertions.assertEquals(2, aThing.size());
+        Assertions.assertEquals("a part",
+                aThing.getAsJsonArray("parts").get(0).getAsJsonObject().get("name").getAsString());
+    }
+
+    @Test
+    void fieldsAndRelationshipsAreMatchedIgnoringCase(){
+
+        final JsonObject aThing = getFirstThing(fields("ID,Title,Parts"));
+
+        Assertions.assertEquals(3, aThing.size());
+        Assertions.assertEquals("a title", aThing.get("title").getAsString());
+        Assertions.assertTrue(aThing.has("id"));
+        Assertions.assertTrue(aThing.has("parts"));
+    }
+
+    @Test
+    void allFieldsAreRenderedWithoutAFieldsParam(){
+
+        final JsonObject aThing = getFirstThing(new QueryFilterParams());
+
+        Assertions.assertTrue(aThing.has("description"));
+        Assertions.assertTrue(aThing.has("done"));
+        Assertions.assertTrue(aThing.has("parts"));
+    }
+
+    @Test
+    void theFieldsToRenderAreWorkedOutOncePerDefinition(){
+
+        final DefinedFields definition = thingifier.getThingInstancesNamed("thing", EntityRelModel.DEFAULT_DATABASE_NAME).
+                                            getInstances().iterator().next().getFields().getDefinition();
+        final SparseFieldset fieldset = SparseFieldset.of(List.of("title", "id"));
+
+        Assertions.assertEquals(List.of("id", "title"), fieldset.fieldNamesFor(definition));
+        Assertions.assertSame(fieldset.fieldNamesFor(definition), fieldset.fieldNamesFor(definition));
+    }
+
+    @Test
+    void unknownFieldsCanNotBeRequested(){
+
+        final ApiResponse response = thingifier.api().get("things", fields("title,unknown"), new HttpHeadersBlock());
+
+        Assertions.assertEquals(400, response.getStatusCode());
+        Assertions.assertTrue(response.getErrorMessages().iterator().next().contains("unknown"));
+    }
+}
@@ -15,4 +15,84 @@ public class HeadersTest {
 
         Assertions.assertEquals("value", headers.get("headername"));
     }
+
+    @Test
+    public void headerNamesAreCaseInsensitive(){
+        HttpHeadersBlock headers = new HttpHeadersBlock();
+
+        headers.put("Content-Type", "application/json");
+        headers.put(" X-Custom-Header ", "custom");
+
+        Assertions.assertEquals("application/json", headers.get("CONTENT-TYPE"));
+        Assertions.assertEquals("application/json", headers.get("content-type"));
+        Assertions.assertEquals("custom", headers.get("x-custom-header"));
+        Assertions.assertTrue(headers.headerExists("X-CUSTOM-HEADER"));
+        Assertions.assertEquals("", headers.get("X-Missing"));
+        Assertions.assertEquals(2, headers.size());
+    }
+
+    @Test
+    public void commonHeaderNamesUseTheSameCanonicalName(){
+
+        Assertions.assertSame(HttpHeadersBlock.ACCEPT, HttpHeadersBlock.canonicalName("Accept"));
+        Assertions.assertSame(HttpHeadersBlock.ACCEPT, HttpHeadersBlock.canonicalName("ACCEPT"));
+        Assertions.assertSame(HttpHeadersBlock.CONTENT_TYPE, HttpHeadersBlock.canonicalName("Content-Type"));
+        Assertions.assertSame(HttpHeadersBlock.X_CHALLENGER, HttpHeadersBlock.canonicalName("X-CHALLENGER"));
+        Assertions.assertSame(HttpHeadersBlock.X_THING_HTTP_SESSION_GUID,
+                HttpHeadersBlock.canonicalName("X-THING-HTTP-SESSION-GUID"));
+        Assertions.assertEquals("x-other", HttpHeadersBlock.canonicalName("X-Other"));
+    }
+
+    @Test
+    public void iterationIsAReadOnlyView(){
+        HttpHeadersBlock headers = new HttpHeadersBlock();
+        headers.put("Accept", "application/json");
+
+        Assertions.assertTrue(headers.headerNames().contains("accept"));
+        Assertions.assertThrows(UnsupportedOperationException.class,
+                () -> headers.headerNames().remove("accept"));
+
+        // views reflect later changes
+        headers.put("Content-Type", "application/xml");
+        Assertions.assertEquals(2, headers.entries().size());
+    }
+
+    @Test
+    public void canPutAllFromAnotherBlock(){
+        HttpHeadersBlock original = new HttpHeadersBlock();
+        original.put("Location", "/todos/1");
+        original.put("X-CHALLENGER", "guid");
+
+        HttpHeadersBlock headers = new HttpHeadersBlock();
+        headers.putAll(original);
+
+        Assertions.assertEquals("/todos/1", headers.get("location"));
+        Assertions.assertEquals("guid", headers.get("x-challenger"));
+    }
+
+    @Test
+    public void parsedAcceptAndContentTypeAreCachedUntilChanged(){
+        HttpHeadersBlock headers = new HttpHeadersBlock();
+        headers.put("Accept", "application/xml");
+        headers.put("Content-Type", "application/json");
+
+        Assertions.assertSame(headers.acceptHeader(), headers.acceptHeader());
+        Assertions.assertTrue(headers.acceptHeader().hasAPreferenceForXml());
+        Assertions.assertSame(headers.contentTypeHeader(), headers.contentTypeHeader());
+        Assertions.assertTrue(headers.contentTypeHeader().isJSON());
+
+        headers.put("ACCEPT", "application/json");
+        headers.put("content-type", "application/xml");
+
+        Assertions.assertTrue(headers.acceptHeader().hasAPreferenceForJson());
+        Assertions.assertTrue(headers.contentTypeHeader().isXML());
+    }
+
+    @Test
+    public void missingAcceptAndContentTypeParseAsMissing(){
+        HttpHeadersBlock headers = new HttpHeadersBlock();
+
+        Assertions.assertTrue(headers.acceptHeader().missingAcceptHeader());
+        Assertions.assertTrue(headers.contentTypeHeader().isMissing());
+    }
 }
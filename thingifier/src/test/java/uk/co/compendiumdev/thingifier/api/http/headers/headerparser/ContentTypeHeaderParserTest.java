@@ -0,0 +1,31 @@
+package uk.co.compendiumdev.thingifier.api.http.headers.headerparser;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ContentTypeHeaderParserTest {
+
+    @Test
+    void matchesOnTheTrimmedLowerCaseHeader(){
+        final ContentTypeHeaderParser parser = new ContentTypeHeaderParser("  Application/JSON ");
+
+        Assertions.assertTrue(parser.isJSON());
+        Assertions.assertFalse(parser.isXML());
+        Assertions.assertFalse(parser.isMissing());
+    }
+
+    @Test
+    void reportsTheHeaderAsItWasSent(){
+        final ContentTypeHeaderParser parser = new ContentTypeHeaderParser(" Image/PNG ");
+
+        Assertions.assertEquals(" Image/PNG ", parser.getHeader());
+    }
+
+    @Test
+    void aNullHeaderIsMissing(){
+        final ContentTypeHeaderParser parser = new ContentTypeHeaderParser(null);
+
+        Assertions.assertTrue(parser.isMissing());
+        Assertions.assertEquals("", parser.getHeader());
+    }
+}
@@ -0,0 +1,90 @@
+package uk.co.compendiumdev.thingifier.api.non_http;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.ermodelconversion.JsonThing;
+import uk.co.compendiumdev.thingifier.api.http.headers.HttpHeadersBlock;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponseAsJson;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+
+public class AggregateNonHttpTest {
+
+    private Thingifier thingifier;
+
+    @BeforeEach
+    public void createData(){
+        thingifier = new Thingifier();
+        EntityDefinition thing = thingifier.defineThing("thing", "things");
+        thing.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thing.addFields(Field.is("estimate", FieldType.INTEGER),
+                        Field.is("done", FieldType.BOOLEAN));
+
+        final EntityInstanceCollection things = thingifier.getThingInstancesNamed("thing", EntityRelModel.DEFAULT_DATABASE_NAME);
+        for(int item=1; item<=4; item++){
+            things.createManagedInstance().
+                    setValue("estimate", String.valueOf(item)).
+                    setValue("done", String.valueOf(item>3));
+        }
+    }
+
+    private JsonObject asJson(final ApiResponse response){
+        return JsonParser.parseString(
+                new ApiResponseAsJson(response, new JsonThing(thingifier.apiConfig().jsonOutput())).getJson()).
+                getAsJsonObject();
+    }
+
+    @Test
+    public void canAggregateACollection(){
+
+        QueryFilterParams params = new QueryFilterParams();
+        params.put("groupBy", "done");
+        params.put("max", "estimate");
+        params.put("estimate", ">1");
+
+        final ApiResponse response = thingifier.api().get("things/_aggregate", params, new HttpHeadersBlock());
+        Assertions.assertEquals(200, response.getStatusCode());
+
+        final JsonObject aggregate = asJson(response);
+        Assertions.assertEquals(3, aggregate.get("count").getAsInt());
+        Assertions.assertEquals(4, aggregate.getAsJsonObject("max").get("estimate").getAsInt());
+
+        Assertions.assertEquals(2, aggregate.getAsJsonArray("groups").size());
+        JsonObject notDone = null;
+        for(JsonElement group : aggregate.getAsJsonArray("groups")){
+            if(group.getAsJsonObject().get("done").getAsString().equals("false")){
+                notDone = group.getAsJsonObject();
+            }
+        }
+        Assertions.assertNotNull(notDone);
+        Assertions.assertEquals(2, notDone.get("count").getAsInt());
+        Assertions.assertEquals(3, notDone.getAsJsonObject("max").get("estimate").getAsInt());
+    }
+
+    @Test
+    public void canNotAggregateAnInstance(){
+
+        final ApiResponse response = thingifier.api().get("things/1/_aggregate", new QueryFilterParams(), new HttpHeadersBlock());
+        Assertions.assertEquals(404, response.getStatusCode());
+    }
+
+    @Test
+    public void invalidAggregationsAreRejected(){
+
+        QueryFilterParams params = new QueryFilterParams();
+        params.put("sum", "done");
+
+        final ApiResponse response = thingifier.api().get("things/_aggregate", params, new HttpHeadersBlock());
+        Assertions.assertEquals(400, response.getStatusCode());
+    }
+}
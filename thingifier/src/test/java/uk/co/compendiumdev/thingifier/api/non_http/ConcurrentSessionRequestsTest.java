@@ -0,0 +1,230 @@
+package uk.co.compendiumdev.thingifier.api.non_http;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiResponse;
+import uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi;
+import uk.co.compendiumdev.thingifier.api.http.bodyparser.BodyParser;
+import uk.co.compendiumdev.thingifier.api.http.headers.HttpHeadersBlock;
+import uk.co.compendiumdev.thingifier.api.response.ApiResponse;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class ConcurrentSessionRequestsTest {
+
+    private Thingifier getThingifier() {
+        Thingifier thingifier = new Thingifier();
+
+        EntityDefinition thing = thingifier.defineThing("thing", "things");
+        thing.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thing.addFields(Field.is("title", FieldType.STRING));
+
+        return thingifier;
+    }
+
+    private HttpHeadersBlock sessionHeaders(final String session){
+        HttpHeadersBlock headers = new HttpHeadersBlock();
+        headers.put(ThingifierHttpApi.HTTP_SESSION_HEADER_NAME, session);
+        return headers;
+    }
+
+    @Test
+    public void concurrentPostsAcrossSessionsAreAllCreated() throws Exception {
+
+        Thingifier thingifier = getThingifier();
+        String[] sessions = {"session-a", "session-b", "session-c"};
+        for(String session : sessions){
+            thingifier.ensureCreatedAndPopulatedInstanceDatabaseNamed(session);
+        }
+
+        int postsPerSession = 100;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<ApiResponse>> responses = new ArrayList<>();
+
+        for(int post=0; post<postsPerSession; post++){
+            for(String session : sessions) {
+                final String title = session + " " + post;
+                responses.add(pool.submit(() -> {
+                    Map<String, String> body = new HashMap<>();
+                    body.put("title", title);
+                    HttpApiRequest request = new HttpApiRequest("things").setBody(new Gson().toJson(body));
+                    // interleave reads with the writes
+                    thingifier.api().get("things", new QueryFilterParams(), sessionHeaders(session));
+                    return thingifier.api().post("things",
+                            new BodyParser(request, thingifier.getThingNames()),
+                            sessionHeaders(session));
+                }));
+            }
+        }
+
+        for(Future<ApiResponse> response : responses){
+            Assertions.assertEquals(201, response.get().getStatusCode());
+        }
+        pool.shutdown();
+
+        for(String session : sessions){
+            Assertions.assertEquals(postsPerSession,
+                    thingifier.getThingInstancesNamed("thing", session).countInstances());
+            ApiResponse things = thingifier.api().get("things", new QueryFilterParams(), sessionHeaders(session));
+            Assertions.assertEquals(postsPerSession, things.getReturnedInstanceCollection().size());
+        }
+    }
+
+    @Test
+    public void renderedGetBodiesAreConsistentWhileTheSessionIsWrittenTo() throws Exception {
+
+        Thingifier thingifier = getThingifier();
+        thingifier.apiConfig().setApiToEnforceAcceptHeaderForResponses(false);
+        ThingifierHttpApi httpApi = new ThingifierHttpApi(thingifier);
+        String session = "overlapping-session";
+
+        int posts = 200;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> writes = new ArrayList<>();
+        List<Future<Integer>> reads = new ArrayList<>();
+
+        for(int post=0; post<posts; post++){
+            final String title = "thing " + post;
+            writes.add(pool.submit(() -> {
+                Map<String, String> body = new HashMap<>();
+                body.put("title", title);
+                HttpApiRequest request = new HttpApiRequest("things").
+                        addHeader(ThingifierHttpApi.HTTP_SESSION_HEADER_NAME, session).
+                        addHeader("content-type", "application/json").
+                        setBody(new Gson().toJson(body));
+                return httpApi.post(request).getStatusCode();
+            }));
+            reads.add(pool.submit(() -> {
+                HttpApiResponse response = httpApi.get(new HttpApiRequest("things").
+                        addHeader(ThingifierHttpApi.HTTP_SESSION_HEADER_NAME, session));
+                // the body is rendered from the same view of the database as the response was created from
+                int rendered = JsonParser.parseString(response.getBody()).getAsJsonObject().
+                                    getAsJsonArray("things").size();
+                Assertions.assertEquals(response.apiResponse().getReturnedInstanceCollection().size(), rendered);
+                return response.getStatusCode();
+            }));
+        }
+
+        try{
+            for(Future<Integer> write : writes){
+                Assertions.assertEquals(201, write.get());
+            }
+            for(Future<Integer> read : reads){
+                Assertions.assertEquals(200, read.get());
+            }
+        }finally {
+            pool.shutdown();
+        }
+
+        Assertions.assertEquals(posts, thingifier.getThingInstancesNamed("thing", session).countInstances());
+    }
+
+    @Test
+    public void requestsForANewSessionOnlySeeTheFullyPopulatedDatabase() throws Exception {
+
+        Thingifier thingifier = getThingifier();
+        thingifier.apiConfig().setApiToEnforceAcceptHeaderForResponses(false);
+        int populatedThings = 50;
+        AtomicInteger populated = new AtomicInteger();
+        thingifier.setDataGenerator((schema, database) -> {
+            populated.incrementAndGet();
+            EntityInstanceCollection things = database.getInstanceCollectionForEntityNamed("thing");
+            for(int thing=0; thing<populatedThings; thing++){
+                things.createManagedInstance().setValue("title", "populated " + thing);
+                Thread.yield();
+            }
+        });
+        ThingifierHttpApi httpApi = new ThingifierHttpApi(thingifier);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> reads = new ArrayList<>();
+
+        for(int request=0; request<16; request++){
+            reads.add(pool.submit(() -> {
+                HttpApiResponse response = httpApi.get(new HttpApiRequest("things").
+                        addHeader(ThingifierHttpApi.HTTP_SESSION_HEADER_NAME, "new-session"));
+                return JsonParser.parseString(response.getBody()).getAsJsonObject().
+                                    getAsJsonArray("things").size();
+            }));
+        }
+
+        try{
+            for(Future<Integer> read : reads){
+                Assertions.assertEquals(populatedThings, read.get());
+            }
+        }finally {
+            pool.shutdown();
+        }
+
+        Assertions.assertEquals(1, populated.get());
+    }
+
+    @Test
+    public void aSessionDatabaseDeletedBeforeTheRequestTakesItsLockIsCreatedAgain() throws Exception {
+
+        Thingifier thingifier = getThingifier();
+        thingifier.apiConfig().setApiToEnforceAcceptHeaderForResponses(false);
+        AtomicInteger populated = new AtomicInteger();
+        thingifier.setDataGenerator((schema, database) -> {
+            populated.incrementAndGet();
+            database.getInstanceCollectionForEntityNamed("thing").createManagedInstance().setValue("title", "populated");
+        });
+        ThingifierHttpApi httpApi = new ThingifierHttpApi(thingifier);
+        String session = "purged-session";
+        thingifier.ensureCreatedAndPopulatedInstanceDatabaseNamed(session);
+
+        // hold the lock so the request stops after checking the database exists and before processing
+        ReentrantReadWriteLock lock = (ReentrantReadWriteLock) thingifier.getERmodel().
+                                                getDatabaseLocks().lockFor(session);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try{
+            Future<HttpApiResponse> get;
+            lock.writeLock().lock();
+            try{
+                get = pool.submit(() -> httpApi.get(new HttpApiRequest("things").
+                        addHeader(ThingifierHttpApi.HTTP_SESSION_HEADER_NAME, session)));
+
+                long waitUntil = System.currentTimeMillis() + 5000;
+                while(!lock.hasQueuedThreads() && System.currentTimeMillis() < waitUntil){
+                    Thread.sleep(5);
+                }
+                Assertions.assertTrue(lock.hasQueuedThreads(), "request should be waiting for the lock");
+
+                // e.g. purged as old, which does not take the lock
+                thingifier.getERmodel().deleteInstanceDatabase(session);
+            }finally {
+                lock.writeLock().unlock();
+            }
+
+            HttpApiResponse response = get.get(5, TimeUnit.SECONDS);
+            Assertions.assertEquals(200, response.getStatusCode());
+            Assertions.assertEquals(1, JsonParser.parseString(response.getBody()).getAsJsonObject().
+                                            getAsJsonArray("things").size());
+        }finally {
+            pool.shutdownNow();
+        }
+
+        Assertions.assertEquals(2, populated.get());
+        Assertions.assertTrue(thingifier.getERmodel().hasInstanceDatabaseNamed(session));
+        Assertions.assertTrue(lock.writeLock().tryLock(), "no lock should be left held");
+        lock.writeLock().unlock();
+    }
+}
@@ -0,0 +1,58 @@
+package uk.co.compendiumdev.thingifier.application.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.api.http.HttpApiRequest;
+import uk.co.compendiumdev.thingifier.api.http.ThingifierHttpApi;
+import uk.co.compendiumdev.thingifier.application.httpapimessagehooks.HttpApiResponseHook;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+
+import java.util.List;
+
+public class HttpApiPhaseTimingTest {
+
+    private static final long HOOK_MILLIS = 50;
+
+    @AfterEach
+    void stopTiming(){
+        RequestTimer.current().reset();
+    }
+
+    @Test
+    void apiHooksQueryAndRenderingAreTimedAsTheirOwnPhases(){
+
+        Thingifier thingifier = new Thingifier();
+        thingifier.apiConfig().setApiToEnforceAcceptHeaderForResponses(false);
+        EntityDefinition thing = thingifier.defineThing("thing", "things");
+        thing.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thing.addFields(Field.is("title", FieldType.STRING));
+
+        final HttpApiResponseHook slowHook = (request, response, config) -> {
+            try {
+                Thread.sleep(HOOK_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        };
+        ThingifierHttpApi httpApi = new ThingifierHttpApi(thingifier, null, List.of(slowHook));
+
+        // classes are loaded on the first request, which would skew the timings
+        httpApi.get(new HttpApiRequest("things"));
+
+        final RequestTimer timer = RequestTimer.current();
+        timer.start();
+        httpApi.get(new HttpApiRequest("things"));
+
+        Assertions.assertTrue(timer.wasPhaseTimed(RequestTimer.Phase.PARSE));
+        Assertions.assertTrue(timer.wasPhaseTimed(RequestTimer.Phase.QUERY));
+        Assertions.assertTrue(timer.wasPhaseTimed(RequestTimer.Phase.SERIALIZE));
+        Assertions.assertTrue(timer.phaseMicros(RequestTimer.Phase.HOOKS) >= HOOK_MILLIS * 1000);
+        Assertions.assertTrue(timer.phaseMicros(RequestTimer.Phase.QUERY) < HOOK_MILLIS * 1000,
+                "the response hook is not part of the query");
+    }
+}
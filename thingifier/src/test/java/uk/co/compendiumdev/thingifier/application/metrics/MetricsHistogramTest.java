@@ -0,0 +1,71 @@
+package uk.co.compendiumdev.thingifier.application.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MetricsHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValueWithoutGaps(){
+
+        for(long value=0; value<100000; value++){
+            final int index = MetricsHistogram.indexFor(value);
+            Assertions.assertTrue(MetricsHistogram.lowestValueAt(index) <= value);
+            Assertions.assertTrue(MetricsHistogram.highestValueAt(index) >= value);
+        }
+    }
+
+    @Test
+    public void valuesAreReportedWithinPrecision(){
+
+        MetricsHistogram histogram = new MetricsHistogram();
+        for(long value=1; value<=1000; value++){
+            histogram.record(value);
+        }
+
+        Assertions.assertEquals(1000, histogram.getCount());
+        Assertions.assertEquals(500500, histogram.getSum());
+        Assertions.assertEquals(1000, histogram.getMax());
+
+        final long median = histogram.getValueAtPercentile(50);
+        Assertions.assertTrue(median >= 500 && median <= 500*1.07, "median was " + median);
+
+        final long p99 = histogram.getValueAtPercentile(99);
+        Assertions.assertTrue(p99 >= 990 && p99 <= 1000, "p99 was " + p99);
+
+        Assertions.assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void smallValuesAreExact(){
+
+        MetricsHistogram histogram = new MetricsHistogram();
+        histogram.record(3);
+        histogram.record(3);
+        histogram.record(7);
+
+        Assertions.assertEquals(3, histogram.getValueAtPercentile(50));
+        Assertions.assertEquals(7, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void outOfRangeValuesAreClamped(){
+
+        MetricsHistogram histogram = new MetricsHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        Assertions.assertEquals(2, histogram.getCount());
+        Assertions.assertEquals(0, histogram.getValueAtPercentile(50));
+        Assertions.assertEquals(MetricsHistogram.MAX_TRACKABLE_VALUE, histogram.getMax());
+    }
+
+    @Test
+    public void emptyHistogramReportsZero(){
+
+        MetricsHistogram histogram = new MetricsHistogram();
+
+        Assertions.assertEquals(0, histogram.getValueAtPercentile(99));
+        Assertions.assertEquals(0, histogram.getMean());
+    }
+}
@@ -0,0 +1,82 @@
+package uk.co.compendiumdev.thingifier.application.metrics;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MetricsRegistryTest {
+
+    private void timeRequest(final MetricsRegistry metrics, final String template,
+                             final String verb, final int status){
+        final RequestTimer timer = RequestTimer.current();
+        timer.start();
+        timer.routed(template);
+        long mark = timer.mark();
+        mark = timer.phase(RequestTimer.Phase.PARSE, mark - 2000);
+        timer.phase(RequestTimer.Phase.QUERY, mark - 5000);
+        timer.payloads("{\"title\":\"bob\"}", "{}");
+        metrics.recordRequest(verb, status);
+    }
+
+    @Test
+    public void recordsByRouteTemplateAndVerb(){
+
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        timeRequest(metrics, "/todos/:id", "GET", 200);
+        timeRequest(metrics, "/todos/:id", "GET", 404);
+        timeRequest(metrics, "/todos/:id", "DELETE", 200);
+
+        final RouteMetrics get = metrics.routeMetricsFor("/todos/:id", "GET");
+        Assertions.assertEquals(2, get.getRequestCount());
+        Assertions.assertEquals(1, get.getStatusClassCount(1));
+        Assertions.assertEquals(1, get.getStatusClassCount(3));
+        Assertions.assertEquals(2, get.getPhaseLatency(RequestTimer.Phase.PARSE).getCount());
+        Assertions.assertEquals(0, get.getPhaseLatency(RequestTimer.Phase.SERIALIZE).getCount());
+        Assertions.assertEquals(15, get.getRequestSizes().getMax());
+
+        Assertions.assertEquals(1, metrics.routeMetricsFor("/todos/:id", "DELETE").getRequestCount());
+        Assertions.assertSame(get, metrics.routeMetricsFor("/todos/:id", "GET"));
+    }
+
+    @Test
+    public void unroutedRequestsAreGroupedAsOther(){
+
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        RequestTimer.current().start();
+        metrics.recordRequest("PATCH", 405);
+
+        Assertions.assertEquals(1,
+                metrics.routeMetricsFor(MetricsRegistry.OTHER_ROUTE, "PATCH").getRequestCount());
+        Assertions.assertFalse(RequestTimer.current().isActive());
+    }
+
+    @Test
+    public void inactiveTimerIsNotRecorded(){
+
+        MetricsRegistry metrics = new MetricsRegistry();
+
+        metrics.recordRequest("GET", 200);
+
+        Assertions.assertTrue(metrics.getRouteMetrics().isEmpty());
+    }
+
+    @Test
+    public void canOutputAsPrometheusTextAndJson(){
+
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.registerGauge("thingifier_active_sessions", "sessions", () -> 3);
+        timeRequest(metrics, "/todos", "POST", 201);
+
+        final String prometheus = metrics.asPrometheusText();
+        Assertions.assertTrue(prometheus.contains(
+                "thingifier_requests_total{route=\"/todos\",verb=\"POST\",status=\"2xx\"} 1"), prometheus);
+        Assertions.assertTrue(prometheus.contains(
+                "thingifier_request_latency_microseconds_count{route=\"/todos\",verb=\"POST\",phase=\"query\"} 1"), prometheus);
+        Assertions.assertTrue(prometheus.contains("# TYPE thingifier_active_sessions gauge\nthingifier_active_sessions 3\n"), prometheus);
+
+        final String json = metrics.asJson();
+        Assertions.assertTrue(json.startsWith("{\"routes\":[{\"route\":\"/todos\",\"verb\":\"POST\",\"requests\":1,"), json);
+        Assertions.assertTrue(json.endsWith("\"gauges\":{\"thingifier_active_sessions\":3}}"), json);
+    }
+}
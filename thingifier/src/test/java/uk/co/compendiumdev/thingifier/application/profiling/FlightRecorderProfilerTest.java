@@ -0,0 +1,104 @@
+package uk.co.compendiumdev.thingifier.application.profiling;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.profiling.ProfilingContext;
+import uk.co.compendiumdev.thingifier.core.profiling.QueryEvent;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+public class FlightRecorderProfilerTest {
+
+    private final FlightRecorderProfiler profiler = new FlightRecorderProfiler();
+
+    @AfterEach
+    void discardAnyRecording(){
+        profiler.discard();
+        ProfilingContext.current().clear();
+    }
+
+    @Test
+    void recordsThingifierEventsTaggedFromTheContext() throws Exception {
+
+        profiler.start("default", Duration.ZERO);
+        Assertions.assertTrue(profiler.isRecording());
+
+        ProfilingContext.current().request("GET", "/todos/1");
+
+        final QueryEvent event = new QueryEvent();
+        event.begin();
+        event.end();
+        Assertions.assertTrue(event.shouldCommit());
+        event.query = "todos/1";
+        event.resultCount = 1;
+        event.tag(null);
+        event.commit();
+
+        final Path recording = profiler.stop();
+        Assertions.assertFalse(profiler.isRecording());
+        Assertions.assertTrue(Files.size(recording) > 0);
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recording);
+        final RecordedEvent query = events.stream().
+                filter(recorded -> recorded.getEventType().getName().equals("uk.co.compendiumdev.thingifier.Query")).
+                findFirst().orElseThrow();
+
+        Assertions.assertEquals("todos/1", query.getString("query"));
+        Assertions.assertEquals("todos", query.getString("entityType"));
+        Assertions.assertEquals("GET", query.getString("verb"));
+        Assertions.assertEquals(-1, query.getInt("databaseSize"));
+    }
+
+    @Test
+    void onlyTheLastRecordingFileIsKept(){
+
+        profiler.start("default", Duration.ZERO);
+        final Path first = profiler.stop();
+        profiler.start("default", Duration.ZERO);
+        final Path second = profiler.stop();
+
+        Assertions.assertFalse(Files.exists(first));
+        Assertions.assertTrue(Files.exists(second));
+
+        profiler.discard();
+        Assertions.assertFalse(Files.exists(second));
+        Assertions.assertNull(profiler.getLastRecordingFile());
+    }
+
+    @Test
+    void eventsAreNotCommittedWhenNotRecording(){
+
+        final QueryEvent event = new QueryEvent();
+        event.begin();
+        event.end();
+        Assertions.assertFalse(event.shouldCommit());
+    }
+
+    @Test
+    void onlyOneRecordingAtATime(){
+
+        profiler.start("default", Duration.ZERO);
+
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> profiler.start("profile", Duration.ZERO));
+    }
+
+    @Test
+    void canNotStopWithoutARecording(){
+        Assertions.assertThrows(IllegalStateException.class, profiler::stop);
+        Assertions.assertNull(profiler.getLastRecordingFile());
+    }
+
+    @Test
+    void unknownSettingsAreRejected(){
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> profiler.start("everything", Duration.ZERO));
+        Assertions.assertFalse(profiler.isRecording());
+    }
+}
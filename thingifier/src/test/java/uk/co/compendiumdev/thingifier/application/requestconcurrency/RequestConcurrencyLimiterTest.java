@@ -0,0 +1,69 @@
+package uk.co.compendiumdev.thingifier.application.requestconcurrency;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RequestConcurrencyLimiterTest {
+
+    @Test
+    public void unlimitedStillTracksRequestsInFlight(){
+        RequestConcurrencyLimiter limiter = new RequestConcurrencyLimiter(0);
+
+        Assertions.assertFalse(limiter.isLimited());
+        Assertions.assertTrue(limiter.enter());
+        Assertions.assertTrue(limiter.enter());
+        Assertions.assertEquals(2, limiter.getInFlight());
+
+        limiter.exit();
+        limiter.exit();
+
+        Assertions.assertEquals(0, limiter.getInFlight());
+        Assertions.assertEquals(2, limiter.getPeakInFlight());
+        Assertions.assertEquals(2, limiter.getTotalRequests());
+    }
+
+    @Test
+    public void requestsOverTheLimitAreRejectedAfterWaiting(){
+        RequestConcurrencyLimiter limiter = new RequestConcurrencyLimiter(2, 10);
+
+        Assertions.assertTrue(limiter.enter());
+        Assertions.assertTrue(limiter.enter());
+        Assertions.assertFalse(limiter.enter());
+
+        Assertions.assertEquals(2, limiter.getInFlight());
+        Assertions.assertEquals(1, limiter.getRejectedRequests());
+
+        // a slot is available when a request exits
+        limiter.exit();
+        Assertions.assertTrue(limiter.enter());
+        Assertions.assertEquals(3, limiter.getTotalRequests());
+    }
+
+    @Test
+    public void waitingRequestIsProcessedWhenASlotIsFreed() throws InterruptedException {
+        RequestConcurrencyLimiter limiter = new RequestConcurrencyLimiter(1, 5000);
+        Assertions.assertTrue(limiter.enter());
+
+        final boolean[] entered = {false};
+        Thread waiting = new Thread(() -> entered[0] = limiter.enter());
+        waiting.start();
+
+        Thread.sleep(50);
+        limiter.exit();
+        waiting.join();
+
+        Assertions.assertTrue(entered[0]);
+        Assertions.assertEquals(1, limiter.getInFlight());
+        Assertions.assertEquals(0, limiter.getRejectedRequests());
+    }
+
+    @Test
+    public void metricsAsJson(){
+        RequestConcurrencyLimiter limiter = new RequestConcurrencyLimiter(5);
+        limiter.enter();
+
+        Assertions.assertEquals(
+                "{\"maxConcurrentRequests\":5,\"inFlight\":1,\"peakInFlight\":1,\"waiting\":0,\"totalRequests\":1,\"rejectedRequests\":0}",
+                limiter.asJson());
+    }
+}
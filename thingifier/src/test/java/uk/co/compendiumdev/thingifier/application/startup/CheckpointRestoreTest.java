@@ -0,0 +1,39 @@
+package uk.co.compendiumdev.thingifier.application.startup;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class CheckpointRestoreTest {
+
+    @Test
+    void resourcesCloseInReverseOrderAndReopenInOrder(){
+
+        final List<String> calls = new ArrayList<>();
+        final StartupTimer timer = new StartupTimer();
+        final CheckpointRestore checkpointRestore = new CheckpointRestore(timer).
+                register("storage", () -> calls.add("close storage"), () -> calls.add("open storage")).
+                register("web server", () -> calls.add("close web server"), () -> calls.add("open web server"));
+
+        checkpointRestore.beforeCheckpoint();
+        checkpointRestore.afterRestore();
+
+        Assertions.assertEquals(List.of("close web server", "close storage", "open storage", "open web server"), calls);
+        Assertions.assertEquals(1, checkpointRestore.countRestores());
+        Assertions.assertEquals("restore: reopen web server", timer.getPhases().get(3).getName());
+    }
+
+    @Test
+    void cannotCheckpointWithoutCracSupport(){
+
+        // the test jvm is not started with -XX:CRaCCheckpointTo
+        Assertions.assertFalse(CheckpointRestore.isSupportedByJvm());
+
+        final CheckpointRestore checkpointRestore = new CheckpointRestore(new StartupTimer());
+        if(!checkpointRestore.enable()){
+            Assertions.assertThrows(IllegalStateException.class, checkpointRestore::checkpoint);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package uk.co.compendiumdev.thingifier.application.startup;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.Thingifier;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.Cardinality;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.EntityDefinition;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+
+import java.util.Set;
+
+class ThingifierApiWarmUpTest {
+
+    private Thingifier thingifier;
+
+    @BeforeEach
+    void createThingifier(){
+        thingifier = new Thingifier();
+        final EntityDefinition thing = thingifier.defineThing("thing", "things");
+        thing.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thing.addField(Field.is("title", FieldType.STRING));
+        final EntityDefinition part = thingifier.defineThing("part", "parts");
+        part.addAsPrimaryKeyField(Field.is("id", FieldType.AUTO_INCREMENT));
+        thingifier.defineRelationship(thing, part, "parts", Cardinality.ONE_TO_MANY());
+
+        thingifier.getThingInstancesNamed("thing", EntityRelModel.DEFAULT_DATABASE_NAME).
+                createManagedInstance().setValue("title", "users thing");
+    }
+
+    @Test
+    void exercisesTheRoutesWithoutChangingTheData(){
+
+        final Set<String> databasesBefore = Set.copyOf(thingifier.getERmodel().getDatabaseNames());
+
+        final ThingifierApiWarmUp warmUp = new ThingifierApiWarmUp(thingifier, "");
+        final int sent = warmUp.exerciseRoutes();
+
+        Assertions.assertTrue(sent > 0);
+        Assertions.assertEquals(sent, warmUp.getRequestsSent());
+        Assertions.assertEquals(0, warmUp.getRequestsFailed());
+
+        // the warm up database has been removed and the users data is unchanged
+        Assertions.assertEquals(databasesBefore, Set.copyOf(thingifier.getERmodel().getDatabaseNames()));
+        Assertions.assertEquals(1, thingifier.getThingInstancesNamed("thing",
+                EntityRelModel.DEFAULT_DATABASE_NAME).countInstances());
+        Assertions.assertEquals("users thing", thingifier.getThingInstancesNamed("thing",
+                EntityRelModel.DEFAULT_DATABASE_NAME).getInstances().iterator().next().
+                getFieldValue("title").asString());
+    }
+
+    @Test
+    void failingTasksAreReportedAndTimed(){
+
+        final StartupTimer timer = new StartupTimer();
+        final StartupWarmUp warmUp = new StartupWarmUp().
+                addTask("fails", () -> {throw new IllegalStateException("bad task");}).
+                addTask("works", () -> {});
+
+        warmUp.run(timer);
+        timer.ready();
+
+        Assertions.assertEquals(1, warmUp.getFailures().size());
+        Assertions.assertTrue(warmUp.getFailures().get(0).contains("bad task"));
+        Assertions.assertEquals(2, timer.getPhases().size());
+        Assertions.assertEquals("warm up: works", timer.getPhases().get(1).getName());
+        Assertions.assertTrue(timer.isReady());
+        Assertions.assertTrue(String.join("\n", timer.report()).contains("jvm start to ready"));
+    }
+}
@@ -0,0 +1,116 @@
+package uk.co.compendiumdev.thingifier.htmlgui.htmlgen;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import uk.co.compendiumdev.thingifier.core.EntityRelModel;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.Field;
+import uk.co.compendiumdev.thingifier.core.domain.definitions.field.definition.FieldType;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstance;
+import uk.co.compendiumdev.thingifier.core.domain.instances.EntityInstanceCollection;
+import uk.co.compendiumdev.thingifier.core.query.QueryFilterParams;
+import uk.co.compendiumdev.thingifier.core.query.fromurl.UrlParamParser;
+
+import java.util.List;
+
+public class InstanceListPagingTest {
+
+    EntityInstanceCollection things;
+
+    @BeforeEach
+    public void createThings(){
+
+        EntityRelModel erModel = new EntityRelModel();
+        erModel.createEntityDefinition("thing", "things")
+                .addFields(Field.is("id", FieldType.AUTO_INCREMENT),
+                        Field.is("truefalse", FieldType.BOOLEAN));
+
+        things = erModel.getInstanceData().getInstanceCollectionForEntityNamed("thing");
+
+        for(int count=1; count<=120; count++){
+            final EntityInstance thing = things.createManagedInstance();
+            thing.setValue("truefalse", String.valueOf(count%2==0));
+        }
+    }
+
+    @Test
+    public void defaultsToFirstPageOfDefaultSize(){
+
+        InstanceListPaging paging = new InstanceListPaging(new QueryFilterParams());
+        final List<EntityInstance> page = paging.pageOf(things.getInstances());
+
+        Assertions.assertEquals(InstanceListPaging.DEFAULT_PAGE_SIZE, page.size());
+        Assertions.assertEquals(120, paging.getTotalCount());
+        Assertions.assertEquals(1, paging.getPage());
+        Assertions.assertEquals(3, paging.getPageCount());
+        Assertions.assertEquals(1, paging.getFirstShown());
+        Assertions.assertEquals(50, paging.getLastShown());
+    }
+
+    @Test
+    public void canSortAndPage(){
+
+        InstanceListPaging paging = new InstanceListPaging(
+                new UrlParamParser().parse("sortBy=-id&page=2&pageSize=25"));
+        final List<EntityInstance> page = paging.pageOf(things.getInstances());
+
+        Assertions.assertEquals(25, page.size());
+        Assertions.assertEquals("95", page.get(0).getFieldValue("id").asString());
+        Assertions.assertEquals("71", page.get(24).getFieldValue("id").asString());
+        Assertions.assertEquals(5, paging.getPageCount());
+        Assertions.assertEquals("-id", paging.getSortBy());
+    }
+
+    @Test
+    public void filtersAreAppliedBeforePaging(){
+
+        InstanceListPaging paging = new InstanceListPaging(
+                new UrlParamParser().parse("truefalse=true&sortBy=id&pageSize=10&page=6"));
+        final List<EntityInstance> page = paging.pageOf(things.getInstances());
+
+        Assertions.assertEquals(60, paging.getTotalCount());
+        Assertions.assertEquals(10, page.size());
+        Assertions.assertEquals("102", page.get(0).getFieldValue("id").asString());
+        Assertions.assertEquals("120", page.get(9).getFieldValue("id").asString());
+    }
+
+    @Test
+    public void pageIsClampedToTheLastPage(){
+
+        InstanceListPaging paging = new InstanceListPaging(
+                new UrlParamParser().parse("page=100&pageSize=100000"));
+        final List<EntityInstance> page = paging.pageOf(things.getInstances());
+
+        Assertions.assertEquals(120, page.size());
+        Assertions.assertEquals(1, paging.getPage());
+        Assertions.assertEquals(1, paging.getPageCount());
+    }
+
+    @Test
+    public void invalidPagingValuesAreIgnored(){
+
+        InstanceListPaging paging = new InstanceListPaging(
+                new UrlParamParser().parse("page=bob&pageSize=-1"));
+        paging.pageOf(things.getInstances());
+
+        Assertions.assertEquals(1, paging.getPage());
+        Assertions.assertEquals(InstanceListPaging.DEFAULT_PAGE_SIZE, paging.getPageSize());
+    }
+
+    @Test
+    public void urlParamsRetainFiltersAndCanChangeSort(){
+
+        InstanceListPaging paging = new InstanceListPaging(
+                new UrlParamParser().parse("id>=4&sortBy=-id&pageSize=10"));
+
+        Assertions.assertEquals("&id%3E%3D4&sortBy=-id&pageSize=10&page=2",
+                paging.asUrlParams(2, null));
+        Assertions.assertEquals("&id%3E%3D4&sortBy=%2Bid&pageSize=10&page=1",
+                paging.asUrlParams(1, "+id"));
+
+        // and the generated params can be parsed back
+        InstanceListPaging parsed = new InstanceListPaging(
+                new UrlParamParser().parse(paging.asUrlParams(1, "+id").substring(1)));
+        Assertions.assertEquals("+id", parsed.getSortBy());
+    }
+}
@@ -134,6 +134,7 @@ public class Main {
 
         app.addBuiltInArgConfiguredHooks();
 
+        app.warmUpAndReportReady();
 
     }
 